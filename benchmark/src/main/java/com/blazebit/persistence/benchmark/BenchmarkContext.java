@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.Persistence;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.blazebit.persistence.Criteria;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.benchmark.model.Cat;
+import com.blazebit.persistence.benchmark.model.Person;
+import com.blazebit.persistence.benchmark.view.CatCorrelatedView;
+import com.blazebit.persistence.benchmark.view.CatSimpleView;
+import com.blazebit.persistence.benchmark.view.CatView;
+import com.blazebit.persistence.benchmark.view.PersonView;
+import com.blazebit.persistence.benchmark.view.UpdatableCatView;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+
+/**
+ * Bootstraps the persistence unit against an in-memory H2 database and populates it once per trial.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+
+    /**
+     * The number of cats to persist. Every owner has ten cats and every cat has up to two kittens.
+     */
+    @Param({ "100" })
+    public int catCount;
+
+    private EntityManagerFactory emf;
+    private CriteriaBuilderFactory cbf;
+    private EntityViewManager evm;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = Persistence.createEntityManagerFactory("benchmark");
+        cbf = Criteria.getDefault().createCriteriaBuilderFactory(emf);
+
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(PersonView.class);
+        cfg.addEntityView(CatSimpleView.class);
+        cfg.addEntityView(CatView.class);
+        cfg.addEntityView(CatCorrelatedView.class);
+        cfg.addEntityView(UpdatableCatView.class);
+        evm = cfg.createEntityViewManager(cbf);
+
+        populate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    private void populate() {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        boolean success = false;
+
+        try {
+            tx.begin();
+            List<Cat> cats = new ArrayList<>(catCount);
+            Person owner = null;
+            for (int i = 0; i < catCount; i++) {
+                if (i % 10 == 0) {
+                    owner = new Person("Person " + i, 20 + i % 50);
+                    em.persist(owner);
+                }
+
+                Cat cat = new Cat("Cat " + i, i % 20, owner);
+                if (i > 1) {
+                    Cat mother = cats.get(i / 2);
+                    cat.setMother(mother);
+                    mother.getKittens().add(cat);
+                }
+                em.persist(cat);
+                cats.add(cat);
+            }
+            success = true;
+        } finally {
+            try {
+                if (success) {
+                    tx.commit();
+                } else {
+                    tx.rollback();
+                }
+            } finally {
+                em.close();
+            }
+        }
+    }
+
+    public EntityManagerFactory getEntityManagerFactory() {
+        return emf;
+    }
+
+    public CriteriaBuilderFactory getCriteriaBuilderFactory() {
+        return cbf;
+    }
+
+    public EntityViewManager getEntityViewManager() {
+        return evm;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.Tuple;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.benchmark.model.Cat;
+import com.blazebit.persistence.benchmark.model.CatCte;
+
+/**
+ * Measures the construction of query builders and the rendering of the JPQL query string.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CriteriaBuilderBenchmark {
+
+    @Benchmark
+    public String simpleSelect(BenchmarkContext context, EntityManagerHolder holder) {
+        return context.getCriteriaBuilderFactory().create(holder.getEntityManager(), Cat.class, "c")
+                .where("c.age").gt(5)
+                .orderByAsc("c.name")
+                .orderByAsc("c.id")
+                .getQueryString();
+    }
+
+    @Benchmark
+    public String joinsAndSubquery(BenchmarkContext context, EntityManagerHolder holder) {
+        return context.getCriteriaBuilderFactory().create(holder.getEntityManager(), Tuple.class)
+                .from(Cat.class, "c")
+                .leftJoin("c.kittens", "k")
+                .select("c.name")
+                .select("c.owner.name")
+                .select("COUNT(k.id)")
+                .where("c.owner.age").betweenExpression("18").andExpression("c.age + 30")
+                .where("c.id").in()
+                    .from(Cat.class, "sub")
+                    .select("sub.mother.id")
+                    .where("sub.age").lt(3)
+                .end()
+                .groupBy("c.id", "c.name", "c.owner.name")
+                .orderByAsc("c.id")
+                .getQueryString();
+    }
+
+    @Benchmark
+    public String cte(BenchmarkContext context, EntityManagerHolder holder) {
+        return createCteQuery(context, holder).getQueryString();
+    }
+
+    @Benchmark
+    public Object cteSqlRewrite(BenchmarkContext context, EntityManagerHolder holder) {
+        // The CTE query is rendered to SQL when building the query object
+        return createCteQuery(context, holder).getQuery();
+    }
+
+    private CriteriaBuilder<CatCte> createCteQuery(BenchmarkContext context, EntityManagerHolder holder) {
+        CriteriaBuilder<CatCte> cb = context.getCriteriaBuilderFactory().create(holder.getEntityManager(), CatCte.class, "cte")
+                .where("cte.level").lt(2);
+        cb.withRecursive(CatCte.class)
+                .from(Cat.class, "c")
+                .bind("id").select("c.id")
+                .bind("name").select("c.name")
+                .bind("level").select("0")
+                .where("c.mother").isNull()
+            .unionAll()
+                .from(Cat.class, "c")
+                .from(CatCte.class, "parent")
+                .bind("id").select("c.id")
+                .bind("name").select("c.name")
+                .bind("level").select("parent.level + 1")
+                .where("c.mother.id").eqExpression("parent.id")
+            .end();
+        return cb;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import javax.persistence.EntityManager;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Holds an entity manager per benchmark thread.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+@State(Scope.Thread)
+public class EntityManagerHolder {
+
+    private EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        em = context.getEntityManagerFactory().createEntityManager();
+    }
+
+    @Setup(Level.Iteration)
+    public void clear() {
+        // Avoid measuring a growing persistence context
+        em.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        // The entity manager factory might already be closed when running without forks
+        if (em.isOpen()) {
+            em.close();
+        }
+    }
+
+    public EntityManager getEntityManager() {
+        return em;
+    }
+}
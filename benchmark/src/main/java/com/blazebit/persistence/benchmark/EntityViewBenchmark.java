@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.benchmark.model.Cat;
+import com.blazebit.persistence.benchmark.view.CatCorrelatedView;
+import com.blazebit.persistence.benchmark.view.CatView;
+import com.blazebit.persistence.view.EntityViewSetting;
+
+/**
+ * Measures the materialization of entity views from tuples, including the query execution against the in-memory database.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityViewBenchmark {
+
+    @Benchmark
+    public List<CatView> materializeViews(BenchmarkContext context, EntityManagerHolder holder) {
+        CriteriaBuilder<Cat> cb = context.getCriteriaBuilderFactory().create(holder.getEntityManager(), Cat.class)
+                .orderByAsc("id");
+        return context.getEntityViewManager().applySetting(EntityViewSetting.create(CatView.class), cb)
+                .getResultList();
+    }
+
+    @Benchmark
+    public List<CatCorrelatedView> correlatedBatchFetch(BenchmarkContext context, EntityManagerHolder holder) {
+        CriteriaBuilder<Cat> cb = context.getCriteriaBuilderFactory().create(holder.getEntityManager(), Cat.class)
+                .orderByAsc("id");
+        return context.getEntityViewManager().applySetting(EntityViewSetting.create(CatCorrelatedView.class), cb)
+                .getResultList();
+    }
+}
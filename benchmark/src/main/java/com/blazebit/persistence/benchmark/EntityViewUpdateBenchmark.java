@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.benchmark.model.Cat;
+import com.blazebit.persistence.benchmark.view.UpdatableCatView;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+
+/**
+ * Measures the dirty checking and flushing of updatable entity views.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityViewUpdateBenchmark {
+
+    private BenchmarkContext context;
+    private EntityManager em;
+    private List<UpdatableCatView> views;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        this.context = context;
+        this.em = context.getEntityManagerFactory().createEntityManager();
+    }
+
+    @Setup(Level.Iteration)
+    public void loadViews() {
+        em.clear();
+        CriteriaBuilder<Cat> cb = context.getCriteriaBuilderFactory().create(em, Cat.class)
+                .orderByAsc("id")
+                .setMaxResults(10);
+        views = context.getEntityViewManager().applySetting(EntityViewSetting.create(UpdatableCatView.class), cb)
+                .getResultList();
+    }
+
+    @Benchmark
+    public void flushDirty() {
+        counter++;
+        for (UpdatableCatView view : views) {
+            view.setAge(counter % 20);
+        }
+        flush();
+    }
+
+    @Benchmark
+    public void flushClean() {
+        flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (em.isOpen()) {
+            em.close();
+        }
+    }
+
+    private void flush() {
+        EntityViewManager evm = context.getEntityViewManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        try {
+            for (UpdatableCatView view : views) {
+                evm.update(em, view);
+            }
+            em.flush();
+            tx.commit();
+        } finally {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+        }
+    }
+}
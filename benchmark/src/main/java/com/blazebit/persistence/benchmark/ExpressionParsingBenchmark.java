@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.parser.expression.ExpressionFactoryImpl;
+import com.blazebit.persistence.parser.expression.SimpleCachingExpressionFactory;
+
+/**
+ * Measures expression parsing with a cold and a warm expression cache.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionParsingBenchmark {
+
+    private static final String[] EXPRESSIONS = {
+        "c.name",
+        "c.owner.name",
+        "COALESCE(c.age, 0) + 1",
+        "CASE WHEN c.age > 10 THEN 'old' WHEN c.age > 2 THEN 'adult' ELSE 'young' END"
+    };
+    private static final String[] PREDICATES = {
+        "UPPER(c.name) LIKE :pattern AND c.owner.age BETWEEN 18 AND 60",
+        "SIZE(c.kittens) > 2 OR c.mother IS NULL"
+    };
+
+    private ExpressionFactory parser;
+    private ExpressionFactory warmCache;
+
+    @Setup
+    public void setUp() {
+        parser = new ExpressionFactoryImpl(new HashSet<String>(), true, true);
+        warmCache = new SimpleCachingExpressionFactory(parser);
+        for (String expression : EXPRESSIONS) {
+            warmCache.createSimpleExpression(expression, false);
+        }
+        for (String predicate : PREDICATES) {
+            warmCache.createBooleanExpression(predicate, false);
+        }
+    }
+
+    @Benchmark
+    public void coldCache(Blackhole blackhole) {
+        // A fresh cache per invocation means every expression is parsed
+        ExpressionFactory coldCache = new SimpleCachingExpressionFactory(parser);
+        for (String expression : EXPRESSIONS) {
+            blackhole.consume(coldCache.createSimpleExpression(expression, false));
+        }
+        for (String predicate : PREDICATES) {
+            blackhole.consume(coldCache.createBooleanExpression(predicate, false));
+        }
+    }
+
+    @Benchmark
+    public void warmCache(Blackhole blackhole) {
+        for (String expression : EXPRESSIONS) {
+            blackhole.consume(warmCache.createSimpleExpression(expression, false));
+        }
+        for (String predicate : PREDICATES) {
+            blackhole.consume(warmCache.createBooleanExpression(predicate, false));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark.model;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.JoinTable;
+import javax.persistence.ManyToMany;
+import javax.persistence.ManyToOne;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+@Entity
+public class Cat {
+
+    private Long id;
+    private String name;
+    private Integer age;
+    private Person owner;
+    private Cat mother;
+    private Set<Cat> kittens = new HashSet<>();
+
+    public Cat() {
+    }
+
+    public Cat(String name, Integer age, Person owner) {
+        this.name = name;
+        this.age = age;
+        this.owner = owner;
+    }
+
+    @Id
+    @GeneratedValue
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getAge() {
+        return age;
+    }
+
+    public void setAge(Integer age) {
+        this.age = age;
+    }
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    public Person getOwner() {
+        return owner;
+    }
+
+    public void setOwner(Person owner) {
+        this.owner = owner;
+    }
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    public Cat getMother() {
+        return mother;
+    }
+
+    public void setMother(Cat mother) {
+        this.mother = mother;
+    }
+
+    @ManyToMany
+    @JoinTable(name = "cat_kittens")
+    public Set<Cat> getKittens() {
+        return kittens;
+    }
+
+    public void setKittens(Set<Cat> kittens) {
+        this.kittens = kittens;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark.view;
+
+import java.util.Set;
+
+import com.blazebit.persistence.benchmark.model.Cat;
+import com.blazebit.persistence.view.BatchFetch;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.FetchStrategy;
+import com.blazebit.persistence.view.MappingCorrelatedSimple;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+@EntityView(Cat.class)
+public interface CatCorrelatedView extends CatSimpleView {
+
+    @BatchFetch(size = 16)
+    @MappingCorrelatedSimple(correlationBasis = "owner", correlated = Cat.class, correlationExpression = "owner IN correlationKey", fetch = FetchStrategy.SELECT)
+    public Set<CatSimpleView> getOwnerCats();
+}
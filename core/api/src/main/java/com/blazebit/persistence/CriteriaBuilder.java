@@ -16,6 +16,8 @@
 
 package com.blazebit.persistence;
 
+import javax.persistence.EntityManager;
+
 /**
  * A builder for criteria queries. This is the entry point for building queries.
  *
@@ -28,9 +30,28 @@ public interface CriteriaBuilder<T> extends FullQueryBuilder<T, CriteriaBuilder<
     @Override
     public <Y> CriteriaBuilder<Y> copy(Class<Y> resultClass);
 
+    @Override
+    public <Y> CriteriaBuilder<Y> copy(EntityManager entityManager, Class<Y> resultClass);
+
     @Override
     public <Y> SelectObjectBuilder<CriteriaBuilder<Y>> selectNew(Class<Y> clazz);
 
     @Override
     public <Y> CriteriaBuilder<Y> selectNew(ObjectBuilder<Y> builder);
+
+    /**
+     * Executes the query and returns an iterator that fetches the results lazily from a cursor instead of loading them all into memory.
+     * The iterator must be closed if it isn't exhausted, otherwise the cursor is kept open.
+     * If the JPA provider integration doesn't support cursors, the results are loaded into memory.
+     *
+     * For object builders that build one object from multiple tuples, like entity views with collections, the results are built per group of tuples.
+     * The query must then be ordered by the id of the object, see {@link IncrementalObjectBuilder}.
+     * Object builders that can't build objects group by group, like entity views with correlated attributes,
+     * fall back to building all objects at once after all rows have been read, so the results are held in memory.
+     *
+     * @param fetchSize The number of rows to fetch per round trip or 0 to use the default of the JDBC driver
+     * @return An iterator over the query results
+     * @since 1.2.0
+     */
+    public CloseableIterator<T> getResultIterator(int fetchSize);
 }
@@ -75,6 +75,52 @@ public interface CriteriaBuilderFactory extends ServiceProvider, ConfigurationSo
      */
     public <T> CriteriaBuilder<T> create(EntityManager entityManager, Class<T> resultClass, String alias);
 
+    /**
+     * Compiles the given criteria builder into an immutable and thread-safe query template.
+     * The template can be used to create queries for arbitrary entity managers without building the query again.
+     *
+     * Templates are only supported for queries that don't use CTEs, entity functions or other features that require SQL rewriting.
+     * Since object builders may hold state or an entity manager, only queries that use <code>selectNew</code> with a class or constructor
+     * are supported, but not queries with a custom {@link ObjectBuilder} or an entity view setting applied.
+     * Changes done to the criteria builder after creating the template are not reflected in the template.
+     *
+     * @param criteriaBuilder The criteria builder to compile
+     * @param <T> The query result type
+     * @return A new query template
+     * @throws IllegalArgumentException If the criteria builder uses features that are not supported by templates
+     * @since 1.2.0
+     */
+    public <T> QueryTemplate<T> createTemplate(CriteriaBuilder<T> criteriaBuilder);
+
+    /**
+     * Compiles the given paginated criteria builder into an immutable and thread-safe query template.
+     * The template can be used to create paginated queries for arbitrary entity managers without building the queries again.
+     *
+     * In addition to the restrictions of {@link #createTemplate(CriteriaBuilder)}, keyset pagination, keyset extraction and
+     * pagination based on an entity id are not supported by templates.
+     *
+     * @param criteriaBuilder The paginated criteria builder to compile
+     * @param <T> The query result type
+     * @return A new paginated query template
+     * @throws IllegalArgumentException If the criteria builder uses features that are not supported by templates
+     * @since 1.2.0
+     */
+    public <T> PaginatedQueryTemplate<T> createTemplate(PaginatedCriteriaBuilder<T> criteriaBuilder);
+
+    /**
+     * Warms up the caches for the queries of the given query builders without executing them.
+     * This renders the JPQL and SQL of the queries and prepares the query plans of the JPA provider,
+     * so that the first execution of an equivalent query doesn't have to pay for query compilation.
+     * Parameters don't need to be bound for warming up.
+     *
+     * Note that the SQL of queries with collection valued parameters depends on the collection sizes at execution time,
+     * so the prepared query plans of such queries are only reused for executions with equally sized collections.
+     *
+     * @param queryBuilders The query builders of which to warm up the queries
+     * @since 1.2.0
+     */
+    public void warmUp(Queryable<?, ?>... queryBuilders);
+
     /**
      * Like {@link CriteriaBuilderFactory#delete(javax.persistence.EntityManager, java.lang.Class, java.lang.String)} but with the alias
      * equivalent to the camel cased result of what {@link Class#getSimpleName()} of the delete class returns.
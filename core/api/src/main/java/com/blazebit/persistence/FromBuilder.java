@@ -432,4 +432,75 @@ public interface FromBuilder<X extends FromBuilder<X>> {
      */
     public JoinOnBuilder<X> rightJoinOn(String base, Class<?> entityClass, String alias);
 
+    /**
+     * Adds a lateral entity join to the query and giving the joined element an alias.
+     * The on clause, order by and limit of the lateral join are applied to the joined elements per row of the outer query.
+     *
+     * @param entityClass The entity class to join
+     * @param alias The alias for the joined element
+     * @param type The join type, either {@link JoinType#INNER} or {@link JoinType#LEFT}
+     * @return The lateral join builder for the on-clause
+     * @since 1.2.0
+     */
+    public LateralJoinBuilder<X> joinLateral(Class<?> entityClass, String alias, JoinType type);
+
+    /**
+     * Adds a lateral entity join to the query and giving the joined element an alias.
+     * The on clause, order by and limit of the lateral join are applied to the joined elements per row of the outer query.
+     *
+     * @param base The base node on which to join
+     * @param entityClass The entity class to join
+     * @param alias The alias for the joined element
+     * @param type The join type, either {@link JoinType#INNER} or {@link JoinType#LEFT}
+     * @return The lateral join builder for the on-clause
+     * @since 1.2.0
+     */
+    public LateralJoinBuilder<X> joinLateral(String base, Class<?> entityClass, String alias, JoinType type);
+
+    /**
+     * Like {@link FromBuilder#joinLateral(java.lang.Class, java.lang.String, com.blazebit.persistence.JoinType) } but with
+     * {@link JoinType#INNER}.
+     *
+     * @param entityClass The entity class to join
+     * @param alias The alias for the joined element
+     * @return The lateral join builder for the on-clause
+     * @since 1.2.0
+     */
+    public LateralJoinBuilder<X> innerJoinLateral(Class<?> entityClass, String alias);
+
+    /**
+     * Like {@link FromBuilder#joinLateral(java.lang.String, java.lang.Class, java.lang.String, com.blazebit.persistence.JoinType) } but with
+     * {@link JoinType#INNER}.
+     *
+     * @param base The base node on which to join
+     * @param entityClass The entity class to join
+     * @param alias The alias for the joined element
+     * @return The lateral join builder for the on-clause
+     * @since 1.2.0
+     */
+    public LateralJoinBuilder<X> innerJoinLateral(String base, Class<?> entityClass, String alias);
+
+    /**
+     * Like {@link FromBuilder#joinLateral(java.lang.Class, java.lang.String, com.blazebit.persistence.JoinType) } but with
+     * {@link JoinType#LEFT}.
+     *
+     * @param entityClass The entity class to join
+     * @param alias The alias for the joined element
+     * @return The lateral join builder for the on-clause
+     * @since 1.2.0
+     */
+    public LateralJoinBuilder<X> leftJoinLateral(Class<?> entityClass, String alias);
+
+    /**
+     * Like {@link FromBuilder#joinLateral(java.lang.String, java.lang.Class, java.lang.String, com.blazebit.persistence.JoinType) } but with
+     * {@link JoinType#LEFT}.
+     *
+     * @param base The base node on which to join
+     * @param entityClass The entity class to join
+     * @param alias The alias for the joined element
+     * @return The lateral join builder for the on-clause
+     * @since 1.2.0
+     */
+    public LateralJoinBuilder<X> leftJoinLateral(String base, Class<?> entityClass, String alias);
+
 }
@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence;
 
+import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import java.lang.reflect.Constructor;
 
@@ -40,6 +41,17 @@ public interface FullQueryBuilder<T, X extends FullQueryBuilder<T, X>> extends Q
      */
     public <Y> FullQueryBuilder<Y, ?> copy(Class<Y> resultClass);
 
+    /**
+     * Copies this query builder into a new one that is bound to the given entity manager, using it's projection as an overridable default.
+     *
+     * @param entityManager The entity manager to use for the new query builder
+     * @param resultClass The result class of the query
+     * @param <Y> The type of the result class
+     * @return A new query builder
+     * @since 1.2.0
+     */
+    public <Y> FullQueryBuilder<Y, ?> copy(EntityManager entityManager, Class<Y> resultClass);
+
     /**
      * Returns a query that counts the results that would be produced if the current query was run.
      *
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+/**
+ * An object builder that can build objects incrementally when iterating over a query result via {@link CriteriaBuilder#getResultIterator(int)}.
+ * Consecutive tuples with equal group keys are passed to {@link #buildList(java.util.List)} together, so objects that span multiple tuples
+ * e.g. because of collection joins are only built correctly if the query is ordered by the group key.
+ * A builder that can't build objects group by group may return the same key for all tuples, so that all objects are built at once.
+ * Object builders that don't implement this interface get {@link #buildList(java.util.List)} invoked for every tuple separately.
+ *
+ * @param <T> The type that this builder produces
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public interface IncrementalObjectBuilder<T> extends ObjectBuilder<T> {
+
+    /**
+     * Returns the key of the group the given tuple belongs to or <code>null</code> if the tuple forms a group on its own.
+     *
+     * @param tuple The result tuple
+     * @return The group key or <code>null</code>
+     */
+    public Object getGroupKey(Object[] tuple);
+}
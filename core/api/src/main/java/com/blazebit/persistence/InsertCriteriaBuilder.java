@@ -24,5 +24,29 @@ package com.blazebit.persistence;
  * @since 1.1.0
  */
 public interface InsertCriteriaBuilder<T> extends ModificationCriteriaBuilder<InsertCriteriaBuilder<T>>, BaseInsertCriteriaBuilder<T, InsertCriteriaBuilder<T>> {
-    
+
+    /**
+     * Turns the insert into an upsert, so that rows which conflict with existing rows on the given attributes don't cause a failure.
+     * The attributes must be bound and correspond to a unique key. By default, conflicting rows are skipped.
+     * To update the existing rows instead, use {@link #onConflictUpdate(String...)}.
+     *
+     * The upsert is rendered according to the {@link com.blazebit.persistence.spi.UpsertStyle} of the DBMS.
+     * Note that MySQL considers conflicts on any unique key and H2 requires all bound attributes to be updated on conflict.
+     * Upserts can't be limited and returning values is not possible when the upsert is rendered as <code>MERGE</code> statement.
+     *
+     * @param attributes The attributes of the unique key on which rows conflict
+     * @return The query builder for chaining calls
+     * @since 1.2.0
+     */
+    public InsertCriteriaBuilder<T> onConflict(String... attributes);
+
+    /**
+     * Updates the given attributes of existing rows that conflict with an inserted row to the values bound for the inserted row.
+     * The attributes must be bound and must not be part of the conflict attributes defined via {@link #onConflict(String...)}.
+     *
+     * @param attributes The attributes to update on conflict
+     * @return The query builder for chaining calls
+     * @since 1.2.0
+     */
+    public InsertCriteriaBuilder<T> onConflictUpdate(String... attributes);
 }
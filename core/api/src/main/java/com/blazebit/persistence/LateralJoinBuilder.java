@@ -0,0 +1,65 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+/**
+ * An interface for builders of lateral entity joins.
+ * The on clause of a lateral join may refer to preceding from clause elements and is evaluated within a subquery,
+ * which allows to order and limit the joined elements per row of the outer query e.g. for top-n per group queries.
+ *
+ * <p>
+ * The order by and limit of the join have to be specified before the on clause.
+ * </p>
+ *
+ * @param <T> The result type
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public interface LateralJoinBuilder<T> extends JoinOnBuilder<T>, OrderByBuilder<LateralJoinBuilder<T>> {
+
+    /**
+     * Set the maximum number of elements to join per row of the outer query.
+     *
+     * @param maxResults The maximum number of elements to join
+     * @return This builder for chaining
+     */
+    public LateralJoinBuilder<T> setMaxResults(int maxResults);
+
+    /**
+     * The maximum number of elements to join per row of the outer query.
+     * Returns <code>Integer.MAX_VALUE</code> if <code>setMaxResults</code> was not used.
+     *
+     * @return The maximum number of elements
+     */
+    public int getMaxResults();
+
+    /**
+     * Set the number of elements to skip per row of the outer query.
+     *
+     * @param firstResult The number of elements to skip
+     * @return This builder for chaining
+     */
+    public LateralJoinBuilder<T> setFirstResult(int firstResult);
+
+    /**
+     * The number of elements to skip per row of the outer query.
+     * Returns 0 if <code>setFirstResult</code> was not used.
+     *
+     * @return The number of elements to skip
+     */
+    public int getFirstResult();
+}
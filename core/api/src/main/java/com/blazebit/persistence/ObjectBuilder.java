@@ -21,6 +21,8 @@ import java.util.List;
 /**
  * An object build provides the select clause expressions that should be used by a {@link FullQueryBuilder} and provides methods for
  * transforming tuples into the target type <code>T</code>.
+ * An object builder that also implements {@link com.blazebit.persistence.spi.ServiceProvider} may provide the
+ * {@link com.blazebit.persistence.spi.MetricsListener} that records the tuple transformation instead of the one of the criteria builder factory.
  *
  * @param <T> The type that this builder produces
  * @author Christian Beikov
@@ -16,6 +16,9 @@
 
 package com.blazebit.persistence;
 
+import javax.persistence.EntityManager;
+import java.util.concurrent.Executor;
+
 /**
  * A builder for paginated criteria queries.
  *
@@ -79,6 +82,27 @@ public interface PaginatedCriteriaBuilder<T> extends FullQueryBuilder<T, Paginat
      */
     public boolean isWithCountQuery();
 
+    /**
+     * Sets the executor that is used to run the count query concurrently to the page query, or <code>null</code> to run the queries sequentially which is the default.
+     * A concurrently executed count query runs with a separate entity manager, and thus on a separate connection outside of the current transaction.
+     * It won't see changes that have not been committed yet.
+     * Only count queries that are not used to determine the page of a reference entity id and don't need SQL rewriting are run concurrently.
+     * All other count queries are still run sequentially.
+     *
+     * @param executor The executor to use for running the count query or <code>null</code>
+     * @return The query builder for chaining calls
+     * @since 1.2.0
+     */
+    public PaginatedCriteriaBuilder<T> withCountQueryExecutor(Executor executor);
+
+    /**
+     * Returns the executor that is used to run the count query concurrently to the page query or <code>null</code> if none is set.
+     *
+     * @return The count query executor or <code>null</code>
+     * @since 1.2.0
+     */
+    public Executor getCountQueryExecutor();
+
     /**
      * Sets the offset for the highest keyset which influences which element of a page is returned by {@link KeysetPage#getHighest()}.
      * This is usually used when loading N + 1 rows to know there are further rows but only needing N rows.
@@ -108,6 +132,9 @@ public interface PaginatedCriteriaBuilder<T> extends FullQueryBuilder<T, Paginat
     @Override
     public <Y> PaginatedCriteriaBuilder<Y> copy(Class<Y> resultClass);
 
+    @Override
+    public <Y> PaginatedCriteriaBuilder<Y> copy(EntityManager entityManager, Class<Y> resultClass);
+
     @Override
     public <Y> SelectObjectBuilder<PaginatedCriteriaBuilder<Y>> selectNew(Class<Y> clazz);
 
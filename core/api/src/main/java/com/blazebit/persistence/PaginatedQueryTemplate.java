@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+import javax.persistence.EntityManager;
+
+/**
+ * An immutable and thread-safe representation of the count, id and object queries that were built once by a {@link PaginatedCriteriaBuilder}.
+ *
+ * @param <T> The query result type
+ * @author Christian Beikov
+ * @since 1.2.0
+ * @see CriteriaBuilderFactory#createTemplate(PaginatedCriteriaBuilder)
+ */
+public interface PaginatedQueryTemplate<T> extends QueryTemplate<T> {
+
+    /**
+     * Returns the query string of the count query of the template.
+     *
+     * @return The count query string
+     */
+    public String getPageCountQueryString();
+
+    /**
+     * Returns the query string of the id query of the template or <code>null</code> if no id query is necessary.
+     *
+     * @return The id query string or <code>null</code>
+     */
+    public String getPageIdQueryString();
+
+    /**
+     * Creates a new paginated typed query for the given entity manager that fetches the page the template was created for.
+     *
+     * @param entityManager The entity manager to use for the query
+     * @return The paginated typed query
+     */
+    @Override
+    public PaginatedTypedQuery<T> createQuery(EntityManager entityManager);
+
+    /**
+     * Creates a new paginated typed query for the given entity manager that fetches the page described by the given first result and page size.
+     *
+     * @param entityManager The entity manager to use for the query
+     * @param firstResult The position of the first result to retrieve, numbered from 0
+     * @param maxResults The maximum number of results to retrieve
+     * @return The paginated typed query
+     */
+    public PaginatedTypedQuery<T> createQuery(EntityManager entityManager, int firstResult, int maxResults);
+
+}
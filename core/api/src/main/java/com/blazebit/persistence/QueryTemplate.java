@@ -0,0 +1,53 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+/**
+ * An immutable and thread-safe representation of a query that was built once by a {@link CriteriaBuilder}.
+ * Creating a query from a template only requires the JPA provider to create the query for the stored query string,
+ * so the query builder does not have to be constructed again for every execution.
+ *
+ * Parameter values that were set on the criteria builder at the time the template was created are bound as default values
+ * and can be rebound on the returned query.
+ *
+ * @param <T> The query result type
+ * @author Christian Beikov
+ * @since 1.2.0
+ * @see CriteriaBuilderFactory#createTemplate(CriteriaBuilder)
+ */
+public interface QueryTemplate<T> {
+
+    /**
+     * Returns the query string of the template.
+     *
+     * @return The query string
+     */
+    public String getQueryString();
+
+    /**
+     * Creates a new JPA typed query for the given entity manager.
+     * The returned query is parameterized with the parameter values that were known when creating the template.
+     *
+     * @param entityManager The entity manager to use for the query
+     * @return The typed query
+     */
+    public TypedQuery<T> createQuery(EntityManager entityManager);
+
+}
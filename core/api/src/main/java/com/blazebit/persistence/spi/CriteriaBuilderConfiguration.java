@@ -116,6 +116,23 @@ public interface CriteriaBuilderConfiguration {
      */
     public List<EntityManagerFactoryIntegrator> getEntityManagerIntegrators();
 
+    /**
+     * Sets the metrics listener that receives timings and counters of the query building and execution phases.
+     *
+     * @param metricsListener The metrics listener or <code>null</code> to disable metrics
+     * @return this for method chaining
+     * @since 1.2.0
+     */
+    public CriteriaBuilderConfiguration setMetricsListener(MetricsListener metricsListener);
+
+    /**
+     * Returns the metrics listener, which is the {@link NoopMetricsListener} if none was set.
+     *
+     * @return The metrics listener
+     * @since 1.2.0
+     */
+    public MetricsListener getMetricsListener();
+
     /**
      * Creates a new {@linkplain CriteriaBuilderFactory} based on this configuration.
      *
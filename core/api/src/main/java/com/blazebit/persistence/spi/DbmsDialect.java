@@ -222,6 +222,22 @@ public interface DbmsDialect {
      */
     public boolean supportsFullRowValueComparison();
 
+    /**
+     * Returns true if the dbms supports window functions like <code>COUNT(*) OVER()</code>, false otherwise.
+     *
+     * @return Whether window functions are supported by the dbms
+     * @since 1.2.0
+     */
+    public boolean supportsWindowFunctions();
+
+    /**
+     * Returns the maximum number of elements a single IN list predicate may contain, or -1 if the dbms has no such limit.
+     *
+     * @return The maximum number of IN list elements or -1
+     * @since 1.2.0
+     */
+    public int getInListLimit();
+
     /**
      * Returns the sql type for the java class type for usage in cast expressions.
      *
@@ -239,6 +255,33 @@ public interface DbmsDialect {
      */
     public ValuesStrategy getValuesStrategy();
 
+    /**
+     * Returns the syntax to use for joining a subquery that refers to preceding from clause elements.
+     *
+     * @return The lateral join style
+     * @since 1.2.0
+     */
+    public LateralStyle getLateralStyle();
+
+    /**
+     * Returns the syntax to use for inserting rows and updating the existing rows that conflict with them.
+     *
+     * @return The upsert style
+     * @since 1.2.0
+     */
+    public UpsertStyle getUpsertStyle();
+
+    /**
+     * Transforms the given insert statement to an upsert statement according to the {@link #getUpsertStyle() upsert style}.
+     * The insert statement is of the form <code>INSERT INTO table (columns) SELECT ...</code>.
+     *
+     * @param sqlSb The string builder containing the insert statement
+     * @param conflictColumns The columns of the unique key on which rows conflict
+     * @param updateColumns The columns of the conflicting rows that should be updated to the inserted values, none to skip conflicting rows
+     * @since 1.2.0
+     */
+    public void appendUpsert(StringBuilder sqlSb, String[] conflictColumns, String[] updateColumns);
+
     /**
      * Returns whether parameters need to be casted if occurring in an untyped context like e.g. VALUES clause.
      *
@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.spi;
 
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.ReturningResult;
 
 import javax.persistence.EntityManager;
@@ -111,6 +112,44 @@ public interface ExtendedQuerySupport {
      */
     public Object getSingleResult(ServiceProvider serviceProvider, List<Query> participatingQueries, Query query, String sqlOverride);
 
+    /**
+     * Prepares the query plan for the Query with the given overriding SQL query without executing it.
+     * Subsequent executions of an equivalent query via the other methods of this interface can then reuse the prepared plan.
+     * Providers that don't cache query plans can treat this as a no-op.
+     *
+     * @param serviceProvider The service provider to access {@linkplain EntityManager} and others
+     * @param participatingQueries The list of participating queries from which to combine parameters
+     * @param query The main query to prepare
+     * @param sqlOverride The actual SQL query to use instead of the query's original SQL
+     * @since 1.2.0
+     */
+    public void prepareQueryPlan(ServiceProvider serviceProvider, List<Query> participatingQueries, Query query, String sqlOverride);
+
+    /**
+     * Returns an iterator over the results of the Query that fetches the results lazily with a forward only cursor.
+     *
+     * @param em The entity manager the query is associated to
+     * @param query The query to execute
+     * @param fetchSize The JDBC fetch size or 0 to use the driver default
+     * @return An iterator over the results of the query
+     * @since 1.2.0
+     */
+    public CloseableIterator<Object> getResultIterator(EntityManager em, Query query, int fetchSize);
+
+    /**
+     * Returns an iterator over the results of the Query by replacing the SQL with the given overriding SQL query.
+     * The results are fetched lazily with a forward only cursor.
+     *
+     * @param serviceProvider The service provider to access {@linkplain EntityManager} and others
+     * @param participatingQueries The list of participating queries from which to combine parameters
+     * @param query The main query to execute
+     * @param sqlOverride The actual SQL query to execute instead of the query's original SQL
+     * @param fetchSize The JDBC fetch size or 0 to use the driver default
+     * @return An iterator over the results of the query
+     * @since 1.2.0
+     */
+    public CloseableIterator<Object> getResultIterator(ServiceProvider serviceProvider, List<Query> participatingQueries, Query query, String sqlOverride, int fetchSize);
+
     /**
      * Executes and returns the update count of the Query by replacing the SQL with the given overriding SQL query.
      *
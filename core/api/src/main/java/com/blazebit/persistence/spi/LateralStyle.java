@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * The syntax a dbms supports for joining a subquery that may refer to preceding from clause elements.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public enum LateralStyle {
+    /**
+     * No support for lateral subqueries, the join is emulated through an IN predicate with a correlated subquery.
+     */
+    NONE,
+    /**
+     * The SQL standard <code>JOIN LATERAL (subquery) alias ON ...</code> syntax.
+     */
+    LATERAL,
+    /**
+     * The <code>CROSS APPLY</code> and <code>OUTER APPLY</code> syntax.
+     */
+    APPLY;
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * The caches for which hits and misses are recorded.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public enum MetricsCache {
+
+    /**
+     * The cache for parsed expressions.
+     */
+    EXPRESSION,
+    /**
+     * The factory level cache for the final SQL of queries that require SQL rewriting.
+     */
+    SQL_REWRITE,
+    /**
+     * The cache for the query plans of SQL rewritten queries in the JPA provider integration.
+     */
+    PROVIDER_QUERY_PLAN,
+    /**
+     * The cache for the rendered queries of batch correlated entity view attributes.
+     */
+    CORRELATION_QUERY
+
+}
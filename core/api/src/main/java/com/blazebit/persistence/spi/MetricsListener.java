@@ -0,0 +1,52 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * A listener that receives timings and counters of the query building and execution phases.
+ * Implementations are invoked on the hot path, so they should be cheap and must be thread safe.
+ * When no listener is registered, the {@link NoopMetricsListener} is used and no timings are taken at all.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public interface MetricsListener {
+
+    /**
+     * Records the duration of a phase.
+     *
+     * @param phase The phase that completed
+     * @param durationNanos The duration of the phase in nanoseconds
+     */
+    public void recordPhase(MetricsPhase phase, long durationNanos);
+
+    /**
+     * Records an access to a cache.
+     *
+     * @param cache The cache that was accessed
+     * @param hit Whether the access was a cache hit
+     */
+    public void recordCacheAccess(MetricsCache cache, boolean hit);
+
+    /**
+     * Records an increment of a counter.
+     *
+     * @param counter The counter to increment
+     * @param amount The amount by which to increment the counter
+     */
+    public void recordCount(MetricsCounter counter, long amount);
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * The phases of query building and execution for which timings are recorded.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public enum MetricsPhase {
+
+    /**
+     * The resolving of implicit joins and the application of expression transformers before a query string is rendered.
+     */
+    BUILD,
+    /**
+     * The rendering of the JPQL query string.
+     */
+    RENDER,
+    /**
+     * The lookup or creation of a query plan for a SQL rewritten query in the JPA provider integration.
+     */
+    QUERY_PLAN,
+    /**
+     * The execution of a query including the transformation of the results.
+     */
+    EXECUTION,
+    /**
+     * The transformation of result tuples by an object builder, e.g. into entity views.
+     */
+    TUPLE_TRANSFORMATION
+
+}
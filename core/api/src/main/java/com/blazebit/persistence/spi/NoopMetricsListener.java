@@ -0,0 +1,46 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * The default metrics listener that discards everything.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public final class NoopMetricsListener implements MetricsListener {
+
+    /**
+     * The singleton instance.
+     */
+    public static final NoopMetricsListener INSTANCE = new NoopMetricsListener();
+
+    private NoopMetricsListener() {
+    }
+
+    @Override
+    public void recordPhase(MetricsPhase phase, long durationNanos) {
+    }
+
+    @Override
+    public void recordCacheAccess(MetricsCache cache, boolean hit) {
+    }
+
+    @Override
+    public void recordCount(MetricsCounter counter, long amount) {
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * The syntax a dbms supports for inserting rows and updating the existing rows that conflict with them.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public enum UpsertStyle {
+    /**
+     * No support for upserts.
+     */
+    NONE,
+    /**
+     * The <code>INSERT ... ON CONFLICT (columns) DO UPDATE SET ...</code> syntax.
+     */
+    ON_CONFLICT,
+    /**
+     * The <code>INSERT ... ON DUPLICATE KEY UPDATE ...</code> syntax which considers conflicts on any unique key.
+     */
+    ON_DUPLICATE_KEY,
+    /**
+     * The SQL standard <code>MERGE INTO table USING (subquery) ON ... WHEN MATCHED THEN UPDATE ... WHEN NOT MATCHED THEN INSERT ...</code> syntax.
+     */
+    MERGE,
+    /**
+     * The <code>MERGE INTO table (columns) KEY (columns) SELECT ...</code> syntax which always updates all inserted columns.
+     */
+    MERGE_KEY;
+}
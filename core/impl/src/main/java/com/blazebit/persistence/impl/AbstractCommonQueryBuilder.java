@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.impl;
 
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.CaseWhenStarterBuilder;
 import com.blazebit.persistence.CriteriaBuilderFactory;
 import com.blazebit.persistence.From;
@@ -26,6 +27,7 @@ import com.blazebit.persistence.JoinOnBuilder;
 import com.blazebit.persistence.JoinType;
 import com.blazebit.persistence.Keyset;
 import com.blazebit.persistence.KeysetBuilder;
+import com.blazebit.persistence.LateralJoinBuilder;
 import com.blazebit.persistence.LeafOngoingFinalSetOperationCTECriteriaBuilder;
 import com.blazebit.persistence.MultipleSubqueryInitiator;
 import com.blazebit.persistence.ObjectBuilder;
@@ -42,6 +44,9 @@ import com.blazebit.persistence.parser.expression.ExpressionFactory;
 import com.blazebit.persistence.parser.expression.PathExpression;
 import com.blazebit.persistence.parser.expression.SubqueryExpressionFactory;
 import com.blazebit.persistence.parser.expression.VisitorAdapter;
+import com.blazebit.persistence.impl.builder.object.ClassObjectBuilder;
+import com.blazebit.persistence.impl.builder.object.ConstructorObjectBuilder;
+import com.blazebit.persistence.impl.builder.object.TupleObjectBuilder;
 import com.blazebit.persistence.impl.function.entity.ValuesEntity;
 import com.blazebit.persistence.impl.keyset.KeysetBuilderImpl;
 import com.blazebit.persistence.impl.keyset.KeysetImpl;
@@ -49,6 +54,8 @@ import com.blazebit.persistence.impl.keyset.KeysetLink;
 import com.blazebit.persistence.impl.keyset.KeysetManager;
 import com.blazebit.persistence.impl.keyset.KeysetMode;
 import com.blazebit.persistence.impl.keyset.SimpleKeysetLink;
+import com.blazebit.persistence.impl.query.SqlRewriteCache;
+import com.blazebit.persistence.impl.plan.SelectQueryPlan;
 import com.blazebit.persistence.parser.predicate.Predicate;
 import com.blazebit.persistence.impl.query.AbstractCustomQuery;
 import com.blazebit.persistence.impl.query.CTENode;
@@ -57,6 +64,7 @@ import com.blazebit.persistence.impl.query.CustomSQLQuery;
 import com.blazebit.persistence.impl.query.CustomSQLTypedQuery;
 import com.blazebit.persistence.impl.query.DefaultQuerySpecification;
 import com.blazebit.persistence.impl.query.EntityFunctionNode;
+import com.blazebit.persistence.impl.query.ObjectBuilderResultIterator;
 import com.blazebit.persistence.impl.query.ObjectBuilderTypedQuery;
 import com.blazebit.persistence.impl.query.QuerySpecification;
 import com.blazebit.persistence.impl.transform.ExpressionTransformerGroup;
@@ -73,6 +81,9 @@ import com.blazebit.persistence.spi.ExtendedManagedType;
 import com.blazebit.persistence.spi.JpaProvider;
 import com.blazebit.persistence.spi.JpqlFunction;
 import com.blazebit.persistence.spi.JpqlMacro;
+import com.blazebit.persistence.spi.MetricsCounter;
+import com.blazebit.persistence.spi.MetricsListener;
+import com.blazebit.persistence.spi.MetricsPhase;
 import com.blazebit.persistence.spi.ServiceProvider;
 import com.blazebit.persistence.spi.SetOperationType;
 
@@ -1366,6 +1377,36 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         return joinOn(base, clazz, alias, JoinType.RIGHT);
     }
 
+    public LateralJoinBuilder<BuilderType> joinLateral(Class<?> clazz, String alias, JoinType type) {
+        return joinLateral(joinManager.getRootNodeOrFail("An explicit base join node is required when multiple root nodes are used!").getAlias(), clazz, alias, type);
+    }
+
+    @SuppressWarnings("unchecked")
+    public LateralJoinBuilder<BuilderType> joinLateral(String base, Class<?> entityClass, String alias, JoinType type) {
+        prepareForModification();
+        checkJoinPreconditions(base, alias, type);
+        if (entityClass == null) {
+            throw new NullPointerException("entityClass");
+        }
+        return joinManager.joinLateral((BuilderType) this, base, entityClass, alias, type);
+    }
+
+    public LateralJoinBuilder<BuilderType> innerJoinLateral(Class<?> clazz, String alias) {
+        return joinLateral(clazz, alias, JoinType.INNER);
+    }
+
+    public LateralJoinBuilder<BuilderType> innerJoinLateral(String base, Class<?> clazz, String alias) {
+        return joinLateral(base, clazz, alias, JoinType.INNER);
+    }
+
+    public LateralJoinBuilder<BuilderType> leftJoinLateral(Class<?> clazz, String alias) {
+        return joinLateral(clazz, alias, JoinType.LEFT);
+    }
+
+    public LateralJoinBuilder<BuilderType> leftJoinLateral(String base, Class<?> clazz, String alias) {
+        return joinLateral(base, clazz, alias, JoinType.LEFT);
+    }
+
     private void checkJoinPreconditions(String path, String alias, JoinType type) {
         if (path == null) {
             throw new NullPointerException("path");
@@ -1503,13 +1544,40 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
     }
 
     public String getQueryString() {
+        MetricsListener metricsListener = cbf.getMetricsListener();
+        if (metricsListener == null) {
+            prepareAndCheck();
+            return getExternalQueryString();
+        }
+
+        long start = System.nanoTime();
         prepareAndCheck();
-        return getExternalQueryString();
+        long built = System.nanoTime();
+        String queryString = getExternalQueryString();
+        metricsListener.recordPhase(MetricsPhase.BUILD, built - start);
+        metricsListener.recordPhase(MetricsPhase.RENDER, System.nanoTime() - built);
+        return queryString;
     }
     
     protected String getBaseQueryStringWithCheck() {
+        MetricsListener metricsListener = cbf.getMetricsListener();
+        if (metricsListener == null) {
+            prepareAndCheck();
+            return getBaseQueryString();
+        }
+
+        long start = System.nanoTime();
         prepareAndCheck();
-        return getBaseQueryString();
+        long built = System.nanoTime();
+        String queryString = getBaseQueryString();
+        metricsListener.recordPhase(MetricsPhase.BUILD, built - start);
+        metricsListener.recordPhase(MetricsPhase.RENDER, System.nanoTime() - built);
+        return queryString;
+    }
+
+    protected void recordExecution(MetricsListener metricsListener, long startNanos, int materializedRows) {
+        metricsListener.recordPhase(MetricsPhase.EXECUTION, System.nanoTime() - startNanos);
+        metricsListener.recordCount(MetricsCounter.ROWS_MATERIALIZED, materializedRows);
     }
 
     protected final TypedQuery<QueryResultType> getTypedQueryForFinalOperationBuilder() {
@@ -1552,7 +1620,8 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         boolean shouldRenderCteNodes = renderCteNodes(false);
         List<CTENode> ctes = shouldRenderCteNodes ? getCteNodes(baseQuery, false) : Collections.EMPTY_LIST;
         QuerySpecification querySpecification = new CustomQuerySpecification(
-                this, baseQuery, parameterManager.getParameters(), parameterListNames, limit, offset, keyRestrictedLeftJoinAliases, entityFunctionNodes, mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes
+                this, baseQuery, parameterManager.getParameters(), parameterListNames, limit, offset, keyRestrictedLeftJoinAliases, entityFunctionNodes, mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes,
+                getSqlRewriteCache(), baseQueryString
         );
 
         TypedQuery<QueryResultType> query = new CustomSQLTypedQuery<QueryResultType>(
@@ -1567,6 +1636,21 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         return applyObjectBuilder(query);
     }
 
+    protected void verifyTemplateSupported() {
+        if (!isMainQuery || mainQuery.cteManager.hasCtes() || joinManager.hasEntityFunctions() || !joinManager.getKeyRestrictedLeftJoins().isEmpty()) {
+            throw new IllegalArgumentException("Query templates are not supported for queries that use CTEs, entity functions or other features that require SQL rewriting!");
+        }
+    }
+
+    protected ObjectBuilder<QueryResultType> getTemplateObjectBuilder() {
+        ObjectBuilder<QueryResultType> objectBuilder = selectManager.getSelectObjectBuilder();
+        // Custom object builders like the ones of entity views are stateful and bound to the entity manager of the builder
+        if (objectBuilder == null || objectBuilder instanceof ClassObjectBuilder || objectBuilder instanceof ConstructorObjectBuilder || objectBuilder instanceof TupleObjectBuilder) {
+            return objectBuilder;
+        }
+        throw new IllegalArgumentException("Query templates are not supported for queries that use a custom object builder or an entity view setting!");
+    }
+
     protected List<String> getKeyRestrictedLeftJoinAliases(Query baseQuery, Set<JoinNode> keyRestrictedLeftJoins, Set<ClauseType> clauseExclusions) {
         List<String> keyRestrictedLeftJoinAliases = new ArrayList<String>();
         if (!keyRestrictedLeftJoins.isEmpty()) {
@@ -1589,11 +1673,18 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
             String valuesAliases = node.getValuesAliases();
 
             String valuesTableSqlAlias = cbf.getExtendedQuerySupport().getSqlAlias(em, baseQuery, node.getAlias());
-            entityFunctionNodes.add(new EntityFunctionNode(valuesClause, valuesAliases, node.getType(), valuesTableSqlAlias, node.getValueQuery()));
+            entityFunctionNodes.add(new EntityFunctionNode(valuesClause, valuesAliases, node.getType(), valuesTableSqlAlias, node.getValueQuery(), node.isLateral()));
         }
         return entityFunctionNodes;
     }
 
+    protected SqlRewriteCache getSqlRewriteCache() {
+        if (mainQuery.getQueryConfiguration().isSqlRewriteCacheEnabled()) {
+            return cbf.getSqlRewriteCache();
+        }
+        return null;
+    }
+
     protected boolean renderCteNodes(boolean isSubquery) {
         return isMainQuery && !isSubquery;
     }
@@ -1967,6 +2058,29 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         return true;
     }
 
+    @SuppressWarnings("unchecked")
+    protected CloseableIterator<QueryResultType> getResultIterator(TypedQuery<QueryResultType> query, int fetchSize) {
+        Query tupleQuery = query;
+        ObjectBuilder<QueryResultType> objectBuilder = null;
+        if (query instanceof ObjectBuilderTypedQuery<?>) {
+            tupleQuery = ((ObjectBuilderTypedQuery<QueryResultType>) query).getDelegate();
+            objectBuilder = ((ObjectBuilderTypedQuery<QueryResultType>) query).getObjectBuilder();
+        }
+
+        CloseableIterator<Object> tupleIterator;
+        if (tupleQuery instanceof CustomSQLTypedQuery<?>) {
+            tupleIterator = ((CustomSQLTypedQuery<Object>) tupleQuery).getResultIterator(fetchSize);
+        } else {
+            SelectQueryPlan<Object> selectPlan = (SelectQueryPlan<Object>) getQuerySpecification(tupleQuery).createSelectPlan(tupleQuery.getFirstResult(), tupleQuery.getMaxResults());
+            tupleIterator = selectPlan.getResultIterator(fetchSize);
+        }
+
+        if (objectBuilder == null) {
+            return (CloseableIterator<QueryResultType>) (CloseableIterator<?>) tupleIterator;
+        }
+        return new ObjectBuilderResultIterator<QueryResultType>(tupleIterator, objectBuilder);
+    }
+
     private QuerySpecification<?> getQuerySpecification(Query query) {
         if (query instanceof AbstractCustomQuery<?>) {
             return ((AbstractCustomQuery<?>) query).getQuerySpecification();
@@ -1994,10 +2108,18 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
     protected final TypedQuery<QueryResultType> applyObjectBuilder(TypedQuery<?> query) {
         ObjectBuilder<QueryResultType> selectObjectBuilder = selectManager.getSelectObjectBuilder();
         if (selectObjectBuilder != null) {
-            return  new ObjectBuilderTypedQuery<>(query, selectObjectBuilder);
+            return  new ObjectBuilderTypedQuery<>(query, selectObjectBuilder, getMetricsListener(selectObjectBuilder));
         } else {
             return (TypedQuery<QueryResultType>) query;
         }
     }
+
+    protected final MetricsListener getMetricsListener(ObjectBuilder<?> objectBuilder) {
+        // An object builder may override the metrics listener used for the tuple transformation e.g. for entity views
+        if (objectBuilder instanceof ServiceProvider) {
+            return ((ServiceProvider) objectBuilder).getService(MetricsListener.class);
+        }
+        return cbf.getMetricsListener();
+    }
     // TODO: needs equals-hashCode implementation
 }
@@ -23,6 +23,7 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
+import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import javax.persistence.metamodel.Attribute;
 import javax.persistence.metamodel.EntityType;
@@ -83,8 +84,13 @@ public abstract class AbstractFullQueryBuilder<T, X extends FullQueryBuilder<T,
 
     @Override
     public <Y> FullQueryBuilder<Y, ?> copy(Class<Y> resultClass) {
+        return copy(getEntityManager(), resultClass);
+    }
+
+    @Override
+    public <Y> FullQueryBuilder<Y, ?> copy(EntityManager entityManager, Class<Y> resultClass) {
         prepareAndCheck();
-        MainQuery mainQuery = cbf.createMainQuery(getEntityManager());
+        MainQuery mainQuery = cbf.createMainQuery(entityManager);
         CriteriaBuilderImpl<Y> newBuilder = new CriteriaBuilderImpl<Y>(mainQuery, true, resultClass, null);
         newBuilder.fromClassExplicitlySet = true;
 
@@ -190,7 +196,8 @@ public abstract class AbstractFullQueryBuilder<T, X extends FullQueryBuilder<T,
         boolean shouldRenderCteNodes = renderCteNodes(false);
         List<CTENode> ctes = shouldRenderCteNodes ? getCteNodes(baseQuery, false) : Collections.EMPTY_LIST;
         QuerySpecification querySpecification = new CustomQuerySpecification(
-                this, baseQuery, parameterManager.getParameters(), parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes, mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes
+                this, baseQuery, parameterManager.getParameters(), parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes, mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes,
+                getSqlRewriteCache(), countQueryString
         );
 
         TypedQuery<Long> countQuery = new CustomSQLTypedQuery<>(
@@ -79,6 +79,16 @@ public class AbstractInsertCollectionCriteriaBuilder<T, X extends BaseInsertCrit
         }
     }
 
+    @Override
+    public X onConflict(String... attributes) {
+        throw new UnsupportedOperationException("Upserts are not supported for collection inserts!");
+    }
+
+    @Override
+    public X onConflictUpdate(String... attributes) {
+        throw new UnsupportedOperationException("Upserts are not supported for collection inserts!");
+    }
+
     @Override
     protected void addBind(String attributeName) {
         AttributePath attributePath = JpaMetamodelUtils.getJoinTableCollectionAttributePath(getMetamodel(), entityType, attributeName, collectionName);
@@ -39,6 +39,8 @@ import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.ExtendedAttribute;
 import com.blazebit.persistence.spi.ExtendedManagedType;
 import com.blazebit.persistence.spi.JoinTable;
+import com.blazebit.persistence.spi.MetricsListener;
+import com.blazebit.persistence.spi.MetricsPhase;
 
 import javax.persistence.Query;
 import javax.persistence.Tuple;
@@ -211,7 +213,16 @@ public abstract class AbstractModificationCriteriaBuilder<T, X extends BaseModif
     }
 
     public int executeUpdate() {
-        return getQuery().executeUpdate();
+        Query query = getQuery();
+        MetricsListener metricsListener = cbf.getMetricsListener();
+        if (metricsListener == null) {
+            return query.executeUpdate();
+        }
+
+        long start = System.nanoTime();
+        int updateCount = query.executeUpdate();
+        metricsListener.recordPhase(MetricsPhase.EXECUTION, System.nanoTime() - start);
+        return updateCount;
     }
     
     @Override
@@ -347,7 +358,7 @@ public abstract class AbstractModificationCriteriaBuilder<T, X extends BaseModif
         boolean shouldRenderCteNodes = renderCteNodes(false);
         List<CTENode> ctes = shouldRenderCteNodes ? getCteNodes(baseQuery, false) : Collections.EMPTY_LIST;
         QuerySpecification querySpecification = new ReturningModificationQuerySpecification<R>(
-                this, baseQuery, exampleQuery, parameterManager.getParameters(), parameterListNames, mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes, returningColumns, objectBuilder
+                this, baseQuery, exampleQuery, parameterManager.getParameters(), parameterListNames, mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes, returningColumns, objectBuilder, getConflictColumns(), getConflictUpdateColumns()
         );
 
         CustomReturningSQLTypedQuery query = new CustomReturningSQLTypedQuery<R>(
@@ -364,6 +375,14 @@ public abstract class AbstractModificationCriteriaBuilder<T, X extends BaseModif
         return query;
     }
     
+    protected String[] getConflictColumns() {
+        return null;
+    }
+
+    protected String[] getConflictUpdateColumns() {
+        return null;
+    }
+
     private List<List<Attribute<?, ?>>> getAndCheckReturningAttributes() {
         int attributeCount = returningAttributes.size();
         if (attributeCount == 0) {
@@ -23,6 +23,7 @@ import javax.persistence.TypedQuery;
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.Queryable;
 import com.blazebit.persistence.spi.DbmsStatementType;
+import com.blazebit.persistence.spi.MetricsListener;
 
 /**
  *
@@ -54,12 +55,30 @@ public abstract class AbstractQueryBuilder<T, X extends Queryable<T, X>, Z, W, F
 
     @Override
     public List<T> getResultList() {
-        return getQuery().getResultList();
+        TypedQuery<T> query = getQuery();
+        MetricsListener metricsListener = cbf.getMetricsListener();
+        if (metricsListener == null) {
+            return query.getResultList();
+        }
+
+        long start = System.nanoTime();
+        List<T> resultList = query.getResultList();
+        recordExecution(metricsListener, start, resultList.size());
+        return resultList;
     }
 
     @Override
     public T getSingleResult() {
-        return getQuery().getSingleResult();
+        TypedQuery<T> query = getQuery();
+        MetricsListener metricsListener = cbf.getMetricsListener();
+        if (metricsListener == null) {
+            return query.getSingleResult();
+        }
+
+        long start = System.nanoTime();
+        T result = query.getSingleResult();
+        recordExecution(metricsListener, start, 1);
+        return result;
     }
 
 }
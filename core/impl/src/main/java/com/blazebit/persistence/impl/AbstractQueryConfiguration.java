@@ -39,6 +39,8 @@ public abstract class AbstractQueryConfiguration implements QueryConfiguration {
             case ConfigurationProperties.EXPRESSION_CACHE_CLASS: return getExpressionCacheClass();
             case ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS: return Boolean.toString(isValuesClauseFilterNullsEnabled());
             case ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING: return Boolean.toString(isOptimizedKeysetPredicateRenderingEnabled());
+            case ConfigurationProperties.SQL_REWRITE_CACHE_ENABLED: return Boolean.toString(isSqlRewriteCacheEnabled());
+            case ConfigurationProperties.INLINE_COUNT_QUERY: return Boolean.toString(isInlineCountQueryEnabled());
             default: return null;
         }
     }
@@ -56,6 +58,8 @@ public abstract class AbstractQueryConfiguration implements QueryConfiguration {
         properties.put(ConfigurationProperties.EXPRESSION_CACHE_CLASS, getExpressionCacheClass());
         properties.put(ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS, Boolean.toString(isValuesClauseFilterNullsEnabled()));
         properties.put(ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING, Boolean.toString(isOptimizedKeysetPredicateRenderingEnabled()));
+        properties.put(ConfigurationProperties.SQL_REWRITE_CACHE_ENABLED, Boolean.toString(isSqlRewriteCacheEnabled()));
+        properties.put(ConfigurationProperties.INLINE_COUNT_QUERY, Boolean.toString(isInlineCountQueryEnabled()));
         return properties;
     }
 
@@ -25,6 +25,7 @@ import com.blazebit.persistence.impl.query.EntityFunctionNode;
 import com.blazebit.persistence.impl.query.QuerySpecification;
 import com.blazebit.persistence.impl.query.SetOperationQuerySpecification;
 import com.blazebit.persistence.spi.DbmsStatementType;
+import com.blazebit.persistence.spi.MetricsListener;
 import com.blazebit.persistence.spi.OrderByElement;
 import com.blazebit.persistence.spi.SetOperationType;
 
@@ -323,11 +324,29 @@ public class BaseFinalSetOperationBuilderImpl<T, X extends BaseFinalSetOperation
     }
 
     public List<T> getResultList() {
-        return getTypedQuery().getResultList();
+        TypedQuery<T> query = getTypedQuery();
+        MetricsListener metricsListener = cbf.getMetricsListener();
+        if (metricsListener == null) {
+            return query.getResultList();
+        }
+
+        long start = System.nanoTime();
+        List<T> resultList = query.getResultList();
+        recordExecution(metricsListener, start, resultList.size());
+        return resultList;
     }
 
     public T getSingleResult() {
-        return getTypedQuery().getSingleResult();
+        TypedQuery<T> query = getTypedQuery();
+        MetricsListener metricsListener = cbf.getMetricsListener();
+        if (metricsListener == null) {
+            return query.getSingleResult();
+        }
+
+        long start = System.nanoTime();
+        T result = query.getSingleResult();
+        recordExecution(metricsListener, start, 1);
+        return result;
     }
 
 }
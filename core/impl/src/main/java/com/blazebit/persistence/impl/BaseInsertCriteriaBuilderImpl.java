@@ -18,15 +18,19 @@ package com.blazebit.persistence.impl;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 
 import javax.persistence.Query;
+import javax.persistence.TypedQuery;
 
 import com.blazebit.persistence.BaseInsertCriteriaBuilder;
 import com.blazebit.persistence.ReturningBuilder;
+import com.blazebit.persistence.ReturningObjectBuilder;
+import com.blazebit.persistence.ReturningResult;
 import com.blazebit.persistence.SelectBuilder;
 import com.blazebit.persistence.impl.query.CTENode;
 import com.blazebit.persistence.impl.query.CustomSQLQuery;
@@ -35,6 +39,8 @@ import com.blazebit.persistence.impl.query.ModificationQuerySpecification;
 import com.blazebit.persistence.impl.query.QuerySpecification;
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.DbmsStatementType;
+import com.blazebit.persistence.spi.ExtendedManagedType;
+import com.blazebit.persistence.spi.UpsertStyle;
 
 /**
  *
@@ -45,6 +51,8 @@ import com.blazebit.persistence.spi.DbmsStatementType;
 public class BaseInsertCriteriaBuilderImpl<T, X extends BaseInsertCriteriaBuilder<T, X>, Y> extends AbstractModificationCriteriaBuilder<T, X, Y> implements BaseInsertCriteriaBuilder<T, X>, SelectBuilder<X> {
 
     protected final Map<String, Integer> bindingMap = new TreeMap<String, Integer>();
+    protected Set<String> conflictAttributes;
+    protected final Set<String> conflictUpdateAttributes = new LinkedHashSet<String>();
 
     public BaseInsertCriteriaBuilderImpl(MainQuery mainQuery, boolean isMainQuery, Class<T> clazz, String cteName, Class<?> cteClass, Y result, CTEBuilderListener listener) {
         super(mainQuery, isMainQuery, DbmsStatementType.INSERT, clazz, null, cteName, cteClass, result, listener);
@@ -74,13 +82,42 @@ public class BaseInsertCriteriaBuilderImpl<T, X extends BaseInsertCriteriaBuilde
         return this;
     }
 
-    protected void addBind(String attributeName) {
-        // NOTE: We are not resolving embedded properties, because hibernate does not support them
-        // Just do that to assert the attribute exists
-        if (entityType.getAttribute(attributeName) == null) {
-            // Well, some implementations might not be fully spec compliant..
-            throw new IllegalArgumentException("Attribute '" + attributeName + "' does not exist on '" + entityType.getName() + "'!");
+    @SuppressWarnings("unchecked")
+    public X onConflict(String... attributes) {
+        if (dbmsDialect.getUpsertStyle() == UpsertStyle.NONE) {
+            throw new UnsupportedOperationException("The database does not support upserts!");
+        }
+        if (attributes.length == 0) {
+            throw new IllegalArgumentException("Invalid empty conflict attributes!");
+        }
+        if (conflictAttributes != null) {
+            throw new IllegalArgumentException("The conflict attributes have already been defined!");
+        }
+
+        Set<String> newConflictAttributes = new LinkedHashSet<String>(attributes.length);
+        for (String attributeName : attributes) {
+            checkAttribute(attributeName);
+            newConflictAttributes.add(attributeName);
+        }
+
+        conflictAttributes = newConflictAttributes;
+        return (X) this;
+    }
+
+    @SuppressWarnings("unchecked")
+    public X onConflictUpdate(String... attributes) {
+        for (String attributeName : attributes) {
+            checkAttribute(attributeName);
+            if (!conflictUpdateAttributes.add(attributeName)) {
+                throw new IllegalArgumentException("The attribute [" + attributeName + "] is already updated on conflict!");
+            }
         }
+
+        return (X) this;
+    }
+
+    protected void addBind(String attributeName) {
+        checkAttribute(attributeName);
         Integer attributeBindIndex = bindingMap.get(attributeName);
 
         if (attributeBindIndex != null) {
@@ -89,6 +126,15 @@ public class BaseInsertCriteriaBuilderImpl<T, X extends BaseInsertCriteriaBuilde
 
         bindingMap.put(attributeName, selectManager.getSelectInfos().size());
     }
+
+    private void checkAttribute(String attributeName) {
+        // NOTE: We are not resolving embedded properties, because hibernate does not support them
+        // Just do that to assert the attribute exists
+        if (entityType.getAttribute(attributeName) == null) {
+            // Well, some implementations might not be fully spec compliant..
+            throw new IllegalArgumentException("Attribute '" + attributeName + "' does not exist on '" + entityType.getName() + "'!");
+        }
+    }
     
     @Override
     protected void prepareAndCheck() {
@@ -106,9 +152,81 @@ public class BaseInsertCriteriaBuilderImpl<T, X extends BaseInsertCriteriaBuilde
             newSelectInfos.add(selectInfo);
             attributeEntry.setValue(newPosition);
         }
+        checkUpsert();
         super.prepareAndCheck();
     }
 
+    private void checkUpsert() {
+        if (conflictAttributes == null) {
+            if (!conflictUpdateAttributes.isEmpty()) {
+                throw new IllegalStateException("The attributes to update on conflict require conflict attributes to be defined via onConflict!");
+            }
+            return;
+        }
+
+        if (hasLimit()) {
+            throw new IllegalStateException("Limiting an upsert is not supported!");
+        }
+
+        for (String attributeName : conflictAttributes) {
+            if (!bindingMap.containsKey(attributeName)) {
+                throw new IllegalStateException("The conflict attribute [" + attributeName + "] has not been bound!");
+            }
+        }
+        for (String attributeName : conflictUpdateAttributes) {
+            if (!bindingMap.containsKey(attributeName)) {
+                throw new IllegalStateException("The attribute [" + attributeName + "] to update on conflict has not been bound!");
+            }
+            if (conflictAttributes.contains(attributeName)) {
+                throw new IllegalStateException("The conflict attribute [" + attributeName + "] can't be updated on conflict!");
+            }
+        }
+
+        // The MERGE ... KEY syntax always updates all inserted columns
+        if (dbmsDialect.getUpsertStyle() == UpsertStyle.MERGE_KEY && conflictUpdateAttributes.size() + conflictAttributes.size() != bindingMap.size()) {
+            throw new IllegalStateException("The dbms only supports updating all bound attributes on conflict!");
+        }
+    }
+
+    @Override
+    protected String[] getConflictColumns() {
+        if (conflictAttributes == null) {
+            return null;
+        }
+
+        return getColumns(conflictAttributes);
+    }
+
+    @Override
+    protected String[] getConflictUpdateColumns() {
+        if (conflictAttributes == null) {
+            return null;
+        }
+
+        return getColumns(conflictUpdateAttributes);
+    }
+
+    private String[] getColumns(Set<String> attributes) {
+        ExtendedManagedType<?> managedType = mainQuery.metamodel.getManagedType(ExtendedManagedType.class, entityType.getJavaType());
+        List<String> columns = new ArrayList<String>(attributes.size());
+        for (String attributeName : attributes) {
+            for (String column : managedType.getAttribute(attributeName).getColumnNames()) {
+                columns.add(column);
+            }
+        }
+
+        return columns.toArray(new String[columns.size()]);
+    }
+
+    @Override
+    protected <R> TypedQuery<ReturningResult<R>> getExecuteWithReturningQuery(TypedQuery<Object[]> exampleQuery, Query baseQuery, String[] returningColumns, ReturningObjectBuilder<R> objectBuilder) {
+        // The returning clause of the dbms is not applicable to MERGE statements
+        if (conflictAttributes != null && dbmsDialect.getUpsertStyle() == UpsertStyle.MERGE) {
+            throw new IllegalArgumentException("Returning from an upsert is not supported by the dbms!");
+        }
+        return super.getExecuteWithReturningQuery(exampleQuery, baseQuery, returningColumns, objectBuilder);
+    }
+
     @Override
     protected boolean isJoinRequiredForSelect() {
         // NOTE: since we aren't actually selecting properties but passing them through to the insert, we don't require joins
@@ -183,7 +301,9 @@ public class BaseInsertCriteriaBuilderImpl<T, X extends BaseInsertCriteriaBuilde
                 isEmbedded,
                 returningColumns,
                 includedModificationStates,
-                returningAttributeBindingMap
+                returningAttributeBindingMap,
+                getConflictColumns(),
+                getConflictUpdateColumns()
         );
 
         query = new CustomSQLQuery(
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.spi.JpaProvider;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Parameter;
+import javax.persistence.PersistenceException;
+import javax.persistence.TemporalType;
+import javax.persistence.TypedQuery;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs a paginated count query with a separate entity manager on an executor so that the count is determined concurrently to the page.
+ * The parameter values are tracked separately because query objects must not be accessed from other threads.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class ConcurrentCountQuery {
+
+    private final Executor executor;
+    private final EntityManagerFactory entityManagerFactory;
+    private final JpaProvider jpaProvider;
+    private final String queryString;
+    private final boolean cacheable;
+    private final Map<String, Object> parameterValues;
+
+    public ConcurrentCountQuery(Executor executor, EntityManagerFactory entityManagerFactory, JpaProvider jpaProvider, String queryString, boolean cacheable, Map<String, ParameterManager.ParameterImpl<?>> parameters) {
+        this.executor = executor;
+        this.entityManagerFactory = entityManagerFactory;
+        this.jpaProvider = jpaProvider;
+        this.queryString = queryString;
+        this.cacheable = cacheable;
+        this.parameterValues = new HashMap<>(parameters.size());
+        for (Map.Entry<String, ParameterManager.ParameterImpl<?>> entry : parameters.entrySet()) {
+            ParameterManager.ParameterImpl<?> parameter = entry.getValue();
+            if (parameter.isValueSet()) {
+                ParameterManager.ParameterValue parameterValue = parameter.getParameterValue();
+                if (parameterValue == null) {
+                    parameterValues.put(entry.getKey(), parameter.getValue());
+                } else {
+                    parameterValues.put(entry.getKey(), parameterValue);
+                }
+            }
+        }
+    }
+
+    public void setParameter(String name, Object value) {
+        parameterValues.put(name, value);
+    }
+
+    public void setParameter(String name, Calendar value, TemporalType temporalType) {
+        parameterValues.put(name, new ParameterManager.TemporalCalendarParameterWrapper(temporalType, value));
+    }
+
+    public void setParameter(String name, Date value, TemporalType temporalType) {
+        parameterValues.put(name, new ParameterManager.TemporalDateParameterWrapper(temporalType, value));
+    }
+
+    public Future<Long> submit() {
+        final Map<String, Object> values = new HashMap<>(parameterValues);
+        FutureTask<Long> task = new FutureTask<>(new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                return execute(values);
+            }
+        });
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException ex) {
+            // A saturated executor must not fail the query, so the count query is run by the calling thread instead
+            task.run();
+        }
+        return task;
+    }
+
+    public long getResult(Future<Long> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PersistenceException("Interrupted while waiting for the count query result!", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new PersistenceException("The count query execution failed!", cause);
+        }
+    }
+
+    private Long execute(Map<String, Object> values) {
+        // The count query only reads, so we neither start a transaction nor flush anything
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            TypedQuery<Long> query = em.createQuery(queryString, Long.class);
+            if (cacheable) {
+                jpaProvider.setCacheable(query);
+            }
+            for (Parameter<?> parameter : query.getParameters()) {
+                String name = parameter.getName();
+                if (name == null) {
+                    name = parameter.getPosition().toString();
+                }
+                // Unbound parameters are skipped so that the query fails just like the sequential execution would
+                if (values.containsKey(name)) {
+                    Object value = values.get(name);
+                    if (value instanceof ParameterManager.ParameterValue) {
+                        ((ParameterManager.ParameterValue) value).bind(query, name);
+                    } else if (parameter.getName() == null) {
+                        query.setParameter(parameter.getPosition(), value);
+                    } else {
+                        query.setParameter(name, value);
+                    }
+                }
+            }
+            return query.getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+}
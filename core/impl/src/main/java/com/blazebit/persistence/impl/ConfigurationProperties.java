@@ -108,6 +108,28 @@ public final class ConfigurationProperties {
      */
     public static final String EXPRESSION_CACHE_CLASS = "com.blazebit.persistence.expression.cache_class";
 
+    /**
+     * The default maximum weight of a cache region of the bounded expression cache
+     * <code>com.blazebit.persistence.parser.expression.BoundedExpressionCache</code>.
+     * With the default weigher, this is the maximum number of entries per cache region.
+     * The maximum weight of a specific cache region can be configured by appending the region name e.g.
+     * <code>com.blazebit.persistence.expression.cache_maximum_weight.com.blazebit.persistence.parser.expression.cache.PredicateExpression</code>.
+     * Default is <code>10000</code>
+     *
+     * @since 1.2.0
+     */
+    public static final String EXPRESSION_CACHE_MAXIMUM_WEIGHT = "com.blazebit.persistence.expression.cache_maximum_weight";
+
+    /**
+     * The weigher for entries of the bounded expression cache <code>com.blazebit.persistence.parser.expression.BoundedExpressionCache</code>.
+     * Valid values for this property are <code>entry</code>, <code>length</code> or the full qualified class name of a
+     * <code>com.blazebit.persistence.parser.expression.BoundedExpressionCache.Weigher</code> implementation.
+     * Default is <code>entry</code>
+     *
+     * @since 1.2.0
+     */
+    public static final String EXPRESSION_CACHE_WEIGHER = "com.blazebit.persistence.expression.cache_weigher";
+
     /**
      * If set to false, tuples of a VALUES clause with all null values won't be filtered out.
      * Valid values for this property are <code>true</code> or <code>false</code>.
@@ -141,6 +163,41 @@ public final class ConfigurationProperties {
      * @since 1.2.0
      */
     public static final String OPTIMIZED_KEYSET_PREDICATE_RENDERING = "com.blazebit.persistence.optimized_keyset_predicate_rendering";
+
+    /**
+     * If set to true, the final SQL of queries that require SQL rewriting e.g. because of VALUES clauses or entity functions,
+     * is cached on the criteria builder factory level, keyed by the rendered JPQL query string and the inputs of the SQL rewriting.
+     * Repeated queries then skip the SQL extraction from the JPA provider and the rewriting of it. Join resolution, transformations
+     * and the JPQL rendering are still done for every query builder. Only select queries without CTEs are cached.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     * Default is <code>false</code>
+     *
+     * The property can be changed for a criteria builder before constructing a query.
+     *
+     * @since 1.2.0
+     */
+    public static final String SQL_REWRITE_CACHE_ENABLED = "com.blazebit.persistence.sql_rewrite_cache_enabled";
+
+    /**
+     * The maximum number of entries of the SQL rewrite cache. When the maximum is reached, the least recently used entry is evicted.
+     * Default is <code>2048</code>
+     *
+     * @since 1.2.0
+     */
+    public static final String SQL_REWRITE_CACHE_MAXIMUM_SIZE = "com.blazebit.persistence.sql_rewrite_cache_maximum_size";
+
+    /**
+     * If set to true, the total count of a paginated query is computed with a <code>COUNT(*) OVER()</code> window function within the id query
+     * instead of a separate count query if the DBMS supports window functions. This saves a database round trip for every page.
+     * The separate count query is only executed if the requested page is empty.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     * Default is <code>false</code>
+     *
+     * The property can be changed for a criteria builder before constructing a query.
+     *
+     * @since 1.2.0
+     */
+    public static final String INLINE_COUNT_QUERY = "com.blazebit.persistence.inline_count_query";
     
     private ConfigurationProperties() {
     }
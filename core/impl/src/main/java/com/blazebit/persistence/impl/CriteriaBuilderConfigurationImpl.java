@@ -27,6 +27,7 @@ import com.blazebit.persistence.impl.dialect.PostgreSQLDbmsDialect;
 import com.blazebit.persistence.parser.expression.ConcurrentHashMapExpressionCache;
 import com.blazebit.persistence.impl.function.cast.CastFunction;
 import com.blazebit.persistence.impl.function.count.AbstractCountFunction;
+import com.blazebit.persistence.impl.function.count.CountOverFunction;
 import com.blazebit.persistence.impl.function.count.CountTupleEmulationFunction;
 import com.blazebit.persistence.impl.function.count.CountTupleFunction;
 import com.blazebit.persistence.impl.function.count.MySQLCountTupleFunction;
@@ -127,6 +128,8 @@ import com.blazebit.persistence.impl.function.groupconcat.H2GroupConcatFunction;
 import com.blazebit.persistence.impl.function.groupconcat.MySQLGroupConcatFunction;
 import com.blazebit.persistence.impl.function.groupconcat.OracleListaggGroupConcatFunction;
 import com.blazebit.persistence.impl.function.groupconcat.PostgreSQLGroupConcatFunction;
+import com.blazebit.persistence.impl.function.lateral.LateralJoinEndFunction;
+import com.blazebit.persistence.impl.function.lateral.LateralJoinStartFunction;
 import com.blazebit.persistence.impl.function.least.AbstractLeastFunction;
 import com.blazebit.persistence.impl.function.least.DefaultLeastFunction;
 import com.blazebit.persistence.impl.function.least.MinLeastFunction;
@@ -143,13 +146,21 @@ import com.blazebit.persistence.impl.function.repeat.ReplicateRepeatFunction;
 import com.blazebit.persistence.impl.function.rowvalue.DB2RowValueComparisonFunction;
 import com.blazebit.persistence.impl.function.rowvalue.RowValueComparisonFunction;
 import com.blazebit.persistence.impl.function.set.SetFunction;
+import com.blazebit.persistence.impl.function.tomultiset.AbstractToMultisetFunction;
+import com.blazebit.persistence.impl.function.tomultiset.H2ToMultisetFunction;
+import com.blazebit.persistence.impl.function.tomultiset.MySQLToMultisetFunction;
+import com.blazebit.persistence.impl.function.tomultiset.PostgreSQLToMultisetFunction;
 import com.blazebit.persistence.impl.function.treat.TreatFunction;
+import com.blazebit.persistence.impl.function.window.TransactSQLWindowFunction;
+import com.blazebit.persistence.impl.function.window.WindowFunction;
 import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
 import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.EntityManagerFactoryIntegrator;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
 import com.blazebit.persistence.spi.JpqlFunctionGroup;
 import com.blazebit.persistence.spi.JpqlMacro;
+import com.blazebit.persistence.spi.MetricsListener;
+import com.blazebit.persistence.spi.NoopMetricsListener;
 import com.blazebit.persistence.spi.SetOperationType;
 
 import javax.persistence.EntityManagerFactory;
@@ -182,6 +193,7 @@ public class CriteriaBuilderConfigurationImpl implements CriteriaBuilderConfigur
     private final List<EntityManagerFactoryIntegrator> entityManagerIntegrators = new ArrayList<EntityManagerFactoryIntegrator>();
     private Properties properties = new Properties();
     private ExtendedQuerySupport extendedQuerySupport;
+    private MetricsListener metricsListener = NoopMetricsListener.INSTANCE;
 
     public CriteriaBuilderConfigurationImpl() {
         loadDefaultProperties();
@@ -458,6 +470,12 @@ public class CriteriaBuilderConfigurationImpl implements CriteriaBuilderConfigur
         jpqlFunctionGroup.add("hsql", new CountTupleEmulationFunction());
         registerFunction(jpqlFunctionGroup);
 
+        // count over
+
+        jpqlFunctionGroup = new JpqlFunctionGroup(CountOverFunction.FUNCTION_NAME, false);
+        jpqlFunctionGroup.add(null, new CountOverFunction());
+        registerFunction(jpqlFunctionGroup);
+
         // row values
         jpqlFunctionGroup = new JpqlFunctionGroup(RowValueComparisonFunction.FUNCTION_NAME, false);
         jpqlFunctionGroup.add(null, new RowValueComparisonFunction());
@@ -487,6 +505,55 @@ public class CriteriaBuilderConfigurationImpl implements CriteriaBuilderConfigur
         jpqlFunctionGroup.add("oracle", new LpadRepeatFunction());
         jpqlFunctionGroup.add("microsoft", new ReplicateRepeatFunction());
         registerFunction(jpqlFunctionGroup);
+
+        // to_multiset
+
+        jpqlFunctionGroup = new JpqlFunctionGroup(AbstractToMultisetFunction.FUNCTION_NAME, true);
+        jpqlFunctionGroup.add("h2", new H2ToMultisetFunction());
+        jpqlFunctionGroup.add("mysql", new MySQLToMultisetFunction());
+        jpqlFunctionGroup.add("postgresql", new PostgreSQLToMultisetFunction());
+        registerFunction(jpqlFunctionGroup);
+
+        // window functions
+
+        registerWindowFunction("row_number", "row_number", 0, 0, Long.class, true);
+        registerWindowFunction("rank", "rank", 0, 0, Long.class, true);
+        registerWindowFunction("dense_rank", "dense_rank", 0, 0, Long.class, true);
+        registerWindowFunction("lag", "lag", 1, 3, null, true);
+        registerWindowFunction("lead", "lead", 1, 3, null, true);
+        registerWindowFunction("window_sum", "sum", 1, 1, null, false);
+        registerWindowFunction("window_avg", "avg", 1, 1, Double.class, false);
+        registerWindowFunction("window_min", "min", 1, 1, null, false);
+        registerWindowFunction("window_max", "max", 1, 1, null, false);
+        registerWindowFunction("window_count", "count", 1, 1, Long.class, false);
+
+        // lateral join markers
+
+        jpqlFunctionGroup = new JpqlFunctionGroup(LateralJoinStartFunction.FUNCTION_NAME, false);
+        jpqlFunctionGroup.add(null, new LateralJoinStartFunction());
+        registerFunction(jpqlFunctionGroup);
+
+        jpqlFunctionGroup = new JpqlFunctionGroup(LateralJoinEndFunction.FUNCTION_NAME, false);
+        jpqlFunctionGroup.add(null, new LateralJoinEndFunction(false));
+        jpqlFunctionGroup.add("mysql", new LateralJoinEndFunction(true));
+        jpqlFunctionGroup.add("sybase", new LateralJoinEndFunction(true));
+        jpqlFunctionGroup.add("microsoft", new LateralJoinEndFunction(true));
+        registerFunction(jpqlFunctionGroup);
+    }
+
+    private void registerWindowFunction(String name, String sqlName, int minArguments, int maxArguments, Class<?> returnType, boolean ordered) {
+        JpqlFunctionGroup jpqlFunctionGroup = new JpqlFunctionGroup(name, false);
+        jpqlFunctionGroup.add(null, new WindowFunction(sqlName, minArguments, maxArguments, returnType, ordered));
+        jpqlFunctionGroup.add("sybase", new TransactSQLWindowFunction(sqlName, minArguments, maxArguments, returnType, ordered));
+        jpqlFunctionGroup.add("microsoft", new TransactSQLWindowFunction(sqlName, minArguments, maxArguments, returnType, ordered));
+
+        for (Map.Entry<String, DbmsDialect> dbmsDialectEntry : dbmsDialects.entrySet()) {
+            if (!dbmsDialectEntry.getValue().supportsWindowFunctions()) {
+                jpqlFunctionGroup.add(dbmsDialectEntry.getKey(), null);
+            }
+        }
+
+        registerFunction(jpqlFunctionGroup);
     }
 
     private void loadDbmsDialects() {
@@ -596,6 +663,21 @@ public class CriteriaBuilderConfigurationImpl implements CriteriaBuilderConfigur
         return entityManagerIntegrators;
     }
 
+    @Override
+    public CriteriaBuilderConfiguration setMetricsListener(MetricsListener metricsListener) {
+        if (metricsListener == null) {
+            this.metricsListener = NoopMetricsListener.INSTANCE;
+        } else {
+            this.metricsListener = metricsListener;
+        }
+        return this;
+    }
+
+    @Override
+    public MetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
     @Override
     public CriteriaBuilderFactory createCriteriaBuilderFactory(EntityManagerFactory emf) {
         return new CriteriaBuilderFactoryImpl(this, emf);
@@ -21,8 +21,17 @@ import com.blazebit.persistence.CriteriaBuilderFactory;
 import com.blazebit.persistence.DeleteCriteriaBuilder;
 import com.blazebit.persistence.InsertCriteriaBuilder;
 import com.blazebit.persistence.LeafOngoingFinalSetOperationCriteriaBuilder;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.PaginatedQueryTemplate;
+import com.blazebit.persistence.QueryTemplate;
+import com.blazebit.persistence.Queryable;
 import com.blazebit.persistence.StartOngoingSetOperationCriteriaBuilder;
 import com.blazebit.persistence.UpdateCriteriaBuilder;
+import com.blazebit.persistence.impl.query.SqlRewriteCache;
+import com.blazebit.persistence.impl.query.CustomSQLTypedQuery;
+import com.blazebit.persistence.impl.query.ObjectBuilderTypedQuery;
+import com.blazebit.persistence.parser.expression.BoundedExpressionCache;
+import com.blazebit.persistence.parser.expression.ConcurrentHashMapExpressionCache;
 import com.blazebit.persistence.parser.expression.ExpressionCache;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
 import com.blazebit.persistence.parser.expression.ExpressionFactoryImpl;
@@ -37,9 +46,12 @@ import com.blazebit.persistence.spi.JpaProvider;
 import com.blazebit.persistence.spi.JpaProviderFactory;
 import com.blazebit.persistence.spi.JpqlFunction;
 import com.blazebit.persistence.spi.JpqlFunctionGroup;
+import com.blazebit.persistence.spi.MetricsListener;
+import com.blazebit.persistence.spi.NoopMetricsListener;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
 import javax.persistence.metamodel.Metamodel;
 import java.util.Collections;
 import java.util.HashMap;
@@ -65,6 +77,8 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
     private final ExpressionFactory expressionFactory;
     private final ExpressionFactory subqueryExpressionFactory;
     private final QueryConfiguration queryConfiguration;
+    private final SqlRewriteCache sqlRewriteCache;
+    private final MetricsListener metricsListener;
 
     private final MacroConfiguration macroConfiguration;
     private final String configuredDbms;
@@ -98,7 +112,8 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         this.configuredRegisteredFunctions = registeredFunctions;
         this.configuredJpaProviderFactory = integrator.getJpaProviderFactory(emf);
 
-        this.queryConfiguration = new ImmutableQueryConfiguration((Map<String, String>) (Map<?, ?>) config.getProperties());
+        Map<String, String> properties = (Map<String, String>) (Map<?, ?>) config.getProperties();
+        this.queryConfiguration = new ImmutableQueryConfiguration(properties);
         final boolean compatibleMode = queryConfiguration.isCompatibleModeEnabled();
         final boolean optimize = queryConfiguration.isExpressionOptimizationEnabled();
 
@@ -111,17 +126,43 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         this.aggregateFunctions = resolveAggregateFunctions(config.getFunctions());
         this.namedTypes = resolveNamedTypes(config.getNamedTypes());
 
+        // The hot paths only check for null, so the no-op listener is not used at all
+        this.metricsListener = config.getMetricsListener() == NoopMetricsListener.INSTANCE ? null : config.getMetricsListener();
+
         ExpressionFactory originalExpressionFactory = new ExpressionFactoryImpl(aggregateFunctions, metamodel.getEntityTypes(), metamodel.getEnumTypes(), !compatibleMode, optimize);
-        this.expressionCache = createCache(queryConfiguration.getExpressionCacheClass());
-        ExpressionFactory cachingExpressionFactory = new SimpleCachingExpressionFactory(originalExpressionFactory, expressionCache);
-        ExpressionFactory cachingSubqueryExpressionFactory = new SimpleCachingExpressionFactory(new SubqueryExpressionFactory(aggregateFunctions, metamodel.getEntityTypes(), metamodel.getEnumTypes(), !compatibleMode, optimize, originalExpressionFactory));
+        this.expressionCache = createCache(queryConfiguration.getExpressionCacheClass(), properties);
+        ExpressionFactory cachingExpressionFactory = new SimpleCachingExpressionFactory(originalExpressionFactory, withMetrics(expressionCache));
+        ExpressionFactory cachingSubqueryExpressionFactory = new SimpleCachingExpressionFactory(new SubqueryExpressionFactory(aggregateFunctions, metamodel.getEntityTypes(), metamodel.getEnumTypes(), !compatibleMode, optimize, originalExpressionFactory), withMetrics(new ConcurrentHashMapExpressionCache()));
         this.macroConfiguration = MacroConfiguration.of(JpqlMacroAdapter.createMacros(config.getMacros(), cachingExpressionFactory));
         JpqlMacroStorage macroStorage = new JpqlMacroStorage(null, macroConfiguration);
         this.expressionFactory = new JpqlMacroAwareExpressionFactory(cachingExpressionFactory, macroStorage);
         this.subqueryExpressionFactory = new JpqlMacroAwareExpressionFactory(cachingSubqueryExpressionFactory, macroStorage);
+        this.sqlRewriteCache = createSqlRewriteCache(properties, metricsListener);
+    }
+
+    private ExpressionCache withMetrics(ExpressionCache expressionCache) {
+        if (metricsListener == null) {
+            return expressionCache;
+        }
+        return new MetricsExpressionCache(expressionCache, metricsListener);
+    }
+
+    private static SqlRewriteCache createSqlRewriteCache(Map<String, String> properties, MetricsListener metricsListener) {
+        String maximumSize = properties.get(ConfigurationProperties.SQL_REWRITE_CACHE_MAXIMUM_SIZE);
+        if (maximumSize == null) {
+            return new SqlRewriteCache(SqlRewriteCache.DEFAULT_MAXIMUM_SIZE, metricsListener);
+        }
+        try {
+            return new SqlRewriteCache(Integer.parseInt(maximumSize.trim()), metricsListener);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Illegal value '" + maximumSize + "' for integer property '" + ConfigurationProperties.SQL_REWRITE_CACHE_MAXIMUM_SIZE + "'", ex);
+        }
     }
 
-    private ExpressionCache createCache(String className) {
+    private ExpressionCache createCache(String className, Map<String, String> properties) {
+        if (BoundedExpressionCache.class.getName().equals(className)) {
+            return createBoundedCache(properties);
+        }
         try {
             return (ExpressionCache) Class.forName(className).newInstance();
         } catch (Exception ex) {
@@ -129,6 +170,43 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         }
     }
 
+    private static ExpressionCache createBoundedCache(Map<String, String> properties) {
+        String maximumWeightPrefix = ConfigurationProperties.EXPRESSION_CACHE_MAXIMUM_WEIGHT + ".";
+        long defaultMaximumWeight = BoundedExpressionCache.DEFAULT_MAXIMUM_WEIGHT;
+        Map<String, Long> maximumWeights = new HashMap<>();
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            String key = entry.getKey();
+            if (ConfigurationProperties.EXPRESSION_CACHE_MAXIMUM_WEIGHT.equals(key)) {
+                defaultMaximumWeight = parseMaximumWeight(key, entry.getValue());
+            } else if (key.startsWith(maximumWeightPrefix)) {
+                maximumWeights.put(key.substring(maximumWeightPrefix.length()), parseMaximumWeight(key, entry.getValue()));
+            }
+        }
+
+        return new BoundedExpressionCache(defaultMaximumWeight, maximumWeights, createWeigher(properties.get(ConfigurationProperties.EXPRESSION_CACHE_WEIGHER)));
+    }
+
+    private static long parseMaximumWeight(String propertyName, String propertyValue) {
+        try {
+            return Long.parseLong(propertyValue.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Illegal value '" + propertyValue + "' for long property '" + propertyName + "'", ex);
+        }
+    }
+
+    private static BoundedExpressionCache.Weigher createWeigher(String weigher) {
+        if (weigher == null || "entry".equalsIgnoreCase(weigher)) {
+            return BoundedExpressionCache.ENTRY_WEIGHER;
+        } else if ("length".equalsIgnoreCase(weigher)) {
+            return BoundedExpressionCache.LENGTH_WEIGHER;
+        }
+        try {
+            return (BoundedExpressionCache.Weigher) Class.forName(weigher).newInstance();
+        } catch (Exception ex) {
+            throw new IllegalArgumentException("Could not instantiate expression cache weigher: " + weigher, ex);
+        }
+    }
+
     private static Set<String> resolveAggregateFunctions(Map<String, JpqlFunctionGroup> functions) {
         Set<String> aggregateFunctions = new HashSet<String>();
         for (Map.Entry<String, JpqlFunctionGroup> entry : functions.entrySet()) {
@@ -183,6 +261,19 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         return expressionCache;
     }
 
+    public SqlRewriteCache getSqlRewriteCache() {
+        return sqlRewriteCache;
+    }
+
+    /**
+     * Returns the metrics listener or <code>null</code> if metrics are disabled.
+     *
+     * @return The metrics listener or <code>null</code>
+     */
+    public MetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
     public ExpressionFactory getExpressionFactory() {
         return expressionFactory;
     }
@@ -244,6 +335,48 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         return cb;
     }
 
+    @Override
+    public <T> QueryTemplate<T> createTemplate(CriteriaBuilder<T> criteriaBuilder) {
+        if (!(criteriaBuilder instanceof CriteriaBuilderImpl<?>)) {
+            throw new IllegalArgumentException("Unsupported criteria builder implementation: " + criteriaBuilder);
+        }
+        return ((CriteriaBuilderImpl<T>) criteriaBuilder).createTemplate();
+    }
+
+    @Override
+    public <T> PaginatedQueryTemplate<T> createTemplate(PaginatedCriteriaBuilder<T> criteriaBuilder) {
+        if (!(criteriaBuilder instanceof PaginatedCriteriaBuilderImpl<?>)) {
+            throw new IllegalArgumentException("Unsupported criteria builder implementation: " + criteriaBuilder);
+        }
+        return ((PaginatedCriteriaBuilderImpl<T>) criteriaBuilder).createTemplate();
+    }
+
+    @Override
+    public void warmUp(Queryable<?, ?>... queryBuilders) {
+        for (Queryable<?, ?> queryBuilder : queryBuilders) {
+            // Building the query already renders the JPQL and lets the JPA provider compile it
+            warmUp(queryBuilder.getQuery());
+        }
+    }
+
+    private static void warmUp(Query query) {
+        if (query instanceof PaginatedTypedQueryImpl<?>) {
+            PaginatedTypedQueryImpl<?> paginatedQuery = (PaginatedTypedQueryImpl<?>) query;
+            warmUp(paginatedQuery.getCountQuery());
+            if (paginatedQuery.getIdQuery() != null) {
+                warmUp(paginatedQuery.getIdQuery());
+            }
+            if (paginatedQuery.getObjectQuery() != null) {
+                warmUp(paginatedQuery.getObjectQuery());
+            }
+        } else if (query instanceof ObjectBuilderTypedQuery<?>) {
+            warmUp(((ObjectBuilderTypedQuery<?>) query).getDelegate());
+        } else if (query instanceof CustomSQLTypedQuery<?>) {
+            // Queries with custom SQL need the SQL to be rendered and the query plan to be prepared separately
+            ((CustomSQLTypedQuery<?>) query).prepare();
+        }
+    }
+
     @Override
     public <T> DeleteCriteriaBuilder<T> delete(EntityManager entityManager, Class<T> deleteClass) {
         return delete(entityManager, deleteClass, null);
@@ -325,6 +458,8 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
             return (T) jpaProvider;
         } else if (ExpressionCache.class.equals(serviceClass)) {
             return (T) expressionCache;
+        } else if (MetricsListener.class.equals(serviceClass)) {
+            return (T) metricsListener;
         } else if (Metamodel.class.isAssignableFrom(serviceClass)) {
             return (T) metamodel;
         } else if (EntityManagerFactory.class.equals(serviceClass)) {
@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.impl;
 
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.LeafOngoingFinalSetOperationCriteriaBuilder;
 import com.blazebit.persistence.LeafOngoingSetOperationCriteriaBuilder;
@@ -24,6 +25,8 @@ import com.blazebit.persistence.SelectObjectBuilder;
 import com.blazebit.persistence.StartOngoingSetOperationCriteriaBuilder;
 import com.blazebit.persistence.spi.SetOperationType;
 
+import javax.persistence.EntityManager;
+
 /**
  *
  * @param <T> The query result type
@@ -42,6 +45,31 @@ public class CriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T, Criteria
         return (CriteriaBuilder<Y>) super.copy(resultClass);
     }
 
+    @Override
+    public <Y> CriteriaBuilder<Y> copy(EntityManager entityManager, Class<Y> resultClass) {
+        return (CriteriaBuilder<Y>) super.copy(entityManager, resultClass);
+    }
+
+    @Override
+    public CloseableIterator<T> getResultIterator(int fetchSize) {
+        return getResultIterator(getQuery(), fetchSize);
+    }
+
+    public QueryTemplateImpl<T> createTemplate() {
+        String queryString = getBaseQueryStringWithCheck();
+        verifyTemplateSupported();
+        return new QueryTemplateImpl<T>(
+                jpaProvider,
+                queryString,
+                selectManager.getExpectedQueryResultType(),
+                firstResult,
+                maxResults,
+                isCacheable(),
+                getTemplateObjectBuilder(),
+                parameterManager.copyParameters()
+        );
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <Y> SelectObjectBuilder<CriteriaBuilder<Y>> selectNew(Class<Y> clazz) {
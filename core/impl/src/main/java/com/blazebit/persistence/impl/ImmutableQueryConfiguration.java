@@ -40,6 +40,8 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
     private final boolean valuesClauseFilterNullsEnabled;
     private final boolean parameterAsLiteralRenderingEnabled;
     private final boolean optimizedKeysetPredicateRenderingEnabled;
+    private final boolean sqlRewriteCacheEnabled;
+    private final boolean inlineCountQueryEnabled;
 
     public ImmutableQueryConfiguration(Map<String, String> properties) {
         this.compatibleModeEnabled = PropertyUtils.getAsBooleanProperty(properties, ConfigurationProperties.COMPATIBLE_MODE, false);
@@ -54,6 +56,8 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         this.valuesClauseFilterNullsEnabled =               getBooleanProperty(properties, ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS,         "true");
         this.parameterAsLiteralRenderingEnabled =           getBooleanProperty(properties, ConfigurationProperties.PARAMETER_AS_LITERAL_RENDERING,     "true");
         this.optimizedKeysetPredicateRenderingEnabled =     getBooleanProperty(properties, ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING,     "true");
+        this.sqlRewriteCacheEnabled =                        getBooleanProperty(properties, ConfigurationProperties.SQL_REWRITE_CACHE_ENABLED,           "false");
+        this.inlineCountQueryEnabled =                      getBooleanProperty(properties, ConfigurationProperties.INLINE_COUNT_QUERY,                 "false");
     }
 
     @Override
@@ -111,6 +115,16 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         return optimizedKeysetPredicateRenderingEnabled;
     }
 
+    @Override
+    public boolean isSqlRewriteCacheEnabled() {
+        return sqlRewriteCacheEnabled;
+    }
+
+    @Override
+    public boolean isInlineCountQueryEnabled() {
+        return inlineCountQueryEnabled;
+    }
+
     @Override
     public void setCacheable(boolean cacheable) {
         throw new UnsupportedOperationException("Can't set cacheable on immutable query configuration!");
@@ -135,6 +149,8 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
             case ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS: return Boolean.toString(valuesClauseFilterNullsEnabled);
             case ConfigurationProperties.PARAMETER_AS_LITERAL_RENDERING: return Boolean.toString(parameterAsLiteralRenderingEnabled);
             case ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING: return Boolean.toString(optimizedKeysetPredicateRenderingEnabled);
+            case ConfigurationProperties.SQL_REWRITE_CACHE_ENABLED: return Boolean.toString(sqlRewriteCacheEnabled);
+            case ConfigurationProperties.INLINE_COUNT_QUERY: return Boolean.toString(inlineCountQueryEnabled);
             default: return null;
         }
     }
@@ -153,6 +169,8 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         properties.put(ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS, Boolean.toString(valuesClauseFilterNullsEnabled));
         properties.put(ConfigurationProperties.PARAMETER_AS_LITERAL_RENDERING, Boolean.toString(parameterAsLiteralRenderingEnabled));
         properties.put(ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING, Boolean.toString(optimizedKeysetPredicateRenderingEnabled));
+        properties.put(ConfigurationProperties.SQL_REWRITE_CACHE_ENABLED, Boolean.toString(sqlRewriteCacheEnabled));
+        properties.put(ConfigurationProperties.INLINE_COUNT_QUERY, Boolean.toString(inlineCountQueryEnabled));
         return properties;
     }
 
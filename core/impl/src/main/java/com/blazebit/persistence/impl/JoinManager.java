@@ -20,7 +20,9 @@ import com.blazebit.lang.StringUtils;
 import com.blazebit.lang.ValueRetriever;
 import com.blazebit.persistence.JoinOnBuilder;
 import com.blazebit.persistence.JoinType;
+import com.blazebit.persistence.LateralJoinBuilder;
 import com.blazebit.persistence.impl.builder.predicate.JoinOnBuilderImpl;
+import com.blazebit.persistence.impl.builder.predicate.LateralJoinBuilderImpl;
 import com.blazebit.persistence.impl.builder.predicate.PredicateBuilderEndedListenerImpl;
 import com.blazebit.persistence.parser.ListIndexAttribute;
 import com.blazebit.persistence.parser.MapEntryAttribute;
@@ -1292,6 +1294,30 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
     }
 
     <X> JoinOnBuilder<X> joinOn(X result, String base, Class<?> clazz, String alias, JoinType type) {
+        JoinNode entityJoinNode = createEntityJoinNode(base, clazz, alias, type);
+        joinOnBuilderListener.joinNode = entityJoinNode;
+        return joinOnBuilderListener.startBuilder(new JoinOnBuilderImpl<X>(result, joinOnBuilderListener, parameterManager, expressionFactory, subqueryInitFactory));
+    }
+
+    <X> LateralJoinBuilder<X> joinLateral(X result, String base, Class<?> clazz, String alias, JoinType type) {
+        if (type != JoinType.INNER && type != JoinType.LEFT) {
+            throw new IllegalArgumentException("Lateral joins only support the join types INNER and LEFT but got: " + type);
+        }
+        if (parent != null) {
+            throw new IllegalArgumentException("Lateral joins are not supported in subqueries!");
+        }
+
+        JoinNode entityJoinNode = createEntityJoinNode(base, clazz, alias, type);
+        entityJoinNode.setLateral(true);
+        entityFunctionNodes.add(entityJoinNode);
+
+        SingularAttribute<?, ?> idAttribute = JpaMetamodelUtils.getIdAttribute(metamodel.entity(clazz));
+        PathExpression idPath = expressionFactory.createPathExpression(alias + "." + idAttribute.getName());
+        joinOnBuilderListener.joinNode = entityJoinNode;
+        return joinOnBuilderListener.startBuilder(new LateralJoinBuilderImpl<X>(result, joinOnBuilderListener, idPath, parameterManager, expressionFactory, subqueryInitFactory));
+    }
+
+    private JoinNode createEntityJoinNode(String base, Class<?> clazz, String alias, JoinType type) {
         PathExpression basePath = expressionFactory.createPathExpression(base);
         EntityType<?> entityType = metamodel.entity(clazz);
 
@@ -1340,9 +1366,7 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
         joinAliasInfo.setJoinNode(entityJoinNode);
         baseNode.addEntityJoin(entityJoinNode);
         aliasManager.registerAliasInfo(joinAliasInfo);
-
-        joinOnBuilderListener.joinNode = entityJoinNode;
-        return joinOnBuilderListener.startBuilder(new JoinOnBuilderImpl<X>(result, joinOnBuilderListener, parameterManager, expressionFactory, subqueryInitFactory));
+        return entityJoinNode;
     }
 
     <X> JoinOnBuilder<X> joinOn(X result, String path, String alias, JoinType type, boolean defaultJoin) {
@@ -61,6 +61,7 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
 
     private JoinType joinType = JoinType.LEFT;
     private boolean fetch = false;
+    private boolean lateral = false;
 
     // We need this for count and id queries where we do not need all the joins
     private final EnumSet<ClauseType> clauseDependencies = EnumSet.noneOf(ClauseType.class);
@@ -100,6 +101,7 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
         this.parent = treatedJoinNode.parent;
         this.parentTreeNode = treatedJoinNode.parentTreeNode;
         this.joinType = treatedJoinNode.joinType;
+        this.lateral = treatedJoinNode.lateral;
         this.correlationParent = treatedJoinNode.correlationParent;
         this.correlationPath = treatedJoinNode.correlationPath;
         this.nodeType = treatedJoinNode.nodeType;
@@ -217,6 +219,7 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
         }
 
         newNode.fetch = fetch;
+        newNode.lateral = lateral;
 
         return newNode;
     }
@@ -441,6 +444,14 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
         return fetch;
     }
 
+    public boolean isLateral() {
+        return lateral;
+    }
+
+    public void setLateral(boolean lateral) {
+        this.lateral = lateral;
+    }
+
     public void setFetch(boolean fetch) {
         this.fetch = fetch;
     }
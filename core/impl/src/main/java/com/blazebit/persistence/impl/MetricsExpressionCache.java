@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.parser.expression.Expression;
+import com.blazebit.persistence.parser.expression.ExpressionCache;
+import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.parser.expression.MacroConfiguration;
+import com.blazebit.persistence.spi.MetricsCache;
+import com.blazebit.persistence.spi.MetricsListener;
+
+import java.util.Set;
+
+/**
+ * An expression cache decorator that reports hits and misses to a {@link MetricsListener}.
+ * A lookup is a miss if the delegate had to invoke the expression supplier.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class MetricsExpressionCache implements ExpressionCache {
+
+    private final ExpressionCache delegate;
+    private final MetricsListener metricsListener;
+
+    public MetricsExpressionCache(ExpressionCache delegate, MetricsListener metricsListener) {
+        this.delegate = delegate;
+        this.metricsListener = metricsListener;
+    }
+
+    @Override
+    public <E extends Expression> E getOrDefault(String cacheName, ExpressionFactory expressionFactory, String expression, boolean allowQuantifiedPredicates, MacroConfiguration macroConfiguration, ExpressionSupplier defaultExpressionSupplier) {
+        MissTrackingExpressionSupplier supplier = new MissTrackingExpressionSupplier(defaultExpressionSupplier);
+        E result = delegate.getOrDefault(cacheName, expressionFactory, expression, allowQuantifiedPredicates, macroConfiguration, supplier);
+        metricsListener.recordCacheAccess(MetricsCache.EXPRESSION, !supplier.invoked);
+        return result;
+    }
+
+    /**
+     *
+     * @author Christian Beikov
+     * @since 1.2.0
+     */
+    private static final class MissTrackingExpressionSupplier implements ExpressionSupplier {
+
+        private final ExpressionSupplier delegate;
+        private boolean invoked;
+
+        public MissTrackingExpressionSupplier(ExpressionSupplier delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Expression get(ExpressionFactory expressionFactory, String expression, boolean allowQuantifiedPredicates, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
+            invoked = true;
+            return delegate.get(expressionFactory, expression, allowQuantifiedPredicates, macroConfiguration, usedMacros);
+        }
+    }
+}
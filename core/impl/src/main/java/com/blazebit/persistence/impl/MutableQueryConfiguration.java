@@ -37,6 +37,8 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
     private boolean valuesClauseFilterNullsEnabled;
     private boolean parameterAsLiteralRenderingEnabled;
     private boolean optimizedKeysetPredicateRenderingEnabled;
+    private boolean sqlRewriteCacheEnabled;
+    private boolean inlineCountQueryEnabled;
     private boolean cacheable;
 
     public MutableQueryConfiguration(QueryConfiguration queryConfiguration) {
@@ -51,6 +53,8 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
         this.valuesClauseFilterNullsEnabled = queryConfiguration.isValuesClauseFilterNullsEnabled();
         this.parameterAsLiteralRenderingEnabled = queryConfiguration.isParameterAsLiteralRenderingEnabled();
         this.optimizedKeysetPredicateRenderingEnabled = queryConfiguration.isOptimizedKeysetPredicateRenderingEnabled();
+        this.sqlRewriteCacheEnabled = queryConfiguration.isSqlRewriteCacheEnabled();
+        this.inlineCountQueryEnabled = queryConfiguration.isInlineCountQueryEnabled();
         this.cacheable = queryConfiguration.isCacheable();
     }
 
@@ -109,6 +113,16 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
         return optimizedKeysetPredicateRenderingEnabled;
     }
 
+    @Override
+    public boolean isSqlRewriteCacheEnabled() {
+        return sqlRewriteCacheEnabled;
+    }
+
+    @Override
+    public boolean isInlineCountQueryEnabled() {
+        return inlineCountQueryEnabled;
+    }
+
     @Override
     public void setCacheable(boolean cacheable) {
         this.cacheable = cacheable;
@@ -138,9 +152,14 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
             case ConfigurationProperties.IMPLICIT_GROUP_BY_FROM_ORDER_BY:       implicitGroupByFromOrderByEnabled = booleanOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.EXPRESSION_OPTIMIZATION:               throw propertySetNotAllowed(propertyName);
             case ConfigurationProperties.EXPRESSION_CACHE_CLASS:                throw propertySetNotAllowed(propertyName);
+            case ConfigurationProperties.EXPRESSION_CACHE_MAXIMUM_WEIGHT:       throw propertySetNotAllowed(propertyName);
+            case ConfigurationProperties.EXPRESSION_CACHE_WEIGHER:              throw propertySetNotAllowed(propertyName);
             case ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS:            valuesClauseFilterNullsEnabled = booleanOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.PARAMETER_AS_LITERAL_RENDERING:        parameterAsLiteralRenderingEnabled = booleanOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING:  optimizedKeysetPredicateRenderingEnabled = booleanOrFail(propertyName, propertyValue); break;
+            case ConfigurationProperties.SQL_REWRITE_CACHE_ENABLED:              sqlRewriteCacheEnabled = booleanOrFail(propertyName, propertyValue); break;
+            case ConfigurationProperties.SQL_REWRITE_CACHE_MAXIMUM_SIZE:         throw propertySetNotAllowed(propertyName);
+            case ConfigurationProperties.INLINE_COUNT_QUERY:                    inlineCountQueryEnabled = booleanOrFail(propertyName, propertyValue); break;
             default: break;
         }
         // CHECKSTYLE:ON: OneStatementPerLine
@@ -25,6 +25,7 @@ import com.blazebit.persistence.SelectObjectBuilder;
 import com.blazebit.persistence.impl.builder.object.DelegatingKeysetExtractionObjectBuilder;
 import com.blazebit.persistence.impl.builder.object.KeysetExtractionObjectBuilder;
 import com.blazebit.persistence.impl.function.count.AbstractCountFunction;
+import com.blazebit.persistence.impl.function.count.CountOverFunction;
 import com.blazebit.persistence.impl.function.pageposition.PagePositionFunction;
 import com.blazebit.persistence.impl.keyset.KeysetMode;
 import com.blazebit.persistence.impl.keyset.KeysetPaginationHelper;
@@ -37,7 +38,9 @@ import com.blazebit.persistence.impl.query.ObjectBuilderTypedQuery;
 import com.blazebit.persistence.impl.query.QuerySpecification;
 import com.blazebit.persistence.impl.transform.ExpressionTransformerGroup;
 import com.blazebit.persistence.parser.util.JpaMetamodelUtils;
+import com.blazebit.persistence.spi.MetricsListener;
 
+import javax.persistence.EntityManager;
 import javax.persistence.Parameter;
 import javax.persistence.TypedQuery;
 import javax.persistence.metamodel.Attribute;
@@ -50,6 +53,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  *
@@ -64,12 +68,14 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
 
     private boolean keysetExtraction;
     private boolean withCountQuery = true;
+    private Executor countQueryExecutor;
     private int highestOffset = 0;
     private final KeysetPage keysetPage;
 
     // Mutable state
     private final Object entityId;
     private boolean needsNewIdList;
+    private boolean inlineCountQuery;
     private KeysetMode keysetMode;
 
     // Cache
@@ -108,7 +114,12 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
 
     @Override
     public <Y> PaginatedCriteriaBuilder<Y> copy(Class<Y> resultClass) {
-        FullQueryBuilder<Y, ?> criteriaBuilder = super.copy(resultClass);
+        return copy(getEntityManager(), resultClass);
+    }
+
+    @Override
+    public <Y> PaginatedCriteriaBuilder<Y> copy(EntityManager entityManager, Class<Y> resultClass) {
+        FullQueryBuilder<Y, ?> criteriaBuilder = super.copy(entityManager, resultClass);
         PaginatedCriteriaBuilder<Y> builder;
         if (entityId != null) {
             builder = criteriaBuilder.page(entityId, maxResults);
@@ -165,6 +176,10 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
 
     @Override
     public PaginatedCriteriaBuilder<T> withCountQuery(boolean withCountQuery) {
+        if (this.withCountQuery != withCountQuery) {
+            // The id query might contain the inline count
+            prepareForModification();
+        }
         this.withCountQuery = withCountQuery;
         return this;
     }
@@ -174,6 +189,17 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         return withCountQuery;
     }
 
+    @Override
+    public PaginatedCriteriaBuilder<T> withCountQueryExecutor(Executor executor) {
+        this.countQueryExecutor = executor;
+        return this;
+    }
+
+    @Override
+    public Executor getCountQueryExecutor() {
+        return countQueryExecutor;
+    }
+
     @Override
     public PaginatedCriteriaBuilder<T> withHighestKeysetOffset(int offset) {
         this.highestOffset = offset;
@@ -202,7 +228,8 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         boolean shouldRenderCteNodes = renderCteNodes(false);
         List<CTENode> ctes = shouldRenderCteNodes ? getCteNodes(baseQuery, false) : Collections.EMPTY_LIST;
         QuerySpecification querySpecification = new CustomQuerySpecification(
-                this, baseQuery, parameterManager.getParameters(), parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes, mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes
+                this, baseQuery, parameterManager.getParameters(), parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes, mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes,
+                getSqlRewriteCache(), countQueryString
         );
 
         TypedQuery<X> countQuery = new CustomSQLTypedQuery<X>(
@@ -233,6 +260,13 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
             countQuery = getCountQuery(countQueryString, Object[].class, normalQueryMode, keyRestrictedLeftJoins);
         }
 
+        ConcurrentCountQuery concurrentCountQuery = null;
+        // Only plain JPQL count queries can be run on a separate entity manager, the page position query must be run before the page query
+        if (countQueryExecutor != null && withCountQuery && !inlineCountQuery && entityId == null
+                && normalQueryMode && isEmpty(keyRestrictedLeftJoins, EnumSet.of(ClauseType.ORDER_BY, ClauseType.SELECT))) {
+            concurrentCountQuery = new ConcurrentCountQuery(countQueryExecutor, em.getEntityManagerFactory(), jpaProvider, countQueryString, isCacheable(), parameterManager.copyParameters());
+        }
+
         TypedQuery<?> idQuery = null;
         TypedQuery<T> objectQuery;
         KeysetExtractionObjectBuilder<T> objectBuilder;
@@ -250,6 +284,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
                 withCountQuery,
                 highestOffset,
                 countQuery,
+                concurrentCountQuery,
                 idQuery,
                 objectQuery,
                 objectBuilder,
@@ -258,6 +293,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
                 firstResult,
                 maxResults,
                 needsNewIdList,
+                inlineCountQuery,
                 keysetExtraction,
                 keysetMode,
                 keysetPage
@@ -265,9 +301,48 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         return query;
     }
 
+    public PaginatedQueryTemplateImpl<T> createTemplate() {
+        prepareAndCheck();
+        verifyTemplateSupported();
+        if (entityId != null || keysetMode != KeysetMode.NONE || keysetExtraction) {
+            throw new IllegalArgumentException("Query templates are not supported for keyset pagination or pagination based on an entity id!");
+        }
+
+        String countQueryString = getPageCountQueryStringWithoutCheck();
+        String idQueryString = null;
+        if (joinManager.hasCollections()) {
+            idQueryString = getPageIdQueryStringWithoutCheck();
+        }
+
+        return new PaginatedQueryTemplateImpl<T>(
+                jpaProvider,
+                withCountQuery,
+                countQueryString,
+                idQueryString,
+                getBaseQueryString(),
+                selectManager.getExpectedQueryResultType(),
+                firstResult,
+                maxResults,
+                needsNewIdList,
+                inlineCountQuery,
+                isCacheable(),
+                getTemplateObjectBuilder(),
+                parameterManager.copyParameters()
+        );
+    }
+
     @Override
     public PagedList<T> getResultList() {
-        return getQuery().getResultList();
+        PaginatedTypedQueryImpl<T> query = getQuery();
+        MetricsListener metricsListener = cbf.getMetricsListener();
+        if (metricsListener == null) {
+            return query.getResultList();
+        }
+
+        long start = System.nanoTime();
+        PagedList<T> resultList = query.getResultList();
+        recordExecution(metricsListener, start, resultList.size());
+        return resultList;
     }
 
     @Override
@@ -314,12 +389,6 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         return cachedExternalIdQueryString;
     }
 
-    @Override
-    public String getQueryString() {
-        prepareAndCheck();
-        return getExternalQueryString();
-    }
-
     @Override
     protected String getBaseQueryString() {
         if (cachedQueryString == null) {
@@ -379,6 +448,9 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         }
 
         needsNewIdList = keysetExtraction || orderByManager.hasComplexOrderBys();
+        // The count can only be inlined into the id query if that query is not restricted by a keyset
+        inlineCountQuery = withCountQuery && entityId == null && keysetMode == KeysetMode.NONE && joinManager.hasCollections()
+                && mainQuery.getQueryConfiguration().isInlineCountQueryEnabled() && dbmsDialect.supportsWindowFunctions();
 
         // No need to do the check again if no mutation occurs
         needsCheck = false;
@@ -413,7 +485,8 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
             boolean shouldRenderCteNodes = renderCteNodes(false);
             List<CTENode> ctes = shouldRenderCteNodes ? getCteNodes(baseQuery, false) : Collections.EMPTY_LIST;
             QuerySpecification querySpecification = new CustomQuerySpecification(
-                    this, baseQuery, parameterManager.getParameters(), parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes, mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes
+                    this, baseQuery, parameterManager.getParameters(), parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes, mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes,
+                    getSqlRewriteCache(), queryString
             );
 
             query = new CustomSQLTypedQuery<T>(
@@ -428,6 +501,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
 
         KeysetExtractionObjectBuilder<T> objectBuilder = null;
         ObjectBuilder<T> transformerObjectBuilder = selectManager.getSelectObjectBuilder();
+        MetricsListener metricsListener = getMetricsListener(transformerObjectBuilder);
 
         if (keysetExtraction) {
             int keysetSize = orderByManager.getOrderByCount();
@@ -442,7 +516,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         }
 
         if (transformerObjectBuilder != null) {
-            query = new ObjectBuilderTypedQuery<>(query, transformerObjectBuilder);
+            query = new ObjectBuilderTypedQuery<>(query, transformerObjectBuilder, metricsListener);
         }
 
         return new AbstractMap.SimpleEntry<TypedQuery<T>, KeysetExtractionObjectBuilder<T>>(query, objectBuilder);
@@ -466,7 +540,8 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         boolean shouldRenderCteNodes = renderCteNodes(false);
         List<CTENode> ctes = shouldRenderCteNodes ? getCteNodes(baseQuery, false) : Collections.EMPTY_LIST;
         QuerySpecification querySpecification = new CustomQuerySpecification(
-                this, baseQuery, parameterManager.getParameters(), parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes, mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes
+                this, baseQuery, parameterManager.getParameters(), parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes, mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes,
+                getSqlRewriteCache(), idQueryString
         );
 
         TypedQuery<Object[]> idQuery = new CustomSQLTypedQuery<Object[]>(
@@ -502,7 +577,8 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         Set<Parameter<?>> parameters = new HashSet<>(parameterManager.getParameters());
         parameters.add(baseQuery.getParameter(ID_PARAM_NAME));
         QuerySpecification querySpecification = new CustomQuerySpecification(
-                this, baseQuery, parameters, parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes, mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes
+                this, baseQuery, parameters, parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes, mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes,
+                getSqlRewriteCache(), getBaseQueryString()
         );
 
         TypedQuery<T> query = new CustomSQLTypedQuery<T>(
@@ -633,6 +709,10 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         // TODO: only append if it does not appear in the order by or it may be included twice
         sbSelectFrom.append("SELECT ").append(idClause);
 
+        if (inlineCountQuery) {
+            sbSelectFrom.append(", ").append(jpaProvider.getCustomFunctionInvocation(CountOverFunction.FUNCTION_NAME, 0)).append(')');
+        }
+
         if (needsNewIdList) {
             orderByManager.buildSelectClauses(sbSelectFrom, keysetExtraction);
         }
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.PaginatedQueryTemplate;
+import com.blazebit.persistence.PaginatedTypedQuery;
+import com.blazebit.persistence.impl.keyset.KeysetMode;
+import com.blazebit.persistence.impl.query.ObjectBuilderTypedQuery;
+import com.blazebit.persistence.spi.JpaProvider;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Parameter;
+import javax.persistence.TypedQuery;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class PaginatedQueryTemplateImpl<T> implements PaginatedQueryTemplate<T> {
+
+    private final JpaProvider jpaProvider;
+    private final boolean withCount;
+    private final String countQueryString;
+    private final String idQueryString;
+    private final String objectQueryString;
+    private final Class<?> expectedResultType;
+    private final int firstResult;
+    private final int maxResults;
+    private final boolean needsNewIdList;
+    private final boolean inlinedCountQuery;
+    private final boolean cacheable;
+    private final ObjectBuilder<T> objectBuilder;
+    private final Map<String, ParameterManager.ParameterImpl<?>> parameters;
+    private final Set<Parameter<?>> parameterSet;
+
+    public PaginatedQueryTemplateImpl(JpaProvider jpaProvider, boolean withCount, String countQueryString, String idQueryString, String objectQueryString, Class<?> expectedResultType, int firstResult, int maxResults,
+                                      boolean needsNewIdList, boolean inlinedCountQuery, boolean cacheable, ObjectBuilder<T> objectBuilder, Map<String, ParameterManager.ParameterImpl<?>> parameters) {
+        this.jpaProvider = jpaProvider;
+        this.withCount = withCount;
+        this.countQueryString = countQueryString;
+        this.idQueryString = idQueryString;
+        this.objectQueryString = objectQueryString;
+        this.expectedResultType = expectedResultType;
+        this.firstResult = firstResult;
+        this.maxResults = maxResults;
+        this.needsNewIdList = needsNewIdList;
+        this.inlinedCountQuery = inlinedCountQuery;
+        this.cacheable = cacheable;
+        this.objectBuilder = objectBuilder;
+        this.parameters = parameters;
+        this.parameterSet = Collections.unmodifiableSet(new HashSet<Parameter<?>>(parameters.values()));
+    }
+
+    @Override
+    public String getPageCountQueryString() {
+        return countQueryString;
+    }
+
+    @Override
+    public String getPageIdQueryString() {
+        return idQueryString;
+    }
+
+    @Override
+    public String getQueryString() {
+        return objectQueryString;
+    }
+
+    @Override
+    public PaginatedTypedQuery<T> createQuery(EntityManager entityManager) {
+        return createQuery(entityManager, firstResult, maxResults);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public PaginatedTypedQuery<T> createQuery(EntityManager entityManager, int firstResult, int maxResults) {
+        if (firstResult < 0) {
+            throw new IllegalArgumentException("firstResult may not be negative");
+        }
+        if (maxResults <= 0) {
+            throw new IllegalArgumentException("maxResults may not be zero or negative");
+        }
+
+        TypedQuery<?> countQuery = prepareQuery(entityManager.createQuery(countQueryString, Long.class), Collections.<String>emptySet());
+
+        TypedQuery<?> idQuery = null;
+        TypedQuery<?> objectQuery;
+        if (idQueryString == null) {
+            objectQuery = prepareQuery(entityManager.createQuery(objectQueryString, expectedResultType), Collections.<String>emptySet());
+        } else {
+            idQuery = prepareQuery(entityManager.createQuery(idQueryString, Object[].class), Collections.<String>emptySet());
+            objectQuery = prepareQuery(entityManager.createQuery(objectQueryString, expectedResultType), Collections.singleton(AbstractCommonQueryBuilder.ID_PARAM_NAME));
+        }
+
+        if (objectBuilder != null) {
+            objectQuery = new ObjectBuilderTypedQuery<>(objectQuery, objectBuilder);
+        }
+
+        return new PaginatedTypedQueryImpl<>(
+                withCount,
+                0,
+                countQuery,
+                null,
+                idQuery,
+                (TypedQuery<T>) objectQuery,
+                null,
+                parameterSet,
+                null,
+                firstResult,
+                maxResults,
+                needsNewIdList,
+                inlinedCountQuery,
+                false,
+                KeysetMode.NONE,
+                null
+        );
+    }
+
+    private TypedQuery<?> prepareQuery(TypedQuery<?> query, Set<String> skippedParameters) {
+        if (cacheable) {
+            jpaProvider.setCacheable(query);
+        }
+        QueryTemplateImpl.bindParameters(query, parameters, skippedParameters);
+        return new TemplateTypedQuery<>(query, parameters);
+    }
+}
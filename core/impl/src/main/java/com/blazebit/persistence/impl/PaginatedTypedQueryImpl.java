@@ -37,6 +37,7 @@ import javax.persistence.TemporalType;
 import javax.persistence.TypedQuery;
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.Future;
 
 /**
  * @author Christian Beikov
@@ -47,6 +48,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
     private final boolean withCount;
     private final int highestOffset;
     private final TypedQuery<?> countQuery;
+    private final ConcurrentCountQuery concurrentCountQuery;
     private final TypedQuery<?> idQuery;
     private final TypedQuery<X> objectQuery;
     private final KeysetExtractionObjectBuilder<X> objectBuilder;
@@ -57,14 +59,17 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
     private int pageSize;
 
     private final boolean needsNewIdList;
+    private final boolean inlinedCountQuery;
     private final boolean keysetExtraction;
     private final KeysetMode keysetMode;
     private final KeysetPage keysetPage;
 
-    public PaginatedTypedQueryImpl(boolean withCount, int highestOffset, TypedQuery<?> countQuery, TypedQuery<?> idQuery, TypedQuery<X> objectQuery, KeysetExtractionObjectBuilder<X> objectBuilder, Set<Parameter<?>> parameters, Object entityId, int firstResult, int pageSize, boolean needsNewIdList, boolean keysetExtraction, KeysetMode keysetMode, KeysetPage keysetPage) {
+    public PaginatedTypedQueryImpl(boolean withCount, int highestOffset, TypedQuery<?> countQuery, ConcurrentCountQuery concurrentCountQuery, TypedQuery<?> idQuery, TypedQuery<X> objectQuery,
+                                   KeysetExtractionObjectBuilder<X> objectBuilder, Set<Parameter<?>> parameters, Object entityId, int firstResult, int pageSize, boolean needsNewIdList, boolean inlinedCountQuery, boolean keysetExtraction, KeysetMode keysetMode, KeysetPage keysetPage) {
         this.withCount = withCount;
         this.highestOffset = highestOffset;
         this.countQuery = countQuery;
+        this.concurrentCountQuery = concurrentCountQuery;
         this.idQuery = idQuery;
         this.objectQuery = objectQuery;
         this.objectBuilder = objectBuilder;
@@ -73,6 +78,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
         this.firstResult = firstResult;
         this.pageSize = pageSize;
         this.needsNewIdList = needsNewIdList;
+        this.inlinedCountQuery = inlinedCountQuery;
         this.keysetExtraction = keysetExtraction;
         this.keysetMode = keysetMode;
         this.keysetPage = keysetPage;
@@ -121,6 +127,18 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
         return name;
     }
 
+    public TypedQuery<?> getCountQuery() {
+        return countQuery;
+    }
+
+    public TypedQuery<?> getIdQuery() {
+        return idQuery;
+    }
+
+    public TypedQuery<X> getObjectQuery() {
+        return objectQuery;
+    }
+
     @Override
     public long getTotalCount() {
         return (Long) countQuery.getSingleResult();
@@ -130,7 +148,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
     public List<X> getPageResultList() {
         int queryFirstResult = firstResult;
         int firstRow = firstResult;
-        return getResultList(queryFirstResult, firstRow, -1L);
+        return getResultList(queryFirstResult, firstRow, -1L, false);
     }
 
     @Override
@@ -140,7 +158,12 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
         int firstRow = firstResult;
         long totalSize = -1L;
         if (withCount) {
-            if (entityId == null) {
+            if (inlinedCountQuery) {
+                // The total count is selected along with the ids
+                return getResultList(queryFirstResult, firstRow, totalSize, true);
+            } else if (concurrentCountQuery != null) {
+                return getResultListWithConcurrentCount(queryFirstResult, firstRow);
+            } else if (entityId == null) {
                 totalSize = (Long) countQuery.getSingleResult();
             } else {
                 Object[] result = (Object[]) countQuery.getSingleResult();
@@ -162,10 +185,24 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
             return new PagedArrayList<X>(null, totalSize, queryFirstResult, pageSize);
         }
 
-        return getResultList(queryFirstResult, firstRow, totalSize);
+        return getResultList(queryFirstResult, firstRow, totalSize, false);
     }
 
-    private PagedList<X> getResultList(int queryFirstResult, int firstRow, long totalSize) {
+    private PagedList<X> getResultListWithConcurrentCount(int queryFirstResult, int firstRow) {
+        Future<Long> countFuture = concurrentCountQuery.submit();
+        PagedList<X> resultList;
+        try {
+            resultList = getResultList(queryFirstResult, firstRow, -1L, false);
+        } catch (RuntimeException ex) {
+            countFuture.cancel(true);
+            throw ex;
+        }
+
+        long totalSize = concurrentCountQuery.getResult(countFuture);
+        return new PagedArrayList<X>(resultList, resultList.getKeysetPage(), totalSize, queryFirstResult, pageSize);
+    }
+
+    private PagedList<X> getResultList(int queryFirstResult, int firstRow, long totalSize, boolean extractCount) {
         if (idQuery != null) {
             idQuery.setMaxResults(pageSize);
 
@@ -177,6 +214,17 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
 
             List<?> ids = idQuery.getResultList();
 
+            if (extractCount) {
+                if (!ids.isEmpty()) {
+                    totalSize = ((Number) ((Object[]) ids.get(0))[1]).longValue();
+                } else if (firstRow == 0) {
+                    totalSize = 0L;
+                } else {
+                    // The requested page is beyond the last page so we have to query the count separately
+                    totalSize = (Long) countQuery.getSingleResult();
+                }
+            }
+
             if (ids.isEmpty()) {
                 KeysetPage newKeysetPage = null;
                 if (keysetMode == KeysetMode.NEXT) {
@@ -190,11 +238,13 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
             Serializable[] lowest = null;
             Serializable[] highest = null;
 
-            if (needsNewIdList) {
+            if (needsNewIdList || inlinedCountQuery) {
                 if (keysetExtraction) {
+                    // The keyset comes after the id and the inline count
+                    int keysetOffset = inlinedCountQuery ? 2 : 1;
                     int keysetPageSize = pageSize - highestOffset;
-                    lowest = KeysetPaginationHelper.extractKey((Object[]) ids.get(0), 1);
-                    highest = KeysetPaginationHelper.extractKey((Object[]) (ids.size() >= keysetPageSize ? ids.get(keysetPageSize - 1) : ids.get(ids.size() - 1)), 1);
+                    lowest = KeysetPaginationHelper.extractKey((Object[]) ids.get(0), keysetOffset);
+                    highest = KeysetPaginationHelper.extractKey((Object[]) (ids.size() >= keysetPageSize ? ids.get(keysetPageSize - 1) : ids.get(ids.size() - 1)), keysetOffset);
                 }
 
                 List<Object> newIds = new ArrayList<Object>(ids.size());
@@ -329,6 +379,9 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                 query.setParameter(param.getName(), value);
             }
         }
+        if (concurrentCountQuery != null) {
+            concurrentCountQuery.setParameter(getParameterName(param), value);
+        }
         return this;
     }
 
@@ -350,6 +403,9 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                 query.setParameter(param.getName(), value, temporalType);
             }
         }
+        if (concurrentCountQuery != null) {
+            concurrentCountQuery.setParameter(getParameterName(param), value, temporalType);
+        }
         return this;
     }
 
@@ -371,6 +427,9 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                 query.setParameter(param.getName(), value, temporalType);
             }
         }
+        if (concurrentCountQuery != null) {
+            concurrentCountQuery.setParameter(getParameterName(param), value, temporalType);
+        }
         return this;
     }
 
@@ -134,6 +134,14 @@ public class ParameterManager {
         }
     }
 
+    Map<String, ParameterImpl<?>> copyParameters() {
+        Map<String, ParameterImpl<?>> copy = new HashMap<>(parameters.size());
+        for (Map.Entry<String, ParameterImpl<?>> entry : parameters.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().copy());
+        }
+        return copy;
+    }
+
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public ParameterImpl<?> getParameter(String parameterName) {
         if (parameterName == null) {
@@ -353,6 +361,26 @@ public class ParameterManager {
             setValue(value);
         }
 
+        @SuppressWarnings("unchecked")
+        private ParameterImpl(ParameterImpl<T> original) {
+            this.name = original.name;
+            this.position = original.position;
+            this.collectionValued = original.collectionValued;
+            this.clauseTypes = EnumSet.copyOf(original.clauseTypes);
+            this.parameterType = original.parameterType;
+            this.valueSet = original.valueSet;
+            this.tranformer = original.tranformer;
+            if (original.value instanceof ParameterValue) {
+                this.value = (T) ((ParameterValue) original.value).copy();
+            } else {
+                this.value = original.value;
+            }
+        }
+
+        ParameterImpl<T> copy() {
+            return new ParameterImpl<T>(this);
+        }
+
         @Override
         public String getName() {
             return name;
@@ -497,6 +525,8 @@ public class ParameterManager {
 
         public ParameterValue withValue(Object value);
 
+        public ParameterValue copy();
+
         public void bind(Query query, String name);
 
     }
@@ -526,6 +556,11 @@ public class ParameterManager {
             return this;
         }
 
+        @Override
+        public ParameterValue copy() {
+            return new TemporalCalendarParameterWrapper(type, value);
+        }
+
         @Override
         public Class<?> getValueType() {
             return Calendar.class;
@@ -562,6 +597,11 @@ public class ParameterManager {
             return this;
         }
 
+        @Override
+        public ParameterValue copy() {
+            return new TemporalDateParameterWrapper(type, value);
+        }
+
         @Override
         public Class<?> getValueType() {
             return Date.class;
@@ -588,6 +628,12 @@ public class ParameterManager {
             this.binder = new ValuesParameterBinder(parameterNames, pathExpressions);
         }
 
+        private ValuesParameterWrapper(Class<?> type, ValuesParameterBinder binder, Collection<Object> value) {
+            this.type = type;
+            this.binder = binder;
+            this.value = value;
+        }
+
         public ValuesParameterBinder getBinder() {
             return binder;
         }
@@ -621,6 +667,11 @@ public class ParameterManager {
             return this;
         }
 
+        @Override
+        public ParameterValue copy() {
+            return new ValuesParameterWrapper(type, binder, value);
+        }
+
         @Override
         public void bind(Query query, String name) {
             if (value == null) {
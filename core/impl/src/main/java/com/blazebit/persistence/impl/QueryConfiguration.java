@@ -47,6 +47,10 @@ public interface QueryConfiguration {
 
     public boolean isOptimizedKeysetPredicateRenderingEnabled();
 
+    public boolean isSqlRewriteCacheEnabled();
+
+    public boolean isInlineCountQueryEnabled();
+
     public String getProperty(String name);
 
     public Map<String, String> getProperties();
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.QueryTemplate;
+import com.blazebit.persistence.impl.query.ObjectBuilderTypedQuery;
+import com.blazebit.persistence.spi.JpaProvider;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class QueryTemplateImpl<T> implements QueryTemplate<T> {
+
+    private final JpaProvider jpaProvider;
+    private final String queryString;
+    private final Class<?> expectedResultType;
+    private final int firstResult;
+    private final int maxResults;
+    private final boolean cacheable;
+    private final ObjectBuilder<T> objectBuilder;
+    private final Map<String, ParameterManager.ParameterImpl<?>> parameters;
+
+    public QueryTemplateImpl(JpaProvider jpaProvider, String queryString, Class<?> expectedResultType, int firstResult, int maxResults, boolean cacheable, ObjectBuilder<T> objectBuilder, Map<String, ParameterManager.ParameterImpl<?>> parameters) {
+        this.jpaProvider = jpaProvider;
+        this.queryString = queryString;
+        this.expectedResultType = expectedResultType;
+        this.firstResult = firstResult;
+        this.maxResults = maxResults;
+        this.cacheable = cacheable;
+        this.objectBuilder = objectBuilder;
+        this.parameters = parameters;
+    }
+
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TypedQuery<T> createQuery(EntityManager entityManager) {
+        TypedQuery<?> query = entityManager.createQuery(queryString, expectedResultType);
+        if (firstResult != 0) {
+            query.setFirstResult(firstResult);
+        }
+        if (maxResults != Integer.MAX_VALUE) {
+            query.setMaxResults(maxResults);
+        }
+        if (cacheable) {
+            jpaProvider.setCacheable(query);
+        }
+        bindParameters(query, parameters, Collections.<String>emptySet());
+        query = new TemplateTypedQuery<>(query, parameters);
+        if (objectBuilder != null) {
+            return new ObjectBuilderTypedQuery<>(query, objectBuilder);
+        }
+        return (TypedQuery<T>) query;
+    }
+
+    static void bindParameters(Query query, Map<String, ParameterManager.ParameterImpl<?>> parameters, Set<String> skippedParameters) {
+        for (Parameter<?> p : query.getParameters()) {
+            String parameterName = p.getName();
+            // In case of positional parameters, we convert the position to a string and look it up instead
+            if (parameterName == null) {
+                parameterName = p.getPosition().toString();
+            }
+            if (skippedParameters.contains(parameterName)) {
+                continue;
+            }
+            ParameterManager.ParameterImpl<?> parameter = parameters.get(parameterName);
+            if (parameter == null) {
+                throw new IllegalArgumentException(String.format("Parameter name \"%s\" does not exist", parameterName));
+            }
+
+            parameter.bind(query);
+        }
+    }
+}
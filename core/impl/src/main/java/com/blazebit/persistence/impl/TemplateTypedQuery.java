@@ -0,0 +1,80 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.impl.query.TypedQueryWrapper;
+
+import javax.persistence.Parameter;
+import javax.persistence.TypedQuery;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A query created from a template that binds parameter values through copies of the template parameters,
+ * so that parameter value transformers and values parameter binders are applied like on a query builder.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+class TemplateTypedQuery<X> extends TypedQueryWrapper<X> {
+
+    private final Map<String, ParameterManager.ParameterImpl<?>> parameters;
+
+    @SuppressWarnings("unchecked")
+    public TemplateTypedQuery(TypedQuery<?> delegate, Map<String, ParameterManager.ParameterImpl<?>> templateParameters) {
+        super((TypedQuery<X>) delegate);
+        this.parameters = new HashMap<>(templateParameters.size());
+        for (Map.Entry<String, ParameterManager.ParameterImpl<?>> entry : templateParameters.entrySet()) {
+            this.parameters.put(entry.getKey(), entry.getValue().copy());
+        }
+    }
+
+    @Override
+    public <T> TypedQuery<X> setParameter(Parameter<T> prmtr, T t) {
+        if (prmtr.getName() == null) {
+            return setParameter(prmtr.getPosition(), t);
+        }
+        return setParameter(prmtr.getName(), t);
+    }
+
+    @Override
+    public TypedQuery<X> setParameter(String string, Object o) {
+        if (!bind(string, o)) {
+            delegate.setParameter(string, o);
+        }
+        return this;
+    }
+
+    @Override
+    public TypedQuery<X> setParameter(int i, Object o) {
+        if (!bind(Integer.toString(i), o)) {
+            delegate.setParameter(i, o);
+        }
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean bind(String name, Object value) {
+        ParameterManager.ParameterImpl<Object> parameter = (ParameterManager.ParameterImpl<Object>) parameters.get(name);
+        if (parameter == null) {
+            return false;
+        }
+        parameter.setValue(value);
+        parameter.bind(delegate);
+        return true;
+    }
+}
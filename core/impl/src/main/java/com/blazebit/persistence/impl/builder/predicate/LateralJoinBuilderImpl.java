@@ -0,0 +1,152 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.builder.predicate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.blazebit.persistence.LateralJoinBuilder;
+import com.blazebit.persistence.impl.ClauseType;
+import com.blazebit.persistence.impl.ParameterManager;
+import com.blazebit.persistence.impl.SubqueryInitiatorFactory;
+import com.blazebit.persistence.impl.function.lateral.LateralJoinEndFunction;
+import com.blazebit.persistence.impl.function.lateral.LateralJoinStartFunction;
+import com.blazebit.persistence.parser.expression.Expression;
+import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.parser.expression.FunctionExpression;
+import com.blazebit.persistence.parser.expression.NumericLiteral;
+import com.blazebit.persistence.parser.expression.NumericType;
+import com.blazebit.persistence.parser.expression.PathExpression;
+import com.blazebit.persistence.parser.expression.StringLiteral;
+import com.blazebit.persistence.parser.predicate.BooleanLiteral;
+import com.blazebit.persistence.parser.predicate.CompoundPredicate;
+import com.blazebit.persistence.parser.predicate.EqPredicate;
+import com.blazebit.persistence.parser.predicate.Predicate;
+
+/**
+ * A join on builder for lateral joins that wraps the on clause with the lateral join marker functions.
+ * The end marker carries the id of the joined entity, the limit, the offset and the ordering of the lateral join
+ * so that the SQL transformation can turn the join into a lateral subquery.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class LateralJoinBuilderImpl<T> extends JoinOnBuilderImpl<T> implements LateralJoinBuilder<T> {
+
+    private final PathExpression idPath;
+    private final ParameterManager parameterManager;
+    private final ExpressionFactory expressionFactory;
+    private final List<Expression> orderByArguments = new ArrayList<Expression>();
+    private int maxResults = Integer.MAX_VALUE;
+    private int firstResult;
+    private CompoundPredicate lateralPredicate;
+
+    public LateralJoinBuilderImpl(T result, PredicateBuilderEndedListener listener, PathExpression idPath, ParameterManager parameterManager, ExpressionFactory expressionFactory, SubqueryInitiatorFactory subqueryInitFactory) {
+        super(result, listener, parameterManager, expressionFactory, subqueryInitFactory);
+        this.idPath = idPath;
+        this.parameterManager = parameterManager;
+        this.expressionFactory = expressionFactory;
+    }
+
+    @Override
+    public LateralJoinBuilder<T> orderBy(String expression, boolean ascending, boolean nullFirst) {
+        Expression orderByExpression = expressionFactory.createSimpleExpression(expression, false);
+        parameterManager.collectParameterRegistrations(orderByExpression, ClauseType.JOIN);
+        if (orderByArguments.isEmpty()) {
+            orderByArguments.add(new StringLiteral("ORDER BY"));
+        }
+        orderByArguments.add(orderByExpression);
+        orderByArguments.add(new StringLiteral((ascending ? "ASC" : "DESC") + (nullFirst ? " NULLS FIRST" : " NULLS LAST")));
+        return this;
+    }
+
+    @Override
+    public LateralJoinBuilder<T> orderByAsc(String expression) {
+        return orderBy(expression, true, false);
+    }
+
+    @Override
+    public LateralJoinBuilder<T> orderByAsc(String expression, boolean nullFirst) {
+        return orderBy(expression, true, nullFirst);
+    }
+
+    @Override
+    public LateralJoinBuilder<T> orderByDesc(String expression) {
+        return orderBy(expression, false, false);
+    }
+
+    @Override
+    public LateralJoinBuilder<T> orderByDesc(String expression, boolean nullFirst) {
+        return orderBy(expression, false, nullFirst);
+    }
+
+    @Override
+    public LateralJoinBuilder<T> setMaxResults(int maxResults) {
+        if (maxResults < 0) {
+            throw new IllegalArgumentException("Invalid negative max results for lateral join: " + maxResults);
+        }
+        this.maxResults = maxResults;
+        return this;
+    }
+
+    @Override
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    @Override
+    public LateralJoinBuilder<T> setFirstResult(int firstResult) {
+        if (firstResult < 0) {
+            throw new IllegalArgumentException("Invalid negative first result for lateral join: " + firstResult);
+        }
+        this.firstResult = firstResult;
+        return this;
+    }
+
+    @Override
+    public int getFirstResult() {
+        return firstResult;
+    }
+
+    @Override
+    public CompoundPredicate getPredicate() {
+        if (lateralPredicate == null) {
+            CompoundPredicate onPredicate = super.getPredicate();
+            List<Expression> endArguments = new ArrayList<Expression>(orderByArguments.size() + 4);
+            endArguments.add(new StringLiteral(LateralJoinEndFunction.FUNCTION_NAME.toUpperCase()));
+            endArguments.add(idPath);
+            // An offset can only be rendered along with a limit
+            if (maxResults != Integer.MAX_VALUE || firstResult != 0) {
+                endArguments.add(new NumericLiteral(Integer.toString(maxResults), NumericType.INTEGER));
+            }
+            if (firstResult != 0) {
+                endArguments.add(new NumericLiteral(Integer.toString(firstResult), NumericType.INTEGER));
+            }
+            endArguments.addAll(orderByArguments);
+
+            List<Predicate> children = new ArrayList<Predicate>(3);
+            children.add(new EqPredicate(new FunctionExpression("FUNCTION", Arrays.<Expression>asList(new StringLiteral(LateralJoinStartFunction.FUNCTION_NAME.toUpperCase()))), new BooleanLiteral(true)));
+            if (!onPredicate.getChildren().isEmpty()) {
+                children.add(onPredicate);
+            }
+            children.add(new EqPredicate(new FunctionExpression("FUNCTION", endArguments), new BooleanLiteral(true)));
+            lateralPredicate = new CompoundPredicate(CompoundPredicate.BooleanOperator.AND, children);
+        }
+        return lateralPredicate;
+    }
+}
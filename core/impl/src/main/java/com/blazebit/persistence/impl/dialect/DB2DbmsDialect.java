@@ -23,6 +23,8 @@ import java.util.Map;
 import com.blazebit.persistence.spi.DbmsLimitHandler;
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.DbmsStatementType;
+import com.blazebit.persistence.spi.LateralStyle;
+import com.blazebit.persistence.spi.UpsertStyle;
 import com.blazebit.persistence.spi.OrderByElement;
 
 /**
@@ -220,6 +222,16 @@ public class DB2DbmsDialect extends DefaultDbmsDialect {
         return new DB2DbmsLimitHandler();
     }
 
+    @Override
+    public LateralStyle getLateralStyle() {
+        return LateralStyle.LATERAL;
+    }
+
+    @Override
+    public UpsertStyle getUpsertStyle() {
+        return UpsertStyle.MERGE;
+    }
+
     protected boolean isCompatibilityVectorMYS() {
         // This requires DB2_COMPATIBILITY_VECTOR=MYS
         // See for reference: https://www.ibm.com/developerworks/community/blogs/SQLTips4DB2LUW/entry/limit_offset?lang=en
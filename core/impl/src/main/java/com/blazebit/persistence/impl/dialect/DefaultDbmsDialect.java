@@ -32,8 +32,10 @@ import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.DbmsLimitHandler;
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.DbmsStatementType;
+import com.blazebit.persistence.spi.LateralStyle;
 import com.blazebit.persistence.spi.OrderByElement;
 import com.blazebit.persistence.spi.SetOperationType;
+import com.blazebit.persistence.spi.UpsertStyle;
 import com.blazebit.persistence.spi.ValuesStrategy;
 
 /**
@@ -124,6 +126,16 @@ public class DefaultDbmsDialect implements DbmsDialect {
         return true;
     }
 
+    @Override
+    public boolean supportsWindowFunctions() {
+        return true;
+    }
+
+    @Override
+    public int getInListLimit() {
+        return -1;
+    }
+
     @Override
     public String getSqlType(Class<?> castType) {
         return sqlTypes.get(castType);
@@ -448,6 +460,150 @@ public class DefaultDbmsDialect implements DbmsDialect {
         return ValuesStrategy.VALUES;
     }
 
+    @Override
+    public LateralStyle getLateralStyle() {
+        return LateralStyle.NONE;
+    }
+
+    @Override
+    public UpsertStyle getUpsertStyle() {
+        return UpsertStyle.NONE;
+    }
+
+    @Override
+    public void appendUpsert(StringBuilder sqlSb, String[] conflictColumns, String[] updateColumns) {
+        switch (getUpsertStyle()) {
+            case ON_CONFLICT:
+                appendOnConflict(sqlSb, conflictColumns, updateColumns);
+                break;
+            case ON_DUPLICATE_KEY:
+                appendOnDuplicateKey(sqlSb, conflictColumns, updateColumns);
+                break;
+            case MERGE:
+                appendMerge(sqlSb, conflictColumns, updateColumns);
+                break;
+            case MERGE_KEY:
+                appendMergeKey(sqlSb, conflictColumns);
+                break;
+            default:
+                throw new IllegalArgumentException("Upserts are not supported by this dbms!");
+        }
+    }
+
+    protected void appendOnConflict(StringBuilder sqlSb, String[] conflictColumns, String[] updateColumns) {
+        sqlSb.append(" on conflict (");
+        appendColumns(sqlSb, null, conflictColumns);
+        if (updateColumns.length == 0) {
+            sqlSb.append(") do nothing");
+            return;
+        }
+
+        sqlSb.append(") do update set ");
+        for (int i = 0; i < updateColumns.length; i++) {
+            if (i != 0) {
+                sqlSb.append(", ");
+            }
+            sqlSb.append(updateColumns[i]).append(" = excluded.").append(updateColumns[i]);
+        }
+    }
+
+    protected void appendOnDuplicateKey(StringBuilder sqlSb, String[] conflictColumns, String[] updateColumns) {
+        sqlSb.append(" on duplicate key update ");
+        if (updateColumns.length == 0) {
+            // A no-op assignment skips the conflicting rows
+            sqlSb.append(conflictColumns[0]).append(" = ").append(conflictColumns[0]);
+            return;
+        }
+
+        for (int i = 0; i < updateColumns.length; i++) {
+            if (i != 0) {
+                sqlSb.append(", ");
+            }
+            sqlSb.append(updateColumns[i]).append(" = values(").append(updateColumns[i]).append(')');
+        }
+    }
+
+    protected void appendMerge(StringBuilder sqlSb, String[] conflictColumns, String[] updateColumns) {
+        int columnsStart = sqlSb.indexOf("(");
+        int columnsEnd = sqlSb.indexOf(")", columnsStart);
+        String tableName = sqlSb.substring(indexOfIgnoreCase(sqlSb, "insert into ") + "insert into ".length(), columnsStart).trim();
+        String[] columns = sqlSb.substring(columnsStart + 1, columnsEnd).split(",");
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = columns[i].trim();
+        }
+
+        // The select items are aliased by the column names to be able to refer to them
+        final int[] selectItemsEnd = new int[1];
+        String[] selectItems = SqlUtils.getSelectItems(sqlSb, SqlUtils.indexOfSelect(sqlSb), new SqlUtils.SelectItemExtractor() {
+            @Override
+            public String extract(StringBuilder sb, int index, int currentPosition) {
+                selectItemsEnd[0] = currentPosition;
+                return SqlUtils.extractExpression(sb).trim();
+            }
+        });
+
+        StringBuilder mergeSb = new StringBuilder(sqlSb.length() + 128);
+        mergeSb.append("merge into ").append(tableName).append(" t using (select ");
+        for (int i = 0; i < selectItems.length; i++) {
+            if (i != 0) {
+                mergeSb.append(", ");
+            }
+            mergeSb.append(selectItems[i]).append(' ').append(columns[i]);
+        }
+        mergeSb.append(sqlSb, selectItemsEnd[0], sqlSb.length());
+        mergeSb.append(") s on (");
+        for (int i = 0; i < conflictColumns.length; i++) {
+            if (i != 0) {
+                mergeSb.append(" and ");
+            }
+            mergeSb.append("t.").append(conflictColumns[i]).append(" = s.").append(conflictColumns[i]);
+        }
+        mergeSb.append(')');
+
+        if (updateColumns.length != 0) {
+            mergeSb.append(" when matched then update set ");
+            for (int i = 0; i < updateColumns.length; i++) {
+                if (i != 0) {
+                    mergeSb.append(", ");
+                }
+                mergeSb.append(updateColumns[i]).append(" = s.").append(updateColumns[i]);
+            }
+        }
+
+        mergeSb.append(" when not matched then insert (");
+        appendColumns(mergeSb, null, columns);
+        mergeSb.append(") values (");
+        appendColumns(mergeSb, "s.", columns);
+        mergeSb.append(')');
+
+        sqlSb.setLength(0);
+        sqlSb.append(mergeSb);
+    }
+
+    protected void appendMergeKey(StringBuilder sqlSb, String[] conflictColumns) {
+        int insertIndex = indexOfIgnoreCase(sqlSb, "insert into ");
+        int columnsEnd = sqlSb.indexOf(")", insertIndex);
+        StringBuilder keySb = new StringBuilder();
+        keySb.append(" key (");
+        appendColumns(keySb, null, conflictColumns);
+        keySb.append(')');
+
+        sqlSb.insert(columnsEnd + 1, keySb);
+        sqlSb.replace(insertIndex, insertIndex + "insert".length(), "merge");
+    }
+
+    private static void appendColumns(StringBuilder sb, String prefix, String[] columns) {
+        for (int i = 0; i < columns.length; i++) {
+            if (i != 0) {
+                sb.append(", ");
+            }
+            if (prefix != null) {
+                sb.append(prefix);
+            }
+            sb.append(columns[i]);
+        }
+    }
+
     @Override
     public boolean needsCastParameters() {
         return true;
@@ -20,6 +20,7 @@ import java.util.Map;
 
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.DbmsStatementType;
+import com.blazebit.persistence.spi.UpsertStyle;
 import com.blazebit.persistence.spi.ValuesStrategy;
 
 /**
@@ -50,6 +51,18 @@ public class H2DbmsDialect extends DefaultDbmsDialect {
         return false;
     }
 
+    @Override
+    public boolean supportsWindowFunctions() {
+        // NOTE: window functions are only supported in H2 1.4.198+
+        return false;
+    }
+
+    @Override
+    public UpsertStyle getUpsertStyle() {
+        // NOTE: the standard MERGE syntax is only supported in H2 1.4.198+
+        return UpsertStyle.MERGE_KEY;
+    }
+
     @Override
     public String getWithClause(boolean recursive) {
         return "with recursive";
@@ -40,6 +40,11 @@ public class HSQLDbmsDialect extends DefaultDbmsDialect {
         return true;
     }
 
+    @Override
+    public boolean supportsWindowFunctions() {
+        return false;
+    }
+
     @Override
     public ValuesStrategy getValuesStrategy() {
         // NOTE: this is only supported in HSQL 2.0+
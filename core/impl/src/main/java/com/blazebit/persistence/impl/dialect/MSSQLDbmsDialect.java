@@ -20,6 +20,8 @@ import com.blazebit.persistence.impl.util.SqlUtils;
 import com.blazebit.persistence.spi.DbmsLimitHandler;
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.DbmsStatementType;
+import com.blazebit.persistence.spi.LateralStyle;
+import com.blazebit.persistence.spi.UpsertStyle;
 import com.blazebit.persistence.spi.OrderByElement;
 import com.blazebit.persistence.spi.SetOperationType;
 
@@ -50,6 +52,12 @@ public class MSSQLDbmsDialect extends DefaultDbmsDialect {
         return " order by (select 0)";
     }
 
+    @Override
+    public int getInListLimit() {
+        // A statement may have at most 2100 parameters, so leave some room for the other parameters of the query
+        return 2000;
+    }
+
     @Override
     public boolean supportsReturningColumns() {
         return true;
@@ -178,4 +186,21 @@ public class MSSQLDbmsDialect extends DefaultDbmsDialect {
     public DbmsLimitHandler createLimitHandler() {
         return new MSSQL2012DbmsLimitHandler();
     }
+
+    @Override
+    public LateralStyle getLateralStyle() {
+        return LateralStyle.APPLY;
+    }
+
+    @Override
+    public UpsertStyle getUpsertStyle() {
+        return UpsertStyle.MERGE;
+    }
+
+    @Override
+    public void appendUpsert(StringBuilder sqlSb, String[] conflictColumns, String[] updateColumns) {
+        super.appendUpsert(sqlSb, conflictColumns, updateColumns);
+        // SQL Server requires MERGE statements to be terminated
+        sqlSb.append(';');
+    }
 }
@@ -17,6 +17,8 @@
 package com.blazebit.persistence.impl.dialect;
 
 import com.blazebit.persistence.spi.DbmsLimitHandler;
+import com.blazebit.persistence.spi.LateralStyle;
+import com.blazebit.persistence.spi.UpsertStyle;
 import com.blazebit.persistence.spi.OrderByElement;
 import com.blazebit.persistence.spi.ValuesStrategy;
 
@@ -90,6 +92,12 @@ public class MySQLDbmsDialect extends DefaultDbmsDialect {
         return true;
     }
 
+    @Override
+    public boolean supportsWindowFunctions() {
+        // NOTE: window functions are only supported in MySQL 8.0+
+        return false;
+    }
+
     @Override
     public DbmsLimitHandler createLimitHandler() {
         return new MySQLDbmsLimitHandler();
@@ -105,6 +113,18 @@ public class MySQLDbmsDialect extends DefaultDbmsDialect {
         return ValuesStrategy.SELECT_UNION;
     }
 
+    @Override
+    public LateralStyle getLateralStyle() {
+        // NOTE: lateral derived tables are only supported in MySQL 8.0.14+
+        // There is no emulation since MySQL doesn't support LIMIT in IN subqueries either
+        return LateralStyle.LATERAL;
+    }
+
+    @Override
+    public UpsertStyle getUpsertStyle() {
+        return UpsertStyle.ON_DUPLICATE_KEY;
+    }
+
     @Override
     public boolean needsCastParameters() {
         return false;
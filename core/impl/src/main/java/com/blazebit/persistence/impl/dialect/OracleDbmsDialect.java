@@ -31,6 +31,8 @@ import com.blazebit.persistence.impl.util.SqlUtils;
 import com.blazebit.persistence.spi.DbmsLimitHandler;
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.DbmsStatementType;
+import com.blazebit.persistence.spi.LateralStyle;
+import com.blazebit.persistence.spi.UpsertStyle;
 import com.blazebit.persistence.spi.SetOperationType;
 import com.blazebit.persistence.spi.ValuesStrategy;
 
@@ -115,6 +117,12 @@ public class OracleDbmsDialect extends DefaultDbmsDialect {
         return "with";
     }
 
+    @Override
+    public int getInListLimit() {
+        // ORA-01795: maximum number of expressions in a list is 1000
+        return 1000;
+    }
+
     @Override
     public boolean supportsWithClauseHead() {
         // NOTE: For 10g return false
@@ -225,6 +233,17 @@ public class OracleDbmsDialect extends DefaultDbmsDialect {
         return ValuesStrategy.SELECT_UNION;
     }
 
+    @Override
+    public LateralStyle getLateralStyle() {
+        // NOTE: CROSS APPLY and OUTER APPLY are only supported in Oracle 12c+
+        return LateralStyle.APPLY;
+    }
+
+    @Override
+    public UpsertStyle getUpsertStyle() {
+        return UpsertStyle.MERGE;
+    }
+
     @Override
     public String getDummyTable() {
         return "dual";
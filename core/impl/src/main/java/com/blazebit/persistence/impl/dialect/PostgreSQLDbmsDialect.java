@@ -25,6 +25,8 @@ import java.util.Map;
 import com.blazebit.persistence.spi.DbmsLimitHandler;
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.DbmsStatementType;
+import com.blazebit.persistence.spi.LateralStyle;
+import com.blazebit.persistence.spi.UpsertStyle;
 import com.blazebit.persistence.spi.SetOperationType;
 
 /**
@@ -80,6 +82,16 @@ public class PostgreSQLDbmsDialect extends DefaultDbmsDialect {
         return new PostgreSQLDbmsLimitHandler();
     }
 
+    @Override
+    public LateralStyle getLateralStyle() {
+        return LateralStyle.LATERAL;
+    }
+
+    @Override
+    public UpsertStyle getUpsertStyle() {
+        return UpsertStyle.ON_CONFLICT;
+    }
+
     @Override
     public Map<String, String> appendExtendedSql(StringBuilder sqlSb, DbmsStatementType statementType, boolean isSubquery, boolean isEmbedded, StringBuilder withClause, String limit, String offset, String[] returningColumns, Map<DbmsModificationState, String> includedModificationStates) {
         // since changes in PostgreSQL won't be visible to other queries, we need to create the new state if required
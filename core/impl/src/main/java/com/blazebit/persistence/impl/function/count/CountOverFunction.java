@@ -0,0 +1,55 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.function.count;
+
+import com.blazebit.persistence.spi.FunctionRenderContext;
+import com.blazebit.persistence.spi.JpqlFunction;
+
+/**
+ * Renders the window aggregate <code>COUNT(*) OVER()</code> which is used to compute the total count of a paginated query inline.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class CountOverFunction implements JpqlFunction {
+
+    public static final String FUNCTION_NAME = "count_over";
+
+    @Override
+    public boolean hasArguments() {
+        return false;
+    }
+
+    @Override
+    public boolean hasParenthesesIfNoArguments() {
+        return true;
+    }
+
+    @Override
+    public Class<?> getReturnType(Class<?> firstArgumentType) {
+        return Long.class;
+    }
+
+    @Override
+    public void render(FunctionRenderContext context) {
+        if (context.getArgumentsSize() != 0) {
+            throw new RuntimeException("The count over function does not accept arguments! args=" + context);
+        }
+
+        context.addChunk("count(*) over ()");
+    }
+}
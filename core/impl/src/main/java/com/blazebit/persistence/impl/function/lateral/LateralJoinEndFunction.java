@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.function.lateral;
+
+import java.util.List;
+
+import com.blazebit.persistence.impl.function.window.WindowFunction;
+import com.blazebit.persistence.spi.FunctionRenderContext;
+
+/**
+ * Renders the marker that ends the on clause of a lateral join.
+ * The marker carries the id of the joined entity, the limit, the offset and the ordering of the lateral join
+ * which are passed as arguments like <code>LATERAL_JOIN_END(id, limit, offset, 'ORDER BY', expression, 'DESC NULLS LAST')</code>.
+ * Apart from the rendered order by clause, every order key is rendered separately along with its direction and null precedence.
+ * The marker is no valid SQL and is replaced along with the rest of the join when the SQL is transformed.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class LateralJoinEndFunction extends WindowFunction {
+
+    public static final String FUNCTION_NAME = "lateral_join_end";
+    public static final String LIMIT_MARKER = "LATERAL_JOIN_LIMIT";
+    public static final String OFFSET_MARKER = "LATERAL_JOIN_OFFSET";
+    public static final String ID_MARKER = "LATERAL_JOIN_ID";
+    public static final String ORDER_BY_MARKER = "LATERAL_JOIN_ORDER_BY";
+    public static final String ORDER_KEY_MARKER = "LATERAL_JOIN_ORDER_KEY";
+    public static final String END_MARKER = "LATERAL_JOIN_END";
+
+    private final boolean emulateNulls;
+
+    public LateralJoinEndFunction(boolean emulateNulls) {
+        super(END_MARKER, 1, 3, Boolean.class, false);
+        this.emulateNulls = emulateNulls;
+    }
+
+    @Override
+    public void render(FunctionRenderContext context) {
+        Window window = getWindow(context);
+        List<String> arguments = window.getArguments();
+        StringBuilder sb = new StringBuilder();
+        sb.append(LIMIT_MARKER).append(' ');
+        if (arguments.size() > 1) {
+            sb.append(arguments.get(1)).append(' ');
+        }
+
+        sb.append(OFFSET_MARKER).append(' ');
+        if (arguments.size() > 2) {
+            sb.append(arguments.get(2)).append(' ');
+        }
+
+        sb.append(ID_MARKER).append(' ').append(arguments.get(0)).append(' ');
+        sb.append(ORDER_BY_MARKER).append(' ');
+        if (!window.getOrderBys().isEmpty()) {
+            renderOrderBy(sb, window.getOrderBys(), false);
+            sb.append(' ');
+        }
+
+        // The order keys are needed separately for emulating a lateral join with a limit through counting
+        for (Order order : window.getOrderBys()) {
+            boolean ascending = order.getAscending() == null || order.getAscending();
+            // Without an explicit null precedence, nulls are considered smaller than all other values
+            boolean nullsFirst = order.getNullsFirst() == null ? ascending : order.getNullsFirst();
+            sb.append(ORDER_KEY_MARKER).append(' ');
+            sb.append(ascending ? "asc " : "desc ");
+            sb.append(nullsFirst ? "nulls_first " : "nulls_last ");
+            sb.append(order.getExpression()).append(' ');
+        }
+
+        sb.append(END_MARKER);
+        context.addChunk(sb.toString());
+    }
+
+    @Override
+    protected void render(StringBuilder sb, Order order) {
+        if (emulateNulls) {
+            appendEmulatedOrderByElementWithNulls(sb, order);
+        } else {
+            super.render(sb, order);
+        }
+    }
+}
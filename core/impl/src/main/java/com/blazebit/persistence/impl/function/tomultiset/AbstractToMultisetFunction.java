@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.function.tomultiset;
+
+import com.blazebit.persistence.spi.FunctionRenderContext;
+import com.blazebit.persistence.spi.JpqlFunction;
+
+/**
+ * Aggregates the rows of a group into a single JSON array of arrays like <code>[["a", 1], ["b", 2]]</code>.
+ * Every row is represented by an array of the argument values. If the group is empty, the result is <code>null</code>.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public abstract class AbstractToMultisetFunction implements JpqlFunction {
+
+    public static final String FUNCTION_NAME = "to_multiset";
+
+    @Override
+    public boolean hasArguments() {
+        return true;
+    }
+
+    @Override
+    public boolean hasParenthesesIfNoArguments() {
+        return true;
+    }
+
+    @Override
+    public Class<?> getReturnType(Class<?> firstArgumentType) {
+        return String.class;
+    }
+
+    @Override
+    public void render(FunctionRenderContext context) {
+        if (context.getArgumentsSize() == 0) {
+            throw new RuntimeException("The " + FUNCTION_NAME + " function needs at least one argument!");
+        }
+
+        render(context, context.getArgumentsSize());
+    }
+
+    protected abstract void render(FunctionRenderContext context, int argumentsSize);
+}
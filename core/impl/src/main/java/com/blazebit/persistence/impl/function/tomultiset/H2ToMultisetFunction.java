@@ -0,0 +1,47 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.function.tomultiset;
+
+import com.blazebit.persistence.spi.FunctionRenderContext;
+
+/**
+ * H2 has no JSON functions, so the JSON is built by string concatenation. Every value is rendered as JSON string.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class H2ToMultisetFunction extends AbstractToMultisetFunction {
+
+    @Override
+    protected void render(FunctionRenderContext context, int argumentsSize) {
+        context.addChunk("'[' || group_concat('[' || ");
+        renderValue(context, 0);
+        for (int i = 1; i < argumentsSize; i++) {
+            context.addChunk(" || ',' || ");
+            renderValue(context, i);
+        }
+        context.addChunk(" || ']' separator ',') || ']'");
+    }
+
+    private void renderValue(FunctionRenderContext context, int index) {
+        context.addChunk("case when ");
+        context.addArgument(index);
+        context.addChunk(" is null then 'null' else '\"' || replace(replace(cast(");
+        context.addArgument(index);
+        context.addChunk(" as varchar), '\\', '\\\\'), '\"', '\\\"') || '\"' end");
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.function.window;
+
+import java.util.List;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class TransactSQLWindowFunction extends WindowFunction {
+
+    public TransactSQLWindowFunction(String functionName, int minArguments, int maxArguments, Class<?> returnType, boolean ordered) {
+        super(functionName, minArguments, maxArguments, returnType, ordered);
+    }
+
+    @Override
+    protected void renderOrderBy(StringBuilder sb, List<Order> orderBys, boolean hasPartitionBy) {
+        if (ordered && orderBys.isEmpty()) {
+            // Ranking and offset functions require an order by clause
+            if (hasPartitionBy) {
+                sb.append(' ');
+            }
+            sb.append("order by (select 0)");
+        } else {
+            super.renderOrderBy(sb, orderBys, hasPartitionBy);
+        }
+    }
+
+    @Override
+    protected void render(StringBuilder sb, Order order) {
+        // Transact-SQL does not support the nulls clause
+        appendEmulatedOrderByElementWithNulls(sb, order);
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.function.window;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.blazebit.persistence.spi.FunctionRenderContext;
+import com.blazebit.persistence.spi.JpqlFunction;
+
+/**
+ * Renders a window function i.e. a ranking, offset or aggregate function with an <code>OVER</code> clause.
+ * The partitions and orderings of the window are passed as arguments after the <code>'PARTITION BY'</code>
+ * and <code>'ORDER BY'</code> markers, similar to the ordering of <code>GROUP_CONCAT</code>.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class WindowFunction implements JpqlFunction {
+
+    protected final String functionName;
+    protected final int minArguments;
+    protected final int maxArguments;
+    // Null if the function returns the type of the first argument
+    protected final Class<?> returnType;
+    // True if the result of the function depends on the ordering like for ranking or offset functions
+    protected final boolean ordered;
+
+    public WindowFunction(String functionName, int minArguments, int maxArguments, Class<?> returnType, boolean ordered) {
+        this.functionName = functionName;
+        this.minArguments = minArguments;
+        this.maxArguments = maxArguments;
+        this.returnType = returnType;
+        this.ordered = ordered;
+    }
+
+    @Override
+    public boolean hasArguments() {
+        return true;
+    }
+
+    @Override
+    public boolean hasParenthesesIfNoArguments() {
+        return true;
+    }
+
+    @Override
+    public Class<?> getReturnType(Class<?> firstArgumentType) {
+        if (returnType == null) {
+            return firstArgumentType;
+        }
+        return returnType;
+    }
+
+    @Override
+    public void render(FunctionRenderContext context) {
+        Window window = getWindow(context);
+        StringBuilder sb = new StringBuilder();
+        sb.append(functionName).append('(');
+
+        List<String> arguments = window.getArguments();
+        for (int i = 0; i < arguments.size(); i++) {
+            if (i != 0) {
+                sb.append(", ");
+            }
+            sb.append(arguments.get(i));
+        }
+
+        sb.append(") over (");
+
+        List<String> partitionBys = window.getPartitionBys();
+        if (!partitionBys.isEmpty()) {
+            sb.append("partition by ");
+            sb.append(partitionBys.get(0));
+
+            for (int i = 1; i < partitionBys.size(); i++) {
+                sb.append(", ");
+                sb.append(partitionBys.get(i));
+            }
+        }
+
+        renderOrderBy(sb, window.getOrderBys(), !partitionBys.isEmpty());
+        sb.append(')');
+        context.addChunk(sb.toString());
+    }
+
+    protected void renderOrderBy(StringBuilder sb, List<Order> orderBys, boolean hasPartitionBy) {
+        if (!orderBys.isEmpty()) {
+            if (hasPartitionBy) {
+                sb.append(' ');
+            }
+            sb.append("order by ");
+            render(sb, orderBys.get(0));
+
+            for (int i = 1; i < orderBys.size(); i++) {
+                sb.append(", ");
+                render(sb, orderBys.get(i));
+            }
+        }
+    }
+
+    protected void render(StringBuilder sb, Order order) {
+        sb.append(order.getExpression());
+
+        if (order.getAscending() != null) {
+            sb.append(order.getAscending() ? " asc" : " desc");
+        }
+
+        if (order.getNullsFirst() != null) {
+            sb.append(order.getNullsFirst() ? " nulls first" : " nulls last");
+        }
+    }
+
+    protected void appendEmulatedOrderByElementWithNulls(StringBuilder sb, Order order) {
+        if (order.getNullsFirst() != null) {
+            sb.append("case when ");
+            sb.append(order.getExpression());
+            sb.append(" is null then ");
+            sb.append(order.getNullsFirst() ? 0 : 1);
+            sb.append(" else ");
+            sb.append(order.getNullsFirst() ? 1 : 0);
+            sb.append(" end, ");
+        }
+
+        sb.append(order.getExpression());
+
+        if (order.getAscending() != null) {
+            sb.append(order.getAscending() ? " asc" : " desc");
+        }
+    }
+
+    protected Window getWindow(FunctionRenderContext context) {
+        int argsSize = context.getArgumentsSize();
+        List<String> arguments = new ArrayList<String>(argsSize);
+        List<String> partitionBys = new ArrayList<String>(argsSize);
+        List<Order> orderBys = new ArrayList<Order>(argsSize);
+        Mode mode = null;
+        String orderExpression = null;
+
+        for (int i = 0; i < argsSize; i++) {
+            String argument = context.getArgument(i);
+            if ("'PARTITION BY'".equalsIgnoreCase(argument)) {
+                if (mode != null) {
+                    throw new IllegalArgumentException("The 'PARTITION BY' clause of the window function '" + functionName + "' must come before the 'ORDER BY' clause and may only be specified once! args=" + context);
+                }
+                mode = Mode.PARTITION_BY;
+            } else if ("'ORDER BY'".equalsIgnoreCase(argument)) {
+                if (mode == Mode.ORDER_BY) {
+                    throw new IllegalArgumentException("The 'ORDER BY' clause of the window function '" + functionName + "' may only be specified once! args=" + context);
+                }
+                mode = Mode.ORDER_BY;
+            } else if (mode == null) {
+                arguments.add(argument);
+            } else if (mode == Mode.PARTITION_BY) {
+                partitionBys.add(argument);
+            } else {
+                Order order = getOrder(argument, orderExpression);
+                if (order != null) {
+                    orderBys.add(order);
+                    orderExpression = null;
+                } else {
+                    if (orderExpression != null) {
+                        orderBys.add(new Order(orderExpression, null, null));
+                    }
+
+                    orderExpression = argument;
+                }
+            }
+        }
+
+        if (orderExpression != null) {
+            orderBys.add(new Order(orderExpression, null, null));
+        }
+
+        if (arguments.size() < minArguments || arguments.size() > maxArguments) {
+            if (minArguments == maxArguments) {
+                throw new IllegalArgumentException("The window function '" + functionName + "' needs exactly " + minArguments + " argument(s) before the window definition! args=" + context);
+            }
+            throw new IllegalArgumentException("The window function '" + functionName + "' needs between " + minArguments + " and " + maxArguments + " arguments before the window definition! args=" + context);
+        }
+        if (mode == Mode.PARTITION_BY && partitionBys.isEmpty()) {
+            throw new IllegalArgumentException("The 'PARTITION BY' clause of the window function '" + functionName + "' needs at least one expression! args=" + context);
+        }
+        if (mode == Mode.ORDER_BY && orderBys.isEmpty()) {
+            throw new IllegalArgumentException("The 'ORDER BY' clause of the window function '" + functionName + "' needs at least one expression! args=" + context);
+        }
+
+        return new Window(arguments, partitionBys, orderBys);
+    }
+
+    private static Order getOrder(String s, String expression) {
+        if (expression == null) {
+            return null;
+        }
+
+        String type = s.trim().toUpperCase();
+
+        if ("'ASC'".equals(type)) {
+            return new Order(expression, true, null);
+        } else if ("'DESC'".equals(type)) {
+            return new Order(expression, false, null);
+        } else if ("'ASC NULLS FIRST'".equals(type)) {
+            return new Order(expression, true, true);
+        } else if ("'ASC NULLS LAST'".equals(type)) {
+            return new Order(expression, true, false);
+        } else if ("'DESC NULLS FIRST'".equals(type)) {
+            return new Order(expression, false, true);
+        } else if ("'DESC NULLS LAST'".equals(type)) {
+            return new Order(expression, false, false);
+        }
+
+        return null;
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.2.0
+     */
+    private enum Mode {
+        PARTITION_BY,
+        ORDER_BY
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.2.0
+     */
+    protected static final class Window {
+
+        private final List<String> arguments;
+        private final List<String> partitionBys;
+        private final List<Order> orderBys;
+
+        public Window(List<String> arguments, List<String> partitionBys, List<Order> orderBys) {
+            this.arguments = arguments;
+            this.partitionBys = partitionBys;
+            this.orderBys = orderBys;
+        }
+
+        public List<String> getArguments() {
+            return arguments;
+        }
+
+        public List<String> getPartitionBys() {
+            return partitionBys;
+        }
+
+        public List<Order> getOrderBys() {
+            return orderBys;
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.2.0
+     */
+    protected static final class Order {
+
+        private final String expression;
+        // Null if the DBMS default should be used
+        private final Boolean ascending;
+        private final Boolean nullsFirst;
+
+        public Order(String expression, Boolean ascending, Boolean nullsFirst) {
+            this.expression = expression;
+            this.ascending = ascending;
+            this.nullsFirst = nullsFirst;
+        }
+
+        public String getExpression() {
+            return expression;
+        }
+
+        public Boolean getAscending() {
+            return ascending;
+        }
+
+        public Boolean getNullsFirst() {
+            return nullsFirst;
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.impl.plan;
 
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.ReturningObjectBuilder;
 import com.blazebit.persistence.ReturningResult;
 import com.blazebit.persistence.impl.DefaultReturningResult;
@@ -73,6 +74,17 @@ public class CustomReturningModificationQueryPlan<T> implements ModificationQuer
         return Arrays.asList(getSingleResult());
     }
 
+    @Override
+    public CloseableIterator<ReturningResult<T>> getResultIterator(int fetchSize) {
+        // The returning result is always a single element
+        return new ListResultIterator<ReturningResult<T>>(getResultList());
+    }
+
+    @Override
+    public void prepare() {
+        // Returning queries are only prepared on execution as they rely on the executor of the modification query
+    }
+
     @Override
     public ReturningResult<T> getSingleResult() {
         Query baseQuery = participatingQueries.get(0);
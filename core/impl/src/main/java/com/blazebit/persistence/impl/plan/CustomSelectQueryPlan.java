@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.impl.plan;
 
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
 import com.blazebit.persistence.spi.ServiceProvider;
 
@@ -60,4 +61,19 @@ public class CustomSelectQueryPlan<T> implements SelectQueryPlan<T> {
         delegate.setMaxResults(maxResults);
         return (T) extendedQuerySupport.getSingleResult(serviceProvider, participatingQueries, delegate, sql);
     }
+
+    @Override
+    public void prepare() {
+        delegate.setFirstResult(firstResult);
+        delegate.setMaxResults(maxResults);
+        extendedQuerySupport.prepareQueryPlan(serviceProvider, participatingQueries, delegate, sql);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CloseableIterator<T> getResultIterator(int fetchSize) {
+        delegate.setFirstResult(firstResult);
+        delegate.setMaxResults(maxResults);
+        return (CloseableIterator<T>) extendedQuerySupport.getResultIterator(serviceProvider, participatingQueries, delegate, sql, fetchSize);
+    }
 }
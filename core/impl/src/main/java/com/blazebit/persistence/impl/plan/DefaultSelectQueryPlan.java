@@ -16,6 +16,10 @@
 
 package com.blazebit.persistence.impl.plan;
 
+import com.blazebit.persistence.CloseableIterator;
+import com.blazebit.persistence.spi.ExtendedQuerySupport;
+
+import javax.persistence.EntityManager;
 import javax.persistence.Query;
 import java.util.List;
 
@@ -26,11 +30,15 @@ import java.util.List;
  */
 public class DefaultSelectQueryPlan<T> implements SelectQueryPlan<T> {
 
+    private final ExtendedQuerySupport extendedQuerySupport;
+    private final EntityManager em;
     private final Query query;
     private final int firstResult;
     private final int maxResults;
 
-    public DefaultSelectQueryPlan(Query query, int firstResult, int maxResults) {
+    public DefaultSelectQueryPlan(ExtendedQuerySupport extendedQuerySupport, EntityManager em, Query query, int firstResult, int maxResults) {
+        this.extendedQuerySupport = extendedQuerySupport;
+        this.em = em;
         this.query = query;
         this.firstResult = firstResult;
         this.maxResults = maxResults;
@@ -49,4 +57,21 @@ public class DefaultSelectQueryPlan<T> implements SelectQueryPlan<T> {
         query.setMaxResults(maxResults);
         return (T) query.getSingleResult();
     }
+
+    @Override
+    public void prepare() {
+        // The JPA provider already compiled the query when it was created
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CloseableIterator<T> getResultIterator(int fetchSize) {
+        query.setFirstResult(firstResult);
+        query.setMaxResults(maxResults);
+        if (extendedQuerySupport == null) {
+            // Without an integration we can't open a cursor
+            return new ListResultIterator<T>(query.getResultList());
+        }
+        return (CloseableIterator<T>) extendedQuerySupport.getResultIterator(em, query, fetchSize);
+    }
 }
@@ -16,6 +16,8 @@
 
 package com.blazebit.persistence.impl.plan;
 
+import com.blazebit.persistence.CloseableIterator;
+
 import java.util.List;
 
 /**
@@ -29,4 +31,8 @@ public interface SelectQueryPlan<T> {
 
     public T getSingleResult();
 
+    public CloseableIterator<T> getResultIterator(int fetchSize);
+
+    public void prepare();
+
 }
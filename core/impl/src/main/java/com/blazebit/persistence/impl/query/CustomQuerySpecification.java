@@ -17,6 +17,8 @@
 package com.blazebit.persistence.impl.query;
 
 import com.blazebit.persistence.impl.AbstractCommonQueryBuilder;
+import com.blazebit.persistence.impl.function.lateral.LateralJoinEndFunction;
+import com.blazebit.persistence.impl.function.lateral.LateralJoinStartFunction;
 import com.blazebit.persistence.impl.plan.CustomSelectQueryPlan;
 import com.blazebit.persistence.impl.plan.ModificationQueryPlan;
 import com.blazebit.persistence.impl.plan.SelectQueryPlan;
@@ -25,15 +27,18 @@ import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
+import com.blazebit.persistence.spi.LateralStyle;
 import com.blazebit.persistence.spi.ServiceProvider;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Parameter;
 import javax.persistence.Query;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -46,6 +51,8 @@ import java.util.Set;
  */
 public class CustomQuerySpecification<T> implements QuerySpecification<T> {
 
+    private static final Set<String> JOIN_TYPE_KEYWORDS = new HashSet<>(Arrays.asList("inner", "left", "outer", "cross"));
+
     protected final EntityManager em;
     protected final DbmsDialect dbmsDialect;
     protected final ServiceProvider serviceProvider;
@@ -63,6 +70,8 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
     protected final boolean recursive;
     protected final List<CTENode> ctes;
     protected final boolean shouldRenderCtes;
+    protected final SqlRewriteCache sqlRewriteCache;
+    protected final String queryString;
 
     protected boolean dirty;
     protected String sql;
@@ -71,6 +80,12 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
 
     public CustomQuerySpecification(AbstractCommonQueryBuilder<?, ?, ?, ?, ?> commonQueryBuilder, Query baseQuery, Set<Parameter<?>> parameters, Set<String> listParameters, String limit, String offset,
                                     List<String> keyRestrictedLeftJoinAliases, List<EntityFunctionNode> entityFunctionNodes, boolean recursive, List<CTENode> ctes, boolean shouldRenderCtes) {
+        this(commonQueryBuilder, baseQuery, parameters, listParameters, limit, offset, keyRestrictedLeftJoinAliases, entityFunctionNodes, recursive, ctes, shouldRenderCtes, null, null);
+    }
+
+    public CustomQuerySpecification(AbstractCommonQueryBuilder<?, ?, ?, ?, ?> commonQueryBuilder, Query baseQuery, Set<Parameter<?>> parameters, Set<String> listParameters, String limit, String offset,
+                                    List<String> keyRestrictedLeftJoinAliases, List<EntityFunctionNode> entityFunctionNodes, boolean recursive, List<CTENode> ctes, boolean shouldRenderCtes,
+                                    SqlRewriteCache sqlRewriteCache, String queryString) {
         this.em = commonQueryBuilder.getEntityManager();
         this.dbmsDialect = commonQueryBuilder.getService(DbmsDialect.class);
         this.serviceProvider = commonQueryBuilder;
@@ -91,6 +106,8 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
         this.recursive = recursive;
         this.ctes = ctes;
         this.shouldRenderCtes = shouldRenderCtes;
+        this.sqlRewriteCache = sqlRewriteCache;
+        this.queryString = queryString;
         this.dirty = true;
     }
 
@@ -156,6 +173,27 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
             baseQuery.setParameter(entry.getKey(), entry.getValue());
         }
 
+        SqlRewriteCacheKey cacheKey = null;
+        if (sqlRewriteCache != null && isSqlRewriteCacheable()) {
+            cacheKey = createSqlRewriteCacheKey();
+            SqlRewriteCacheEntry cacheEntry = sqlRewriteCache.get(cacheKey);
+            if (cacheEntry != null) {
+                // The participating queries are the same that applySqlTransformations would have collected
+                for (EntityFunctionNode node : entityFunctionNodes) {
+                    if (!node.isLateral()) {
+                        participatingQueries.add(node.getValueQuery());
+                    }
+                }
+                participatingQueries.add(baseQuery);
+
+                this.sql = cacheEntry.getSql();
+                this.participatingQueries = participatingQueries;
+                this.addedCtes = cacheEntry.getAddedCtes();
+                this.dirty = false;
+                return;
+            }
+        }
+
         String sqlQuery = extendedQuerySupport.getSql(em, baseQuery);
         StringBuilder sqlSb = applySqlTransformations(baseQuery, sqlQuery, participatingQueries);
         StringBuilder withClause = applyCtes(sqlSb, baseQuery, participatingQueries);
@@ -166,6 +204,27 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
         this.participatingQueries = participatingQueries;
         this.addedCtes = addedCtes;
         this.dirty = false;
+
+        if (cacheKey != null) {
+            sqlRewriteCache.put(cacheKey, new SqlRewriteCacheEntry(sql, addedCtes));
+        }
+    }
+
+    protected boolean isSqlRewriteCacheable() {
+        // CTEs and cascading deletes contribute participating queries and SQL that aren't part of the query string
+        return queryString != null && ctes.isEmpty() && statementType == DbmsStatementType.SELECT;
+    }
+
+    protected SqlRewriteCacheKey createSqlRewriteCacheKey() {
+        List<String> entityFunctions = new ArrayList<>(entityFunctionNodes.size());
+        for (EntityFunctionNode node : entityFunctionNodes) {
+            entityFunctions.add(node.getEntityClass().getName() + ' ' + node.getTableAlias() + ' ' + node.getValuesAliases() + ' ' + node.getValuesClause());
+        }
+        Map<String, Integer> listParameterSizes = new HashMap<>(listParameters.size());
+        for (Map.Entry<String, Collection<?>> entry : listParameters.entrySet()) {
+            listParameterSizes.put(entry.getKey(), entry.getValue().size());
+        }
+        return new SqlRewriteCacheKey(queryString, statementType, limit, offset, keyRestrictedLeftJoinAliases, entityFunctions, listParameterSizes);
     }
 
     protected Map<String, String> applyExtendedSql(StringBuilder sqlSb, boolean isSubquery, boolean isEmbedded, StringBuilder withClause, String[] returningColumns, Map<DbmsModificationState, String> includedModificationStates) {
@@ -383,6 +442,11 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
         }
 
         for (EntityFunctionNode node : entityFunctionNodes) {
+            if (node.isLateral()) {
+                applyLateralJoin(sb, node.getTableAlias());
+                continue;
+            }
+
             String valuesTableSqlAlias = node.getTableAlias();
             String valuesClause = node.getValuesClause();
             String valuesAliases = node.getValuesAliases();
@@ -403,6 +467,254 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
         return sb;
     }
 
+    private void applyLateralJoin(StringBuilder sb, String sqlAlias) {
+        // TODO: this is a hibernate specific integration detail
+        // The lateral join is rendered as entity join with marker functions around the on clause predicate like
+        // "inner join Table alias on (LATERAL_JOIN_START=1 and predicate and LATERAL_JOIN_LIMIT ... LATERAL_JOIN_END=1)"
+        final String onKeyword = " on ";
+        final String joinKeyword = " join ";
+        final String andKeyword = " and ";
+        int startIndex = -1;
+        int onIndex = -1;
+        while ((startIndex = sb.indexOf(LateralJoinStartFunction.START_MARKER, startIndex + 1)) > -1) {
+            onIndex = sb.lastIndexOf(onKeyword, startIndex);
+            if (onIndex > sqlAlias.length() && sb.substring(onIndex - sqlAlias.length() - 1, onIndex).equals(" " + sqlAlias)) {
+                break;
+            }
+        }
+        if (startIndex == -1) {
+            throw new IllegalStateException("Could not find the lateral join for the SQL alias '" + sqlAlias + "' in the SQL: " + sb);
+        }
+
+        int parenthesis = 0;
+        for (int i = onIndex + onKeyword.length(); i < startIndex; i++) {
+            if (sb.charAt(i) == '(') {
+                parenthesis++;
+            }
+        }
+
+        int limitIndex = sb.indexOf(LateralJoinEndFunction.LIMIT_MARKER, startIndex);
+        int offsetIndex = sb.indexOf(LateralJoinEndFunction.OFFSET_MARKER, limitIndex);
+        int idIndex = sb.indexOf(LateralJoinEndFunction.ID_MARKER, offsetIndex);
+        int orderByIndex = sb.indexOf(LateralJoinEndFunction.ORDER_BY_MARKER, idIndex);
+        int endIndex = sb.indexOf(LateralJoinEndFunction.END_MARKER, orderByIndex);
+        int orderKeysIndex = sb.indexOf(LateralJoinEndFunction.ORDER_KEY_MARKER, orderByIndex);
+        if (orderKeysIndex == -1 || orderKeysIndex > endIndex) {
+            orderKeysIndex = endIndex;
+        }
+        String limit = sb.substring(limitIndex + LateralJoinEndFunction.LIMIT_MARKER.length(), offsetIndex).trim();
+        String offset = sb.substring(offsetIndex + LateralJoinEndFunction.OFFSET_MARKER.length(), idIndex).trim();
+        String id = sb.substring(idIndex + LateralJoinEndFunction.ID_MARKER.length(), orderByIndex).trim();
+        String orderBy = sb.substring(orderByIndex + LateralJoinEndFunction.ORDER_BY_MARKER.length(), orderKeysIndex).trim();
+        String orderKeys = sb.substring(orderKeysIndex, endIndex).trim();
+
+        int predicateStartIndex = sb.indexOf(andKeyword, startIndex) + andKeyword.length();
+        int predicateEndIndex = sb.lastIndexOf(andKeyword, limitIndex);
+        String predicate = predicateStartIndex > predicateEndIndex ? "" : sb.substring(predicateStartIndex, predicateEndIndex);
+
+        // Skip the comparison of the end marker with the boolean literal and the parenthesis of the on clause
+        int joinEndIndex = endIndex + LateralJoinEndFunction.END_MARKER.length();
+        joinEndIndex = skipWhitespace(sb, joinEndIndex);
+        if (joinEndIndex < sb.length() && sb.charAt(joinEndIndex) == '=') {
+            joinEndIndex = skipWhitespace(sb, joinEndIndex + 1);
+            while (joinEndIndex < sb.length() && Character.isLetterOrDigit(sb.charAt(joinEndIndex))) {
+                joinEndIndex++;
+            }
+        }
+        for (int i = 0; i < parenthesis; i++) {
+            joinEndIndex = skipWhitespace(sb, joinEndIndex);
+            if (joinEndIndex == sb.length() || sb.charAt(joinEndIndex) != ')') {
+                throw new IllegalStateException("Unexpected SQL after the lateral join for the SQL alias '" + sqlAlias + "': " + sb.substring(joinEndIndex));
+            }
+            joinEndIndex++;
+        }
+
+        int joinIndex = sb.lastIndexOf(joinKeyword, onIndex);
+        String tableReference = sb.substring(joinIndex + joinKeyword.length(), onIndex);
+        // Find the start of the join type keywords like "left outer"
+        boolean leftJoin = false;
+        int joinTypeIndex = joinIndex;
+        while (joinTypeIndex > 0) {
+            int wordIndex = sb.lastIndexOf(" ", joinTypeIndex - 1);
+            String word = sb.substring(wordIndex + 1, joinTypeIndex).toLowerCase();
+            if (!JOIN_TYPE_KEYWORDS.contains(word)) {
+                break;
+            }
+            leftJoin |= "left".equals(word);
+            joinTypeIndex = wordIndex;
+        }
+
+        StringBuilder subquery = new StringBuilder(tableReference.length() + predicate.length() + orderBy.length() + 50);
+        LateralStyle lateralStyle = dbmsDialect.getLateralStyle();
+        subquery.append("select ");
+        if (lateralStyle == LateralStyle.NONE) {
+            subquery.append(id);
+        } else {
+            subquery.append(sqlAlias).append(".*");
+        }
+        subquery.append(" from ").append(tableReference);
+        if (!predicate.isEmpty()) {
+            subquery.append(" where ").append(predicate);
+        }
+        if (limit.isEmpty()) {
+            // The ordering is irrelevant without a limit
+            dbmsDialect.appendExtendedSql(subquery, DbmsStatementType.SELECT, true, false, null, null, null, null, null);
+        } else {
+            if (!orderBy.isEmpty()) {
+                subquery.append(' ').append(orderBy);
+            }
+            dbmsDialect.appendExtendedSql(subquery, DbmsStatementType.SELECT, true, false, null, limit, offset.isEmpty() ? null : offset, null, null);
+        }
+
+        switch (lateralStyle) {
+            case LATERAL:
+                subquery.insert(0, "lateral ");
+                subquery.append(' ').append(sqlAlias).append(onKeyword).append("1=1");
+                sb.replace(joinIndex + joinKeyword.length(), joinEndIndex, subquery.toString());
+                break;
+            case APPLY:
+                subquery.insert(0, leftJoin ? " outer apply " : " cross apply ");
+                subquery.append(' ').append(sqlAlias);
+                sb.replace(joinTypeIndex, joinEndIndex, subquery.toString());
+                break;
+            default:
+                if (!limit.isEmpty() && !"1".equals(limit)) {
+                    // Ordered IN subqueries with a limit are not supported or give wrong results on some DBMS like H2,
+                    // so the lateral join is emulated by counting the elements that are ordered before the joined element
+                    String countPredicate = getLateralJoinCountPredicate(sqlAlias, tableReference, predicate, id, orderKeys, limit, offset);
+                    sb.replace(onIndex + onKeyword.length(), joinEndIndex, countPredicate);
+                    break;
+                }
+                // Emulate the lateral join by restricting the joined elements to the ones of the correlated subquery
+                if (id.indexOf(',') != -1) {
+                    if (id.charAt(0) != '(') {
+                        id = "(" + id + ")";
+                    }
+                    subquery.insert(0, id + " in ");
+                } else if ("1".equals(limit)) {
+                    // A scalar subquery is cheaper and also avoids wrong results of H2 for ordered IN subqueries
+                    subquery.insert(0, id + " = ");
+                } else {
+                    subquery.insert(0, id + " in ");
+                }
+                sb.replace(onIndex + onKeyword.length(), joinEndIndex, subquery.toString());
+                break;
+        }
+    }
+
+    private static String getLateralJoinCountPredicate(String sqlAlias, String tableReference, String predicate, String id, String orderKeys, String limit, String offset) {
+        // The predicate and the order keys are rendered multiple times which would break the binding of positional parameters
+        if (predicate.indexOf('?') != -1 || orderKeys.indexOf('?') != -1) {
+            throw new IllegalStateException("The lateral join for the SQL alias '" + sqlAlias + "' with a limit of " + limit
+                    + " can't be emulated for a DBMS without lateral join support because the on clause or the ordering contains parameters: " + predicate + " " + orderKeys);
+        }
+        if (!tableReference.endsWith(" " + sqlAlias)) {
+            throw new IllegalStateException("Could not find the table of the lateral join for the SQL alias '" + sqlAlias + "' in: " + tableReference);
+        }
+
+        String countAlias = sqlAlias + "_count";
+        List<String[]> keys = new ArrayList<>();
+        for (String orderKey : orderKeys.split(LateralJoinEndFunction.ORDER_KEY_MARKER)) {
+            orderKey = orderKey.trim();
+            if (!orderKey.isEmpty()) {
+                // The format of an order key is "asc|desc nulls_first|nulls_last expression"
+                keys.add(orderKey.split(" ", 3));
+            }
+        }
+        // The id columns make the ordering total so that exactly the elements within the limit are counted
+        String idColumns = id.charAt(0) == '(' ? id.substring(1, id.length() - 1) : id;
+        for (String idColumn : idColumns.split(",")) {
+            keys.add(new String[]{ "asc", null, idColumn.trim() });
+        }
+
+        StringBuilder sb = new StringBuilder();
+        if (!predicate.isEmpty()) {
+            sb.append(predicate).append(" and ");
+        }
+        sb.append("(select count(*) from ");
+        sb.append(tableReference, 0, tableReference.length() - sqlAlias.length()).append(countAlias);
+        sb.append(" where ");
+        if (!predicate.isEmpty()) {
+            sb.append(replaceAlias(predicate, sqlAlias, countAlias)).append(" and ");
+        }
+
+        // The element of the count query is ordered before the joined element if all previous keys are equal and the current key is smaller
+        sb.append('(');
+        for (int i = 0; i < keys.size(); i++) {
+            if (i != 0) {
+                sb.append(" or ");
+            }
+            sb.append('(');
+            for (int j = 0; j < i; j++) {
+                appendOrderKeyEquals(sb, keys.get(j), sqlAlias, countAlias);
+                sb.append(" and ");
+            }
+            appendOrderKeyBefore(sb, keys.get(i), sqlAlias, countAlias);
+            sb.append(')');
+        }
+        sb.append("))");
+
+        long offsetValue = offset.isEmpty() ? 0L : Long.parseLong(offset);
+        if (offsetValue == 0L) {
+            sb.append(" < ").append(limit);
+        } else {
+            sb.append(" between ").append(offsetValue).append(" and ").append(offsetValue + Long.parseLong(limit) - 1);
+        }
+        return sb.toString();
+    }
+
+    private static void appendOrderKeyEquals(StringBuilder sb, String[] key, String sqlAlias, String countAlias) {
+        String expression = key[2];
+        String countExpression = replaceAlias(expression, sqlAlias, countAlias);
+        if (key[1] == null) {
+            sb.append(countExpression).append(" = ").append(expression);
+        } else {
+            sb.append('(').append(countExpression).append(" = ").append(expression);
+            sb.append(" or ").append(countExpression).append(" is null and ").append(expression).append(" is null)");
+        }
+    }
+
+    private static void appendOrderKeyBefore(StringBuilder sb, String[] key, String sqlAlias, String countAlias) {
+        String expression = key[2];
+        String countExpression = replaceAlias(expression, sqlAlias, countAlias);
+        String operator = "asc".equals(key[0]) ? " < " : " > ";
+        if (key[1] == null) {
+            sb.append(countExpression).append(operator).append(expression);
+        } else {
+            sb.append('(').append(countExpression).append(operator).append(expression).append(" or ");
+            if ("nulls_first".equals(key[1])) {
+                sb.append(countExpression).append(" is null and ").append(expression).append(" is not null)");
+            } else {
+                sb.append(countExpression).append(" is not null and ").append(expression).append(" is null)");
+            }
+        }
+    }
+
+    private static String replaceAlias(String sql, String sqlAlias, String newAlias) {
+        StringBuilder sb = new StringBuilder(sql.length() + 10);
+        String searchAlias = sqlAlias + ".";
+        int index = 0;
+        int aliasIndex;
+        while ((aliasIndex = sql.indexOf(searchAlias, index)) > -1) {
+            sb.append(sql, index, aliasIndex);
+            if (aliasIndex == 0 || !Character.isJavaIdentifierPart(sql.charAt(aliasIndex - 1))) {
+                sb.append(newAlias).append('.');
+            } else {
+                sb.append(searchAlias);
+            }
+            index = aliasIndex + searchAlias.length();
+        }
+        sb.append(sql, index, sql.length());
+        return sb.toString();
+    }
+
+    private static int skipWhitespace(StringBuilder sb, int index) {
+        while (index < sb.length() && Character.isWhitespace(sb.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
     private void applyLeftJoinSubqueryRewrite(StringBuilder sb, String sqlAlias) {
         final String searchAs = " as";
         final String searchAlias = " " + sqlAlias;
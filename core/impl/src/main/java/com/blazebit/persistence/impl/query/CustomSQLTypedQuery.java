@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.impl.query;
 
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.impl.ParameterValueTransformer;
 import com.blazebit.persistence.impl.ValuesParameterBinder;
 
@@ -50,6 +51,16 @@ public class CustomSQLTypedQuery<X> extends AbstractCustomQuery<X> implements Ty
         return querySpecification.createSelectPlan(firstResult, maxResults).getResultList();
     }
 
+    public CloseableIterator<X> getResultIterator(int fetchSize) {
+        bindParameters();
+        return querySpecification.createSelectPlan(firstResult, maxResults).getResultIterator(fetchSize);
+    }
+
+    public void prepare() {
+        // Parameters don't need to be bound for rendering the SQL and preparing the query plan
+        querySpecification.createSelectPlan(firstResult, maxResults).prepare();
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public X getSingleResult() {
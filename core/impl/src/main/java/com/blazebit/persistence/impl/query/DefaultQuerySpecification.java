@@ -60,7 +60,7 @@ public class DefaultQuerySpecification implements QuerySpecification {
 
     @Override
     public SelectQueryPlan createSelectPlan(int firstResult, int maxResults) {
-        return new DefaultSelectQueryPlan(query, firstResult, maxResults);
+        return new DefaultSelectQueryPlan(extendedQuerySupport, em, query, firstResult, maxResults);
     }
 
     @Override
@@ -30,13 +30,15 @@ public class EntityFunctionNode {
     private final Class<?> entityClass;
     private final String tableAlias;
     private final Query valueQuery;
+    private final boolean lateral;
 
-    public EntityFunctionNode(String valuesClause, String valuesAliases, Class<?> entityClass, String tableAlias, Query valueQuery) {
+    public EntityFunctionNode(String valuesClause, String valuesAliases, Class<?> entityClass, String tableAlias, Query valueQuery, boolean lateral) {
         this.valuesClause = valuesClause;
         this.valuesAliases = valuesAliases;
         this.entityClass = entityClass;
         this.tableAlias = tableAlias;
         this.valueQuery = valueQuery;
+        this.lateral = lateral;
     }
 
     public String getValuesClause() {
@@ -58,4 +60,8 @@ public class EntityFunctionNode {
     public Query getValueQuery() {
         return valueQuery;
     }
+
+    public boolean isLateral() {
+        return lateral;
+    }
 }
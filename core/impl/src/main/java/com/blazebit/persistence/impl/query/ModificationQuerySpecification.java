@@ -45,6 +45,8 @@ public class ModificationQuerySpecification<T> extends CustomQuerySpecification<
     protected final String[] returningColumns;
     protected final Map<DbmsModificationState, String> includedModificationStates;
     protected final Map<String, String> returningAttributeBindingMap;
+    protected final String[] conflictColumns;
+    protected final String[] conflictUpdateColumns;
 
     protected Query query;
 
@@ -56,12 +58,21 @@ public class ModificationQuerySpecification<T> extends CustomQuerySpecification<
     public ModificationQuerySpecification(AbstractCommonQueryBuilder<?, ?, ?, ?, ?> commonQueryBuilder, Query baseQuery, Query exampleQuery, Set<Parameter<?>> parameters, Set<String> parameterListNames,
                                           List<String> keyRestrictedLeftJoinAliases, List<EntityFunctionNode> entityFunctionNodes, boolean recursive, List<CTENode> ctes, boolean shouldRenderCteNodes,
                                           boolean isEmbedded, String[] returningColumns, Map<DbmsModificationState, String> includedModificationStates, Map<String, String> returningAttributeBindingMap) {
+        this(commonQueryBuilder, baseQuery, exampleQuery, parameters, parameterListNames, keyRestrictedLeftJoinAliases, entityFunctionNodes, recursive, ctes, shouldRenderCteNodes, isEmbedded, returningColumns, includedModificationStates, returningAttributeBindingMap, null, null);
+    }
+
+    public ModificationQuerySpecification(AbstractCommonQueryBuilder<?, ?, ?, ?, ?> commonQueryBuilder, Query baseQuery, Query exampleQuery, Set<Parameter<?>> parameters, Set<String> parameterListNames,
+                                          List<String> keyRestrictedLeftJoinAliases, List<EntityFunctionNode> entityFunctionNodes, boolean recursive, List<CTENode> ctes, boolean shouldRenderCteNodes,
+                                          boolean isEmbedded, String[] returningColumns, Map<DbmsModificationState, String> includedModificationStates, Map<String, String> returningAttributeBindingMap,
+                                          String[] conflictColumns, String[] conflictUpdateColumns) {
         super(commonQueryBuilder, baseQuery, parameters, parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes, recursive, ctes, shouldRenderCteNodes);
         this.exampleQuery = exampleQuery;
         this.isEmbedded = isEmbedded;
         this.returningColumns = returningColumns;
         this.includedModificationStates = includedModificationStates;
         this.returningAttributeBindingMap = new HashMap<>(returningAttributeBindingMap);
+        this.conflictColumns = conflictColumns;
+        this.conflictUpdateColumns = conflictUpdateColumns;
     }
 
     @Override
@@ -97,6 +108,9 @@ public class ModificationQuerySpecification<T> extends CustomQuerySpecification<
 
         String sqlQuery = extendedQuerySupport.getSql(em, baseQuery);
         StringBuilder sqlSb = applySqlTransformations(baseQuery, sqlQuery, participatingQueries);
+        if (conflictColumns != null) {
+            dbmsDialect.appendUpsert(sqlSb, conflictColumns, conflictUpdateColumns);
+        }
         StringBuilder withClause = applyCtes(sqlSb, baseQuery, participatingQueries);
         // NOTE: CTEs will only be added, if this is a subquery
         Map<String, String> addedCtes = applyExtendedSql(sqlSb, false, isEmbedded, withClause, returningColumns, includedModificationStates);
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.query;
+
+import com.blazebit.persistence.CloseableIterator;
+import com.blazebit.persistence.IncrementalObjectBuilder;
+import com.blazebit.persistence.ObjectBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Applies an object builder to the tuples of a result iterator.
+ * Consecutive tuples with the same group key of an {@link IncrementalObjectBuilder} are built together,
+ * so only a single group is kept in memory at a time.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class ObjectBuilderResultIterator<X> implements CloseableIterator<X> {
+
+    private final CloseableIterator<Object> tupleIterator;
+    private final ObjectBuilder<X> builder;
+    private final IncrementalObjectBuilder<X> incrementalBuilder;
+    private Iterator<X> groupIterator = Collections.<X>emptyList().iterator();
+    private Object[] nextGroupTuple;
+
+    public ObjectBuilderResultIterator(CloseableIterator<Object> tupleIterator, ObjectBuilder<X> builder) {
+        this.tupleIterator = tupleIterator;
+        this.builder = builder;
+        if (builder instanceof IncrementalObjectBuilder<?>) {
+            this.incrementalBuilder = (IncrementalObjectBuilder<X>) builder;
+        } else {
+            this.incrementalBuilder = null;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!groupIterator.hasNext()) {
+            if (nextGroupTuple == null && !tupleIterator.hasNext()) {
+                return false;
+            }
+            groupIterator = buildNextGroup().iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public X next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return groupIterator.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Removing from a query result is not supported!");
+    }
+
+    @Override
+    public void close() {
+        tupleIterator.close();
+    }
+
+    private List<X> buildNextGroup() {
+        Object[] tuple = nextGroupTuple;
+        if (tuple == null) {
+            tuple = toTuple(tupleIterator.next());
+        } else {
+            nextGroupTuple = null;
+        }
+
+        List<X> group = new ArrayList<X>();
+        Object groupKey = incrementalBuilder == null ? null : incrementalBuilder.getGroupKey(tuple);
+        group.add(builder.build(tuple));
+
+        if (groupKey != null) {
+            while (tupleIterator.hasNext()) {
+                Object[] nextTuple = toTuple(tupleIterator.next());
+                if (!groupKey.equals(incrementalBuilder.getGroupKey(nextTuple))) {
+                    nextGroupTuple = nextTuple;
+                    break;
+                }
+                group.add(builder.build(nextTuple));
+            }
+        }
+
+        return builder.buildList(group);
+    }
+
+    private static Object[] toTuple(Object result) {
+        if (result instanceof Object[]) {
+            return (Object[]) result;
+        }
+        // Builders may keep the tuple, so we can't reuse the array
+        return new Object[]{ result };
+    }
+}
@@ -17,6 +17,8 @@
 package com.blazebit.persistence.impl.query;
 
 import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.spi.MetricsListener;
+import com.blazebit.persistence.spi.MetricsPhase;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -33,11 +35,25 @@ import javax.persistence.TypedQuery;
 public class ObjectBuilderTypedQuery<X> extends TypedQueryWrapper<X> {
 
     private final ObjectBuilder<X> builder;
+    private final MetricsListener metricsListener;
 
-    @SuppressWarnings("unchecked")
     public ObjectBuilderTypedQuery(TypedQuery<?> delegate, ObjectBuilder<X> builder) {
+        this(delegate, builder, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ObjectBuilderTypedQuery(TypedQuery<?> delegate, ObjectBuilder<X> builder, MetricsListener metricsListener) {
         super((TypedQuery<X>) delegate);
         this.builder = builder;
+        this.metricsListener = metricsListener;
+    }
+
+    public TypedQuery<?> getDelegate() {
+        return delegate;
+    }
+
+    public ObjectBuilder<X> getObjectBuilder() {
+        return builder;
     }
 
     @Override
@@ -57,6 +73,17 @@ public class ObjectBuilderTypedQuery<X> extends TypedQueryWrapper<X> {
     @Override
     public List<X> getResultList() {
         List<X> list = super.getResultList();
+        if (metricsListener == null) {
+            return transform(list);
+        }
+
+        long start = System.nanoTime();
+        List<X> result = transform(list);
+        metricsListener.recordPhase(MetricsPhase.TUPLE_TRANSFORMATION, System.nanoTime() - start);
+        return result;
+    }
+
+    private List<X> transform(List<X> list) {
         int size = list.size();
         List<X> newList = new ArrayList<X>(size);
 
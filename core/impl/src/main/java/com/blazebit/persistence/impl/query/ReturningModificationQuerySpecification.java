@@ -41,13 +41,17 @@ public class ReturningModificationQuerySpecification<T> extends CustomQuerySpeci
     private final Query exampleQuery;
     private final String[] returningColumns;
     private final ReturningObjectBuilder<T> objectBuilder;
+    private final String[] conflictColumns;
+    private final String[] conflictUpdateColumns;
 
     public ReturningModificationQuerySpecification(AbstractCommonQueryBuilder<?, ?, ?, ?, ?> commonQueryBuilder, Query baseQuery, Query exampleQuery, Set<Parameter<?>> parameters, Set<String> parameterListNames, boolean recursive, List<CTENode> ctes, boolean shouldRenderCteNodes,
-                                                   String[] returningColumns, ReturningObjectBuilder<T> objectBuilder) {
+                                                   String[] returningColumns, ReturningObjectBuilder<T> objectBuilder, String[] conflictColumns, String[] conflictUpdateColumns) {
         super(commonQueryBuilder, baseQuery, parameters, parameterListNames, null, null, Collections.EMPTY_LIST, Collections.EMPTY_LIST, recursive, ctes, shouldRenderCteNodes);
         this.exampleQuery = exampleQuery;
         this.returningColumns = returningColumns;
         this.objectBuilder = objectBuilder;
+        this.conflictColumns = conflictColumns;
+        this.conflictUpdateColumns = conflictUpdateColumns;
     }
 
     @Override
@@ -76,6 +80,9 @@ public class ReturningModificationQuerySpecification<T> extends CustomQuerySpeci
         }
 
         StringBuilder sqlSb = new StringBuilder(extendedQuerySupport.getSql(em, baseQuery));
+        if (conflictColumns != null) {
+            dbmsDialect.appendUpsert(sqlSb, conflictColumns, conflictUpdateColumns);
+        }
         StringBuilder withClause = applyCtes(sqlSb, baseQuery, participatingQueries);
         // NOTE: CTEs will only be added, if this is a subquery
         Map<String, String> addedCtes = applyExtendedSql(sqlSb, false, false, withClause, returningColumns, null);
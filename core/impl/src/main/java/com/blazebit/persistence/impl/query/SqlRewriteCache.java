@@ -0,0 +1,102 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.query;
+
+import com.blazebit.persistence.spi.MetricsCache;
+import com.blazebit.persistence.spi.MetricsListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A factory level cache for the final SQL of queries that require SQL rewriting.
+ * The cache is keyed by the rendered JPQL query string and the inputs of the SQL rewriting, so queries that only differ
+ * in parameter values share an entry. A cache hit skips the SQL extraction from the JPA provider and the rewriting of it,
+ * but the query builder still resolves joins and renders the JPQL query string to compute the key.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class SqlRewriteCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 2048;
+
+    private final Map<SqlRewriteCacheKey, SqlRewriteCacheEntry> cache;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final MetricsListener metricsListener;
+
+    public SqlRewriteCache(final int maximumSize) {
+        this(maximumSize, null);
+    }
+
+    public SqlRewriteCache(final int maximumSize, MetricsListener metricsListener) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Invalid maximum size " + maximumSize + ", must be greater than 0!");
+        }
+        this.cache = new LinkedHashMap<SqlRewriteCacheKey, SqlRewriteCacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SqlRewriteCacheKey, SqlRewriteCacheEntry> eldest) {
+                return size() > maximumSize;
+            }
+        };
+        this.metricsListener = metricsListener;
+    }
+
+    public SqlRewriteCacheEntry get(SqlRewriteCacheKey key) {
+        SqlRewriteCacheEntry entry;
+        synchronized (cache) {
+            entry = cache.get(key);
+        }
+        if (entry == null) {
+            missCount.incrementAndGet();
+        } else {
+            hitCount.incrementAndGet();
+        }
+        if (metricsListener != null) {
+            metricsListener.recordCacheAccess(MetricsCache.SQL_REWRITE, entry != null);
+        }
+        return entry;
+    }
+
+    public void put(SqlRewriteCacheKey key, SqlRewriteCacheEntry entry) {
+        synchronized (cache) {
+            cache.put(key, entry);
+        }
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+}
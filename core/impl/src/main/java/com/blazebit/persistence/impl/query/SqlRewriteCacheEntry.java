@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.query;
+
+import java.util.Map;
+
+/**
+ * The cached final SQL of a query and the CTEs that were added by the dbms dialect while rendering it.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public final class SqlRewriteCacheEntry {
+
+    private final String sql;
+    private final Map<String, String> addedCtes;
+
+    public SqlRewriteCacheEntry(String sql, Map<String, String> addedCtes) {
+        this.sql = sql;
+        this.addedCtes = addedCtes;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public Map<String, String> getAddedCtes() {
+        return addedCtes;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.query;
+
+import com.blazebit.persistence.spi.DbmsStatementType;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The key of a query in the {@link SqlRewriteCache}. Besides the JPQL query string, it contains every input of the SQL rewriting
+ * that isn't part of the query string, like the sizes of collection valued parameters which are expanded in the SQL.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public final class SqlRewriteCacheKey {
+
+    private final String queryString;
+    private final DbmsStatementType statementType;
+    private final String limit;
+    private final String offset;
+    private final List<String> keyRestrictedLeftJoinAliases;
+    private final List<String> entityFunctions;
+    private final Map<String, Integer> listParameterSizes;
+    private final int hashCode;
+
+    public SqlRewriteCacheKey(String queryString, DbmsStatementType statementType, String limit, String offset, List<String> keyRestrictedLeftJoinAliases, List<String> entityFunctions, Map<String, Integer> listParameterSizes) {
+        this.queryString = queryString;
+        this.statementType = statementType;
+        this.limit = limit;
+        this.offset = offset;
+        this.keyRestrictedLeftJoinAliases = keyRestrictedLeftJoinAliases;
+        this.entityFunctions = entityFunctions;
+        this.listParameterSizes = listParameterSizes;
+        this.hashCode = computeHashCode();
+    }
+
+    private int computeHashCode() {
+        int result = queryString.hashCode();
+        result = 31 * result + statementType.hashCode();
+        result = 31 * result + (limit != null ? limit.hashCode() : 0);
+        result = 31 * result + (offset != null ? offset.hashCode() : 0);
+        result = 31 * result + keyRestrictedLeftJoinAliases.hashCode();
+        result = 31 * result + entityFunctions.hashCode();
+        result = 31 * result + listParameterSizes.hashCode();
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SqlRewriteCacheKey)) {
+            return false;
+        }
+
+        SqlRewriteCacheKey that = (SqlRewriteCacheKey) o;
+
+        if (hashCode != that.hashCode) {
+            return false;
+        }
+        if (!queryString.equals(that.queryString)) {
+            return false;
+        }
+        if (statementType != that.statementType) {
+            return false;
+        }
+        if (limit != null ? !limit.equals(that.limit) : that.limit != null) {
+            return false;
+        }
+        if (offset != null ? !offset.equals(that.offset) : that.offset != null) {
+            return false;
+        }
+        if (!keyRestrictedLeftJoinAliases.equals(that.keyRestrictedLeftJoinAliases)) {
+            return false;
+        }
+        if (!entityFunctions.equals(that.entityFunctions)) {
+            return false;
+        }
+        return listParameterSizes.equals(that.listParameterSizes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
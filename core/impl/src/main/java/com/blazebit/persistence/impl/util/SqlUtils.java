@@ -136,19 +136,21 @@ public class SqlUtils {
 
                     parenthesis++;
                 } else if (c == ')') {
+                    parenthesis--;
+
                     // When we leave the context, reset the end to the from index
-                    if (i < fromIndex) {
-                        end = fromIndex;
-                    } else {
-                        // If the found from was in the subcontext, find the next from
-                        end = fromIndex = FROM_FINDER.indexIn(sql, i);
-                        // from-less query
-                        if (fromIndex == -1) {
-                            end = fromIndex = sql.length();
+                    if (parenthesis == 0) {
+                        if (i < fromIndex) {
+                            end = fromIndex;
+                        } else {
+                            // If the found from was in the subcontext, find the next from
+                            end = fromIndex = FROM_FINDER.indexIn(sql, i);
+                            // from-less query
+                            if (fromIndex == -1) {
+                                end = fromIndex = sql.length();
+                            }
                         }
                     }
-
-                    parenthesis--;
                 }
             }
 
@@ -457,7 +459,7 @@ public class SqlUtils {
      * @param sb The string builder containing the select item expression
      * @return The expression part of the select item expression
      */
-    private static String extractExpression(StringBuilder sb) {
+    public static String extractExpression(StringBuilder sb) {
         int asIndex = AS_FINDER.indexIn(sb);
         if (asIndex == -1) {
             return sb.toString();
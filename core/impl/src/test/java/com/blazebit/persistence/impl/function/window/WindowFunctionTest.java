@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.function.window;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.blazebit.persistence.spi.FunctionRenderContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WindowFunctionTest {
+
+    @Test
+    public void renderEmptyWindow() {
+        Assert.assertEquals("row_number() over ()", render(new WindowFunction("row_number", 0, 0, Long.class, true)));
+    }
+
+    @Test
+    public void renderPartitionAndOrder() {
+        WindowFunction function = new WindowFunction("lag", 1, 3, null, true);
+        Assert.assertEquals("lag(d.age, 1) over (partition by d.owner_id, d.name order by d.age desc nulls last, d.id)",
+                render(function, "d.age", "1", "'PARTITION BY'", "d.owner_id", "d.name", "'ORDER BY'", "d.age", "'DESC NULLS LAST'", "d.id"));
+        Assert.assertEquals("lag(d.age) over (order by d.age asc)", render(function, "d.age", "'ORDER BY'", "d.age", "'ASC'"));
+    }
+
+    @Test
+    public void renderEmulatedNulls() {
+        TransactSQLWindowFunction function = new TransactSQLWindowFunction("sum", 1, 1, null, false);
+        Assert.assertEquals("sum(d.age) over (partition by d.owner_id order by case when d.name is null then 0 else 1 end, d.name asc)",
+                render(function, "d.age", "'PARTITION BY'", "d.owner_id", "'ORDER BY'", "d.name", "'ASC NULLS FIRST'"));
+    }
+
+    @Test
+    public void renderRequiredOrder() {
+        Assert.assertEquals("rank() over (partition by d.owner_id order by (select 0))", render(new TransactSQLWindowFunction("rank", 0, 0, Long.class, true), "'PARTITION BY'", "d.owner_id"));
+        Assert.assertEquals("count(d.id) over ()", render(new TransactSQLWindowFunction("count", 1, 1, Long.class, false), "d.id"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectArguments() {
+        render(new WindowFunction("row_number", 0, 0, Long.class, true), "d.age");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectPartitionAfterOrder() {
+        render(new WindowFunction("rank", 0, 0, Long.class, true), "'ORDER BY'", "d.age", "'PARTITION BY'", "d.owner_id");
+    }
+
+    private static String render(WindowFunction function, String... arguments) {
+        RenderContext context = new RenderContext(Arrays.asList(arguments));
+        function.render(context);
+        return context.sb.toString();
+    }
+
+    private static class RenderContext implements FunctionRenderContext {
+
+        private final List<String> arguments;
+        private final StringBuilder sb = new StringBuilder();
+
+        public RenderContext(List<String> arguments) {
+            this.arguments = arguments;
+        }
+
+        @Override
+        public int getArgumentsSize() {
+            return arguments.size();
+        }
+
+        @Override
+        public String getArgument(int index) {
+            return arguments.get(index);
+        }
+
+        @Override
+        public void addArgument(int index) {
+            sb.append(arguments.get(index));
+        }
+
+        @Override
+        public void addChunk(String chunk) {
+            sb.append(chunk);
+        }
+    }
+}
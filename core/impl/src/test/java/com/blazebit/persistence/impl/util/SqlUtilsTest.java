@@ -66,6 +66,7 @@ public class SqlUtilsTest {
         assertAliases("with a AS (select 1), b AS (select (select 1 from asd) from asd) select 1 one, two from abc union all select three from asd", "one", "two");
 
         assertAliases("select (select 1) as one, (select 2) as two", "one", "two");
+        assertAliases("select (select max(x.a) from x) as one, abc.two from abc", "one", "two");
     }
 
     @Test
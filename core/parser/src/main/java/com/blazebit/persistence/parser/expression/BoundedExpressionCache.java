@@ -0,0 +1,328 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser.expression;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An expression cache that bounds the weight of every cache region and evicts the least recently used entries.
+ *
+ * Every cache name is mapped to a separate region with its own maximum weight. A region is split into lock striped
+ * segments that each maintain an access ordered LRU list, so that concurrent lookups of different expressions don't
+ * contend on a single lock. When the weight of a region exceeds the maximum, the least recently used entries of the
+ * segment that was written to are evicted first. By default every entry has the weight 1 i.e. the maximum weight is the maximum number of entries.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class BoundedExpressionCache extends AbstractExpressionCache {
+
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 10000L;
+
+    /**
+     * Weighs every entry with 1.
+     */
+    public static final Weigher ENTRY_WEIGHER = new Weigher() {
+        @Override
+        public int weigh(String cacheName, String expression) {
+            return 1;
+        }
+    };
+
+    /**
+     * Weighs an entry by the length of the expression string which is a good approximation for the size of the expression tree.
+     */
+    public static final Weigher LENGTH_WEIGHER = new Weigher() {
+        @Override
+        public int weigh(String cacheName, String expression) {
+            return Math.max(1, expression.length());
+        }
+    };
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final long defaultMaximumWeight;
+    private final Map<String, Long> maximumWeights;
+    private final Weigher weigher;
+    private final ConcurrentMap<String, Region> regions;
+
+    public BoundedExpressionCache() {
+        this(DEFAULT_MAXIMUM_WEIGHT, Collections.<String, Long>emptyMap(), ENTRY_WEIGHER);
+    }
+
+    public BoundedExpressionCache(long defaultMaximumWeight, Map<String, Long> maximumWeights, Weigher weigher) {
+        if (defaultMaximumWeight < 1) {
+            throw new IllegalArgumentException("Invalid maximum weight " + defaultMaximumWeight + ", must be greater than 0!");
+        }
+        for (Map.Entry<String, Long> entry : maximumWeights.entrySet()) {
+            if (entry.getValue() == null || entry.getValue() < 1) {
+                throw new IllegalArgumentException("Invalid maximum weight " + entry.getValue() + " for cache '" + entry.getKey() + "', must be greater than 0!");
+            }
+        }
+        if (weigher == null) {
+            throw new IllegalArgumentException("Null weigher!");
+        }
+        this.defaultMaximumWeight = defaultMaximumWeight;
+        this.maximumWeights = new HashMap<>(maximumWeights);
+        this.weigher = weigher;
+        this.regions = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    protected ExpressionCacheEntry getEntry(String cacheName, String expression) {
+        return getRegion(cacheName).get(expression);
+    }
+
+    @Override
+    protected void putEntry(String cacheName, String expression, ExpressionCacheEntry entry) {
+        getRegion(cacheName).put(expression, entry, weigher.weigh(cacheName, expression));
+    }
+
+    /**
+     * Returns the statistics of the cache with the given name.
+     *
+     * @param cacheName The cache name
+     * @return The statistics for the cache
+     */
+    public ExpressionCacheStatistics getStatistics(String cacheName) {
+        Region region = regions.get(cacheName);
+        if (region == null) {
+            return new ExpressionCacheStatistics(0L, 0L, 0L, 0L, 0L, getMaximumWeight(cacheName));
+        }
+        return region.getStatistics();
+    }
+
+    /**
+     * Returns the statistics of all caches that have been accessed so far.
+     *
+     * @return The statistics by cache name
+     */
+    public Map<String, ExpressionCacheStatistics> getStatistics() {
+        Map<String, ExpressionCacheStatistics> statistics = new HashMap<>(regions.size());
+        for (Map.Entry<String, Region> entry : regions.entrySet()) {
+            statistics.put(entry.getKey(), entry.getValue().getStatistics());
+        }
+        return statistics;
+    }
+
+    /**
+     * Removes all entries from all caches. The statistic counters are retained.
+     */
+    public void clear() {
+        for (Region region : regions.values()) {
+            region.clear();
+        }
+    }
+
+    private long getMaximumWeight(String cacheName) {
+        Long maximumWeight = maximumWeights.get(cacheName);
+        return maximumWeight == null ? defaultMaximumWeight : maximumWeight;
+    }
+
+    private Region getRegion(String cacheName) {
+        Region region = regions.get(cacheName);
+
+        if (region == null) {
+            region = new Region(getMaximumWeight(cacheName));
+            Region oldRegion = regions.putIfAbsent(cacheName, region);
+
+            if (oldRegion != null) {
+                region = oldRegion;
+            }
+        }
+
+        return region;
+    }
+
+    /**
+     * Determines the weight of a cache entry.
+     *
+     * @author Christian Beikov
+     * @since 1.2.0
+     */
+    public static interface Weigher {
+
+        /**
+         * Returns the weight of the entry for the given expression, must be greater than 0.
+         *
+         * @param cacheName The cache name
+         * @param expression The expression string
+         * @return The weight
+         */
+        public int weigh(String cacheName, String expression);
+    }
+
+    /**
+     *
+     * @author Christian Beikov
+     * @since 1.2.0
+     */
+    private static final class Region {
+
+        private final long maximumWeight;
+        private final AtomicLong weight;
+        private final Segment[] segments;
+
+        public Region(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+            this.weight = new AtomicLong();
+            this.segments = new Segment[SEGMENT_COUNT];
+            for (int i = 0; i < SEGMENT_COUNT; i++) {
+                segments[i] = new Segment();
+            }
+        }
+
+        public ExpressionCacheEntry get(String expression) {
+            return segments[segmentIndex(expression)].get(expression);
+        }
+
+        public void put(String expression, ExpressionCacheEntry entry, int entryWeight) {
+            // Entries that could never fit are not cached at all
+            if (entryWeight > maximumWeight) {
+                return;
+            }
+
+            int segmentIndex = segmentIndex(expression);
+            if (!segments[segmentIndex].put(expression, entry, entryWeight)) {
+                return;
+            }
+
+            // Evict from the segment we just wrote to first and only then from the others, but never the new entry
+            // Every segment lock is acquired separately so there is no lock ordering issue
+            long currentWeight = weight.addAndGet(entryWeight);
+            for (int i = 0; currentWeight > maximumWeight && i < SEGMENT_COUNT; i++) {
+                Segment segment = segments[(segmentIndex + i) & (SEGMENT_COUNT - 1)];
+                int evictedWeight;
+                while (currentWeight > maximumWeight && (evictedWeight = segment.evictEldest(expression)) > 0) {
+                    currentWeight = weight.addAndGet(-evictedWeight);
+                }
+            }
+        }
+
+        public void clear() {
+            for (Segment segment : segments) {
+                weight.addAndGet(-segment.clear());
+            }
+        }
+
+        public ExpressionCacheStatistics getStatistics() {
+            long hitCount = 0L;
+            long missCount = 0L;
+            long evictionCount = 0L;
+            long size = 0L;
+            for (Segment segment : segments) {
+                synchronized (segment) {
+                    hitCount += segment.hitCount;
+                    missCount += segment.missCount;
+                    evictionCount += segment.evictionCount;
+                    size += segment.entries.size();
+                }
+            }
+            return new ExpressionCacheStatistics(hitCount, missCount, evictionCount, size, weight.get(), maximumWeight);
+        }
+
+        private static int segmentIndex(String expression) {
+            int h = expression.hashCode();
+            // Spread the higher bits as the string hash code of similar expressions mostly differs in the lower bits
+            h ^= (h >>> 16);
+            return h & (SEGMENT_COUNT - 1);
+        }
+    }
+
+    /**
+     *
+     * @author Christian Beikov
+     * @since 1.2.0
+     */
+    private static final class Segment {
+
+        private final LinkedHashMap<String, WeightedEntry> entries;
+        private long hitCount;
+        private long missCount;
+        private long evictionCount;
+
+        public Segment() {
+            // Access ordered so that the head of the map is always the least recently used entry
+            this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        }
+
+        public synchronized ExpressionCacheEntry get(String expression) {
+            WeightedEntry weightedEntry = entries.get(expression);
+            if (weightedEntry == null) {
+                missCount++;
+                return null;
+            }
+            hitCount++;
+            return weightedEntry.entry;
+        }
+
+        public synchronized boolean put(String expression, ExpressionCacheEntry entry, int entryWeight) {
+            if (entries.containsKey(expression)) {
+                return false;
+            }
+
+            entries.put(expression, new WeightedEntry(entry, entryWeight));
+            return true;
+        }
+
+        public synchronized int evictEldest(String excludedExpression) {
+            Iterator<Map.Entry<String, WeightedEntry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, WeightedEntry> eldest = iterator.next();
+                if (!eldest.getKey().equals(excludedExpression)) {
+                    iterator.remove();
+                    evictionCount++;
+                    return eldest.getValue().weight;
+                }
+            }
+
+            return 0;
+        }
+
+        public synchronized long clear() {
+            long clearedWeight = 0L;
+            for (WeightedEntry weightedEntry : entries.values()) {
+                clearedWeight += weightedEntry.weight;
+            }
+            entries.clear();
+            return clearedWeight;
+        }
+    }
+
+    /**
+     *
+     * @author Christian Beikov
+     * @since 1.2.0
+     */
+    private static final class WeightedEntry {
+
+        private final ExpressionCacheEntry entry;
+        private final int weight;
+
+        public WeightedEntry(ExpressionCacheEntry entry, int weight) {
+            this.entry = entry;
+            this.weight = weight;
+        }
+    }
+}
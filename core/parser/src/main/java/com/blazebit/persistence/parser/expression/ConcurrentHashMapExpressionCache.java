@@ -16,10 +16,6 @@
 
 package com.blazebit.persistence.parser.expression;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -28,7 +24,7 @@ import java.util.concurrent.ConcurrentMap;
  * @author Christian Beikov
  * @since 1.2.0
  */
-public class ConcurrentHashMapExpressionCache implements ExpressionCache {
+public class ConcurrentHashMapExpressionCache extends AbstractExpressionCache {
     private final ConcurrentMap<String, ConcurrentMap<String, ExpressionCacheEntry>> cacheManager;
 
     public ConcurrentHashMapExpressionCache() {
@@ -36,7 +32,16 @@ public class ConcurrentHashMapExpressionCache implements ExpressionCache {
     }
 
     @Override
-    public <E extends Expression> E getOrDefault(String cacheName, ExpressionFactory expressionFactory, String expression, boolean allowQuantifiedPredicates, MacroConfiguration macroConfiguration, ExpressionSupplier defaultExpressionSupplier) {
+    protected ExpressionCacheEntry getEntry(String cacheName, String expression) {
+        ConcurrentMap<String, ExpressionCacheEntry> cache = cacheManager.get(cacheName);
+        if (cache == null) {
+            return null;
+        }
+        return cache.get(expression);
+    }
+
+    @Override
+    protected void putEntry(String cacheName, String expression, ExpressionCacheEntry entry) {
         // Find the cache manager
         ConcurrentMap<String, ExpressionCacheEntry> cache = cacheManager.get(cacheName);
 
@@ -49,96 +54,6 @@ public class ConcurrentHashMapExpressionCache implements ExpressionCache {
             }
         }
 
-        // Find the expression cache entry
-        ExpressionCacheEntry exprEntry = cache.get(expression);
-        MacroConfiguration macroKey = null;
-        Expression expr;
-
-        if (exprEntry == null) {
-            // Create the expression object
-            Set<String> usedMacros = new HashSet<>();
-            expr = defaultExpressionSupplier.get(expressionFactory, expression, allowQuantifiedPredicates, macroConfiguration, usedMacros);
-            // The cache entry is macro aware
-            exprEntry = new ExpressionCacheEntry(expr, usedMacros);
-            if (!usedMacros.isEmpty()) {
-                macroKey = exprEntry.createKey(macroConfiguration);
-                // Macro key is null when one macro reports it is non-cacheable
-                if (macroKey == null) {
-                    return (E) expr;
-                }
-                exprEntry.addMacroConfigurationExpression(macroKey, expr);
-            }
-
-            cache.putIfAbsent(expression, exprEntry);
-            return (E) expr.clone(false);
-        }
-
-        // Fast-path if macro-free
-        if (exprEntry.usedMacros == null) {
-            expr = exprEntry.expression;
-        } else {
-            // Find a macro-aware entry
-            if (macroKey == null) {
-                macroKey = exprEntry.createKey(macroConfiguration);
-                // Macro key is null when one macro reports it is non-cacheable, which can totally happen here
-                if (macroKey == null) {
-                    return (E) defaultExpressionSupplier.get(expressionFactory, expression, allowQuantifiedPredicates, macroConfiguration, null);
-                }
-            }
-            expr = exprEntry.macroConfigurationCache.get(macroKey);
-
-            // Create the macro-aware expression object
-            if (expr == null) {
-                expr = defaultExpressionSupplier.get(expressionFactory, expression, allowQuantifiedPredicates, macroConfiguration, null);
-                Expression oldExpr = exprEntry.macroConfigurationCache.putIfAbsent(macroKey, expr);
-
-                if (oldExpr != null) {
-                    expr = oldExpr;
-                }
-            }
-        }
-
-        return (E) expr.clone(false);
-    }
-
-    /**
-     *
-     * @author Christian Beikov
-     * @since 1.2.0
-     */
-    public static final class ExpressionCacheEntry {
-        final Expression expression;
-        final Set<String> usedMacros;
-        final ConcurrentHashMap<MacroConfiguration, Expression> macroConfigurationCache;
-
-        public ExpressionCacheEntry(Expression expression, Set<String> usedMacros) {
-            if (usedMacros.isEmpty()) {
-                // The expression in the entry is just the fast path for the macro-free case
-                // An expression that didn't resolve macros is always macro-free, regardless of possible later registrations
-                this.expression = expression;
-                this.usedMacros = null;
-                this.macroConfigurationCache = null;
-            } else {
-                this.expression = null;
-                this.usedMacros = usedMacros;
-                this.macroConfigurationCache = new ConcurrentHashMap<>();
-            }
-        }
-
-        public MacroConfiguration createKey(MacroConfiguration macroConfiguration) {
-            Map<String, MacroFunction> macros = new HashMap<>(usedMacros.size());
-            for (String usedMacro : usedMacros) {
-                MacroFunction macroFunction = macroConfiguration.get(usedMacro);
-                if (!macroFunction.supportsCaching()) {
-                    return null;
-                }
-                macros.put(usedMacro, macroFunction);
-            }
-            return MacroConfiguration.of(macros);
-        }
-
-        public void addMacroConfigurationExpression(MacroConfiguration macroConfiguration, Expression expression) {
-            macroConfigurationCache.put(macroConfiguration, expression);
-        }
+        cache.putIfAbsent(expression, entry);
     }
 }
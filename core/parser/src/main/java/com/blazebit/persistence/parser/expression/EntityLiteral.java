@@ -41,7 +41,8 @@ public class EntityLiteral extends AbstractExpression {
 
     @Override
     public Expression clone(boolean resolved) {
-        return new EntityLiteral(value, originalExpression);
+        // We can do this since this is immutable
+        return this;
     }
 
     @Override
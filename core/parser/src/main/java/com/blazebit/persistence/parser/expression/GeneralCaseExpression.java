@@ -44,7 +44,7 @@ public class GeneralCaseExpression extends AbstractExpression {
         }
 
         if (defaultExpr == null) {
-            return new GeneralCaseExpression(whenClauses, null);
+            return new GeneralCaseExpression(newWhenClauses, null);
         } else {
             return new GeneralCaseExpression(newWhenClauses, defaultExpr.clone(resolved));
         }
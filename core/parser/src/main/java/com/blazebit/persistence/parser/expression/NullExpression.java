@@ -25,7 +25,8 @@ public class NullExpression extends AbstractExpression {
 
     @Override
     public NullExpression clone(boolean resolved) {
-        return new NullExpression();
+        // We can do this since this is immutable
+        return this;
     }
 
     @Override
@@ -36,7 +36,8 @@ public class NumericLiteral extends AbstractNumericExpression {
 
     @Override
     public Expression clone(boolean resolved) {
-        return new NumericLiteral(value, getNumericType());
+        // We can do this since this is immutable
+        return this;
     }
 
     @Override
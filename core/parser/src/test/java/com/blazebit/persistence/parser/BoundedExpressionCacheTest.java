@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser;
+
+import com.blazebit.persistence.parser.expression.BoundedExpressionCache;
+import com.blazebit.persistence.parser.expression.Expression;
+import com.blazebit.persistence.parser.expression.ExpressionCacheStatistics;
+import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.parser.expression.ExpressionFactoryImpl;
+import com.blazebit.persistence.parser.expression.SimpleCachingExpressionFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class BoundedExpressionCacheTest {
+
+    private static final String CACHE_NAME = "com.blazebit.persistence.parser.expression.cache.SimpleExpression";
+
+    @Test
+    public void testHitAndMiss() {
+        BoundedExpressionCache cache = new BoundedExpressionCache();
+        ExpressionFactory ef = new SimpleCachingExpressionFactory(new ExpressionFactoryImpl(new HashSet<String>(), true, true), cache);
+
+        Expression expr1 = ef.createSimpleExpression("a.b + 1", true, null, null);
+        Expression expr2 = ef.createSimpleExpression("a.b + 1", true, null, null);
+
+        Assert.assertFalse(expr1 == expr2);
+        Assert.assertEquals(expr1, expr2);
+
+        ExpressionCacheStatistics statistics = cache.getStatistics(CACHE_NAME);
+        Assert.assertEquals(1L, statistics.getHitCount());
+        Assert.assertEquals(1L, statistics.getMissCount());
+        Assert.assertEquals(1L, statistics.getSize());
+        Assert.assertEquals(0L, statistics.getEvictionCount());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        BoundedExpressionCache cache = new BoundedExpressionCache(1L, Collections.<String, Long>emptyMap(), BoundedExpressionCache.ENTRY_WEIGHER);
+        ExpressionFactory ef = new SimpleCachingExpressionFactory(new ExpressionFactoryImpl(new HashSet<String>(), true, true), cache);
+
+        for (int i = 0; i < 100; i++) {
+            ef.createSimpleExpression("a.b + " + i, true, null, null);
+        }
+        ef.createSimpleExpression("a.b + 99", true, null, null);
+
+        ExpressionCacheStatistics statistics = cache.getStatistics(CACHE_NAME);
+        Assert.assertEquals(1L, statistics.getSize());
+        Assert.assertEquals(99L, statistics.getEvictionCount());
+        Assert.assertEquals(1L, statistics.getHitCount());
+    }
+
+    @Test
+    public void testPerCacheMaximumWeightAndWeigher() {
+        BoundedExpressionCache cache = new BoundedExpressionCache(1000L, Collections.singletonMap(CACHE_NAME, 20L), BoundedExpressionCache.LENGTH_WEIGHER);
+        ExpressionFactory ef = new SimpleCachingExpressionFactory(new ExpressionFactoryImpl(new HashSet<String>(), true, true), cache);
+
+        for (int i = 0; i < 100; i++) {
+            ef.createSimpleExpression("a.b + " + i, true, null, null);
+            ef.createPathExpression("a.b" + i, null, null);
+        }
+
+        ExpressionCacheStatistics simpleStatistics = cache.getStatistics(CACHE_NAME);
+        Assert.assertTrue(simpleStatistics.getWeight() <= 20L);
+        Assert.assertTrue(simpleStatistics.getEvictionCount() > 0L);
+
+        ExpressionCacheStatistics pathStatistics = cache.getStatistics("com.blazebit.persistence.parser.expression.cache.PathExpression");
+        Assert.assertEquals(100L, pathStatistics.getSize());
+        Assert.assertEquals(0L, pathStatistics.getEvictionCount());
+    }
+}
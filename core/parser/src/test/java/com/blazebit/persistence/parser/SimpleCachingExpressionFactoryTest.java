@@ -20,6 +20,8 @@ import com.blazebit.persistence.parser.expression.ArrayExpression;
 import com.blazebit.persistence.parser.expression.Expression;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
 import com.blazebit.persistence.parser.expression.ExpressionFactoryImpl;
+import com.blazebit.persistence.parser.expression.FunctionExpression;
+import com.blazebit.persistence.parser.expression.GeneralCaseExpression;
 import com.blazebit.persistence.parser.expression.MacroConfiguration;
 import com.blazebit.persistence.parser.expression.MacroFunction;
 import com.blazebit.persistence.parser.expression.PathElementExpression;
@@ -104,4 +106,29 @@ public class SimpleCachingExpressionFactoryTest {
         Assert.assertFalse(expr1 == expr2);
         Assert.assertEquals(expr1, expr2);
     }
+
+    @Test
+    public void testCacheHitSharesImmutableNodes() {
+        ExpressionFactory ef = new SimpleCachingExpressionFactory(new ExpressionFactoryImpl(new HashSet<String>(), true, true));
+        String expressionString = "UPPER('abc')";
+
+        FunctionExpression expr1 = (FunctionExpression) ef.createSimpleExpression(expressionString, true, null, null);
+        FunctionExpression expr2 = (FunctionExpression) ef.createSimpleExpression(expressionString, true, null, null);
+
+        Assert.assertFalse(expr1 == expr2);
+        Assert.assertFalse(expr1.getExpressions() == expr2.getExpressions());
+        Assert.assertSame(expr1.getExpressions().get(0), expr2.getExpressions().get(0));
+    }
+
+    @Test
+    public void testCacheHitCopiesCaseWhenClauses() {
+        ExpressionFactory ef = new SimpleCachingExpressionFactory(new ExpressionFactoryImpl(new HashSet<String>(), true, true));
+        String expressionString = "CASE WHEN a.b = 1 THEN 1 END";
+
+        GeneralCaseExpression expr1 = (GeneralCaseExpression) ef.createSimpleExpression(expressionString, true, null, null);
+        GeneralCaseExpression expr2 = (GeneralCaseExpression) ef.createSimpleExpression(expressionString, true, null, null);
+
+        Assert.assertFalse(expr1.getWhenClauses() == expr2.getWhenClauses());
+        Assert.assertEquals(expr1, expr2);
+    }
 }
@@ -20,8 +20,10 @@ import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.DbmsLimitHandler;
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.DbmsStatementType;
+import com.blazebit.persistence.spi.LateralStyle;
 import com.blazebit.persistence.spi.OrderByElement;
 import com.blazebit.persistence.spi.SetOperationType;
+import com.blazebit.persistence.spi.UpsertStyle;
 import com.blazebit.persistence.spi.ValuesStrategy;
 
 import java.sql.PreparedStatement;
@@ -154,6 +156,16 @@ public class DelegatingDbmsDialect implements DbmsDialect {
         return delegate.supportsFullRowValueComparison();
     }
 
+    @Override
+    public boolean supportsWindowFunctions() {
+        return delegate.supportsWindowFunctions();
+    }
+
+    @Override
+    public int getInListLimit() {
+        return delegate.getInListLimit();
+    }
+
     @Override
     public String getSqlType(Class<?> castType) {
         return delegate.getSqlType(castType);
@@ -164,6 +176,21 @@ public class DelegatingDbmsDialect implements DbmsDialect {
         return delegate.getValuesStrategy();
     }
 
+    @Override
+    public LateralStyle getLateralStyle() {
+        return delegate.getLateralStyle();
+    }
+
+    @Override
+    public UpsertStyle getUpsertStyle() {
+        return delegate.getUpsertStyle();
+    }
+
+    @Override
+    public void appendUpsert(StringBuilder sqlSb, String[] conflictColumns, String[] updateColumns) {
+        delegate.appendUpsert(sqlSb, conflictColumns, updateColumns);
+    }
+
     @Override
     public boolean needsCastParameters() {
         return delegate.needsCastParameters();
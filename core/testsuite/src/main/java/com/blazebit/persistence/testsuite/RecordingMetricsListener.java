@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.spi.MetricsCache;
+import com.blazebit.persistence.spi.MetricsCounter;
+import com.blazebit.persistence.spi.MetricsListener;
+import com.blazebit.persistence.spi.MetricsPhase;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A metrics listener that counts the recorded phases, cache accesses and counters.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class RecordingMetricsListener implements MetricsListener {
+
+    private final Map<MetricsPhase, Integer> phases = new EnumMap<>(MetricsPhase.class);
+    private final Map<MetricsCache, Integer> hits = new EnumMap<>(MetricsCache.class);
+    private final Map<MetricsCache, Integer> misses = new EnumMap<>(MetricsCache.class);
+    private final Map<MetricsCounter, Long> counts = new EnumMap<>(MetricsCounter.class);
+
+    @Override
+    public synchronized void recordPhase(MetricsPhase phase, long durationNanos) {
+        phases.put(phase, getPhaseCount(phase) + 1);
+    }
+
+    @Override
+    public synchronized void recordCacheAccess(MetricsCache cache, boolean hit) {
+        if (hit) {
+            hits.put(cache, getHitCount(cache) + 1);
+        } else {
+            misses.put(cache, getMissCount(cache) + 1);
+        }
+    }
+
+    @Override
+    public synchronized void recordCount(MetricsCounter counter, long amount) {
+        counts.put(counter, getCount(counter) + amount);
+    }
+
+    public synchronized int getPhaseCount(MetricsPhase phase) {
+        Integer count = phases.get(phase);
+        return count == null ? 0 : count;
+    }
+
+    public synchronized int getHitCount(MetricsCache cache) {
+        Integer count = hits.get(cache);
+        return count == null ? 0 : count;
+    }
+
+    public synchronized int getMissCount(MetricsCache cache) {
+        Integer count = misses.get(cache);
+        return count == null ? 0 : count;
+    }
+
+    public synchronized long getCount(MetricsCounter counter) {
+        Long count = counts.get(counter);
+        return count == null ? 0L : count;
+    }
+
+    public synchronized void reset() {
+        phases.clear();
+        hits.clear();
+        misses.clear();
+        counts.clear();
+    }
+}
@@ -21,11 +21,13 @@ import static com.googlecode.catchexception.CatchException.verifyException;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Tuple;
 
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.FullSelectCTECriteriaBuilder;
 import com.blazebit.persistence.LeafOngoingSetOperationCTECriteriaBuilder;
 import com.blazebit.persistence.PagedList;
@@ -167,6 +169,35 @@ public class CTETest extends AbstractCoreTest {
         assertEquals("root1", resultList.get(0).getName());
     }
 
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class, NoMySQL.class })
+    public void testCTEResultIterator() {
+        CriteriaBuilder<String> cb = cbf.create(em, String.class)
+            .from(TestCTE.class, "t")
+            .select("t.name")
+            .orderByAsc("t.name");
+        cb.with(TestCTE.class)
+            .from(RecursiveEntity.class, "e")
+            .bind("id").select("e.id")
+            .bind("name").select("e.name")
+            .bind("level").select("0")
+            .where("e.parent").isNotNull()
+        .end();
+
+        List<String> resultList = new ArrayList<>();
+        CloseableIterator<String> iterator = cb.getResultIterator(2);
+        try {
+            while (iterator.hasNext()) {
+                resultList.add(iterator.next());
+            }
+        } finally {
+            iterator.close();
+        }
+        assertEquals(cb.getResultList(), resultList);
+        assertEquals(4, resultList.size());
+        assertEquals("child1_1", resultList.get(0));
+    }
+
     @Test
     @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class, NoMySQL.class })
     public void testCTEAdvanced() {
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.JoinType;
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate42;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate43;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate50;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMySQL;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+
+/**
+ * Lateral joins are based on entity joins which are supported since Hibernate 5.1 and require the SQL transformation.
+ * We don't run the tests on MySQL as the versions we test against don't support lateral derived tables.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+@Category({ NoHibernate42.class, NoHibernate43.class, NoHibernate50.class, NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class, NoMySQL.class })
+public class LateralJoinTest extends AbstractCoreTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p1 = new Person("Pers1");
+                Person p2 = new Person("Pers2");
+                Person p3 = new Person("Pers3");
+                em.persist(p1);
+                em.persist(p2);
+                em.persist(p3);
+
+                Document doc1 = new Document("Doc1", p1);
+                doc1.setAge(10L);
+                Document doc2 = new Document("Doc2", p1);
+                doc2.setAge(20L);
+                Document doc3 = new Document("Doc3", p1);
+                doc3.setAge(30L);
+                Document doc4 = new Document("Doc4", p2);
+                doc4.setAge(5L);
+                em.persist(doc1);
+                em.persist(doc2);
+                em.persist(doc3);
+                em.persist(doc4);
+            }
+        });
+    }
+
+    @Test
+    public void testInnerLateralJoinTopN() {
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class)
+            .from(Person.class, "p")
+            .innerJoinLateral(Document.class, "d")
+                .orderByDesc("d.age")
+                .setMaxResults(2)
+                .on("d.owner.id").eqExpression("p.id")
+            .end()
+            .select("p.name")
+            .select("d.name")
+            .orderByAsc("p.name")
+            .orderByAsc("d.name");
+
+        List<Tuple> actual = criteria.getResultList();
+        assertEquals(3, actual.size());
+        assertRow(actual.get(0), "Pers1", "Doc2");
+        assertRow(actual.get(1), "Pers1", "Doc3");
+        assertRow(actual.get(2), "Pers2", "Doc4");
+    }
+
+    @Test
+    public void testInnerLateralJoinTopNWithOffset() {
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class)
+            .from(Person.class, "p")
+            .innerJoinLateral(Document.class, "d")
+                .orderByDesc("d.age")
+                .setFirstResult(1)
+                .setMaxResults(2)
+                .on("d.owner.id").eqExpression("p.id")
+            .end()
+            .select("p.name")
+            .select("d.name")
+            .orderByAsc("p.name")
+            .orderByAsc("d.name");
+
+        List<Tuple> actual = criteria.getResultList();
+        assertEquals(2, actual.size());
+        assertRow(actual.get(0), "Pers1", "Doc1");
+        assertRow(actual.get(1), "Pers1", "Doc2");
+    }
+
+    @Test
+    public void testLateralJoinRendering() {
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class)
+            .from(Person.class, "p")
+            .innerJoinLateral(Document.class, "d")
+                .orderByDesc("d.age")
+                .setMaxResults(2)
+                .on("d.owner.id").eqExpression("p.id")
+            .end()
+            .select("p.name")
+            .select("d.name");
+
+        String expected = "SELECT p.name, d.name FROM Person p JOIN Document d"
+            + onClause(function("LATERAL_JOIN_START") + " = true AND d.owner.id = p.id AND "
+                + function("LATERAL_JOIN_END", "d.id", "2", "'ORDER BY'", "d.age", "'DESC NULLS LAST'") + " = true");
+        assertEquals(expected, criteria.getQueryString());
+    }
+
+    @Test
+    public void testLeftLateralJoinTopN() {
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class)
+            .from(Person.class, "p")
+            .leftJoinLateral(Document.class, "d")
+                .orderByAsc("d.age")
+                .setMaxResults(1)
+                .on("d.owner.id").eqExpression("p.id")
+            .end()
+            .select("p.name")
+            .select("d.name")
+            .orderByAsc("p.name");
+
+        List<Tuple> actual = criteria.getResultList();
+        assertEquals(3, actual.size());
+        assertRow(actual.get(0), "Pers1", "Doc1");
+        assertRow(actual.get(1), "Pers2", "Doc4");
+        assertRow(actual.get(2), "Pers3", null);
+    }
+
+    @Test
+    public void testLeftLateralJoinWithOffset() {
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class)
+            .from(Person.class, "p")
+            .leftJoinLateral(Document.class, "d")
+                .orderByDesc("d.age")
+                .setFirstResult(1)
+                .setMaxResults(1)
+                .on("d.owner.id").eqExpression("p.id")
+            .end()
+            .select("p.name")
+            .select("d.name")
+            .orderByAsc("p.name");
+
+        List<Tuple> actual = criteria.getResultList();
+        assertEquals(3, actual.size());
+        assertRow(actual.get(0), "Pers1", "Doc2");
+        assertRow(actual.get(1), "Pers2", null);
+        assertRow(actual.get(2), "Pers3", null);
+    }
+
+    @Test
+    public void testLateralJoinPagination() {
+        PaginatedCriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class)
+            .from(Person.class, "p")
+            .leftJoinLateral(Document.class, "d")
+                .orderByDesc("d.age")
+                .setMaxResults(1)
+                .on("d.owner.id").eqExpression("p.id")
+            .end()
+            .select("p.name")
+            .select("d.name")
+            .orderByAsc("p.name")
+            .orderByAsc("p.id")
+            .page(0, 2);
+
+        PagedList<Tuple> actual = criteria.getResultList();
+        assertEquals(3, actual.getTotalSize());
+        assertEquals(2, actual.size());
+        assertRow(actual.get(0), "Pers1", "Doc3");
+        assertRow(actual.get(1), "Pers2", "Doc4");
+    }
+
+    @Test
+    public void testLateralJoinWithoutLimit() {
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class)
+            .from(Person.class, "p")
+            .innerJoinLateral(Document.class, "d")
+                .on("d.owner.id").eqExpression("p.id")
+                .on("d.age").gtExpression("10")
+            .end()
+            .select("p.name")
+            .select("d.name")
+            .orderByAsc("d.name");
+
+        List<Tuple> actual = criteria.getResultList();
+        assertEquals(2, actual.size());
+        assertRow(actual.get(0), "Pers1", "Doc2");
+        assertRow(actual.get(1), "Pers1", "Doc3");
+    }
+
+    @Test
+    public void testRightLateralJoinNotAllowed() {
+        try {
+            cbf.create(em, Tuple.class)
+                .from(Person.class, "p")
+                .joinLateral(Document.class, "d", JoinType.RIGHT);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
+
+    private void assertRow(Tuple tuple, String personName, String documentName) {
+        assertEquals(personName, tuple.get(0));
+        if (documentName == null) {
+            assertNull(tuple.get(1));
+        } else {
+            assertEquals(documentName, tuple.get(1));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.junit.Test;
+
+import com.blazebit.persistence.Criteria;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.spi.MetricsCache;
+import com.blazebit.persistence.spi.MetricsCounter;
+import com.blazebit.persistence.spi.MetricsPhase;
+import com.blazebit.persistence.spi.NoopMetricsListener;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.model.DocumentViewModel;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class MetricsListenerTest extends AbstractCoreTest {
+
+    private RecordingMetricsListener listener;
+
+    @Override
+    protected CriteriaBuilderConfiguration configure(CriteriaBuilderConfiguration config) {
+        config = super.configure(config);
+        listener = new RecordingMetricsListener();
+        config.setMetricsListener(listener);
+        return config;
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("Karl1");
+                em.persist(o1);
+
+                em.persist(new Document("doc1", o1));
+                em.persist(new Document("doc2", o1));
+                em.persist(new Document("doc3", o1));
+            }
+        });
+    }
+
+    @Test
+    public void testPhasesAreRecorded() {
+        List<String> result = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .getResultList();
+
+        assertEquals(3, result.size());
+        assertEquals(1, listener.getPhaseCount(MetricsPhase.BUILD));
+        assertEquals(1, listener.getPhaseCount(MetricsPhase.RENDER));
+        assertEquals(1, listener.getPhaseCount(MetricsPhase.EXECUTION));
+        assertEquals(0, listener.getPhaseCount(MetricsPhase.TUPLE_TRANSFORMATION));
+        assertEquals(3L, listener.getCount(MetricsCounter.ROWS_MATERIALIZED));
+    }
+
+    @Test
+    public void testTupleTransformationIsRecorded() {
+        List<DocumentViewModel> result = cbf.create(em, Document.class, "d")
+                .selectNew(DocumentViewModel.class).with("d.name").end()
+                .getResultList();
+
+        assertEquals(3, result.size());
+        assertEquals(1, listener.getPhaseCount(MetricsPhase.TUPLE_TRANSFORMATION));
+    }
+
+    @Test
+    public void testExpressionCacheHitsAreRecorded() {
+        createQuery().getResultList();
+        int misses = listener.getMissCount(MetricsCache.EXPRESSION);
+        assertTrue(misses > 0);
+
+        createQuery().getResultList();
+        assertEquals(misses, listener.getMissCount(MetricsCache.EXPRESSION));
+        assertTrue(listener.getHitCount(MetricsCache.EXPRESSION) > 0);
+    }
+
+    @Test
+    public void testDisabledListener() {
+        CriteriaBuilderConfiguration config = Criteria.getDefault();
+        config.setMetricsListener(listener);
+        config.setMetricsListener(null);
+        assertTrue(config.getMetricsListener() instanceof NoopMetricsListener);
+    }
+
+    private CriteriaBuilder<String> createQuery() {
+        return cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .where("UPPER(d.name)").like().value("DOC%").noEscape()
+                .select("d.name");
+    }
+}
@@ -20,13 +20,27 @@ import static com.googlecode.catchexception.CatchException.verifyException;
 import static org.junit.Assert.assertEquals;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Tuple;
 
+import com.blazebit.persistence.Criteria;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.impl.ConfigurationProperties;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.spi.DbmsDialect;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoSQLite;
 import com.blazebit.persistence.testsuite.tx.TxVoidWork;
 import org.junit.Assert;
 import org.junit.Ignore;
@@ -35,6 +49,7 @@ import org.junit.Test;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.PagedList;
 import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.PaginatedTypedQuery;
 import com.blazebit.persistence.testsuite.entity.Document;
 import com.blazebit.persistence.testsuite.entity.Person;
 import com.blazebit.persistence.testsuite.entity.Workflow;
@@ -573,4 +588,115 @@ public class PaginationTest extends AbstractCoreTest {
         assertEquals(objectQuery, cb.getQueryString());
         cb.getResultList();
     }
+
+    @Test
+    public void testInlineCountQueryString() {
+        CriteriaBuilderConfiguration config = Criteria.getDefault();
+        config = configure(config);
+        config.registerDialect(dbms, new DelegatingDbmsDialect(cbf.getService(DbmsDialect.class)) {
+            @Override
+            public boolean supportsWindowFunctions() {
+                return true;
+            }
+        });
+        CriteriaBuilderFactory cbf = config.createCriteriaBuilderFactory(em.getEntityManagerFactory());
+        PaginatedCriteriaBuilder<Document> cb = cbf.create(em, Document.class, "d")
+                .leftJoin("d.contacts", "c")
+                .orderByAsc("d.id")
+                .setProperty(ConfigurationProperties.INLINE_COUNT_QUERY, "true")
+                .page(0, 2);
+
+        // The collection join is not rendered in the id query because it is not used in any clause
+        String idQuery = "SELECT d.id, " + function("count_over") + " FROM Document d" +
+                " GROUP BY " + groupBy("d.id", renderNullPrecedenceGroupBy("d.id")) + " ORDER BY " + renderNullPrecedence("d.id", "ASC", "LAST");
+        assertEquals(idQuery, cb.getPageIdQueryString());
+
+        // The count is not inlined if it isn't requested
+        cb.withCountQuery(false);
+        assertEquals("SELECT d.id FROM Document d" +
+                " GROUP BY " + groupBy("d.id", renderNullPrecedenceGroupBy("d.id")) + " ORDER BY " + renderNullPrecedence("d.id", "ASC", "LAST"), cb.getPageIdQueryString());
+    }
+
+    @Test
+    @Category({ NoSQLite.class, NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testInlineCountQuery() {
+        CriteriaBuilder<Document> cb = cbf.create(em, Document.class, "d")
+                .leftJoin("d.contacts", "c")
+                .orderByAsc("d.id")
+                .setProperty(ConfigurationProperties.INLINE_COUNT_QUERY, "true");
+
+        // DBMS without window function support like H2 or MySQL fall back to the separate count query
+        boolean inlined = cb.page(0, 2).getPageIdQueryString().contains(function("count_over"));
+        assertEquals(cbf.getService(DbmsDialect.class).supportsWindowFunctions(), inlined);
+
+        PagedList<Document> firstPage = cb.page(0, 2).getResultList();
+        assertEquals(7, firstPage.getTotalSize());
+        assertEquals(2, firstPage.size());
+
+        // The count query is executed separately for pages beyond the last page
+        PagedList<Document> emptyPage = cb.page(10, 2).getResultList();
+        assertEquals(7, emptyPage.getTotalSize());
+        assertEquals(0, emptyPage.size());
+    }
+
+    @Test
+    public void testConcurrentCountQuery() {
+        final AtomicInteger executions = new AtomicInteger();
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                executions.incrementAndGet();
+                executorService.execute(command);
+            }
+        };
+
+        try {
+            PaginatedCriteriaBuilder<Document> cb = cbf.create(em, Document.class, "d")
+                    .leftJoin("d.contacts", "c")
+                    .where("d.owner.name").inExpressions(":names")
+                    .orderByAsc("d.id")
+                    .setParameter("names", Arrays.asList("Karl2"))
+                    .page(0, 2)
+                    .withCountQueryExecutor(executor);
+
+            PagedList<Document> firstPage = cb.getResultList();
+            assertEquals(1, executions.get());
+            assertEquals(4, firstPage.getTotalSize());
+            assertEquals(2, firstPage.size());
+
+            // Parameters set on the query are also used for the concurrently executed count query
+            PaginatedTypedQuery<Document> query = cb.getQuery();
+            query.setParameter("names", Arrays.asList("Karl1", "Karl2"));
+            PagedList<Document> page = query.getResultList();
+            assertEquals(2, executions.get());
+            assertEquals(7, page.getTotalSize());
+            assertEquals(2, page.size());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrentCountQueryWithRejectingExecutor() {
+        final AtomicInteger executions = new AtomicInteger();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                executions.incrementAndGet();
+                throw new RejectedExecutionException("Saturated");
+            }
+        };
+
+        // The count query is run by the calling thread when the executor rejects it
+        PagedList<Document> page = cbf.create(em, Document.class, "d")
+                .leftJoin("d.contacts", "c")
+                .orderByAsc("d.id")
+                .page(0, 2)
+                .withCountQueryExecutor(executor)
+                .getResultList();
+        assertEquals(1, executions.get());
+        assertEquals(7, page.getTotalSize());
+        assertEquals(2, page.size());
+    }
 }
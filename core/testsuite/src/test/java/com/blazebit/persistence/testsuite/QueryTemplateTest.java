@@ -0,0 +1,264 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManager;
+
+import org.junit.Test;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.PaginatedQueryTemplate;
+import com.blazebit.persistence.QueryTemplate;
+import com.blazebit.persistence.SelectBuilder;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.model.DocumentViewModel;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class QueryTemplateTest extends AbstractCoreTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("Karl1");
+                Person o2 = new Person("Karl2");
+
+                Document doc1 = new Document("doc1", o1);
+                Document doc2 = new Document("doc2", o1);
+                Document doc3 = new Document("doc3", o2);
+
+                doc1.getContacts().put(1, o1);
+                doc1.getContacts().put(2, o2);
+
+                em.persist(o1);
+                em.persist(o2);
+
+                em.persist(doc1);
+                em.persist(doc2);
+                em.persist(doc3);
+            }
+        });
+    }
+
+    @Test
+    public void testTemplateRebindsParameters() {
+        CriteriaBuilder<String> crit = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .where("d.owner.name").eqExpression(":ownerName")
+                .orderByAsc("d.id")
+                .setParameter("ownerName", "Karl1");
+        QueryTemplate<String> template = cbf.createTemplate(crit);
+
+        assertEquals(crit.getQueryString(), template.getQueryString());
+
+        List<String> result = template.createQuery(em).getResultList();
+        assertEquals(2, result.size());
+        assertEquals("doc1", result.get(0));
+        assertEquals("doc2", result.get(1));
+
+        result = template.createQuery(em).setParameter("ownerName", "Karl2").getResultList();
+        assertEquals(1, result.size());
+        assertEquals("doc3", result.get(0));
+
+        // Changes of the builder must not be visible in the template
+        crit.setParameter("ownerName", "Karl2");
+        assertEquals(2, template.createQuery(em).getResultList().size());
+    }
+
+    @Test
+    public void testPaginatedTemplate() {
+        PaginatedCriteriaBuilder<Document> crit = cbf.create(em, Document.class, "d")
+                .leftJoin("d.contacts", "c")
+                .where("d.owner.name").like().value("Karl%").noEscape()
+                .orderByAsc("d.id")
+                .page(0, 2);
+        PaginatedQueryTemplate<Document> template = cbf.createTemplate(crit);
+
+        assertEquals(crit.getPageCountQueryString(), template.getPageCountQueryString());
+        assertEquals(crit.getPageIdQueryString(), template.getPageIdQueryString());
+        assertEquals(crit.getQueryString(), template.getQueryString());
+
+        PagedList<Document> firstPage = template.createQuery(em).getResultList();
+        assertEquals(3, firstPage.getTotalSize());
+        assertEquals(2, firstPage.size());
+        assertEquals("doc1", firstPage.get(0).getName());
+        assertEquals("doc2", firstPage.get(1).getName());
+
+        PagedList<Document> secondPage = template.createQuery(em, 2, 2).getResultList();
+        assertEquals(3, secondPage.getTotalSize());
+        assertEquals(1, secondPage.size());
+        assertEquals("doc3", secondPage.get(0).getName());
+    }
+
+    @Test
+    public void testPaginatedTemplateWithoutCollections() {
+        PaginatedCriteriaBuilder<Document> crit = cbf.create(em, Document.class, "d")
+                .orderByAsc("d.id")
+                .page(1, 1);
+        PaginatedQueryTemplate<Document> template = cbf.createTemplate(crit);
+
+        assertNull(template.getPageIdQueryString());
+
+        PagedList<Document> page = template.createQuery(em).getResultList();
+        assertEquals(3, page.getTotalSize());
+        assertEquals(1, page.size());
+        assertEquals("doc2", page.get(0).getName());
+    }
+
+    @Test
+    public void testKeysetPaginationIsNotSupported() {
+        PaginatedCriteriaBuilder<Document> crit = cbf.create(em, Document.class, "d")
+                .orderByAsc("d.id")
+                .page(0, 1)
+                .withKeysetExtraction(true);
+        try {
+            cbf.createTemplate(crit);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testTemplateUsedConcurrently() throws Exception {
+        CriteriaBuilder<DocumentViewModel> crit = cbf.create(em, DocumentViewModel.class)
+                .from(Document.class, "d")
+                .selectNew(DocumentViewModel.class).with("d.name").end()
+                .where("d.owner.name").eqExpression(":ownerName")
+                .orderByAsc("d.id");
+        final QueryTemplate<DocumentViewModel> template = cbf.createTemplate(crit);
+
+        final int threads = 4;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                final boolean firstOwner = i % 2 == 0;
+                futures.add(executorService.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        startLatch.await();
+                        // Every thread uses its own entity manager with the shared template
+                        EntityManager threadEm = emf.createEntityManager();
+                        try {
+                            for (int j = 0; j < 20; j++) {
+                                List<DocumentViewModel> result = template.createQuery(threadEm)
+                                        .setParameter("ownerName", firstOwner ? "Karl1" : "Karl2")
+                                        .getResultList();
+                                if (firstOwner) {
+                                    assertEquals(2, result.size());
+                                    assertEquals("doc1", result.get(0).getName());
+                                    assertEquals("doc2", result.get(1).getName());
+                                } else {
+                                    assertEquals(1, result.size());
+                                    assertEquals("doc3", result.get(0).getName());
+                                }
+                            }
+                        } finally {
+                            threadEm.close();
+                        }
+                        return null;
+                    }
+                }));
+            }
+            startLatch.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testTemplateTransformsParameterValues() {
+        CriteriaBuilder<String> crit = cbf.create(em, String.class)
+                .from(Person.class, "p")
+                .innerJoinOn("p.ownedDocuments", "d")
+                    .on("d.owner").eqExpression(":owner")
+                .end()
+                .select("d.name")
+                .orderByAsc("d.name");
+        QueryTemplate<String> template = cbf.createTemplate(crit);
+
+        Person karl1 = cbf.create(em, Person.class).where("name").eq("Karl1").getSingleResult();
+        Person karl2 = cbf.create(em, Person.class).where("name").eq("Karl2").getSingleResult();
+
+        List<String> result = template.createQuery(em).setParameter("owner", karl1).getResultList();
+        assertEquals(2, result.size());
+        assertEquals("doc1", result.get(0));
+        assertEquals("doc2", result.get(1));
+
+        result = template.createQuery(em).setParameter("owner", karl2).getResultList();
+        assertEquals(1, result.size());
+        assertEquals("doc3", result.get(0));
+    }
+
+    @Test
+    public void testCustomObjectBuilderIsNotSupported() {
+        CriteriaBuilder<String> crit = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .selectNew(new ObjectBuilder<String>() {
+
+                    @Override
+                    public <X extends SelectBuilder<X>> void applySelects(X selectBuilder) {
+                        selectBuilder.select("d.name");
+                    }
+
+                    @Override
+                    public String build(Object[] tuple) {
+                        return (String) tuple[0];
+                    }
+
+                    @Override
+                    public List<String> buildList(List<String> list) {
+                        return list;
+                    }
+                });
+        try {
+            cbf.createTemplate(crit);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
+}
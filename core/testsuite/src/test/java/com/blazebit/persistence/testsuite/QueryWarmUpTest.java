@@ -0,0 +1,144 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.spi.MetricsCache;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMySQL;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.entity.RecursiveEntity;
+import com.blazebit.persistence.testsuite.entity.TestCTE;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class QueryWarmUpTest extends AbstractCoreTest {
+
+    private RecordingMetricsListener listener;
+
+    @Override
+    protected Class<?>[] getEntityClasses() {
+        return concat(super.getEntityClasses(), new Class<?>[] {
+            RecursiveEntity.class,
+            TestCTE.class
+        });
+    }
+
+    @Override
+    protected CriteriaBuilderConfiguration configure(CriteriaBuilderConfiguration config) {
+        config = super.configure(config);
+        listener = new RecordingMetricsListener();
+        config.setMetricsListener(listener);
+        return config;
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("Karl1");
+                em.persist(o1);
+
+                em.persist(new Document("doc1", o1));
+                em.persist(new Document("doc2", o1));
+                em.persist(new Document("doc3", o1));
+
+                RecursiveEntity root1 = new RecursiveEntity("root1");
+                em.persist(root1);
+                em.persist(new RecursiveEntity("child1_1", root1));
+            }
+        });
+    }
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class, NoMySQL.class })
+    public void testWarmUpPreparesCteQueryPlan() {
+        cbf.warmUp(createCteQuery());
+        int hits = listener.getHitCount(MetricsCache.PROVIDER_QUERY_PLAN);
+        int misses = listener.getMissCount(MetricsCache.PROVIDER_QUERY_PLAN);
+
+        List<String> resultList = createCteQuery()
+                .setParameter("name", "root1")
+                .getResultList();
+
+        assertEquals(1, resultList.size());
+        assertEquals("root1", resultList.get(0));
+        // The execution must reuse the query plan that was prepared by the warm up
+        assertEquals(hits + 1, listener.getHitCount(MetricsCache.PROVIDER_QUERY_PLAN));
+        assertEquals(misses, listener.getMissCount(MetricsCache.PROVIDER_QUERY_PLAN));
+    }
+
+    @Test
+    public void testWarmUpPaginatedQueryWithUnboundParameter() {
+        cbf.warmUp(createPaginatedQuery());
+
+        PagedList<String> resultList = createPaginatedQuery()
+                .setParameter("ownerName", "Karl1")
+                .getResultList();
+
+        assertEquals(3, resultList.getTotalSize());
+        assertEquals(2, resultList.size());
+        assertEquals("doc1", resultList.get(0));
+        assertEquals("doc2", resultList.get(1));
+    }
+
+    private CriteriaBuilder<String> createCteQuery() {
+        CriteriaBuilder<String> cb = cbf.create(em, String.class)
+                .from(TestCTE.class, "t")
+                .select("t.name")
+                .where("t.name").eqExpression(":name");
+        cb.with(TestCTE.class)
+            .from(RecursiveEntity.class, "e")
+            .bind("id").select("e.id")
+            .bind("name").select("e.name")
+            .bind("level").select("0")
+            .where("e.parent").isNull()
+        .end();
+        return cb;
+    }
+
+    private PaginatedCriteriaBuilder<String> createPaginatedQuery() {
+        return cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .where("d.owner.name").eqExpression(":ownerName")
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(0, 2);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+
+import org.junit.Test;
+
+import com.blazebit.persistence.CloseableIterator;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.model.DocumentViewModel;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class ResultIteratorTest extends AbstractCoreTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("Karl1");
+                Person o2 = new Person("Karl2");
+                em.persist(o1);
+                em.persist(o2);
+
+                em.persist(new Document("doc1", o1));
+                em.persist(new Document("doc2", o1));
+                em.persist(new Document("doc3", o2));
+            }
+        });
+    }
+
+    @Test
+    public void testScalarIterator() {
+        CriteriaBuilder<String> crit = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.name");
+
+        assertEquals(crit.getResultList(), drain(crit.getResultIterator(2)));
+    }
+
+    @Test
+    public void testEntityIteratorWithLimit() {
+        CriteriaBuilder<Document> crit = cbf.create(em, Document.class, "d")
+                .orderByAsc("d.name")
+                .setFirstResult(1)
+                .setMaxResults(1);
+
+        List<Document> result = drain(crit.getResultIterator(0));
+        assertEquals(1, result.size());
+        assertEquals("doc2", result.get(0).getName());
+    }
+
+    @Test
+    public void testTupleIterator() {
+        CriteriaBuilder<Tuple> crit = cbf.create(em, Tuple.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .select("d.owner.name")
+                .orderByAsc("d.name");
+
+        List<Tuple> result = drain(crit.getResultIterator(10));
+        assertEquals(3, result.size());
+        assertArrayEquals(new Object[]{ "doc1", "Karl1" }, result.get(0).toArray());
+        assertArrayEquals(new Object[]{ "doc3", "Karl2" }, result.get(2).toArray());
+    }
+
+    @Test
+    public void testObjectBuilderIterator() {
+        CriteriaBuilder<DocumentViewModel> crit = cbf.create(em, Document.class, "d")
+                .selectNew(DocumentViewModel.class).with("d.name").end()
+                .orderByAsc("d.name");
+
+        List<DocumentViewModel> result = drain(crit.getResultIterator(1));
+        assertEquals(3, result.size());
+        assertEquals("doc1", result.get(0).getName());
+        assertEquals("doc3", result.get(2).getName());
+    }
+
+    @Test
+    public void testCloseBeforeExhaustion() {
+        CriteriaBuilder<String> crit = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.name");
+
+        CloseableIterator<String> iterator = crit.getResultIterator(1);
+        assertEquals("doc1", iterator.next());
+        iterator.close();
+        assertFalse(iterator.hasNext());
+    }
+
+    private static <T> List<T> drain(CloseableIterator<T> iterator) {
+        List<T> list = new ArrayList<>();
+        try {
+            while (iterator.hasNext()) {
+                list.add(iterator.next());
+            }
+        } finally {
+            iterator.close();
+        }
+        return list;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.InsertCriteriaBuilder;
+import com.blazebit.persistence.ReturningResult;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDB2;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoFirebird;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoH2;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMSSQL;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMySQL;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOracle;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoSQLite;
+import com.blazebit.persistence.testsuite.entity.KeysetEntity;
+import com.blazebit.persistence.testsuite.entity.KeysetEntity2;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.testsuite.tx.TxWork;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+@Category({ NoFirebird.class, NoSQLite.class, NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+public class UpsertTest extends AbstractCoreTest {
+
+    @Override
+    protected Class<?>[] getEntityClasses() {
+        return new Class<?>[] {
+            KeysetEntity.class,
+            KeysetEntity2.class
+        };
+    }
+
+    @Before
+    public void setUp() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                em.persist(new KeysetEntity(1, 1, 1));
+                em.persist(new KeysetEntity(2, 2, 2));
+
+                em.persist(new KeysetEntity2(2, 20, 200, 0));
+                em.persist(new KeysetEntity2(3, 30, 300, 0));
+            }
+        });
+    }
+
+    @Test
+    public void testUpsertUpdate() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                InsertCriteriaBuilder<KeysetEntity> cb = createUpsert(em);
+                cb.onConflict("id");
+                cb.onConflictUpdate("a", "b");
+                cb.executeUpdate();
+            }
+        });
+
+        List<KeysetEntity> entities = getEntities();
+        assertEquals(3, entities.size());
+        assertEntity(entities.get(0), 1, 1, 1);
+        assertEntity(entities.get(1), 2, 20, 200);
+        assertEntity(entities.get(2), 3, 30, 300);
+    }
+
+    // NOTE: H2 always updates all inserted columns on conflict
+    @Test
+    @Category({ NoH2.class })
+    public void testUpsertSkipConflicts() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                InsertCriteriaBuilder<KeysetEntity> cb = createUpsert(em);
+                cb.onConflict("id");
+                cb.executeUpdate();
+            }
+        });
+
+        List<KeysetEntity> entities = getEntities();
+        assertEquals(3, entities.size());
+        assertEntity(entities.get(0), 1, 1, 1);
+        assertEntity(entities.get(1), 2, 2, 2);
+        assertEntity(entities.get(2), 3, 30, 300);
+    }
+
+    // NOTE: Returning columns from MERGE statements is not supported and H2 can only return generated keys
+    @Test
+    @Category({ NoH2.class, NoMySQL.class, NoMSSQL.class, NoDB2.class, NoOracle.class })
+    public void testUpsertReturning() {
+        ReturningResult<Integer> result = transactional(new TxWork<ReturningResult<Integer>>() {
+            @Override
+            public ReturningResult<Integer> work(EntityManager em) {
+                InsertCriteriaBuilder<KeysetEntity> cb = createUpsert(em);
+                cb.onConflict("id");
+                cb.onConflictUpdate("a", "b");
+                return cb.executeWithReturning("id", Integer.class);
+            }
+        });
+
+        assertEquals(2, result.getUpdateCount());
+        assertEquals(2, result.getResultList().size());
+    }
+
+    @Test
+    public void testUpsertUpdateUnboundAttribute() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                InsertCriteriaBuilder<KeysetEntity> cb = cbf.insert(em, KeysetEntity.class);
+                cb.from(KeysetEntity2.class, "e");
+                cb.bind("id").select("e.id");
+                cb.bind("a").select("e.a");
+                cb.onConflict("id");
+                cb.onConflictUpdate("b");
+                try {
+                    cb.executeUpdate();
+                    fail("Expected the unbound attribute to be rejected");
+                } catch (IllegalStateException ex) {
+                    // Expected
+                }
+            }
+        });
+    }
+
+    private InsertCriteriaBuilder<KeysetEntity> createUpsert(EntityManager em) {
+        InsertCriteriaBuilder<KeysetEntity> cb = cbf.insert(em, KeysetEntity.class);
+        cb.from(KeysetEntity2.class, "e");
+        cb.bind("id").select("e.id");
+        cb.bind("a").select("e.a");
+        cb.bind("b").select("e.b");
+        return cb;
+    }
+
+    private List<KeysetEntity> getEntities() {
+        em.clear();
+        return cbf.create(em, KeysetEntity.class, "e").orderByAsc("e.id").getResultList();
+    }
+
+    private static void assertEntity(KeysetEntity entity, int id, int a, int b) {
+        assertEquals(Integer.valueOf(id), entity.getId());
+        assertEquals(Integer.valueOf(a), entity.getA());
+        assertEquals(Integer.valueOf(b), entity.getB());
+    }
+}
@@ -18,6 +18,10 @@ package com.blazebit.persistence.testsuite;
 
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.impl.ConfigurationProperties;
+import com.blazebit.persistence.impl.CriteriaBuilderFactoryImpl;
+import com.blazebit.persistence.impl.query.AbstractCustomQuery;
+import com.blazebit.persistence.impl.query.ObjectBuilderTypedQuery;
+import com.blazebit.persistence.impl.query.SqlRewriteCache;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoH2;
@@ -45,7 +49,9 @@ import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 /**
  *
@@ -133,6 +139,45 @@ public class ValuesClauseTest extends AbstractCoreTest {
         assertEquals(0, resultList.size());
     }
 
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testValuesEntityFunctionSqlRewriteCache() {
+        SqlRewriteCache sqlRewriteCache = ((CriteriaBuilderFactoryImpl) cbf).getSqlRewriteCache();
+        sqlRewriteCache.clear();
+        long hitCount = sqlRewriteCache.getHitCount();
+
+        TypedQuery<Tuple> query1 = getDocumentNamesByAllowedAges(Arrays.asList(1L, 2L), true);
+        TypedQuery<Tuple> query2 = getDocumentNamesByAllowedAges(Arrays.asList(3L, 4L), true);
+        TypedQuery<Tuple> uncachedQuery = getDocumentNamesByAllowedAges(Arrays.asList(1L, 2L), false);
+        assertEquals(1, query1.getResultList().size());
+        assertEquals(0, query2.getResultList().size());
+        assertEquals(1, uncachedQuery.getResultList().size());
+
+        // The second query has the same shape as the first one, so it reuses the SQL instead of extracting and rewriting it again
+        assertEquals(hitCount + 1, sqlRewriteCache.getHitCount());
+        assertSame(getSql(query1), getSql(query2));
+        assertNotSame(getSql(query1), getSql(uncachedQuery));
+        assertEquals(getSql(query1), getSql(uncachedQuery));
+    }
+
+    private TypedQuery<Tuple> getDocumentNamesByAllowedAges(Collection<Long> allowedAges, boolean sqlRewriteCacheEnabled) {
+        CriteriaBuilder<Tuple> cb = cbf.create(em, Tuple.class);
+        cb.setProperty(ConfigurationProperties.SQL_REWRITE_CACHE_ENABLED, Boolean.toString(sqlRewriteCacheEnabled));
+        cb.fromValues(Long.class, "allowedAge", allowedAges);
+        cb.from(Document.class, "doc");
+        cb.where("doc.age").eqExpression("allowedAge.value");
+        cb.select("doc.name");
+        cb.select("allowedAge.value");
+        return cb.getQuery();
+    }
+
+    private static String getSql(TypedQuery<?> query) {
+        if (query instanceof ObjectBuilderTypedQuery<?>) {
+            query = ((ObjectBuilderTypedQuery<?>) query).getDelegate();
+        }
+        return ((AbstractCustomQuery<?>) query).getSql();
+    }
+
     @Test
     // NOTE: Entity joins are supported since Hibernate 5.1, Datanucleus 5 and latest Eclipselink
     @Category({ NoHibernate42.class, NoHibernate43.class, NoHibernate50.class, NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoFirebird;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoH2;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMySQL;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoSQLite;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+
+/**
+ * We don't run the tests on H2, MySQL, SQLite and Firebird as the versions we test against don't support window functions.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class WindowFunctionTest extends AbstractCoreTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p1 = new Person("Pers1");
+                Person p2 = new Person("Pers2");
+                em.persist(p1);
+                em.persist(p2);
+
+                Document doc1 = new Document("Doc1", p1);
+                doc1.setAge(10L);
+                Document doc2 = new Document("Doc2", p1);
+                doc2.setAge(20L);
+                Document doc3 = new Document("Doc3", p1);
+                doc3.setAge(30L);
+                Document doc4 = new Document("Doc4", p2);
+                doc4.setAge(5L);
+                em.persist(doc1);
+                em.persist(doc2);
+                em.persist(doc3);
+                em.persist(doc4);
+            }
+        });
+    }
+
+    @Test
+    public void testWindowFunctionRendering() {
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class)
+            .from(Document.class, "d")
+            .select("d.name")
+            .select("FUNCTION('ROW_NUMBER', 'PARTITION BY', d.owner.id, 'ORDER BY', d.age, 'DESC')")
+            .select("FUNCTION('WINDOW_SUM', d.age, 'PARTITION BY', d.owner.id)");
+
+        String expected = "SELECT d.name, "
+            + function("ROW_NUMBER", "'PARTITION BY'", "d.owner.id", "'ORDER BY'", "d.age", "'DESC'") + ", "
+            + function("WINDOW_SUM", "d.age", "'PARTITION BY'", "d.owner.id")
+            + " FROM Document d";
+        assertEquals(expected, criteria.getQueryString());
+    }
+
+    @Test
+    @Category({ NoH2.class, NoMySQL.class, NoSQLite.class, NoFirebird.class })
+    public void testRowNumberWithEmptyWindow() {
+        CriteriaBuilder<Long> criteria = cbf.create(em, Long.class)
+            .from(Document.class, "d")
+            .select("FUNCTION('ROW_NUMBER')", "rowNumber")
+            .orderByAsc("rowNumber");
+
+        List<Long> actual = criteria.getResultList();
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L), actual);
+    }
+
+    @Test
+    @Category({ NoH2.class, NoMySQL.class, NoSQLite.class, NoFirebird.class })
+    public void testRankingFunctionsWithPartition() {
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class)
+            .from(Document.class, "d")
+            .select("d.name")
+            .select("FUNCTION('ROW_NUMBER', 'PARTITION BY', d.owner.id, 'ORDER BY', d.age, 'DESC')")
+            .select("FUNCTION('DENSE_RANK', 'ORDER BY', d.owner.id)")
+            .orderByAsc("d.name");
+
+        List<Tuple> actual = criteria.getResultList();
+        assertEquals(4, actual.size());
+        assertRow(actual.get(0), "Doc1", 3L, 1L);
+        assertRow(actual.get(1), "Doc2", 2L, 1L);
+        assertRow(actual.get(2), "Doc3", 1L, 1L);
+        assertRow(actual.get(3), "Doc4", 1L, 2L);
+    }
+
+    @Test
+    @Category({ NoH2.class, NoMySQL.class, NoSQLite.class, NoFirebird.class })
+    public void testOffsetAndAggregateFunctionsWithPartition() {
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class)
+            .from(Document.class, "d")
+            .select("d.name")
+            .select("FUNCTION('LAG', d.age, 1, 0, 'PARTITION BY', d.owner.id, 'ORDER BY', d.age, 'ASC')")
+            .select("FUNCTION('WINDOW_SUM', d.age, 'PARTITION BY', d.owner.id, 'ORDER BY', d.age, 'ASC')")
+            .orderByAsc("d.name");
+
+        List<Tuple> actual = criteria.getResultList();
+        assertEquals(4, actual.size());
+        assertRow(actual.get(0), "Doc1", 0L, 10L);
+        assertRow(actual.get(1), "Doc2", 10L, 30L);
+        assertRow(actual.get(2), "Doc3", 20L, 60L);
+        assertRow(actual.get(3), "Doc4", 0L, 5L);
+    }
+
+    private void assertRow(Tuple tuple, String name, long value1, long value2) {
+        assertEquals(name, tuple.get(0));
+        assertEquals(value1, ((Number) tuple.get(1)).longValue());
+        assertEquals(value2, ((Number) tuple.get(2)).longValue());
+    }
+}
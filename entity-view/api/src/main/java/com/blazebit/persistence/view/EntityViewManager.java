@@ -23,6 +23,7 @@ import com.blazebit.persistence.view.change.SingularChangeModel;
 import com.blazebit.persistence.view.metamodel.ViewMetamodel;
 
 import javax.persistence.EntityManager;
+import java.util.Collection;
 
 /**
  * An interface that gives access to the metamodel and object builders.
@@ -39,6 +40,39 @@ public interface EntityViewManager {
      */
     public ViewMetamodel getMetamodel();
 
+    /**
+     * Validates the mappings of all entity views against the entity model.
+     * This is only necessary if the validation was deferred to the first use of an entity view via configuration,
+     * otherwise the entity views were already validated when building the entity view manager.
+     *
+     * @throws IllegalArgumentException If there are errors in the entity views
+     * @since 1.2.0
+     */
+    public void validateAll();
+
+    /**
+     * Warms up the caches for querying the given entity views without executing any queries.
+     * This builds the object builder templates, renders the queries and prepares the query plans of the JPA provider,
+     * so that the first query for an entity view doesn't have to pay for that.
+     *
+     * @param entityManager The entity manager to use for preparing the queries
+     * @param entityViewClasses The entity view classes for which to warm up the queries
+     * @throws IllegalArgumentException If one of the classes is not a registered entity view
+     * @since 1.2.0
+     */
+    public void warmUp(EntityManager entityManager, Class<?>... entityViewClasses);
+
+    /**
+     * Like {@link EntityViewManager#warmUp(EntityManager, Class[])} but warms up the queries that result from applying the given settings.
+     * This allows to warm up e.g. paginated queries or queries that use a specific view constructor.
+     *
+     * @param entityManager The entity manager to use for preparing the queries
+     * @param entityViewSettings The entity view settings for which to warm up the queries
+     * @throws IllegalArgumentException If one of the settings refers to a class that is not a registered entity view
+     * @since 1.2.0
+     */
+    public void warmUp(EntityManager entityManager, Collection<? extends EntityViewSetting<?, ?>> entityViewSettings);
+
     /**
      * Loads and returns an entity view of the given type having the given entity id.
      *
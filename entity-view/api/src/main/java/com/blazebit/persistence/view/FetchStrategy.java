@@ -35,5 +35,12 @@ public enum FetchStrategy {
     /**
      * A strategy that defines that the target elements are selected in a single query containing the source query as subquery.
      */
-    SUBSELECT;
+    SUBSELECT,
+    /**
+     * A strategy that defines that the target elements are aggregated into a single value per source element by a correlated subquery in the source query.
+     * This strategy is only applicable to collection attributes with basic elements or subviews that only consist of basic attributes.
+     *
+     * @since 1.2.0
+     */
+    MULTISET;
 }
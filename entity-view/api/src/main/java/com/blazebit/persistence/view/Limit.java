@@ -0,0 +1,62 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits the elements of a plural attribute to the first few elements according to the given order.
+ * This is useful to e.g. load only the latest few elements of a big collection.
+ *
+ * The limit is applied per owner of the collection. Depending on the {@link FetchStrategy} and the DBMS,
+ * this is done either through lateral joins or correlation queries restricted to the top elements of every owner.
+ * Since not all elements are loaded, such an attribute can't be updatable.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+@Target({ ElementType.METHOD, ElementType.PARAMETER })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Limit {
+
+    /**
+     * The maximum number of elements to load per owner.
+     *
+     * @return The limit
+     */
+    int limit();
+
+    /**
+     * The number of elements to skip per owner.
+     *
+     * @return The offset
+     */
+    int offset() default 0;
+
+    /**
+     * The order by items defining which elements are the first ones.
+     * Every item is an expression relative to the correlated entity,
+     * optionally followed by <code>ASC</code> or <code>DESC</code> and <code>NULLS FIRST</code> or <code>NULLS LAST</code>.
+     * The order should be unique e.g. by ordering by the id as last item, otherwise the loaded elements are not deterministic.
+     *
+     * @return The order by items
+     */
+    String[] order();
+}
@@ -24,6 +24,7 @@ import java.util.Set;
 import javax.persistence.EntityManagerFactory;
 
 import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.spi.MetricsListener;
 import com.blazebit.persistence.view.EntityViewManager;
 import com.blazebit.persistence.view.spi.type.BasicUserType;
 import com.blazebit.persistence.view.spi.type.TypeConverter;
@@ -188,4 +189,22 @@ public interface EntityViewConfiguration {
      */
     public EntityViewConfiguration setProperty(String propertyName, String value);
 
+    /**
+     * Sets the metrics listener that receives timings and counters of entity view materialization.
+     * If no listener is set, the metrics listener of the criteria builder factory is used.
+     *
+     * @param metricsListener The metrics listener or <code>null</code> to use the one of the criteria builder factory
+     * @return this for method chaining
+     * @since 1.2.0
+     */
+    public EntityViewConfiguration setMetricsListener(MetricsListener metricsListener);
+
+    /**
+     * Returns the metrics listener or <code>null</code> if the one of the criteria builder factory should be used.
+     *
+     * @return The metrics listener or <code>null</code>
+     * @since 1.2.0
+     */
+    public MetricsListener getMetricsListener();
+
 }
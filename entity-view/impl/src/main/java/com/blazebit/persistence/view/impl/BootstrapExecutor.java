@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+
+/**
+ * Runs independent bootstrap tasks like expression validation or template creation on a fork-join pool.
+ * A parallelism of 1 runs all tasks sequentially in the calling thread.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public final class BootstrapExecutor {
+
+    private final ForkJoinPool pool;
+
+    public BootstrapExecutor(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Invalid bootstrap parallelism " + parallelism + " for key: " + ConfigurationProperties.BOOTSTRAP_PARALLELISM);
+        }
+        if (parallelism == 1) {
+            this.pool = null;
+        } else {
+            this.pool = new ForkJoinPool(parallelism, new ContextClassLoaderThreadFactory(Thread.currentThread().getContextClassLoader()), null, false);
+        }
+    }
+
+    public static BootstrapExecutor create(String parallelism) {
+        if (parallelism == null || parallelism.isEmpty()) {
+            return new BootstrapExecutor(1);
+        }
+
+        try {
+            return new BootstrapExecutor(Integer.parseInt(parallelism));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid bootstrap parallelism '" + parallelism + "' for key: " + ConfigurationProperties.BOOTSTRAP_PARALLELISM, ex);
+        }
+    }
+
+    /**
+     * Runs the given tasks and waits for their completion.
+     * If tasks fail, the failure of the first failed task in list order is rethrown after all tasks finished.
+     *
+     * @param tasks The tasks to run
+     */
+    public void execute(List<? extends Runnable> tasks) {
+        if (pool == null || tasks.size() < 2) {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            return;
+        }
+
+        List<Callable<Object>> callables = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks) {
+            callables.add(Executors.callable(task));
+        }
+
+        try {
+            for (Future<Object> future : pool.invokeAll(callables)) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for entity view bootstrap tasks!", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("An entity view bootstrap task failed!", cause);
+        }
+    }
+
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Worker threads use the context class loader of the bootstrapping thread, as class resolving might depend on it.
+     *
+     * @author Christian Beikov
+     * @since 1.2.0
+     */
+    private static final class ContextClassLoaderThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+
+        private final ClassLoader classLoader;
+
+        public ContextClassLoaderThreadFactory(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        }
+    }
+}
@@ -49,6 +49,33 @@ public final class ConfigurationProperties {
      * @since 1.0.6
      */
     public static final String PROXY_UNSAFE_ALLOWED = "com.blazebit.persistence.view.proxy.unsafe_allowed";
+    /**
+     * A directory into which the class files of generated proxies are written.
+     * By default, the property is not set which has the effect that proxy classes are only defined in memory.
+     * Combined with {@link #TEMPLATE_EAGER_LOADING}, this can be used during the build to generate all proxy classes upfront.
+     * When the class files are packaged with the application, the proxy classes can be loaded via {@link #PROXY_PREGENERATED_LOADING}.
+     *
+     * @since 1.2.0
+     */
+    public static final String PROXY_DUMP_DIRECTORY = "com.blazebit.persistence.view.proxy.dump_directory";
+    /**
+     * A boolean flag to make it possible to load proxy classes that were generated at build time via {@link #PROXY_DUMP_DIRECTORY}
+     * through the class loader of the entity view instead of generating them on startup.
+     * Proxy classes that are not found or were generated for a different version of the entity view are still generated at runtime.
+     * By default the loading of pre-generated proxies is disabled.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     *
+     * @since 1.2.0
+     */
+    public static final String PROXY_PREGENERATED_LOADING = "com.blazebit.persistence.view.proxy.pregenerated_loading";
+    /**
+     * An integer value that defines the number of threads used for validating the entity view metamodel
+     * and for the eager loading of templates, proxies and updaters during bootstrap.
+     * By default, the bootstrap runs sequentially in the calling thread which is the same as a value of <code>1</code>.
+     *
+     * @since 1.2.0
+     */
+    public static final String BOOTSTRAP_PARALLELISM = "com.blazebit.persistence.view.bootstrap_parallelism";
     /**
      * A boolean flag to make it possible to disable the expression validation.
      * By default the expression validation is enabled, but since the validation is not bullet proof, it can be disabled.
@@ -57,6 +84,25 @@ public final class ConfigurationProperties {
      * @since 1.1.0
      */
     public static final String EXPRESSION_VALIDATION_DISABLED = "com.blazebit.persistence.view.expression_validation_disabled";
+    /**
+     * A boolean flag to make it possible to defer the expression validation of an entity view to its first use.
+     * By default the expression validation is done for all entity views when building the entity view manager.
+     * When deferred, only structural checks are done on startup and the expressions of an entity view are validated
+     * once a query or updater is built for it. All entity views can still be validated via {@link com.blazebit.persistence.view.EntityViewManager#validateAll()}.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     *
+     * @since 1.2.0
+     */
+    public static final String EXPRESSION_VALIDATION_DEFERRED = "com.blazebit.persistence.view.expression_validation_deferred";
+    /**
+     * A boolean flag to make it possible to disable the object builders that read the constructor arguments of an entity view
+     * directly from the statically known tuple positions. When disabled, the tuples are always reduced dynamically before the
+     * entity view is instantiated. By default the positional object builders are enabled.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     *
+     * @since 1.2.0
+     */
+    public static final String POSITIONAL_OBJECT_BUILDER = "com.blazebit.persistence.view.positional_object_builder";
     /**
      * An integer value that defines the default batch size for entity view attributes.
      * By default the value is 1 and can be overridden either via {@linkplain com.blazebit.persistence.view.BatchFetch#size()}
@@ -78,6 +124,42 @@ public final class ConfigurationProperties {
      * @since 1.2.0
      */
     public static final String EXPECT_BATCH_CORRELATION_VALUES = "com.blazebit.persistence.view.batch_correlation_values";
+    /**
+     * A boolean specifying if the batch size of correlations should adapt to the amount of distinct correlation keys.
+     * When enabled, the configured batch size is used as maximum and the effective batch size is the next power of two
+     * that fits the amount of distinct correlation keys of a result list. This avoids binding lots of padding parameters for small results
+     * while keeping the number of distinct correlation queries low.
+     * By default the value is false and can be overridden by setting this property via {@linkplain com.blazebit.persistence.view.EntityViewSetting#setProperty}.
+     *
+     * To specify the adaptive batch size of a specific attribute, append the attribute name after the "adaptive_batch_size" like
+     * e.g. <code>com.blazebit.persistence.view.adaptive_batch_size.subProperty</code>
+     *
+     * @since 1.2.0
+     */
+    public static final String ADAPTIVE_BATCH_SIZE = "com.blazebit.persistence.view.adaptive_batch_size";
+    /**
+     * A boolean specifying if correlations with the <code>SUBSELECT</code> fetch strategy should be restricted to the view root ids of the current result
+     * instead of embedding the whole source query. This is especially useful for paginated queries, because the correlation query
+     * then only has to process the ids of the current page rather than re-evaluating the filters and sorting of the source query.
+     * By default the value is false and can be overridden by setting this property via {@linkplain com.blazebit.persistence.view.EntityViewSetting#setProperty}.
+     *
+     * To specify the mode for a specific attribute, append the attribute name after the "subselect_correlation_by_ids" like
+     * e.g. <code>com.blazebit.persistence.view.subselect_correlation_by_ids.subProperty</code>
+     *
+     * @since 1.2.0
+     */
+    public static final String SUBSELECT_CORRELATION_BY_IDS = "com.blazebit.persistence.view.subselect_correlation_by_ids";
+    /**
+     * A {@link java.util.concurrent.Executor} that is used to run the queries of independent correlated attributes concurrently.
+     * By default the property is not set and correlated attributes are fetched one after another on the calling thread.
+     * When set via {@linkplain com.blazebit.persistence.view.EntityViewSetting#setProperty}, the correlation queries of neighbouring
+     * correlated attributes that are fetched via the <code>SELECT</code> or <code>SUBSELECT</code> strategy run on separate entity managers.
+     * Note that these entity managers don't take part in the transaction of the calling thread.
+     * Correlated attributes with results that contain entities are always fetched with the entity manager of the calling thread.
+     *
+     * @since 1.2.0
+     */
+    public static final String CORRELATION_EXECUTOR = "com.blazebit.persistence.view.correlation_executor";
     /**
      * A boolean flag to make it possible to prepare the entity view updater cache on startup.
      * By default the eager loading of entity view updates is disabled to have a better startup performance.
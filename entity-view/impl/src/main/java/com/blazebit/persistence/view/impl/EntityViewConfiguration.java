@@ -17,11 +17,15 @@
 package com.blazebit.persistence.view.impl;
 
 import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.spi.MetricsListener;
 
+import javax.persistence.EntityManager;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * @author Christian Beikov
@@ -31,13 +35,23 @@ public final class EntityViewConfiguration {
 
     private final CriteriaBuilder<?> criteriaBuilder;
     private final ExpressionFactory expressionFactory;
+    private final MetricsListener metricsListener;
     private final Map<String, Object> optionalParameters;
     private final Map<String, Integer> batchSizeConfiguration;
     private final Map<String, Boolean> expectBatchCorrelationValuesConfiguration;
+    private final Map<String, Boolean> adaptiveBatchSizeConfiguration;
+    private final Map<String, Boolean> subselectCorrelationByIdsConfiguration;
+    private final EntityManager entityManager;
+    private final Executor correlationExecutor;
+    // A copy of the criteria builder that is handed out once, only set for configurations with a separate entity manager
+    private FullQueryBuilder<?, ?> criteriaBuilderCopy;
 
-    public EntityViewConfiguration(CriteriaBuilder<?> criteriaBuilder, ExpressionFactory expressionFactory, Map<String, Object> optionalParameters, Map<String, Object> properties) {
+    public EntityViewConfiguration(CriteriaBuilder<?> criteriaBuilder, ExpressionFactory expressionFactory, MetricsListener metricsListener, Map<String, Object> optionalParameters, Map<String, Object> properties) {
         Map<String, Integer> batchSizeConfiguration = new HashMap<String, Integer>(properties.size());
         Map<String, Boolean> expectBatchCorrelationValuesConfiguration = new HashMap<>(properties.size());
+        Map<String, Boolean> adaptiveBatchSizeConfiguration = new HashMap<>(properties.size());
+        Map<String, Boolean> subselectCorrelationByIdsConfiguration = new HashMap<>(properties.size());
+        Executor correlationExecutor = null;
 
         for (Map.Entry<String, Object> entry : properties.entrySet()) {
             String key = entry.getKey();
@@ -61,25 +75,109 @@ public final class EntityViewConfiguration {
                     key = key.substring(ConfigurationProperties.EXPECT_BATCH_CORRELATION_VALUES.length() + 1);
                     expectBatchCorrelationValuesConfiguration.put(key, value);
                 }
-
+            } else if (key.startsWith(ConfigurationProperties.ADAPTIVE_BATCH_SIZE)) {
+                Boolean value = getAdaptiveBatchSize(key, entry.getValue());
+                if (key.length() == ConfigurationProperties.ADAPTIVE_BATCH_SIZE.length()) {
+                    adaptiveBatchSizeConfiguration.put("", value);
+                } else if (key.length() < ConfigurationProperties.ADAPTIVE_BATCH_SIZE.length() + 2) {
+                    throw new IllegalArgumentException("Invalid adaptive batch size configuration!");
+                } else {
+                    key = key.substring(ConfigurationProperties.ADAPTIVE_BATCH_SIZE.length() + 1);
+                    adaptiveBatchSizeConfiguration.put(key, value);
+                }
+            } else if (key.startsWith(ConfigurationProperties.SUBSELECT_CORRELATION_BY_IDS)) {
+                Boolean value = getSubselectCorrelationByIds(key, entry.getValue());
+                if (key.length() == ConfigurationProperties.SUBSELECT_CORRELATION_BY_IDS.length()) {
+                    subselectCorrelationByIdsConfiguration.put("", value);
+                } else if (key.length() < ConfigurationProperties.SUBSELECT_CORRELATION_BY_IDS.length() + 2) {
+                    throw new IllegalArgumentException("Invalid subselect correlation by ids configuration!");
+                } else {
+                    key = key.substring(ConfigurationProperties.SUBSELECT_CORRELATION_BY_IDS.length() + 1);
+                    subselectCorrelationByIdsConfiguration.put(key, value);
+                }
+            } else if (key.equals(ConfigurationProperties.CORRELATION_EXECUTOR)) {
+                if (entry.getValue() instanceof Executor) {
+                    correlationExecutor = (Executor) entry.getValue();
+                } else if (entry.getValue() != null) {
+                    throw new IllegalArgumentException("Invalid correlation executor configuration " + entry.getValue() + " for key: " + key);
+                }
             }
         }
 
         this.criteriaBuilder = criteriaBuilder;
         this.expressionFactory = expressionFactory;
+        this.metricsListener = metricsListener;
         this.optionalParameters = new HashMap<String, Object>(optionalParameters);
         this.batchSizeConfiguration = Collections.unmodifiableMap(batchSizeConfiguration);
         this.expectBatchCorrelationValuesConfiguration = Collections.unmodifiableMap(expectBatchCorrelationValuesConfiguration);
+        this.adaptiveBatchSizeConfiguration = Collections.unmodifiableMap(adaptiveBatchSizeConfiguration);
+        this.subselectCorrelationByIdsConfiguration = Collections.unmodifiableMap(subselectCorrelationByIdsConfiguration);
+        this.entityManager = criteriaBuilder.getEntityManager();
+        this.correlationExecutor = correlationExecutor;
+    }
+
+    private EntityViewConfiguration(EntityViewConfiguration original, EntityManager entityManager) {
+        this.criteriaBuilder = original.criteriaBuilder;
+        this.expressionFactory = original.expressionFactory;
+        this.metricsListener = original.metricsListener;
+        this.optionalParameters = original.optionalParameters;
+        this.batchSizeConfiguration = original.batchSizeConfiguration;
+        this.expectBatchCorrelationValuesConfiguration = original.expectBatchCorrelationValuesConfiguration;
+        this.adaptiveBatchSizeConfiguration = original.adaptiveBatchSizeConfiguration;
+        this.subselectCorrelationByIdsConfiguration = original.subselectCorrelationByIdsConfiguration;
+        this.entityManager = entityManager;
+        // Correlations of a concurrently running correlation are fetched sequentially to not wait for the executor within the executor
+        this.correlationExecutor = null;
+        // Copying prepares the criteria builder, so this must happen on the calling thread rather than in the concurrent correlation
+        this.criteriaBuilderCopy = original.criteriaBuilder.copy(entityManager, Object[].class);
+    }
+
+    /**
+     * Returns a configuration for running correlation queries with the given entity manager.
+     * The configuration is meant to be used by a single correlation on a different thread,
+     * which must not access the criteria builder in a modifying way.
+     *
+     * @param entityManager The entity manager to use for correlation queries
+     * @return The configuration
+     */
+    public EntityViewConfiguration forEntityManager(EntityManager entityManager) {
+        return new EntityViewConfiguration(this, entityManager);
     }
 
     public CriteriaBuilder<?> getCriteriaBuilder() {
         return criteriaBuilder;
     }
 
+    /**
+     * Returns a copy of the criteria builder with an object array result that is bound to the entity manager of this configuration.
+     *
+     * @return The copy of the criteria builder
+     */
+    public FullQueryBuilder<?, ?> copyCriteriaBuilder() {
+        FullQueryBuilder<?, ?> copy = criteriaBuilderCopy;
+        if (copy == null) {
+            return criteriaBuilder.copy(entityManager, Object[].class);
+        }
+        criteriaBuilderCopy = null;
+        return copy;
+    }
+
     public ExpressionFactory getExpressionFactory() {
         return expressionFactory;
     }
 
+    public EntityManager getEntityManager() {
+        return entityManager;
+    }
+
+    public Executor getCorrelationExecutor() {
+        return correlationExecutor;
+    }
+
+    public MetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
     public Map<String, Object> getOptionalParameters() {
         return optionalParameters;
     }
@@ -143,6 +241,42 @@ public final class EntityViewConfiguration {
     }
 
     private Boolean getExpectBatchCorrelationValues(String key, Object value) {
+        return getBoolean(key, value, "batch correlation expectation");
+    }
+
+    public boolean getAdaptiveBatchSize(String attributePath) {
+        Boolean value = adaptiveBatchSizeConfiguration.get(attributePath);
+        if (value == null) {
+            value = adaptiveBatchSizeConfiguration.get("");
+        }
+        if (value == null) {
+            return false;
+        }
+
+        return value;
+    }
+
+    private Boolean getAdaptiveBatchSize(String key, Object value) {
+        return getBoolean(key, value, "adaptive batch size");
+    }
+
+    public boolean getSubselectCorrelationByIds(String attributePath) {
+        Boolean value = subselectCorrelationByIdsConfiguration.get(attributePath);
+        if (value == null) {
+            value = subselectCorrelationByIdsConfiguration.get("");
+        }
+        if (value == null) {
+            return false;
+        }
+
+        return value;
+    }
+
+    private Boolean getSubselectCorrelationByIds(String key, Object value) {
+        return getBoolean(key, value, "subselect correlation by ids");
+    }
+
+    private Boolean getBoolean(String key, Object value, String configurationName) {
         Boolean val = null;
         if (value instanceof Boolean) {
             val = (Boolean) value;
@@ -153,12 +287,12 @@ public final class EntityViewConfiguration {
             } else if ("false".equalsIgnoreCase(s)) {
                 val = false;
             } else {
-                throw new IllegalArgumentException("Invalid batch correlation expectation configuration " + s + " for key: " + key);
+                throw new IllegalArgumentException("Invalid " + configurationName + " configuration " + s + " for key: " + key);
             }
         }
 
         if (val == null) {
-            throw new IllegalArgumentException("Invalid batch correlation expectation configuration for key: " + key);
+            throw new IllegalArgumentException("Invalid " + configurationName + " configuration for key: " + key);
         }
 
         return val;
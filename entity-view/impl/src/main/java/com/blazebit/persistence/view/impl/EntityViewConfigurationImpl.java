@@ -17,6 +17,7 @@
 package com.blazebit.persistence.view.impl;
 
 import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.spi.MetricsListener;
 import com.blazebit.persistence.view.EntityViewManager;
 import com.blazebit.persistence.view.impl.metamodel.AnnotationViewMappingReader;
 import com.blazebit.persistence.view.impl.metamodel.MetamodelBootContext;
@@ -46,6 +47,7 @@ public class EntityViewConfigurationImpl implements EntityViewConfiguration {
     private final MetamodelBootContext bootContext = new MetamodelBootContextImpl();
     private final ViewMappingReader annotationViewMappingReader = new AnnotationViewMappingReader(bootContext);
     private Properties properties = new Properties();
+    private MetricsListener metricsListener;
 
     public EntityViewConfigurationImpl() {
         loadDefaultProperties();
@@ -54,6 +56,8 @@ public class EntityViewConfigurationImpl implements EntityViewConfiguration {
     private void loadDefaultProperties() {
         properties.put(ConfigurationProperties.PROXY_EAGER_LOADING, "false");
         properties.put(ConfigurationProperties.PROXY_UNSAFE_ALLOWED, "true");
+        properties.put(ConfigurationProperties.PROXY_PREGENERATED_LOADING, "false");
+        properties.put(ConfigurationProperties.POSITIONAL_OBJECT_BUILDER, "true");
     }
 
     @Override
@@ -160,4 +164,15 @@ public class EntityViewConfigurationImpl implements EntityViewConfiguration {
         properties.setProperty(propertyName, value);
         return this;
     }
+
+    @Override
+    public EntityViewConfiguration setMetricsListener(MetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+        return this;
+    }
+
+    @Override
+    public MetricsListener getMetricsListener() {
+        return metricsListener;
+    }
 }
@@ -28,6 +28,8 @@ import com.blazebit.persistence.parser.expression.ExpressionFactory;
 import com.blazebit.persistence.parser.util.JpaMetamodelUtils;
 import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.JpaProvider;
+import com.blazebit.persistence.spi.MetricsListener;
+import com.blazebit.persistence.spi.NoopMetricsListener;
 import com.blazebit.persistence.view.AttributeFilterProvider;
 import com.blazebit.persistence.view.ConvertOption;
 import com.blazebit.persistence.view.EntityViewManager;
@@ -71,6 +73,7 @@ import com.blazebit.persistence.view.impl.metamodel.MetamodelBuildingContext;
 import com.blazebit.persistence.view.impl.metamodel.MetamodelBuildingContextImpl;
 import com.blazebit.persistence.view.impl.metamodel.ViewMetamodelImpl;
 import com.blazebit.persistence.view.impl.metamodel.ViewTypeImpl;
+import com.blazebit.persistence.view.impl.objectbuilder.MetricsObjectBuilder;
 import com.blazebit.persistence.view.impl.objectbuilder.ViewTypeObjectBuilderTemplate;
 import com.blazebit.persistence.view.impl.proxy.DirtyStateTrackable;
 import com.blazebit.persistence.view.impl.proxy.MutableStateTrackable;
@@ -88,7 +91,9 @@ import javax.persistence.EntityManagerFactory;
 import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.SingularAttribute;
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -107,6 +112,7 @@ public class EntityViewManagerImpl implements EntityViewManager {
     private final JpaProvider jpaProvider;
     private final DbmsDialect dbmsDialect;
     private final ExpressionFactory expressionFactory;
+    private final MetricsListener metricsListener;
     private final AttributeAccessor entityIdAccessor;
     private final ViewMetamodelImpl metamodel;
     private final ProxyFactory proxyFactory;
@@ -118,6 +124,7 @@ public class EntityViewManagerImpl implements EntityViewManager {
     private final Map<String, Class<? extends AttributeFilterProvider>> filterMappings;
     
     private final boolean unsafeDisabled;
+    private final boolean positionalObjectBuilder;
 
     public EntityViewManagerImpl(EntityViewConfigurationImpl config, CriteriaBuilderFactory cbf) {
         this.cbf = cbf;
@@ -125,11 +132,15 @@ public class EntityViewManagerImpl implements EntityViewManager {
         this.dbmsDialect = cbf.getService(DbmsDialect.class);
         EntityMetamodel entityMetamodel = cbf.getService(EntityMetamodel.class);
         this.expressionFactory = cbf.getService(ExpressionFactory.class);
+        this.metricsListener = resolveMetricsListener(config.getMetricsListener(), cbf);
         this.entityIdAccessor = new EntityIdAttributeAccessor(cbf.getService(EntityManagerFactory.class).getPersistenceUnitUtil());
         this.unsafeDisabled = !Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.PROXY_UNSAFE_ALLOWED)));
-        this.proxyFactory = new ProxyFactory(unsafeDisabled);
+        boolean pregeneratedProxyLoading = Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.PROXY_PREGENERATED_LOADING)));
+        this.proxyFactory = new ProxyFactory(unsafeDisabled, config.getProperty(ConfigurationProperties.PROXY_DUMP_DIRECTORY), pregeneratedProxyLoading);
+        this.positionalObjectBuilder = Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.POSITIONAL_OBJECT_BUILDER)));
 
         boolean validateExpressions = !Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.EXPRESSION_VALIDATION_DISABLED)));
+        boolean deferValidation = Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.EXPRESSION_VALIDATION_DEFERRED)));
 
         Set<String> errors = config.getBootContext().getErrors();
 
@@ -145,72 +156,161 @@ public class EntityViewManagerImpl implements EntityViewManager {
                 errors
         );
 
-        ViewMetamodelImpl viewMetamodel = null;
-        RuntimeException exception = null;
-
+        BootstrapExecutor bootstrapExecutor = BootstrapExecutor.create(config.getProperty(ConfigurationProperties.BOOTSTRAP_PARALLELISM));
         try {
-            viewMetamodel = new ViewMetamodelImpl(entityMetamodel, context, validateExpressions);
-        } catch (RuntimeException ex) {
-            exception = ex;
-        }
+            ViewMetamodelImpl viewMetamodel = null;
+            RuntimeException exception = null;
 
-        if (!errors.isEmpty()) {
-            StringBuilder sb = new StringBuilder();
-            sb.append("There are error(s) in entity views!");
-
-            for (String error : errors) {
-                sb.append('\n');
-                sb.append(error);
+            try {
+                viewMetamodel = new ViewMetamodelImpl(entityMetamodel, context, bootstrapExecutor, validateExpressions, deferValidation);
+            } catch (RuntimeException ex) {
+                exception = ex;
             }
 
-            throw new IllegalArgumentException(sb.toString(), exception);
-        } else if (exception != null) {
-            throw new IllegalArgumentException("An error happened during entity view metamodel building!", exception);
-        }
-
-        this.metamodel = viewMetamodel;
-        this.supportsTransientReference = jpaProvider.supportsTransientEntityAsParameter();
-        this.objectBuilderCache = new ConcurrentHashMap<>();
-        this.entityViewUpdaterCache = new ConcurrentHashMap<>();
-        this.contextAwareEntityViewUpdaterCache = new ConcurrentHashMap<>();
-        this.entityViewMappers = new ConcurrentHashMap<>();
-        this.filterMappings = new HashMap<>();
-        registerFilterMappings();
-        
-        if (Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.TEMPLATE_EAGER_LOADING)))) {
-            for (ViewTypeImpl<?> view : metamodel.views()) {
-                // TODO: Might be a good idea to let the view root be overridden or specified via the annotation
-                String probableViewRoot = StringUtils.firstToLower(view.getEntityClass().getSimpleName());
-                ExpressionFactory macroAwareExpressionFactory = context.createMacroAwareExpressionFactory(probableViewRoot);
-                getTemplate(macroAwareExpressionFactory, view, null, null);
-
-                for (MappingConstructor<?> constructor : view.getConstructors()) {
-                    getTemplate(macroAwareExpressionFactory, view, (MappingConstructorImpl) constructor, null);
+            if (!errors.isEmpty()) {
+                StringBuilder sb = new StringBuilder();
+                sb.append("There are error(s) in entity views!");
+
+                for (String error : errors) {
+                    sb.append('\n');
+                    sb.append(error);
                 }
+
+                throw new IllegalArgumentException(sb.toString(), exception);
+            } else if (exception != null) {
+                throw new IllegalArgumentException("An error happened during entity view metamodel building!", exception);
             }
-        } else if (Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.PROXY_EAGER_LOADING)))) {
-            // Loading template will always involve also loading the proxies, so we use else if
-            for (ViewType<?> view : metamodel.getViews()) {
-                proxyFactory.getProxy(this, (ManagedViewTypeImplementor<Object>) view, null);
+
+            this.metamodel = viewMetamodel;
+            this.supportsTransientReference = jpaProvider.supportsTransientEntityAsParameter();
+            this.objectBuilderCache = new ConcurrentHashMap<>();
+            this.entityViewUpdaterCache = new ConcurrentHashMap<>();
+            this.contextAwareEntityViewUpdaterCache = new ConcurrentHashMap<>();
+            this.entityViewMappers = new ConcurrentHashMap<>();
+            this.filterMappings = new HashMap<>();
+            registerFilterMappings();
+
+            if (Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.TEMPLATE_EAGER_LOADING)))) {
+                bootstrapExecutor.execute(createTemplateLoadingTasks(context));
+            } else if (Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.PROXY_EAGER_LOADING)))) {
+                // Loading template will always involve also loading the proxies, so we use else if
+                bootstrapExecutor.execute(createProxyLoadingTasks());
             }
-        }
 
-        if (Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.UPDATER_EAGER_LOADING)))) {
-            for (ManagedViewType<?> view : metamodel.getManagedViews()) {
-                getUpdater((ManagedViewTypeImplementor<?>) view, null);
+            if (Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.UPDATER_EAGER_LOADING)))) {
+                bootstrapExecutor.execute(createUpdaterLoadingTasks());
             }
+        } finally {
+            bootstrapExecutor.shutdown();
+        }
+    }
+
+    private List<Runnable> createTemplateLoadingTasks(final MetamodelBuildingContext context) {
+        List<Runnable> tasks = new ArrayList<>(metamodel.views().size());
+        for (final ViewTypeImpl<?> view : metamodel.views()) {
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    // TODO: Might be a good idea to let the view root be overridden or specified via the annotation
+                    String probableViewRoot = StringUtils.firstToLower(view.getEntityClass().getSimpleName());
+                    ExpressionFactory macroAwareExpressionFactory = context.createMacroAwareExpressionFactory(probableViewRoot);
+                    getTemplate(macroAwareExpressionFactory, view, null, null);
+
+                    for (MappingConstructor<?> constructor : view.getConstructors()) {
+                        getTemplate(macroAwareExpressionFactory, view, (MappingConstructorImpl) constructor, null);
+                    }
+                }
+            });
         }
+        return tasks;
+    }
+
+    private List<Runnable> createProxyLoadingTasks() {
+        List<Runnable> tasks = new ArrayList<>(metamodel.views().size());
+        for (final ViewType<?> view : metamodel.getViews()) {
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    proxyFactory.getProxy(EntityViewManagerImpl.this, (ManagedViewTypeImplementor<Object>) view, null);
+                }
+            });
+        }
+        return tasks;
+    }
+
+    private List<Runnable> createUpdaterLoadingTasks() {
+        List<Runnable> tasks = new ArrayList<>(metamodel.getManagedViews().size());
+        for (final ManagedViewType<?> view : metamodel.getManagedViews()) {
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    getUpdater((ManagedViewTypeImplementor<?>) view, null);
+                }
+            });
+        }
+        return tasks;
     }
 
     public CriteriaBuilderFactory getCriteriaBuilderFactory() {
         return cbf;
     }
 
+    /**
+     * Returns the metrics listener or <code>null</code> if metrics are disabled.
+     *
+     * @return The metrics listener or <code>null</code>
+     */
+    public MetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    private static MetricsListener resolveMetricsListener(MetricsListener metricsListener, CriteriaBuilderFactory cbf) {
+        if (metricsListener == null) {
+            // Fall back to the listener of the criteria builder factory which is null if metrics are disabled
+            return cbf.getService(MetricsListener.class);
+        }
+        if (metricsListener == NoopMetricsListener.INSTANCE) {
+            return null;
+        }
+        return metricsListener;
+    }
+
     @Override
     public ViewMetamodelImpl getMetamodel() {
         return metamodel;
     }
 
+    @Override
+    public void validateAll() {
+        metamodel.validateAll();
+    }
+
+    @Override
+    public void warmUp(EntityManager entityManager, Class<?>... entityViewClasses) {
+        List<EntityViewSetting<?, ?>> entityViewSettings = new ArrayList<>(entityViewClasses.length);
+        for (Class<?> entityViewClass : entityViewClasses) {
+            entityViewSettings.add(EntityViewSetting.create(entityViewClass));
+        }
+        warmUp(entityManager, entityViewSettings);
+    }
+
+    @Override
+    public void warmUp(EntityManager entityManager, Collection<? extends EntityViewSetting<?, ?>> entityViewSettings) {
+        for (EntityViewSetting<?, ?> entityViewSetting : entityViewSettings) {
+            warmUp(entityManager, entityViewSetting);
+        }
+    }
+
+    private <T, Q extends FullQueryBuilder<T, Q>> void warmUp(EntityManager entityManager, EntityViewSetting<T, Q> entityViewSetting) {
+        Class<?> entityViewClass = entityViewSetting.getEntityViewClass();
+        ManagedViewTypeImplementor<?> viewType = metamodel.managedView(entityViewClass);
+        if (viewType == null) {
+            throw new IllegalArgumentException("There is no entity view for the class '" + entityViewClass.getName() + "' registered!");
+        }
+        // Applying the setting builds the templates, the criteria builder factory then renders and prepares the queries
+        cbf.warmUp(applySetting(entityViewSetting, cbf.create(entityManager, viewType.getEntityClass())));
+    }
+
     public JpaProvider getJpaProvider() {
         return jpaProvider;
     }
@@ -442,6 +542,10 @@ public class EntityViewManagerImpl implements EntityViewManager {
         return unsafeDisabled;
     }
 
+    public boolean isPositionalObjectBuilder() {
+        return positionalObjectBuilder;
+    }
+
     public boolean supportsTransientReference() {
         return supportsTransientReference;
     }
@@ -571,8 +675,13 @@ public class EntityViewManagerImpl implements EntityViewManager {
         if (registerMacro) {
             criteriaBuilder.registerMacro("view_root", new DefaultViewRootJpqlMacro(entityViewRoot));
         }
-        return getTemplate(ef, viewType, mappingConstructor, viewName, entityViewRoot, offset)
+        ObjectBuilder<?> objectBuilder = getTemplate(ef, viewType, mappingConstructor, viewName, entityViewRoot, offset)
             .createObjectBuilder(criteriaBuilder, configuration.getOptionalParameters(), configuration);
+        if (configuration.getMetricsListener() != criteriaBuilder.getService(MetricsListener.class)) {
+            // The query records the tuple transformation with the listener of the criteria builder factory unless we override it
+            objectBuilder = new MetricsObjectBuilder<>(objectBuilder, configuration.getMetricsListener());
+        }
+        return objectBuilder;
     }
 
     private static From getFromByViewRoot(FullQueryBuilder<?, ?> queryBuilder, String entityViewRoot) {
@@ -598,6 +707,7 @@ public class EntityViewManagerImpl implements EntityViewManager {
         ViewTypeObjectBuilderTemplate<?> value = objectBuilderCache.get(key);
 
         if (value == null) {
+            metamodel.validate(viewType);
             value = key.createValue(this, proxyFactory);
             ViewTypeObjectBuilderTemplate<?> oldValue = objectBuilderCache.putIfAbsent(key, value);
 
@@ -615,6 +725,7 @@ public class EntityViewManagerImpl implements EntityViewManager {
             EntityViewUpdaterImpl value = contextAwareEntityViewUpdaterCache.get(key);
 
             if (value == null) {
+                metamodel.validate(viewType);
                 value = new EntityViewUpdaterImpl(this, viewType, declaredViewType);
                 EntityViewUpdaterImpl oldValue = contextAwareEntityViewUpdaterCache.putIfAbsent(key, value);
 
@@ -628,6 +739,7 @@ public class EntityViewManagerImpl implements EntityViewManager {
             EntityViewUpdaterImpl value = entityViewUpdaterCache.get(viewType);
 
             if (value == null) {
+                metamodel.validate(viewType);
                 value = new EntityViewUpdaterImpl(this, viewType, null);
                 EntityViewUpdaterImpl oldValue = entityViewUpdaterCache.putIfAbsent(viewType, value);
 
@@ -68,7 +68,7 @@ public final class EntityViewSettingHelper {
         }
 
         ExpressionFactory ef = criteriaBuilder.getService(ExpressionFactory.class);
-        EntityViewConfiguration configuration = new EntityViewConfiguration(criteriaBuilder, ef, setting.getOptionalParameters(), setting.getProperties());
+        EntityViewConfiguration configuration = new EntityViewConfiguration(criteriaBuilder, ef, evm.getMetricsListener(), setting.getOptionalParameters(), setting.getProperties());
         boolean isQueryRoot = entityViewRoot == null || entityViewRoot.isEmpty();
         entityViewRoot = evm.applyObjectBuilder(setting.getEntityViewClass(), setting.getViewConstructorName(), entityViewRoot, configuration);
         applyAttributeFilters(setting, evm, criteriaBuilder, ef, entityViewRoot, isQueryRoot);
@@ -39,6 +39,7 @@ public class CorrelatedSubqueryViewRootJpqlMacro implements ViewRootJpqlMacro {
     private static final String CORRELATION_VIEW_ROOT_ALIAS = "correlationViewRootAlias_";
 
     private final FullQueryBuilder<?, ?> criteriaBuilder;
+    private final EntityManager entityManager;
     private final Map<String, Object> optionalParameters;
     private final Class<?> viewRootEntityType;
     private final String viewRootIdPath;
@@ -49,12 +50,25 @@ public class CorrelatedSubqueryViewRootJpqlMacro implements ViewRootJpqlMacro {
 
     public CorrelatedSubqueryViewRootJpqlMacro(FullQueryBuilder<?, ?> criteriaBuilder, Map<String, Object> optionalParameters, Class<?> viewRootEntityType, String viewRootIdPath, String viewRootExpression) {
         this.criteriaBuilder = criteriaBuilder;
+        this.entityManager = criteriaBuilder.getEntityManager();
         this.optionalParameters = optionalParameters;
         this.viewRootEntityType = viewRootEntityType;
         this.viewRootIdPath = viewRootIdPath;
         this.viewRootExpression = viewRootExpression;
     }
 
+    // Used for already rendered correlation queries, so there is no criteria builder and the parameter names are known
+    public CorrelatedSubqueryViewRootJpqlMacro(EntityManager entityManager, Map<String, Object> optionalParameters, Class<?> viewRootEntityType, String viewRootIdPath, String viewRootExpression, String viewRootParamName, String viewRootIdParamName) {
+        this.criteriaBuilder = null;
+        this.entityManager = entityManager;
+        this.optionalParameters = optionalParameters;
+        this.viewRootEntityType = viewRootEntityType;
+        this.viewRootIdPath = viewRootIdPath;
+        this.viewRootExpression = viewRootExpression;
+        this.viewRootParamName = viewRootParamName;
+        this.viewRootIdParamName = viewRootIdParamName;
+    }
+
     public void setParameters(Query query, Object viewRootId) {
         // The view root expression is only set if we have the view root batched as VALUES clause
         if (viewRootExpression != null) {
@@ -63,7 +77,7 @@ public class CorrelatedSubqueryViewRootJpqlMacro implements ViewRootJpqlMacro {
         }
 
         if (viewRootParamName != null) {
-            EntityManager em = criteriaBuilder.getEntityManager();
+            EntityManager em = entityManager;
             if (viewRootId instanceof Collection) {
                 Collection<Object> paramCollection = (Collection<Object>) viewRootId;
                 List<Object> viewRootEntities = new ArrayList<Object>(paramCollection.size());
@@ -94,6 +108,14 @@ public class CorrelatedSubqueryViewRootJpqlMacro implements ViewRootJpqlMacro {
         return viewRootExpression;
     }
 
+    public String getUsedViewRootParamName() {
+        return viewRootParamName;
+    }
+
+    public String getUsedViewRootIdParamName() {
+        return viewRootIdParamName;
+    }
+
     public boolean usesViewRootEntityParameter() {
         return viewRootExpression != null;
     }
@@ -22,6 +22,7 @@ import com.blazebit.persistence.spi.ExtendedManagedType;
 import com.blazebit.persistence.view.CorrelationProvider;
 import com.blazebit.persistence.view.FetchStrategy;
 import com.blazebit.persistence.view.IdMapping;
+import com.blazebit.persistence.view.Limit;
 import com.blazebit.persistence.view.Mapping;
 import com.blazebit.persistence.view.MappingCorrelated;
 import com.blazebit.persistence.view.MappingCorrelatedSimple;
@@ -49,8 +50,15 @@ import com.blazebit.persistence.view.impl.collection.SortedSetCollectionInstanti
 import com.blazebit.persistence.view.impl.collection.SortedSetFactory;
 import com.blazebit.persistence.view.impl.collection.UnorderedMapInstantiator;
 import com.blazebit.persistence.view.impl.collection.UnorderedSetCollectionInstantiator;
+import com.blazebit.persistence.view.impl.objectbuilder.mapper.AbstractMultisetCorrelationTupleElementMapper;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.MultisetValueConverter;
 import com.blazebit.persistence.view.metamodel.Attribute;
+import com.blazebit.persistence.view.metamodel.ManagedViewType;
+import com.blazebit.persistence.view.metamodel.MappingConstructor;
+import com.blazebit.persistence.view.metamodel.MethodAttribute;
+import com.blazebit.persistence.view.metamodel.ParameterAttribute;
 import com.blazebit.persistence.view.metamodel.PluralAttribute;
+import com.blazebit.persistence.view.metamodel.SingularAttribute;
 import com.blazebit.persistence.view.metamodel.Type;
 import com.blazebit.reflection.ReflectionUtils;
 
@@ -58,6 +66,7 @@ import javax.persistence.metamodel.ManagedType;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -68,6 +77,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -80,6 +90,7 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
     private static final String[] EMPTY = new String[0];
     private static final String THIS = "this";
     private static final Pattern PREFIX_THIS_REPLACE_PATTERN = Pattern.compile("([^a-zA-Z0-9\\.])this\\.");
+    private static final Pattern ORDER_BY_ITEM_PATTERN = Pattern.compile("^(.+?)(?:\\s+(ASC|DESC))?(?:\\s+NULLS\\s+(FIRST|LAST))?$", Pattern.CASE_INSENSITIVE);
 
     protected final ManagedViewTypeImplementor<X> declaringType;
     protected final Class<Y> javaType;
@@ -88,6 +99,9 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
     protected final String[] fetches;
     protected final FetchStrategy fetchStrategy;
     protected final int batchSize;
+    protected final int limit;
+    protected final int offset;
+    protected final List<OrderByItem> limitOrder;
     protected final Class<? extends SubqueryProvider> subqueryProvider;
     protected final String subqueryExpression;
     protected final String subqueryAlias;
@@ -126,6 +140,23 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
             batchSize = defaultbatchSize;
         }
 
+        Limit limitMapping = mapping.getLimit();
+        if (limitMapping == null) {
+            this.limit = -1;
+            this.offset = 0;
+            this.limitOrder = Collections.emptyList();
+        } else {
+            if (limitMapping.limit() < 1) {
+                context.addError("Illegal limit lower than 1 defined at '" + mapping.getErrorLocation() + "'!");
+            }
+            if (limitMapping.offset() < 0) {
+                context.addError("Illegal negative offset defined at '" + mapping.getErrorLocation() + "'!");
+            }
+            this.limit = limitMapping.limit();
+            this.offset = limitMapping.offset();
+            this.limitOrder = parseLimitOrder(limitMapping.order(), mapping, context);
+        }
+
         this.declaringType = declaringType;
         this.javaType = javaType;
         this.convertedJavaType = getConvertedType(declaringType.getJavaType(), mapping.getType(context).getConvertedType(), javaType);
@@ -156,11 +187,13 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
             this.batchSize = batchSize;
             this.subqueryProvider = null;
             this.id = false;
-            this.updateMappable = checkUpdatableMapping(this.mapping, context);
+            // Limited collections are never update mappable as not all elements are loaded
+            this.updateMappable = limitMapping == null && checkUpdatableMapping(this.mapping, context);
             this.mappingType = MappingType.BASIC;
             this.subqueryExpression = null;
             this.subqueryAlias = null;
-            if (fetchStrategy == FetchStrategy.JOIN) {
+            // Limiting the elements requires a correlation, even for the join fetch strategy
+            if (fetchStrategy == FetchStrategy.JOIN && limitMapping == null) {
                 this.correlationProvider = null;
                 this.correlationResult = null;
                 this.correlationBasis = null;
@@ -179,6 +212,9 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
                     this.correlationProvider = CorrelationProviderHelper.createCorrelationProvider(attribute.getElementClass(), "__correlationAlias", attribute.getMappedBy() + "." + idMapping + " IN __correlationAlias", context);
                     this.correlationResult = "";
                 } else {
+                    if (limitMapping != null) {
+                        context.addError("The limit requires the mapping to refer to an inverse collection i.e. one that is mapped by an attribute of the element type at the " + mapping.getErrorLocation());
+                    }
                     this.correlationProvider = CorrelationProviderHelper.createCorrelationProvider(declaringType.getEntityClass(), "__correlationAlias", idMapping + " IN __correlationAlias", context);
                     this.correlationResult = this.mapping;
                 }
@@ -310,6 +346,32 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
         }
     }
 
+    private static List<OrderByItem> parseLimitOrder(String[] order, AttributeMapping mapping, MetamodelBuildingContext context) {
+        if (order.length == 0) {
+            context.addError("The limit requires at least one order by item at the " + mapping.getErrorLocation());
+            return Collections.emptyList();
+        }
+        List<OrderByItem> limitOrder = new ArrayList<>(order.length);
+        for (String item : order) {
+            Matcher matcher = ORDER_BY_ITEM_PATTERN.matcher(item.trim());
+            if (!matcher.matches()) {
+                context.addError("Invalid empty order by item for the limit at the " + mapping.getErrorLocation());
+                continue;
+            }
+            String expression = matcher.group(1);
+            try {
+                context.getExpressionFactory().createSimpleExpression(expression, false);
+            } catch (SyntaxErrorException ex) {
+                context.addError("Syntax error in the order by item '" + item + "' for the limit at the " + mapping.getErrorLocation() + ": " + ex.getMessage());
+                continue;
+            }
+            boolean ascending = !"DESC".equalsIgnoreCase(matcher.group(2));
+            boolean nullsFirst = "FIRST".equalsIgnoreCase(matcher.group(3));
+            limitOrder.add(new OrderByItem(expression, ascending, nullsFirst));
+        }
+        return limitOrder;
+    }
+
     private static Class<?> getConvertedType(Class<?> declaringClass, java.lang.reflect.Type convertedType, Class<?> javaType) {
         if (convertedType == null) {
             return javaType;
@@ -374,9 +436,9 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
      * @return The mappings which contain collection attribute uses
      */
     public Set<String> getCollectionJoinMappings(ManagedType<?> managedType, MetamodelBuildingContext context) {
-        if (mapping == null || isQueryParameter() || getAttributeType() == AttributeType.SINGULAR || getFetchStrategy() != FetchStrategy.JOIN) {
+        if (mapping == null || isQueryParameter() || getAttributeType() == AttributeType.SINGULAR || getFetchStrategy() != FetchStrategy.JOIN || limit != -1) {
             // Subqueries and parameters can't be checked. When a collection is remapped to a singular attribute, we don't check it
-            // When using a non-join fetch strategy, we also don't care about the collection join mappings
+            // When using a non-join fetch strategy or a limit, we also don't care about the collection join mappings
             return Collections.emptySet();
         }
         
@@ -601,6 +663,40 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
         return sb.toString();
     }
 
+    private void checkLimitOrder(Class<?> limitedEntityClass, MetamodelBuildingContext context) {
+        ManagedType<?> limitedType = limitedEntityClass == null ? null : context.getEntityMetamodel().getManagedType(limitedEntityClass);
+        if (limitedType == null) {
+            return;
+        }
+        // Joined limited collections might be sorted by the order keys in memory, so the keys must be basic comparable values
+        ScalarTargetResolvingExpressionVisitor visitor = new ScalarTargetResolvingExpressionVisitor(limitedType, context.getEntityMetamodel(), context.getJpqlFunctions());
+        for (OrderByItem orderByItem : limitOrder) {
+            visitor.clear();
+            try {
+                context.getExpressionFactory().createSimpleExpression(orderByItem.getExpression(), false).accept(visitor);
+            } catch (SyntaxErrorException ex) {
+                // Already reported when parsing the order
+                continue;
+            } catch (IllegalArgumentException ex) {
+                context.addError("An error occurred while trying to resolve the order by item '" + orderByItem.getExpression() + "' for the limit at the " + getLocation() + ": " + ex.getMessage());
+                continue;
+            }
+            for (TargetType targetType : visitor.getPossibleTargets()) {
+                Class<?> keyClass = targetType.getLeafBaseValueClass() == null ? targetType.getLeafBaseClass() : targetType.getLeafBaseValueClass();
+                if (keyClass == null || keyClass == Object.class) {
+                    // The type of the order key is unknown
+                    continue;
+                } else if (keyClass.isPrimitive()) {
+                    keyClass = ReflectionUtils.getObjectClassOfPrimitve(keyClass);
+                }
+                if (context.getEntityMetamodel().getManagedType(keyClass) != null || !Comparable.class.isAssignableFrom(keyClass)) {
+                    context.addError("The order by item '" + orderByItem.getExpression() + "' for the limit at the " + getLocation() + " resolves to the non-basic type '" + keyClass.getName() + "' which is not supported with the JOIN fetch strategy!");
+                    break;
+                }
+            }
+        }
+    }
+
     public void checkAttribute(ManagedType<?> managedType, MetamodelBuildingContext context) {
         Class<?> expressionType = getJavaType();
         Class<?> keyType = null;
@@ -681,6 +777,27 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
 
         // TODO: Make use of the key type in type checks
 
+        if (limit != -1) {
+            if (!isCollection()) {
+                context.addError("Illegal limit for the singular " + getLocation());
+            } else if (isIndexed()) {
+                context.addError("Illegal limit for the indexed " + getLocation());
+            } else if (isUpdatable()) {
+                context.addError("Illegal limit for the updatable " + getLocation());
+            }
+            if (fetchStrategy == FetchStrategy.MULTISET) {
+                context.addError("Illegal limit for the " + getLocation() + " as it is not supported with the MULTISET fetch strategy");
+            } else if (isSubquery() || isQueryParameter()) {
+                context.addError("Illegal limit for the " + getLocation() + " as it is only supported for mappings and correlations");
+            } else if (fetchStrategy == FetchStrategy.JOIN) {
+                checkLimitOrder(correlated == null ? elementType : correlated, context);
+            }
+        }
+
+        if (fetchStrategy == FetchStrategy.MULTISET) {
+            checkMultisetAttribute(context);
+        }
+
         if (isCorrelated()) {
             if (isUpdatable()) {
                 context.addError("Illegal updatable correlated attribute " + getLocation());
@@ -807,6 +924,50 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
         return getDeclaringType().getMappingType() == Type.MappingType.FLAT_VIEW && "this".equals(mapping);
     }
 
+    private void checkMultisetAttribute(MetamodelBuildingContext context) {
+        if (!context.getJpqlFunctions().containsKey(AbstractMultisetCorrelationTupleElementMapper.FUNCTION_NAME)) {
+            context.addError("The fetch strategy MULTISET of the " + getLocation() + " is not supported by the DBMS as it has no implementation for the function '" + AbstractMultisetCorrelationTupleElementMapper.FUNCTION_NAME + "'!");
+        }
+        if (!isCollection()) {
+            context.addError("The fetch strategy MULTISET is only supported for collection attributes but was used for the singular " + getLocation() + "!");
+            return;
+        }
+        // The aggregated elements are in no particular order
+        PluralAttribute.CollectionType collectionType = getCollectionType();
+        if (collectionType == PluralAttribute.CollectionType.LIST || collectionType == PluralAttribute.CollectionType.MAP || isIndexed() || ((PluralAttribute<?, ?, ?>) this).isOrdered()) {
+            context.addError("The fetch strategy MULTISET is only supported for unordered collections and sets but was used for the " + getLocation() + "!");
+        }
+
+        Type<?> elementType = getElementType();
+        if (elementType instanceof ManagedViewType<?>) {
+            ManagedViewType<?> viewType = (ManagedViewType<?>) elementType;
+            if (elementInheritanceSubtypeMappings().size() > 1) {
+                context.addError("The fetch strategy MULTISET of the " + getLocation() + " is not supported for subviews with inheritance!");
+            }
+            for (MethodAttribute<?, ?> attribute : viewType.getAttributes()) {
+                checkMultisetValueAttribute(attribute, context);
+            }
+            for (MappingConstructor<?> constructor : viewType.getConstructors()) {
+                for (ParameterAttribute<?, ?> attribute : constructor.getParameterAttributes()) {
+                    checkMultisetValueAttribute(attribute, context);
+                }
+            }
+        } else if (MultisetValueConverter.forType(elementType.getJavaType()) == null || elementType.getConverter() != null) {
+            context.addError("The fetch strategy MULTISET of the " + getLocation() + " does not support the element type '" + elementType.getJavaType().getName() + "'!");
+        }
+    }
+
+    private void checkMultisetValueAttribute(Attribute<?, ?> attribute, MetamodelBuildingContext context) {
+        if (attribute.isCollection() || attribute.isSubview() || attribute.isSubquery() || attribute.isCorrelated() || attribute.getMappingType() != Attribute.MappingType.BASIC) {
+            context.addError("The fetch strategy MULTISET of the " + getLocation() + " is only supported for subviews with basic attributes but found the attribute '" + attribute + "'!");
+            return;
+        }
+        Type<?> type = ((SingularAttribute<?, ?>) attribute).getType();
+        if (MultisetValueConverter.forType(type.getJavaType()) == null || type.getConverter() != null) {
+            context.addError("The fetch strategy MULTISET of the " + getLocation() + " does not support the type '" + type.getJavaType().getName() + "' of the attribute '" + attribute + "'!");
+        }
+    }
+
     protected abstract Class[] getTypeArguments();
 
     public abstract String getLocation();
@@ -968,6 +1129,23 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
         return batchSize;
     }
 
+    /**
+     * Returns the maximum number of elements to load per owner or -1 if the elements are not limited.
+     *
+     * @return The limit
+     */
+    public final int getLimit() {
+        return limit;
+    }
+
+    public final int getOffset() {
+        return offset;
+    }
+
+    public final List<OrderByItem> getLimitOrder() {
+        return limitOrder;
+    }
+
     public final String getMapping() {
         return mapping;
     }
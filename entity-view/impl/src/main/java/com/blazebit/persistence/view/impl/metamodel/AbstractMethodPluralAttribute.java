@@ -178,8 +178,8 @@ public abstract class AbstractMethodPluralAttribute<X, C, Y> extends AbstractMet
     }
 
     private boolean determineUpdatable(Type<?> elementType) {
-        // Non-basic mappings(Subquery, Correlation, etc.) are never considered updatable
-        if (getMappingType() != MappingType.BASIC) {
+        // Non-basic mappings(Subquery, Correlation, etc.) and limited collections are never considered updatable
+        if (getMappingType() != MappingType.BASIC || getLimit() != -1) {
             return false;
         }
         Method setter = ReflectionUtils.getSetter(getDeclaringType().getJavaType(), getName());
@@ -20,6 +20,7 @@ import com.blazebit.annotation.AnnotationUtils;
 import com.blazebit.persistence.view.BatchFetch;
 import com.blazebit.persistence.view.CollectionMapping;
 import com.blazebit.persistence.view.IdMapping;
+import com.blazebit.persistence.view.Limit;
 import com.blazebit.persistence.view.MappingInheritance;
 import com.blazebit.persistence.view.MappingInheritanceMapKey;
 import com.blazebit.persistence.view.MappingInheritanceSubtype;
@@ -97,6 +98,8 @@ public class AnnotationMethodAttributeMappingReader extends AbstractAnnotationAt
             attributeMapping.setDefaultBatchSize(batchFetch.size());
         }
 
+        attributeMapping.setLimit(AnnotationUtils.findAnnotation(method, Limit.class));
+
         UpdatableMapping updatableMapping = AnnotationUtils.findAnnotation(method, UpdatableMapping.class);
         if (updatableMapping != null) {
             attributeMapping.setUpdatable(updatableMapping.updatable(), updatableMapping.orphanRemoval(), updatableMapping.cascade(), updatableMapping.subtypes(), updatableMapping.persistSubtypes(), updatableMapping.updateSubtypes());
@@ -18,6 +18,7 @@ package com.blazebit.persistence.view.impl.metamodel;
 
 import com.blazebit.persistence.view.BatchFetch;
 import com.blazebit.persistence.view.CollectionMapping;
+import com.blazebit.persistence.view.Limit;
 import com.blazebit.persistence.view.MappingInheritance;
 import com.blazebit.persistence.view.MappingInheritanceMapKey;
 import com.blazebit.persistence.view.MappingInheritanceSubtype;
@@ -91,6 +92,8 @@ public class AnnotationParameterAttributeMappingReader extends AbstractAnnotatio
             parameterMapping.setDefaultBatchSize(batchFetch.size());
         }
 
+        parameterMapping.setLimit((Limit) parameterAnnotations.get(Limit.class));
+
         return parameterMapping;
     }
 
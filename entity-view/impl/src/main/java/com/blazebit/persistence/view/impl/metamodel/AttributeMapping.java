@@ -18,6 +18,7 @@ package com.blazebit.persistence.view.impl.metamodel;
 
 import com.blazebit.persistence.view.IdMapping;
 import com.blazebit.persistence.view.InverseRemoveStrategy;
+import com.blazebit.persistence.view.Limit;
 import com.blazebit.persistence.view.Mapping;
 import com.blazebit.persistence.view.impl.ScalarTargetResolvingExpressionVisitor;
 import com.blazebit.persistence.view.metamodel.Type;
@@ -65,6 +66,7 @@ public abstract class AttributeMapping implements EntityViewAttributeMapping {
 
     // Other configs
     protected Integer defaultBatchSize;
+    protected Limit limit;
 
     // Resolved types
     protected boolean resolvedTypeMappings;
@@ -167,6 +169,14 @@ public abstract class AttributeMapping implements EntityViewAttributeMapping {
         this.defaultBatchSize = defaultBatchSize;
     }
 
+    public Limit getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Limit limit) {
+        this.limit = limit;
+    }
+
     public abstract String getErrorLocation();
 
     public abstract String getMappedBy();
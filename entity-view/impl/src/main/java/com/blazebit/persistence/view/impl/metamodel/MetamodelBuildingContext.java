@@ -76,6 +76,8 @@ public interface MetamodelBuildingContext {
 
     public FlushStrategy getFlushStrategy(Class<?> clazz, FlushStrategy defaultValue);
 
+    public MetamodelBuildingContext withErrors(Set<String> errors);
+
     public void addError(String error);
 
     public boolean hasErrors();
@@ -92,6 +92,21 @@ public class MetamodelBuildingContextImpl implements MetamodelBuildingContext {
         this.flushStrategyOverrides = getFlushStrategyOverrides(properties);
     }
 
+    private MetamodelBuildingContextImpl(MetamodelBuildingContextImpl original, Set<String> errors) {
+        this.basicUserTypeRegistry = original.basicUserTypeRegistry;
+        this.entityMetamodel = original.entityMetamodel;
+        this.jpaProvider = original.jpaProvider;
+        this.jpqlFunctions = original.jpqlFunctions;
+        this.expressionFactory = original.expressionFactory;
+        this.proxyFactory = original.proxyFactory;
+        this.viewMappings = original.viewMappings;
+        this.errors = errors;
+        this.flushModeOverride = original.flushModeOverride;
+        this.flushModeOverrides = original.flushModeOverrides;
+        this.flushStrategyOverride = original.flushStrategyOverride;
+        this.flushStrategyOverrides = original.flushStrategyOverrides;
+    }
+
     private FlushMode getFlushMode(String property, String location) {
         if (property == null || property.isEmpty()) {
             return null;
@@ -388,14 +403,24 @@ public class MetamodelBuildingContextImpl implements MetamodelBuildingContext {
         }
     }
 
+    @Override
+    public MetamodelBuildingContext withErrors(Set<String> errors) {
+        return new MetamodelBuildingContextImpl(this, errors);
+    }
+
     @Override
     public void addError(String error) {
-        errors.add(error);
+        // Errors might be reported concurrently during the parallel validation
+        synchronized (errors) {
+            errors.add(error);
+        }
     }
 
     @Override
     public boolean hasErrors() {
-        return !errors.isEmpty();
+        synchronized (errors) {
+            return !errors.isEmpty();
+        }
     }
 
     @Override
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.metamodel;
+
+/**
+ * An order by item of a limit mapping.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public final class OrderByItem {
+
+    private final String expression;
+    private final boolean ascending;
+    private final boolean nullsFirst;
+
+    public OrderByItem(String expression, boolean ascending, boolean nullsFirst) {
+        this.expression = expression;
+        this.ascending = ascending;
+        this.nullsFirst = nullsFirst;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public boolean isNullsFirst() {
+        return nullsFirst;
+    }
+}
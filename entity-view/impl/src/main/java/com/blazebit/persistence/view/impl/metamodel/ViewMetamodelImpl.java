@@ -17,19 +17,30 @@
 package com.blazebit.persistence.view.impl.metamodel;
 
 import com.blazebit.persistence.parser.EntityMetamodel;
+import com.blazebit.persistence.view.impl.BootstrapExecutor;
 import com.blazebit.persistence.view.metamodel.FlatViewType;
 import com.blazebit.persistence.view.metamodel.ManagedViewType;
+import com.blazebit.persistence.view.metamodel.MappingConstructor;
+import com.blazebit.persistence.view.metamodel.MethodAttribute;
+import com.blazebit.persistence.view.metamodel.ParameterAttribute;
 import com.blazebit.persistence.view.metamodel.ViewMetamodel;
 import com.blazebit.persistence.view.metamodel.ViewType;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 /**
  *
@@ -42,8 +53,11 @@ public class ViewMetamodelImpl implements ViewMetamodel {
     private final Map<Class<?>, ViewTypeImpl<?>> views;
     private final Map<Class<?>, FlatViewTypeImpl<?>> flatViews;
     private final Map<Class<?>, ManagedViewTypeImplementor<?>> managedViews;
+    // The context and validation results are only retained if the validation is deferred to the first use of a view type
+    private final MetamodelBuildingContext validationContext;
+    private final ConcurrentMap<ManagedViewTypeImplementor<?>, FutureTask<Set<String>>> deferredValidations;
 
-    public ViewMetamodelImpl(EntityMetamodel entityMetamodel, MetamodelBuildingContext context, boolean validateExpressions) {
+    public ViewMetamodelImpl(EntityMetamodel entityMetamodel, final MetamodelBuildingContext context, BootstrapExecutor bootstrapExecutor, boolean validateExpressions, boolean deferValidation) {
         this.metamodel = entityMetamodel;
 
         Collection<ViewMapping> viewMappings = context.getViewMappings();
@@ -78,18 +92,152 @@ public class ViewMetamodelImpl implements ViewMetamodel {
         this.flatViews = Collections.unmodifiableMap(flatViews);
         this.managedViews = Collections.unmodifiableMap(managedViews);
 
+        if (validateExpressions && deferValidation) {
+            this.validationContext = context;
+            this.deferredValidations = new ConcurrentHashMap<>(managedViews.size());
+        } else {
+            this.validationContext = null;
+            this.deferredValidations = null;
+        }
+
         // Phase 4: Validate expressions against the entity model
         if (!context.hasErrors()) {
-            if (validateExpressions) {
-                List<AbstractAttribute<?, ?>> parents = new ArrayList<>();
-                for (ManagedViewTypeImplementor<?> t : managedViews.values()) {
-                    t.checkAttributes(context);
-                    t.checkNestedAttributes(parents, context);
+            if (validateExpressions && !deferValidation) {
+                // The validation of a view type only reads the metamodel, so view types can be validated in parallel
+                // Every view type collects its errors separately, so that the errors are reported in the order of the view type names
+                List<ManagedViewTypeImplementor<?>> viewTypes = new ArrayList<>(managedViews.values());
+                Collections.sort(viewTypes, new Comparator<ManagedViewTypeImplementor<?>>() {
+                    @Override
+                    public int compare(ManagedViewTypeImplementor<?> o1, ManagedViewTypeImplementor<?> o2) {
+                        return o1.getJavaType().getName().compareTo(o2.getJavaType().getName());
+                    }
+                });
+                List<Runnable> validationTasks = new ArrayList<>(viewTypes.size());
+                final List<Set<String>> validationErrors = new ArrayList<>(viewTypes.size());
+                for (final ManagedViewTypeImplementor<?> t : viewTypes) {
+                    final Set<String> errors = new LinkedHashSet<>();
+                    validationErrors.add(errors);
+                    validationTasks.add(new Runnable() {
+                        @Override
+                        public void run() {
+                            MetamodelBuildingContext validationContext = context.withErrors(errors);
+                            t.checkAttributes(validationContext);
+                            t.checkNestedAttributes(new ArrayList<AbstractAttribute<?, ?>>(), validationContext);
+                        }
+                    });
+                }
+                bootstrapExecutor.execute(validationTasks);
+                for (Set<String> errors : validationErrors) {
+                    for (String error : errors) {
+                        context.addError(error);
+                    }
                 }
             }
         }
     }
 
+    /**
+     * Validates the given view type and the view types it refers to, if the validation was deferred.
+     * The validation of every view type is done only once, subsequent calls just return or rethrow the result.
+     *
+     * @param viewType The view type to validate
+     * @throws IllegalArgumentException if there are errors in the view types
+     */
+    public void validate(ManagedViewTypeImplementor<?> viewType) {
+        if (deferredValidations != null) {
+            Set<String> errors = new LinkedHashSet<>();
+            collectValidationErrors(viewType, errors, Collections.newSetFromMap(new IdentityHashMap<ManagedViewTypeImplementor<?>, Boolean>()));
+            throwIfErrors(errors);
+        }
+    }
+
+    /**
+     * Validates all view types, if the validation was deferred.
+     *
+     * @throws IllegalArgumentException if there are errors in the view types
+     */
+    public void validateAll() {
+        if (deferredValidations != null) {
+            Set<String> errors = new LinkedHashSet<>();
+            Set<ManagedViewTypeImplementor<?>> visited = Collections.newSetFromMap(new IdentityHashMap<ManagedViewTypeImplementor<?>, Boolean>(managedViews.size()));
+            for (ManagedViewTypeImplementor<?> viewType : managedViews.values()) {
+                collectValidationErrors(viewType, errors, visited);
+            }
+            throwIfErrors(errors);
+        }
+    }
+
+    private void collectValidationErrors(ManagedViewTypeImplementor<?> viewType, Set<String> errors, Set<ManagedViewTypeImplementor<?>> visited) {
+        if (!visited.add(viewType)) {
+            return;
+        }
+
+        errors.addAll(getValidationErrors(viewType));
+
+        for (ManagedViewType<?> subtype : viewType.getInheritanceSubtypes()) {
+            collectValidationErrors((ManagedViewTypeImplementor<?>) subtype, errors, visited);
+        }
+        for (MethodAttribute<?, ?> attribute : viewType.getAttributes()) {
+            collectValidationErrors((AbstractAttribute<?, ?>) attribute, errors, visited);
+        }
+        for (MappingConstructor<?> constructor : viewType.getConstructors()) {
+            for (ParameterAttribute<?, ?> attribute : constructor.getParameterAttributes()) {
+                collectValidationErrors((AbstractAttribute<?, ?>) attribute, errors, visited);
+            }
+        }
+    }
+
+    private void collectValidationErrors(AbstractAttribute<?, ?> attribute, Set<String> errors, Set<ManagedViewTypeImplementor<?>> visited) {
+        if (attribute.isSubview()) {
+            for (ManagedViewTypeImplementor<?> subviewType : attribute.elementInheritanceSubtypeMappings().keySet()) {
+                collectValidationErrors(subviewType, errors, visited);
+            }
+        }
+        if (attribute.isKeySubview()) {
+            for (ManagedViewTypeImplementor<?> subviewType : attribute.keyInheritanceSubtypeMappings().keySet()) {
+                collectValidationErrors(subviewType, errors, visited);
+            }
+        }
+    }
+
+    private Set<String> getValidationErrors(ManagedViewTypeImplementor<?> viewType) {
+        FutureTask<Set<String>> validation = deferredValidations.get(viewType);
+        if (validation == null) {
+            FutureTask<Set<String>> newValidation = new FutureTask<>(new DeferredValidation(validationContext, viewType));
+            validation = deferredValidations.putIfAbsent(viewType, newValidation);
+            if (validation == null) {
+                validation = newValidation;
+                newValidation.run();
+            }
+        }
+
+        try {
+            return validation.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the validation of the entity view '" + viewType.getJavaType().getName() + "'!", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException("The validation of the entity view '" + viewType.getJavaType().getName() + "' failed!", ex.getCause());
+        }
+    }
+
+    private static void throwIfErrors(Set<String> errors) {
+        if (!errors.isEmpty()) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("There are error(s) in entity views!");
+
+            for (String error : errors) {
+                sb.append('\n');
+                sb.append(error);
+            }
+
+            throw new IllegalArgumentException(sb.toString());
+        }
+    }
+
     public EntityMetamodel getEntityMetamodel() {
         return metamodel;
     }
@@ -131,4 +279,29 @@ public class ViewMetamodelImpl implements ViewMetamodel {
         return new SetView<FlatViewType<?>>(flatViews.values());
     }
 
+    /**
+     * Validates a single view type against the entity model and collects the errors.
+     *
+     * @author Christian Beikov
+     * @since 1.2.0
+     */
+    private static final class DeferredValidation implements Callable<Set<String>> {
+
+        private final MetamodelBuildingContext context;
+        private final ManagedViewTypeImplementor<?> viewType;
+
+        public DeferredValidation(MetamodelBuildingContext context, ManagedViewTypeImplementor<?> viewType) {
+            this.context = context;
+            this.viewType = viewType;
+        }
+
+        @Override
+        public Set<String> call() {
+            Set<String> errors = new LinkedHashSet<>();
+            MetamodelBuildingContext validationContext = context.withErrors(errors);
+            viewType.checkAttributes(validationContext);
+            viewType.checkNestedAttributes(new ArrayList<AbstractAttribute<?, ?>>(), validationContext);
+            return errors;
+        }
+    }
 }
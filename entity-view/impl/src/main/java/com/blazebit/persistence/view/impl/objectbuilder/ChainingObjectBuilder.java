@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import com.blazebit.persistence.IncrementalObjectBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.ParameterHolder;
 import com.blazebit.persistence.SelectBuilder;
@@ -32,14 +33,29 @@ import com.blazebit.persistence.view.impl.objectbuilder.transformator.TupleTrans
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class ChainingObjectBuilder<T> implements ObjectBuilder<T> {
+public class ChainingObjectBuilder<T> implements IncrementalObjectBuilder<T> {
+
+    private static final Object SINGLE_GROUP_KEY = new Object();
 
     private final TupleTransformator transformator;
     private final ObjectBuilder<T> objectBuilder;
+    private final int[] idPositions;
+    private final boolean incremental;
 
-    public ChainingObjectBuilder(TupleTransformatorFactory transformatorFactory, ObjectBuilder<T> objectBuilder, ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters, EntityViewConfiguration entityViewConfiguration, int startIndex) {
+    public ChainingObjectBuilder(TupleTransformatorFactory transformatorFactory, ObjectBuilder<T> objectBuilder, ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters, EntityViewConfiguration entityViewConfiguration, int[] idPositions, int startIndex) {
         this.transformator = transformatorFactory.create(parameterHolder, optionalParameters, entityViewConfiguration);
         this.objectBuilder = objectBuilder;
+        this.idPositions = idPositions;
+        this.incremental = transformatorFactory.supportsIncrementalTransformation();
+    }
+
+    @Override
+    public Object getGroupKey(Object[] tuple) {
+        if (!incremental) {
+            return SINGLE_GROUP_KEY;
+        }
+        // The transformers group collection elements by the root id, so all tuples of one root must be transformed together
+        return new TupleId(idPositions, tuple);
     }
 
     @Override
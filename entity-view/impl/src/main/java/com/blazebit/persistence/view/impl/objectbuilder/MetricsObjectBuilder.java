@@ -0,0 +1,62 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder;
+
+import com.blazebit.persistence.IncrementalObjectBuilder;
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.spi.MetricsListener;
+import com.blazebit.persistence.spi.ServiceProvider;
+
+/**
+ * Provides the metrics listener of the entity view configuration to the query that uses this object builder,
+ * so that the tuple transformation is recorded by the same listener as the correlation.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class MetricsObjectBuilder<T> extends DelegatingObjectBuilder<T> implements IncrementalObjectBuilder<T>, ServiceProvider {
+
+    private final IncrementalObjectBuilder<T> incrementalDelegate;
+    private final MetricsListener metricsListener;
+
+    public MetricsObjectBuilder(ObjectBuilder<T> delegate, MetricsListener metricsListener) {
+        super(delegate);
+        if (delegate instanceof IncrementalObjectBuilder<?>) {
+            this.incrementalDelegate = (IncrementalObjectBuilder<T>) delegate;
+        } else {
+            this.incrementalDelegate = null;
+        }
+        this.metricsListener = metricsListener;
+    }
+
+    @Override
+    public Object getGroupKey(Object[] tuple) {
+        if (incrementalDelegate == null) {
+            return null;
+        }
+        return incrementalDelegate.getGroupKey(tuple);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <X> X getService(Class<X> serviceClass) {
+        if (MetricsListener.class.equals(serviceClass)) {
+            return (X) metricsListener;
+        }
+        return null;
+    }
+}
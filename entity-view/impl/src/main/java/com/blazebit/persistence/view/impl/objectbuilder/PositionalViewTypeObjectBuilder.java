@@ -0,0 +1,121 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder;
+
+import java.util.List;
+import java.util.Map;
+
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.ParameterHolder;
+import com.blazebit.persistence.SelectBuilder;
+import com.blazebit.persistence.view.impl.objectbuilder.mapper.TupleElementMapper;
+import com.blazebit.persistence.view.impl.proxy.ObjectInstantiator;
+
+/**
+ * An object builder that fuses the tuple reduction of {@link ReducerViewTypeObjectBuilder} with the instantiation of {@link ViewTypeObjectBuilder}.
+ * Instead of filtering out consumed tuple elements, the constructor arguments are read from the statically known tuple positions.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class PositionalViewTypeObjectBuilder<T> implements ObjectBuilder<T> {
+
+    private final boolean hasId;
+    private final boolean nullIfEmpty;
+    private final boolean keepTuplePrefix;
+    private final int start;
+    private final int[] positions;
+    private final Object[] newTuple;
+    private final ObjectInstantiator<T> objectInstantiator;
+    private final TupleElementMapper[] mappers;
+    private final ParameterHolder<?> parameterHolder;
+    private final Map<String, Object> optionalParameters;
+
+    public PositionalViewTypeObjectBuilder(ViewTypeObjectBuilderTemplate<T> template, ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters, boolean nullIfEmpty, boolean keepTuplePrefix) {
+        int[] attributePositions = template.getAttributePositions();
+        if (attributePositions == null) {
+            throw new IllegalArgumentException("No templates without static tuple positions allowed for this object builder!");
+        }
+
+        this.hasId = template.hasId();
+        this.nullIfEmpty = nullIfEmpty;
+        this.keepTuplePrefix = keepTuplePrefix;
+        this.start = template.getTupleOffset();
+        this.positions = new int[attributePositions.length];
+        for (int i = 0; i < attributePositions.length; i++) {
+            this.positions[i] = start + attributePositions[i];
+        }
+        // The array can be reused since the instantiator passes the elements on to the constructor
+        this.newTuple = new Object[attributePositions.length];
+        this.objectInstantiator = template.getObjectInstantiator();
+        this.mappers = template.getMappers();
+        this.parameterHolder = parameterHolder;
+        this.optionalParameters = optionalParameters;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T build(Object[] tuple) {
+        T result = buildObject(tuple);
+        if (keepTuplePrefix) {
+            // Create a new array and put in the prefix parts as well as the result into it
+            Object[] tupleWithPrefix = new Object[start + 1];
+            System.arraycopy(tuple, 0, tupleWithPrefix, 0, start);
+            tupleWithPrefix[start] = result;
+            result = (T) tupleWithPrefix;
+        }
+
+        return result;
+    }
+
+    private T buildObject(Object[] tuple) {
+        if (hasId) {
+            if (tuple[positions[0]] == null) {
+                return null;
+            }
+        } else if (nullIfEmpty) {
+            boolean empty = true;
+            for (int i = 0; i < positions.length; i++) {
+                if ((newTuple[i] = tuple[positions[i]]) != null) {
+                    empty = false;
+                }
+            }
+
+            if (empty) {
+                return null;
+            }
+            return objectInstantiator.newInstance(newTuple);
+        }
+
+        for (int i = 0; i < positions.length; i++) {
+            newTuple[i] = tuple[positions[i]];
+        }
+        return objectInstantiator.newInstance(newTuple);
+    }
+
+    @Override
+    public List<T> buildList(List<T> list) {
+        return list;
+    }
+
+    @Override
+    public <X extends SelectBuilder<X>> void applySelects(X queryBuilder) {
+        for (int i = 0; i < mappers.length; i++) {
+            mappers[i].applyMapping(queryBuilder, parameterHolder, optionalParameters);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder;
+
+/**
+ * An open addressing hash index that groups tuples by the values at the given id positions.
+ * Contrary to a {@link java.util.HashMap} keyed by {@link TupleId}, no objects are allocated per looked up tuple.
+ * The index keeps a reference to the first tuple of every group, so the values at the id positions of indexed tuples must not be changed.
+ *
+ * @param <V> The value type
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class TupleIdIndex<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final int[] idPositions;
+    // Contains the entry index + 1 for every slot, 0 means the slot is free
+    private int[] slots;
+    private int[] hashes;
+    private Object[][] keys;
+    private Object[] values;
+    private int size;
+
+    public TupleIdIndex(int[] idPositions, int expectedSize) {
+        this.idPositions = idPositions;
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize) {
+            capacity <<= 1;
+        }
+        // Keep the load factor at 0.5 at most
+        this.slots = new int[capacity << 1];
+        this.hashes = new int[capacity];
+        this.keys = new Object[capacity][];
+        this.values = new Object[capacity];
+    }
+
+    /**
+     * Creates an index over all positions of tuples with the given length.
+     *
+     * @param tupleLength The length of the indexed tuples
+     * @param expectedSize The expected amount of entries
+     * @param <V> The value type
+     * @return The tuple index
+     */
+    public static <V> TupleIdIndex<V> forWholeTuple(int tupleLength, int expectedSize) {
+        int[] positions = new int[tupleLength];
+        for (int i = 0; i < tupleLength; i++) {
+            positions[i] = i;
+        }
+        return new TupleIdIndex<>(positions, expectedSize);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(Object[] tuple) {
+        int slot = findSlot(tuple, hash(tuple));
+        int entry = slots[slot];
+        if (entry == 0) {
+            return null;
+        }
+        return (V) values[entry - 1];
+    }
+
+    /**
+     * Puts the value for the id of the given tuple, assuming there is no entry for the id yet.
+     *
+     * @param tuple The tuple
+     * @param value The value
+     */
+    public void put(Object[] tuple, V value) {
+        int hash = hash(tuple);
+        insert(findSlot(tuple, hash), hash, tuple, value);
+    }
+
+    /**
+     * Adds the given tuple to the index if no tuple with an equal id is contained yet.
+     *
+     * @param tuple The tuple
+     * @return Whether the tuple was added
+     */
+    public boolean add(Object[] tuple) {
+        int hash = hash(tuple);
+        int slot = findSlot(tuple, hash);
+        if (slots[slot] != 0) {
+            return false;
+        }
+        insert(slot, hash, tuple, null);
+        return true;
+    }
+
+    private void insert(int slot, int hash, Object[] tuple, V value) {
+        if (size == keys.length) {
+            grow();
+            slot = findSlot(tuple, hash);
+        }
+        hashes[size] = hash;
+        keys[size] = tuple;
+        values[size] = value;
+        size++;
+        slots[slot] = size;
+    }
+
+    private void grow() {
+        int capacity = keys.length << 1;
+        int[] newHashes = new int[capacity];
+        Object[][] newKeys = new Object[capacity][];
+        Object[] newValues = new Object[capacity];
+        System.arraycopy(hashes, 0, newHashes, 0, size);
+        System.arraycopy(keys, 0, newKeys, 0, size);
+        System.arraycopy(values, 0, newValues, 0, size);
+        hashes = newHashes;
+        keys = newKeys;
+        values = newValues;
+
+        int[] newSlots = new int[capacity << 1];
+        int mask = newSlots.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hashes[i] & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = i + 1;
+        }
+        slots = newSlots;
+    }
+
+    private int findSlot(Object[] tuple, int hash) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            if (hashes[entry - 1] == hash && idEquals(keys[entry - 1], tuple)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int hash(Object[] tuple) {
+        int result = 1;
+        for (int i = 0; i < idPositions.length; i++) {
+            result = 31 * result + TupleRest.elementHashCode(tuple[idPositions[i]]);
+        }
+        // Spread the higher bits since the slot is determined by the lower bits
+        return result ^ (result >>> 16);
+    }
+
+    private boolean idEquals(Object[] tuple1, Object[] tuple2) {
+        for (int i = 0; i < idPositions.length; i++) {
+            Object e1 = tuple1[idPositions[i]];
+            Object e2 = tuple2[idPositions[i]];
+            if (e1 == e2) {
+                continue;
+            }
+            if (e1 == null || e2 == null || !TupleRest.deepEquals0(e1, e2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -59,7 +59,7 @@ public class TupleRest {
         return hash;
     }
 
-    private static int elementHashCode(Object element) {
+    static int elementHashCode(Object element) {
         if (element instanceof Object[]) {
             return Arrays.deepHashCode((Object[]) element);
         } else if (element instanceof byte[]) {
@@ -171,7 +171,7 @@ public class TupleRest {
         return true;
     }
 
-    private static boolean deepEquals0(Object e1, Object e2) {
+    static boolean deepEquals0(Object e1, Object e2) {
         assert e1 != null;
         boolean eq;
         if (e1 instanceof Object[] && e2 instanceof Object[]) {
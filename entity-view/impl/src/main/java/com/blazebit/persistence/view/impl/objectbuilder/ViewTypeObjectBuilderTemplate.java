@@ -20,14 +20,15 @@ import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.ParameterHolder;
 import com.blazebit.persistence.parser.EntityMetamodel;
+import com.blazebit.persistence.parser.SimpleQueryGenerator;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
-import com.blazebit.persistence.view.CorrelationProvider;
 import com.blazebit.persistence.view.FetchStrategy;
 import com.blazebit.persistence.view.FlushMode;
 import com.blazebit.persistence.view.impl.CorrelationProviderFactory;
 import com.blazebit.persistence.view.impl.CorrelationProviderHelper;
 import com.blazebit.persistence.view.impl.EntityViewConfiguration;
 import com.blazebit.persistence.view.impl.EntityViewManagerImpl;
+import com.blazebit.persistence.view.impl.PrefixingQueryGenerator;
 import com.blazebit.persistence.view.impl.ScalarTargetResolvingExpressionVisitor;
 import com.blazebit.persistence.view.impl.SubqueryProviderFactory;
 import com.blazebit.persistence.view.impl.SubqueryProviderHelper;
@@ -38,6 +39,7 @@ import com.blazebit.persistence.view.impl.metamodel.ConstrainedAttribute;
 import com.blazebit.persistence.view.impl.metamodel.ManagedViewTypeImpl;
 import com.blazebit.persistence.view.impl.metamodel.ManagedViewTypeImplementor;
 import com.blazebit.persistence.view.impl.metamodel.MappingConstructorImpl;
+import com.blazebit.persistence.view.impl.metamodel.OrderByItem;
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.AliasExpressionSubqueryTupleElementMapper;
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.AliasExpressionTupleElementMapper;
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.AliasSubqueryTupleElementMapper;
@@ -45,10 +47,12 @@ import com.blazebit.persistence.view.impl.objectbuilder.mapper.ConstrainedTupleE
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.ExpressionCorrelationJoinTupleElementMapper;
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.ExpressionSubqueryTupleElementMapper;
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.ExpressionTupleElementMapper;
+import com.blazebit.persistence.view.impl.objectbuilder.mapper.MultisetCorrelationTupleElementMapper;
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.ParameterizedAliasExpressionSubqueryTupleElementMapper;
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.ParameterizedAliasSubqueryTupleElementMapper;
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.ParameterizedExpressionCorrelationJoinTupleElementMapper;
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.ParameterizedExpressionSubqueryTupleElementMapper;
+import com.blazebit.persistence.view.impl.objectbuilder.mapper.ParameterizedMultisetCorrelationTupleElementMapper;
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.ParameterizedSubqueryTupleElementMapper;
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.SimpleSubqueryTupleElementMapper;
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.TupleElementMapper;
@@ -57,14 +61,19 @@ import com.blazebit.persistence.view.impl.objectbuilder.mapper.TupleParameterMap
 import com.blazebit.persistence.view.impl.objectbuilder.transformator.TupleTransformatorFactory;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.CollectionTupleListTransformer;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.IndexedListTupleListTransformer;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.LimitedCollectionTupleListTransformer;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.MapTupleListTransformer;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.SubviewTupleTransformerFactory;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.BasicCorrelator;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.CorrelatedCollectionBatchTupleListTransformerFactory;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.CorrelatedCollectionMultisetTupleTransformerFactory;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.CorrelatedCollectionSubselectTupleListTransformerFactory;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.CorrelatedSingularBatchTupleListTransformerFactory;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.CorrelatedSingularSubselectTupleListTransformerFactory;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.CorrelatedSubviewJoinTupleTransformerFactory;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.LimitedCorrelationProviderFactory;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.Limiter;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.MultisetValueConverter;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.SubviewCorrelator;
 import com.blazebit.persistence.view.impl.proxy.AbstractReflectionInstantiator;
 import com.blazebit.persistence.view.impl.proxy.ConstructorReflectionInstantiator;
@@ -104,6 +113,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -125,6 +135,8 @@ public class ViewTypeObjectBuilderTemplate<T> {
     private final ObjectInstantiator<T> objectInstantiator;
     private final ObjectInstantiator<T>[] subtypeInstantiators;
     private final TupleElementMapper[] mappers;
+    // The tuple positions of the constructor arguments relative to the tuple offset or null if they aren't statically known
+    private final int[] attributePositions;
     private final TupleParameterMapper parameterMapper;
     private final int effectiveTupleSize;
     private final boolean hasId;
@@ -207,6 +219,10 @@ public class ViewTypeObjectBuilderTemplate<T> {
         List<AbstractReflectionInstantiator.MutableBasicUserTypeEntry> mutableBasicUserTypes = new ArrayList<>();
         List<AbstractReflectionInstantiator.TypeConverterEntry> typeConverterEntries = new ArrayList<>();
         int initialStateIndex = 0;
+        int[] attributePositions = new int[attributeCount];
+        int attributePositionIndex = 0;
+        // With subtypes or case when constraints, the tuple positions depend on the subtype, so we have to reduce the tuples dynamically
+        boolean staticTupleLayout = !inheritanceSubtypeConfiguration.hasSubtypes();
 
         // Add inheritance type extraction
         if (inheritanceSubtypeConfiguration.hasSubtypes()) {
@@ -219,6 +235,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
             MappingAttribute<? super T, ?> mappingAttribute = (MappingAttribute<? super T, ?>) idAttribute;
 
             parameterTypes.add(idAttribute.getConvertedJavaType());
+            attributePositions[attributePositionIndex++] = mappingList.size();
 
             // An id mapping can only be basic or a flat subview
             if (idAttribute.isSubview()) {
@@ -235,6 +252,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
             ConstrainedAttribute<AbstractMethodAttribute<? super T, ?>> constrainedAttribute = attributeEntry.getValue();
             parameterTypes.add(constrainedAttribute.getAttribute().getConvertedJavaType());
             if (constrainedAttribute.requiresCaseWhen()) {
+                staticTupleLayout = false;
                 // Collect all mappers for all constraints
                 List<Map.Entry<String, TupleElementMapperBuilder>> builders = new ArrayList<>(constrainedAttribute.getSelectionConstrainedAttributes().size());
                 for (Map.Entry<String, AbstractMethodAttribute<? super T, ?>> entry : constrainedAttribute.getSelectionConstrainedAttributes()) {
@@ -290,6 +308,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
 
                 EntityType<?> treatType = getTreatType(metamodel, managedViewType, attribute.getDeclaringType());
                 TupleElementMapperBuilder mapperBuilder = new TupleElementMapperBuilder(0, null, aliasPrefix, mappingPrefix, idPrefix, treatType, metamodel, ef, mappingList, parameterMappingList, tupleTransformatorFactory);
+                attributePositions[attributePositionIndex++] = mappingList.size();
                 applyMapping(attribute, attributePath, mapperBuilder, featuresFound);
             }
         }
@@ -312,6 +331,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
                 paramAliasPrefix = aliasPrefix + "_" + (++subtypeIndex) + "_" + lastConstructor.getDeclaringType().getJavaType().getSimpleName();
             }
             parameterTypes.add(parameterAttribute.getConvertedJavaType());
+            attributePositions[attributePositionIndex++] = mappingList.size();
             EntityType<?> treatType = getTreatType(metamodel, managedViewType, parameterAttribute.getDeclaringType());
             TupleElementMapperBuilder mapperBuilder = new TupleElementMapperBuilder(0, null, paramAliasPrefix, mappingPrefix, idPrefix, treatType, metamodel, ef, mappingList, parameterMappingList, tupleTransformatorFactory);
             applyMapping((AbstractAttribute<?, ?>) parameterAttribute, attributePath, mapperBuilder, featuresFound);
@@ -346,6 +366,11 @@ public class ViewTypeObjectBuilderTemplate<T> {
         this.subtypeInstantiators = subtypeInstantiators.toArray(new ObjectInstantiator[subtypeInstantiators.size()]);
         this.effectiveTupleSize = attributeCount;
         this.mappers = mappingList.toArray(new TupleElementMapper[mappingList.size()]);
+        if (staticTupleLayout && attributePositionIndex == attributeCount && evm.isPositionalObjectBuilder()) {
+            this.attributePositions = attributePositions;
+        } else {
+            this.attributePositions = null;
+        }
         this.parameterMapper = new TupleParameterMapper(parameterMappingList, tupleOffset);
         this.tupleTransformatorFactory = tupleTransformatorFactory;
     }
@@ -493,7 +518,8 @@ public class ViewTypeObjectBuilderTemplate<T> {
                         newIdPositions = idPositions;
                     }
 
-                    if (pluralAttribute.isCorrelated() || pluralAttribute.getFetchStrategy() != FetchStrategy.JOIN) {
+                    // Limited collections are always correlated
+                    if (pluralAttribute.isCorrelated() || pluralAttribute.getFetchStrategy() != FetchStrategy.JOIN || attribute.getLimit() != -1) {
                         ManagedViewTypeImplementor<Object> managedViewType = (ManagedViewTypeImplementor<Object>) pluralAttribute.getElementType();
                         applyCorrelatedSubviewMapping(attribute, attributePath, newIdPositions, (ManagedViewTypeImplementor<Object[]>) (ManagedViewTypeImplementor<?>) managedViewType, mapperBuilder, batchSize);
                     } else {
@@ -505,7 +531,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
                     MappingAttribute<? super T, ?> mappingAttribute = (MappingAttribute<? super T, ?>) attribute;
                     applyCollectionFunctionMapping("VALUE", "", mappingAttribute, mapperBuilder, mappingAttribute.getFetches());
                 } else {
-                    if (pluralAttribute.isCorrelated() || pluralAttribute.getFetchStrategy() != FetchStrategy.JOIN) {
+                    if (pluralAttribute.isCorrelated() || pluralAttribute.getFetchStrategy() != FetchStrategy.JOIN || attribute.getLimit() != -1) {
                         applyBasicCorrelatedMapping(attribute, attributePath, mapperBuilder, batchSize);
                     } else {
                         MappingAttribute<? super T, ?> mappingAttribute = (MappingAttribute<? super T, ?>) attribute;
@@ -513,6 +539,22 @@ public class ViewTypeObjectBuilderTemplate<T> {
                     }
                 }
 
+                List<OrderByItem> limitOrder = null;
+                int limitOrderStartIndex = -1;
+                if (attribute.getLimit() != -1 && pluralAttribute.getFetchStrategy() == FetchStrategy.JOIN) {
+                    // The elements of joined limited collections are sorted by the order keys of the limit after the tuples are grouped
+                    featuresFound[FEATURE_INDEXED_COLLECTIONS] = true;
+                    limitOrder = createLimiter(attribute, attributePath).getOrderBy();
+                    limitOrderStartIndex = tupleOffset + mapperBuilder.mapperIndex();
+                    if (evm.getCriteriaBuilderFactory().getRegisteredFunctions().containsKey("rank")) {
+                        // Let the database rank the rows so that the element order follows its collation rather than Comparable
+                        limitOrder = Collections.singletonList(new OrderByItem(createRankExpression(limitOrder), true, false));
+                    }
+                    for (OrderByItem orderByItem : limitOrder) {
+                        mapperBuilder.addMapper(createMapper(orderByItem.getExpression(), EMPTY));
+                    }
+                }
+
                 boolean dirtyTracking = pluralAttribute instanceof MethodAttribute<?, ?> && attribute.needsDirtyTracker();
                 if (listKey) {
                     if (pluralAttribute.isSorted()) {
@@ -541,7 +583,11 @@ public class ViewTypeObjectBuilderTemplate<T> {
                         default:
                             throw new IllegalArgumentException("Unknown collection type: " + pluralAttribute.getCollectionType());
                     }
-                    mapperBuilder.setTupleListTransformer(new CollectionTupleListTransformer(idPositions, startIndex, attribute.getCollectionInstantiator(), dirtyTracking, valueConverter));
+                    if (limitOrder == null) {
+                        mapperBuilder.setTupleListTransformer(new CollectionTupleListTransformer(idPositions, startIndex, attribute.getCollectionInstantiator(), dirtyTracking, valueConverter));
+                    } else {
+                        mapperBuilder.setTupleListTransformer(new LimitedCollectionTupleListTransformer(idPositions, startIndex, limitOrderStartIndex, limitOrder, attribute.getCollectionInstantiator(), dirtyTracking, valueConverter));
+                    }
                 }
             } else if (attribute.isQueryParameter()) {
                 MappingAttribute<? super T, ?> mappingAttribute = (MappingAttribute<? super T, ?>) attribute;
@@ -629,11 +675,12 @@ public class ViewTypeObjectBuilderTemplate<T> {
 
     @SuppressWarnings("unchecked")
     private void applyCorrelatedSubviewMapping(AbstractAttribute<?, ?> attribute, String attributePath, int[] idPositions, ManagedViewTypeImplementor<Object[]> managedViewType, TupleElementMapperBuilder mapperBuilder, int batchSize) {
+        // Correlations without entities in the result may use a separate entity manager for fetching concurrently
+        boolean detachable = !containsEntities(attribute);
         String correlationResult = attribute.getCorrelationResult();
-        Class<? extends CorrelationProvider> correlationProvider = attribute.getCorrelationProvider();
         String correlationBasis = attribute.getCorrelationBasis();
         String subviewAttributePath = getAttributePath(attributePath, attribute, false);
-        CorrelationProviderFactory factory = CorrelationProviderHelper.getFactory(correlationProvider);
+        CorrelationProviderFactory factory = getCorrelationProviderFactory(attribute, attributePath);
 
         if (attribute.getFetchStrategy() == FetchStrategy.JOIN) {
             @SuppressWarnings("unchecked")
@@ -711,12 +758,12 @@ public class ViewTypeObjectBuilderTemplate<T> {
                         viewRoot, correlationResult, factory, attributePath, attribute.getFetches(), startIndex, batchSize, correlationBasisType, correlationBasisEntity,
                         attribute.getCollectionInstantiator(),
                         !attribute.isCorrelated()
-                ));
+                ), detachable);
             } else {
                 mapperBuilder.setTupleListTransformerFactory(new CorrelatedSingularBatchTupleListTransformerFactory(
                         new SubviewCorrelator(managedViewType, getSubviewMappingConstructor(managedViewType), evm, subviewAliasPrefix),
                         viewRoot, correlationResult, factory, attributePath, attribute.getFetches(), startIndex, batchSize, correlationBasisType, correlationBasisEntity
-                ));
+                ), detachable);
             }
         } else if (attribute.getFetchStrategy() == FetchStrategy.SUBSELECT) {
             String subviewAliasPrefix = mapperBuilder.getAlias(attribute, false);
@@ -753,13 +800,15 @@ public class ViewTypeObjectBuilderTemplate<T> {
                         viewRoot, viewRootAlias, correlationResult, correlationKeyExpression, factory, attributePath, attribute.getFetches(), startIndex, correlationBasisType, correlationBasisEntity,
                         attribute.getCollectionInstantiator(),
                         !attribute.isCorrelated()
-                ));
+                ), detachable);
             } else {
                 mapperBuilder.setTupleListTransformerFactory(new CorrelatedSingularSubselectTupleListTransformerFactory(
                         new SubviewCorrelator(managedViewType, getSubviewMappingConstructor(managedViewType), evm, subviewAliasPrefix),
                         viewRoot, viewRootAlias, correlationResult, correlationKeyExpression, factory, attributePath, attribute.getFetches(), startIndex, correlationBasisType, correlationBasisEntity
-                ));
+                ), detachable);
             }
+        } else if (attribute.getFetchStrategy() == FetchStrategy.MULTISET) {
+            applyMultisetCorrelatedMapping(attribute, attributePath, mapperBuilder, managedViewType);
         } else {
             throw new UnsupportedOperationException("Unknown fetch strategy: " + attribute.getFetchStrategy());
         }
@@ -828,12 +877,12 @@ public class ViewTypeObjectBuilderTemplate<T> {
     }
 
     private void applyBasicCorrelatedMapping(AbstractAttribute<?, ?> attribute, String attributePath, TupleElementMapperBuilder mapperBuilder, int batchSize) {
+        // Correlations without entities in the result may use a separate entity manager for fetching concurrently
+        boolean detachable = !containsEntities(attribute);
         String correlationResult = attribute.getCorrelationResult();
-        Class<? extends CorrelationProvider> correlationProvider = attribute.getCorrelationProvider();
         String correlationBasis = attribute.getCorrelationBasis();
         if (attribute.getFetchStrategy() == FetchStrategy.JOIN) {
-            @SuppressWarnings("unchecked")
-            CorrelationProviderFactory factory = CorrelationProviderHelper.getFactory(correlationProvider);
+            CorrelationProviderFactory factory = getCorrelationProviderFactory(attribute, attributePath);
             String alias = mapperBuilder.getAlias(attribute, false);
             correlationBasis = mapperBuilder.getMapping(AbstractAttribute.stripThisFromMapping(correlationBasis));
 
@@ -853,7 +902,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
 
             mapperBuilder.addMapper(createMapper(correlationKeyExpression, subviewAliasPrefix, attribute.getFetches()));
 
-            CorrelationProviderFactory factory = CorrelationProviderHelper.getFactory(correlationProvider);
+            CorrelationProviderFactory factory = getCorrelationProviderFactory(attribute, attributePath);
 
             if (batchSize == -1) {
                 batchSize = 1;
@@ -884,13 +933,13 @@ public class ViewTypeObjectBuilderTemplate<T> {
                         viewRoot, correlationResult, factory, attributePath, attribute.getFetches(), startIndex, batchSize, correlationBasisType, correlationBasisEntity,
                         attribute.getCollectionInstantiator(),
                         !attribute.isCorrelated()
-                ));
+                ), detachable);
             } else {
                 // TODO: shouldn't we embed this query no matter what strategy is used?
                 mapperBuilder.setTupleListTransformerFactory(new CorrelatedSingularBatchTupleListTransformerFactory(
                         new BasicCorrelator(),
                         viewRoot, correlationResult, factory, attributePath, attribute.getFetches(), startIndex, batchSize, correlationBasisType, correlationBasisEntity
-                ));
+                ), detachable);
             }
         } else if (attribute.getFetchStrategy() == FetchStrategy.SUBSELECT) {
             String subviewAliasPrefix = mapperBuilder.getAlias(attribute, false);
@@ -901,7 +950,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
 
             mapperBuilder.addMapper(createMapper(correlationKeyExpression, subviewAliasPrefix, attribute.getFetches()));
 
-            CorrelationProviderFactory factory = CorrelationProviderHelper.getFactory(correlationProvider);
+            CorrelationProviderFactory factory = getCorrelationProviderFactory(attribute, attributePath);
 
             if (attribute.isCollection()) {
                 PluralAttribute<?, ?, ?> pluralAttribute = (PluralAttribute<?, ?, ?>) attribute;
@@ -928,18 +977,197 @@ public class ViewTypeObjectBuilderTemplate<T> {
                         viewRoot, viewRootAlias, correlationResult, correlationKeyExpression, factory, attributePath, attribute.getFetches(), startIndex, correlationBasisType, correlationBasisEntity,
                         attribute.getCollectionInstantiator(),
                         !attribute.isCorrelated()
-                ));
+                ), detachable);
             } else {
                 mapperBuilder.setTupleListTransformerFactory(new CorrelatedSingularSubselectTupleListTransformerFactory(
                         new BasicCorrelator(),
                         viewRoot, viewRootAlias, correlationResult, correlationKeyExpression, factory, attributePath, attribute.getFetches(), startIndex, correlationBasisType, correlationBasisEntity
-                ));
+                ), detachable);
             }
+        } else if (attribute.getFetchStrategy() == FetchStrategy.MULTISET) {
+            applyMultisetCorrelatedMapping(attribute, attributePath, mapperBuilder, null);
         } else {
             throw new UnsupportedOperationException("Unknown fetch strategy: " + attribute.getFetchStrategy());
         }
     }
 
+    private CorrelationProviderFactory getCorrelationProviderFactory(AbstractAttribute<?, ?> attribute, String attributePath) {
+        CorrelationProviderFactory factory = CorrelationProviderHelper.getFactory(attribute.getCorrelationProvider());
+        if (attribute.getLimit() == -1) {
+            return factory;
+        }
+        return new LimitedCorrelationProviderFactory(factory, createLimiter(attribute, attributePath));
+    }
+
+    private Limiter createLimiter(AbstractAttribute<?, ?> attribute, String attributePath) {
+        return new Limiter(ef, CorrelationProviderHelper.getDefaultCorrelationAlias(attributePath), attribute.getLimit(), attribute.getOffset(), attribute.getLimitOrder());
+    }
+
+    private static String createRankExpression(List<OrderByItem> orderBy) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("FUNCTION('RANK', 'ORDER BY'");
+        for (OrderByItem orderByItem : orderBy) {
+            sb.append(", ").append(orderByItem.getExpression()).append(", '");
+            sb.append(orderByItem.isAscending() ? "ASC" : "DESC");
+            sb.append(orderByItem.isNullsFirst() ? " NULLS FIRST'" : " NULLS LAST'");
+        }
+        sb.append(')');
+        return sb.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void applyMultisetCorrelatedMapping(AbstractAttribute<?, ?> attribute, String attributePath, TupleElementMapperBuilder mapperBuilder, ManagedViewTypeImplementor<Object[]> managedViewType) {
+        // The metamodel validation ensures that the attribute is an unordered collection
+        PluralAttribute<?, ?, ?> pluralAttribute = (PluralAttribute<?, ?, ?>) attribute;
+        String alias = mapperBuilder.getAlias(attribute, false);
+        int startIndex = tupleOffset + mapperBuilder.mapperIndex();
+        String correlationBasis = mapperBuilder.getMapping(AbstractAttribute.stripThisFromMapping(attribute.getCorrelationBasis()));
+        String correlationAlias = CorrelationProviderHelper.getDefaultCorrelationAlias(attributePath);
+        String correlationResult = getMultisetCorrelationResult(correlationAlias, attribute.getCorrelationResult());
+        String[] expressions;
+        MultisetValueConverter[] valueConverters;
+        ViewTypeObjectBuilderTemplate<Object[]> template;
+
+        if (managedViewType == null) {
+            valueConverters = new MultisetValueConverter[]{ getMultisetValueConverter(attribute, attribute, pluralAttribute.getElementType()) };
+            expressions = new String[]{ correlationResult };
+            template = null;
+        } else {
+            Map<ManagedViewTypeImplementor<? extends Object[]>, String> inheritanceSubtypeMappings = (Map<ManagedViewTypeImplementor<? extends Object[]>, String>) (Map<?, ?>) pluralAttribute.getElementInheritanceSubtypeMappings();
+            int[] subviewIdPositions = managedViewType instanceof ViewType<?> ? new int[]{ 0 } : new int[0];
+            template = new ViewTypeObjectBuilderTemplate<Object[]>(viewRoot, viewRootAlias, attributePath, alias, correlationResult, correlationResult, subviewIdPositions,
+                    0, inheritanceSubtypeMappings, evm, ef, managedViewType, getSubviewMappingConstructor(managedViewType), proxyFactory);
+            valueConverters = getMultisetValueConverters(attribute, managedViewType, inheritanceSubtypeMappings);
+            if (valueConverters.length != template.mappers.length || template.hasParameters || template.tupleTransformatorFactory.hasTransformers()) {
+                throw new IllegalArgumentException("The fetch strategy MULTISET of the attribute '" + attribute + "' is only supported for subviews with basic attributes!");
+            }
+
+            expressions = new String[template.mappers.length];
+            for (int i = 0; i < expressions.length; i++) {
+                if (!(template.mappers[i] instanceof ExpressionTupleElementMapper)) {
+                    throw new IllegalArgumentException("The fetch strategy MULTISET of the attribute '" + attribute + "' is only supported for subviews with basic attributes!");
+                }
+                expressions[i] = ((ExpressionTupleElementMapper) template.mappers[i]).getExpression();
+            }
+        }
+
+        CorrelationProviderFactory factory = CorrelationProviderHelper.getFactory(attribute.getCorrelationProvider());
+        if (factory.isParameterized()) {
+            mapperBuilder.addMapper(new ParameterizedMultisetCorrelationTupleElementMapper(factory, correlationBasis, correlationAlias, expressions, alias));
+        } else {
+            mapperBuilder.addMapper(new MultisetCorrelationTupleElementMapper(factory.create(null, null), correlationBasis, correlationAlias, expressions, alias));
+        }
+        mapperBuilder.addTupleTransformerFactory(new CorrelatedCollectionMultisetTupleTransformerFactory(startIndex, valueConverters, template, attribute.getCollectionInstantiator(), !attribute.isCorrelated()));
+    }
+
+    private String getMultisetCorrelationResult(String correlationAlias, String correlationResult) {
+        if (correlationResult.isEmpty()) {
+            return correlationAlias;
+        }
+
+        StringBuilder sb = new StringBuilder(correlationAlias.length() + correlationResult.length() + 1);
+        SimpleQueryGenerator generator = new PrefixingQueryGenerator(Collections.singletonList(correlationAlias));
+        generator.setQueryBuffer(sb);
+        ef.createSimpleExpression(correlationResult, false).accept(generator);
+        return sb.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private MultisetValueConverter[] getMultisetValueConverters(AbstractAttribute<?, ?> attribute, ManagedViewTypeImplementor<Object[]> managedViewType, Map<ManagedViewTypeImplementor<? extends Object[]>, String> inheritanceSubtypeMappings) {
+        ManagedViewTypeImpl.InheritanceSubtypeConfiguration<Object[]> inheritanceSubtypeConfiguration = managedViewType.getInheritanceSubtypeConfiguration(inheritanceSubtypeMappings);
+        if (inheritanceSubtypeConfiguration.hasSubtypes()) {
+            throw new IllegalArgumentException("The fetch strategy MULTISET of the attribute '" + attribute + "' is not supported for subviews with inheritance!");
+        }
+
+        // The order must match the order in which the template creates the tuple element mappers
+        List<MultisetValueConverter> valueConverters = new ArrayList<>();
+        Map<ManagedViewTypeImpl.AttributeKey, ConstrainedAttribute<AbstractMethodAttribute<? super Object[], ?>>> attributeMap = new LinkedHashMap<>(inheritanceSubtypeConfiguration.getAttributesClosure());
+        if (managedViewType instanceof ViewType<?>) {
+            MethodAttribute<?, ?> idAttribute = ((ViewType<?>) managedViewType).getIdAttribute();
+            attributeMap.remove(new ManagedViewTypeImpl.AttributeKey(0, idAttribute.getName()));
+            valueConverters.add(getMultisetValueConverter(attribute, idAttribute, null));
+        }
+        for (ConstrainedAttribute<AbstractMethodAttribute<? super Object[], ?>> constrainedAttribute : attributeMap.values()) {
+            if (constrainedAttribute.requiresCaseWhen()) {
+                throw new IllegalArgumentException("The fetch strategy MULTISET of the attribute '" + attribute + "' is not supported for subviews with inheritance!");
+            }
+            valueConverters.add(getMultisetValueConverter(attribute, constrainedAttribute.getAttribute(), null));
+        }
+
+        MappingConstructorImpl<Object[]> mappingConstructor = getSubviewMappingConstructor(managedViewType);
+        if (mappingConstructor == null && managedViewType.getConstructors().size() == 1) {
+            mappingConstructor = (MappingConstructorImpl<Object[]>) managedViewType.getConstructors().iterator().next();
+        }
+        if (mappingConstructor != null) {
+            for (AbstractParameterAttribute<? super Object[], ?> parameterAttribute : mappingConstructor.getSubtypeConstructorConfiguration(inheritanceSubtypeMappings).getParameterAttributesClosure()) {
+                valueConverters.add(getMultisetValueConverter(attribute, parameterAttribute, null));
+            }
+        }
+
+        return valueConverters.toArray(new MultisetValueConverter[valueConverters.size()]);
+    }
+
+    private MultisetValueConverter getMultisetValueConverter(AbstractAttribute<?, ?> attribute, Attribute<?, ?> valueAttribute, Type<?> elementType) {
+        Type<?> type;
+        if (elementType != null) {
+            type = elementType;
+        } else {
+            if (valueAttribute.isCollection() || valueAttribute.isSubview() || valueAttribute.isSubquery() || valueAttribute.isCorrelated()
+                    || valueAttribute.getMappingType() != Attribute.MappingType.BASIC) {
+                throw new IllegalArgumentException("The fetch strategy MULTISET of the attribute '" + attribute + "' is only supported for subviews with basic attributes but found the attribute '" + valueAttribute + "'!");
+            }
+            type = ((SingularAttribute<?, ?>) valueAttribute).getType();
+        }
+
+        MultisetValueConverter valueConverter = MultisetValueConverter.forType(type.getJavaType());
+        if (valueConverter == null || type.getConverter() != null) {
+            throw new IllegalArgumentException("The fetch strategy MULTISET of the attribute '" + attribute + "' does not support the type '" + type.getJavaType().getName() + "' of the attribute '" + valueAttribute + "'!");
+        }
+        return valueConverter;
+    }
+
+    private boolean containsEntities(Attribute<?, ?> attribute) {
+        return containsEntities(attribute, new HashSet<ManagedViewType<?>>());
+    }
+
+    private boolean containsEntities(Attribute<?, ?> attribute, Set<ManagedViewType<?>> visitedTypes) {
+        if (attribute instanceof MapAttribute<?, ?, ?> && containsEntities(((MapAttribute<?, ?, ?>) attribute).getKeyType(), visitedTypes)) {
+            return true;
+        }
+        if (attribute instanceof PluralAttribute<?, ?, ?>) {
+            return containsEntities(((PluralAttribute<?, ?, ?>) attribute).getElementType(), visitedTypes);
+        }
+        return containsEntities(((SingularAttribute<?, ?>) attribute).getType(), visitedTypes);
+    }
+
+    private boolean containsEntities(Type<?> type, Set<ManagedViewType<?>> visitedTypes) {
+        if (!(type instanceof ManagedViewType<?>)) {
+            return evm.getMetamodel().getEntityMetamodel().getManagedType(type.getJavaType()) != null;
+        }
+        ManagedViewType<?> viewType = (ManagedViewType<?>) type;
+        if (!visitedTypes.add(viewType)) {
+            return false;
+        }
+        for (MethodAttribute<?, ?> attribute : viewType.getAttributes()) {
+            if (containsEntities(attribute, visitedTypes)) {
+                return true;
+            }
+        }
+        for (MappingConstructor<?> constructor : viewType.getConstructors()) {
+            for (ParameterAttribute<?, ?> parameterAttribute : constructor.getParameterAttributes()) {
+                if (containsEntities(parameterAttribute, visitedTypes)) {
+                    return true;
+                }
+            }
+        }
+        for (ManagedViewType<?> subtype : viewType.getInheritanceSubtypes()) {
+            if (containsEntities(subtype, visitedTypes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private Class<?> getCorrelationBasisType(String correlationBasis) {
         if (correlationBasis.isEmpty()) {
             return managedTypeClass;
@@ -1005,12 +1233,19 @@ public class ViewTypeObjectBuilderTemplate<T> {
         boolean hasOffset = tupleOffset != 0;
         ObjectBuilder<T> result;
 
-        result = new ViewTypeObjectBuilder<T>(this, parameterHolder, optionalParameters, nullIfEmpty);
-
         if (hasSubtypes) {
+            result = new ViewTypeObjectBuilder<T>(this, parameterHolder, optionalParameters, nullIfEmpty);
             result = new InheritanceReducerViewTypeObjectBuilder<>(result, tupleOffset, mappers.length, !isSubview && tupleOffset > 0, subtypeInstantiators);
         } else if (hasOffset || isSubview || hasIndexedCollections || hasSubviews) {
-            result = new ReducerViewTypeObjectBuilder<T>(result, tupleOffset, mappers.length, !isSubview && tupleOffset > 0);
+            if (attributePositions == null) {
+                result = new ViewTypeObjectBuilder<T>(this, parameterHolder, optionalParameters, nullIfEmpty);
+                result = new ReducerViewTypeObjectBuilder<T>(result, tupleOffset, mappers.length, !isSubview && tupleOffset > 0);
+            } else {
+                // Read the constructor arguments directly from the known tuple positions instead of filtering consumed elements
+                result = new PositionalViewTypeObjectBuilder<T>(this, parameterHolder, optionalParameters, nullIfEmpty, !isSubview && tupleOffset > 0);
+            }
+        } else {
+            result = new ViewTypeObjectBuilder<T>(this, parameterHolder, optionalParameters, nullIfEmpty);
         }
 
         if (hasParameters) {
@@ -1018,7 +1253,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
         }
 
         if (tupleTransformatorFactory.hasTransformers() && !isSubview) {
-            result = new ChainingObjectBuilder<T>(tupleTransformatorFactory, result, parameterHolder, optionalParameters, entityViewConfiguration, tupleOffset);
+            result = new ChainingObjectBuilder<T>(tupleTransformatorFactory, result, parameterHolder, optionalParameters, entityViewConfiguration, idPositions, tupleOffset);
         }
 
         return result;
@@ -1040,6 +1275,10 @@ public class ViewTypeObjectBuilderTemplate<T> {
         return mappers;
     }
 
+    public int[] getAttributePositions() {
+        return attributePositions;
+    }
+
     public TupleParameterMapper getParameterMapper() {
         return parameterMapper;
     }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder.mapper;
+
+import com.blazebit.persistence.FullQueryBuilder;
+import com.blazebit.persistence.SelectBuilder;
+import com.blazebit.persistence.SubqueryInitiator;
+import com.blazebit.persistence.view.CorrelationProvider;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.MultisetCorrelationBuilder;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public abstract class AbstractMultisetCorrelationTupleElementMapper implements TupleElementMapper {
+
+    public static final String FUNCTION_NAME = "to_multiset";
+
+    protected final String correlationBasis;
+    protected final String correlationAlias;
+    protected final String multisetExpression;
+    protected final String alias;
+
+    public AbstractMultisetCorrelationTupleElementMapper(String correlationBasis, String correlationAlias, String[] expressions, String alias) {
+        this.correlationBasis = correlationBasis;
+        this.correlationAlias = correlationAlias;
+        this.alias = alias;
+        StringBuilder sb = new StringBuilder();
+        sb.append("FUNCTION('").append(FUNCTION_NAME).append('\'');
+        for (int i = 0; i < expressions.length; i++) {
+            sb.append(", ");
+            sb.append(expressions[i]);
+        }
+        sb.append(')');
+        this.multisetExpression = sb.toString();
+    }
+
+    protected void applyCorrelation(SelectBuilder<?> queryBuilder, CorrelationProvider provider) {
+        SubqueryInitiator<?> subqueryInitiator;
+        if (alias == null) {
+            subqueryInitiator = queryBuilder.selectSubquery();
+        } else {
+            subqueryInitiator = queryBuilder.selectSubquery(alias);
+        }
+
+        MultisetCorrelationBuilder correlationBuilder = new MultisetCorrelationBuilder((FullQueryBuilder<?, ?>) queryBuilder, subqueryInitiator, correlationAlias);
+        provider.applyCorrelation(correlationBuilder, correlationBasis);
+        correlationBuilder.finish(multisetExpression);
+    }
+
+}
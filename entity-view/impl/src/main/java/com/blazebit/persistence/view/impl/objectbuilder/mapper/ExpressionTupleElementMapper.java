@@ -44,6 +44,10 @@ public class ExpressionTupleElementMapper implements TupleElementMapper {
         this.fetches = fetches;
     }
 
+    public String getExpression() {
+        return expression;
+    }
+
     @Override
     public void applyMapping(SelectBuilder<?> queryBuilder, ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters) {
         queryBuilder.select(expression);
@@ -226,8 +226,8 @@ public class TupleElementMapperBuilder {
         tupleTransformatorFactory.add(tupleListTransformer);
     }
 
-    public void setTupleListTransformerFactory(TupleListTransformerFactory tupleListTransformerFactory) {
-        tupleTransformatorFactory.add(tupleListTransformerFactory);
+    public void setTupleListTransformerFactory(TupleListTransformerFactory tupleListTransformerFactory, boolean detachable) {
+        tupleTransformatorFactory.add(tupleListTransformerFactory, detachable);
     }
 
     public void addTupleTransformerFactory(TupleTransformerFactory tupleTransformerFactory) {
@@ -16,10 +16,19 @@
 
 package com.blazebit.persistence.view.impl.objectbuilder.transformator;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
-import com.blazebit.persistence.view.impl.objectbuilder.TupleRest;
+import javax.persistence.EntityManager;
+
+import com.blazebit.persistence.view.impl.EntityViewConfiguration;
+import com.blazebit.persistence.view.impl.objectbuilder.TupleIdIndex;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleListTransformer;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleListTransformerFactory;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleTransformer;
 
 /**
@@ -29,9 +38,13 @@ import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleTransfo
 public class TupleTransformator {
 
     private final List<TupleTransformatorLevel> transformatorLevels;
+    private final Map<String, Object> optionalParameters;
+    private final EntityViewConfiguration entityViewConfiguration;
 
-    public TupleTransformator(List<TupleTransformatorLevel> transformatorLevels) {
+    public TupleTransformator(List<TupleTransformatorLevel> transformatorLevels, Map<String, Object> optionalParameters, EntityViewConfiguration entityViewConfiguration) {
         this.transformatorLevels = transformatorLevels;
+        this.optionalParameters = optionalParameters;
+        this.entityViewConfiguration = entityViewConfiguration;
     }
 
     public List<Object[]> transformAll(List<Object[]> tupleList) {
@@ -39,37 +52,40 @@ public class TupleTransformator {
         UpdatableViewMap updatableViewMap = new UpdatableViewMap();
 
         // Performance optimization
-        // LinkedList can remove elements from the list very fast
-        // This is important because transformers avoid copying of tuples and instead remove elements from the tupleList
-        if (tupleList instanceof LinkedList<?>) {
+        // Transformers avoid copying of tuples and instead replace removed elements in the tupleList with null
+        // An ArrayList allows that without allocating a node per tuple and the nulls are compacted after every level
+        if (tupleList instanceof ArrayList<?>) {
             newTupleList = tupleList;
         } else {
-            newTupleList = new LinkedList<Object[]>(tupleList);
+            newTupleList = new ArrayList<Object[]>(tupleList);
         }
 
         for (int i = 0; i < transformatorLevels.size(); i++) {
             if (!transformatorLevels.get(i).tupleTransformers.isEmpty()) {
-                ListIterator<Object[]> newTupleListIter = newTupleList.listIterator();
-
-                while (newTupleListIter.hasNext()) {
-                    Object[] tuple = newTupleListIter.next();
-                    newTupleListIter.set(transform(i, tuple, updatableViewMap));
+                for (int j = 0; j < newTupleList.size(); j++) {
+                    newTupleList.set(j, transform(i, newTupleList.get(j), updatableViewMap));
                 }
             }
-            newTupleList = transform(i, newTupleList);
+            int concurrentLevelsEnd = getConcurrentLevelsEnd(i);
+            if (concurrentLevelsEnd > i + 1) {
+                transformConcurrently(i, concurrentLevelsEnd, newTupleList);
+                i = concurrentLevelsEnd - 1;
+            } else {
+                newTupleList = transform(i, newTupleList);
+            }
         }
 
         // if we have multiple levels, we must filter duplicates afterwards
-        if (transformatorLevels.size() > 1) {
-            Set<TupleRest> tupleSet = new HashSet<>(newTupleList.size());
+        if (transformatorLevels.size() > 1 && !newTupleList.isEmpty()) {
+            int size = newTupleList.size();
+            TupleIdIndex<Object> tupleIndex = TupleIdIndex.forWholeTuple(newTupleList.get(0).length, size);
 
-            Iterator<Object[]> tupleListIter = newTupleList.iterator();
-
-            while (tupleListIter.hasNext()) {
-                if (!tupleSet.add(new TupleRest(tupleListIter.next(), 0, 0))) {
-                    tupleListIter.remove();
+            for (int i = 0; i < size; i++) {
+                if (!tupleIndex.add(newTupleList.get(i))) {
+                    newTupleList.set(i, null);
                 }
             }
+            compact(newTupleList);
         }
 
         return newTupleList;
@@ -89,6 +105,122 @@ public class TupleTransformator {
         if (tupleListTransformer == null) {
             return tupleList;
         }
-        return tupleListTransformer.transform(tupleList);
+        List<Object[]> newTupleList = tupleListTransformer.transform(tupleList);
+        compact(newTupleList);
+        return newTupleList;
+    }
+
+    private int getConcurrentLevelsEnd(int level) {
+        int end = level + 1;
+        while (end < transformatorLevels.size() && transformatorLevels.get(end).concurrentTupleListTransformerFactory != null) {
+            end++;
+        }
+        return end;
+    }
+
+    private void transformConcurrently(int startLevel, int endLevel, List<Object[]> tupleList) {
+        // The calling thread transforms the first level with the original entity manager, the other levels are transformed by the executor
+        List<FutureTask<Object>> tasks = new ArrayList<>(endLevel - startLevel - 1);
+        try {
+            for (int i = startLevel + 1; i < endLevel; i++) {
+                FutureTask<Object> task = new FutureTask<>(createCorrelationTask(transformatorLevels.get(i).concurrentTupleListTransformerFactory, tupleList), null);
+                tasks.add(task);
+                try {
+                    entityViewConfiguration.getCorrelationExecutor().execute(task);
+                } catch (RejectedExecutionException ex) {
+                    task.run();
+                }
+            }
+
+            transformatorLevels.get(startLevel).tupleListTransformer.transform(tupleList);
+        } finally {
+            awaitAll(tasks);
+        }
+        compact(tupleList);
+    }
+
+    private CorrelationTask createCorrelationTask(TupleListTransformerFactory tupleListTransformerFactory, List<Object[]> tupleList) {
+        // Everything that accesses the entity view configuration or the criteria builder is done by the calling thread
+        EntityManager em = entityViewConfiguration.getEntityManager().getEntityManagerFactory().createEntityManager();
+        try {
+            EntityViewConfiguration configuration = entityViewConfiguration.forEntityManager(em);
+            return new CorrelationTask(tupleListTransformerFactory.create(optionalParameters, configuration), em, tupleList);
+        } catch (RuntimeException ex) {
+            em.close();
+            throw ex;
+        }
+    }
+
+    private static void awaitAll(List<FutureTask<Object>> tasks) {
+        RuntimeException exception = null;
+        for (FutureTask<Object> task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for correlated fetches!", ex);
+            } catch (ExecutionException ex) {
+                // We wait for all tasks to finish before rethrowing, so that no task is still working on the tuples
+                if (exception == null) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof RuntimeException) {
+                        exception = (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    } else {
+                        exception = new IllegalStateException("A correlated fetch failed!", cause);
+                    }
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Runs a correlated fetch with a separate entity manager as entity managers must not be shared between threads.
+     *
+     * @author Christian Beikov
+     * @since 1.2.0
+     */
+    private static class CorrelationTask implements Runnable {
+
+        private final TupleListTransformer tupleListTransformer;
+        private final EntityManager entityManager;
+        private final List<Object[]> tupleList;
+
+        public CorrelationTask(TupleListTransformer tupleListTransformer, EntityManager entityManager, List<Object[]> tupleList) {
+            this.tupleListTransformer = tupleListTransformer;
+            this.entityManager = entityManager;
+            this.tupleList = tupleList;
+        }
+
+        @Override
+        public void run() {
+            // The results contain no entities, so nothing refers to the entity manager after the transformation
+            try {
+                tupleListTransformer.transform(tupleList);
+            } finally {
+                entityManager.close();
+            }
+        }
+    }
+
+    private static void compact(List<Object[]> tupleList) {
+        int size = tupleList.size();
+        int newSize = 0;
+        for (int i = 0; i < size; i++) {
+            Object[] tuple = tupleList.get(i);
+            if (tuple != null) {
+                if (newSize != i) {
+                    tupleList.set(newSize, tuple);
+                }
+                newSize++;
+            }
+        }
+        if (newSize != size) {
+            tupleList.subList(newSize, size).clear();
+        }
     }
 }
\ No newline at end of file
@@ -47,6 +47,21 @@ public class TupleTransformatorFactory {
             || transformatorLevels.get(0).tupleTransformerFactories.size() > 0;
     }
 
+    /**
+     * Returns whether tuple lists can be transformed group by group rather than all at once.
+     * Correlated attributes batch or subselect over the whole tuple list and thus require all tuples at once.
+     *
+     * @return true if the transformation may happen incrementally, false otherwise
+     */
+    public boolean supportsIncrementalTransformation() {
+        for (TupleTransformatorFactoryLevel level : transformatorLevels) {
+            if (level.tupleListTransformerFactory != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public void add(TupleTransformatorFactory tupleTransformator) {
         if (!tupleTransformator.hasTransformers()) {
             return;
@@ -62,6 +77,7 @@ public class TupleTransformatorFactory {
             thisLevel.tupleTransformerFactories.addAll(otherLevel.tupleTransformerFactories);
             thisLevel.tupleListTransformer = otherLevel.tupleListTransformer;
             thisLevel.tupleListTransformerFactory = otherLevel.tupleListTransformerFactory;
+            thisLevel.tupleListTransformerFactoryDetachable = otherLevel.tupleListTransformerFactoryDetachable;
         }
     }
 
@@ -75,8 +91,16 @@ public class TupleTransformatorFactory {
         incrementLevel();
     }
 
-    public void add(TupleListTransformerFactory tupleListTransformerFactory) {
-        transformatorLevels.get(currentLevel).tupleListTransformerFactory = tupleListTransformerFactory;
+    /**
+     * Adds a tuple list transformer factory as new level.
+     *
+     * @param tupleListTransformerFactory The tuple list transformer factory
+     * @param detachable Whether the results of the transformer contain no entities so that it may use a separate entity manager
+     */
+    public void add(TupleListTransformerFactory tupleListTransformerFactory, boolean detachable) {
+        TupleTransformatorFactoryLevel level = transformatorLevels.get(currentLevel);
+        level.tupleListTransformerFactory = tupleListTransformerFactory;
+        level.tupleListTransformerFactoryDetachable = detachable;
         incrementLevel();
     }
 
@@ -85,14 +109,22 @@ public class TupleTransformatorFactory {
     }
 
     public TupleTransformator create(ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters, EntityViewConfiguration entityViewConfiguration) {
+        boolean concurrentCorrelation = entityViewConfiguration.getCorrelationExecutor() != null;
         List<TupleTransformatorLevel> newTransformatorLevels = new ArrayList<TupleTransformatorLevel>(transformatorLevels.size());
-        for (TupleTransformatorFactoryLevel thisLevel : transformatorLevels) {
+        for (int i = 0; i < transformatorLevels.size(); i++) {
+            TupleTransformatorFactoryLevel thisLevel = transformatorLevels.get(i);
             final List<TupleTransformer> tupleTransformers = new ArrayList<TupleTransformer>(thisLevel.tupleTransformerFactories.size());
             // No need to copy this, because TupleListTransformer are not context sensitive
-            final TupleListTransformer tupleListTransformer;
+            TupleListTransformer tupleListTransformer = null;
+            TupleListTransformerFactory concurrentTupleListTransformerFactory = null;
 
             if (thisLevel.tupleListTransformerFactory != null) {
-                tupleListTransformer = thisLevel.tupleListTransformerFactory.create(optionalParameters, entityViewConfiguration);
+                if (concurrentCorrelation && isConcurrentToPreviousLevel(i)) {
+                    // The transformer is created on demand for the separate entity manager of the concurrent transformation
+                    concurrentTupleListTransformerFactory = thisLevel.tupleListTransformerFactory;
+                } else {
+                    tupleListTransformer = thisLevel.tupleListTransformerFactory.create(optionalParameters, entityViewConfiguration);
+                }
             } else {
                 tupleListTransformer = thisLevel.tupleListTransformer;
             }
@@ -101,9 +133,20 @@ public class TupleTransformatorFactory {
                 tupleTransformers.add(tupleTransformerFactory.create(parameterHolder, optionalParameters, entityViewConfiguration));
             }
 
-            newTransformatorLevels.add(new TupleTransformatorLevel(tupleTransformers, tupleListTransformer));
+            newTransformatorLevels.add(new TupleTransformatorLevel(tupleTransformers, tupleListTransformer, concurrentTupleListTransformerFactory));
         }
         
-        return new TupleTransformator(newTransformatorLevels);
+        return new TupleTransformator(newTransformatorLevels, optionalParameters, entityViewConfiguration);
+    }
+
+    private boolean isConcurrentToPreviousLevel(int level) {
+        TupleTransformatorFactoryLevel thisLevel = transformatorLevels.get(level);
+        // Correlated tuple list transformers only fill their own tuple element, so they may run concurrently to the correlation of the previous level.
+        // Tuple transformers of a level run before the tuple list transformer and would see the intermediate state of the previous level though.
+        // Since a concurrent correlation uses a separate entity manager, its results must not contain entities as these would be detached
+        return level > 0
+                && transformatorLevels.get(level - 1).tupleListTransformerFactory != null
+                && thisLevel.tupleListTransformerFactoryDetachable
+                && thisLevel.tupleTransformerFactories.isEmpty();
     }
 }
@@ -32,4 +32,6 @@ class TupleTransformatorFactoryLevel {
     final List<TupleTransformerFactory> tupleTransformerFactories = new ArrayList<TupleTransformerFactory>();
     TupleListTransformer tupleListTransformer;
     TupleListTransformerFactory tupleListTransformerFactory;
+    // Whether the tuple list transformer may use a separate entity manager because its results contain no entities
+    boolean tupleListTransformerFactoryDetachable;
 }
\ No newline at end of file
@@ -19,6 +19,7 @@ package com.blazebit.persistence.view.impl.objectbuilder.transformator;
 import java.util.List;
 
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleListTransformer;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleListTransformerFactory;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleTransformer;
 
 /**
@@ -29,10 +30,13 @@ class TupleTransformatorLevel {
 
     final List<TupleTransformer> tupleTransformers;
     final TupleListTransformer tupleListTransformer;
+    // Only set if the tuple list transformation of this level runs concurrently to the one of the previous level, the tuple list transformer is null then
+    final TupleListTransformerFactory concurrentTupleListTransformerFactory;
     
     public TupleTransformatorLevel(List<TupleTransformer> tupleTransformers,
-            TupleListTransformer tupleListTransformer) {
+            TupleListTransformer tupleListTransformer, TupleListTransformerFactory concurrentTupleListTransformerFactory) {
         this.tupleTransformers = tupleTransformers;
         this.tupleListTransformer = tupleListTransformer;
+        this.concurrentTupleListTransformerFactory = concurrentTupleListTransformerFactory;
     }
 }
\ No newline at end of file
@@ -16,12 +16,9 @@
 
 package com.blazebit.persistence.view.impl.objectbuilder.transformer;
 
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
-import com.blazebit.persistence.view.impl.objectbuilder.TupleId;
+import com.blazebit.persistence.view.impl.objectbuilder.TupleIdIndex;
 import com.blazebit.persistence.view.impl.objectbuilder.TupleIndexValue;
 import com.blazebit.persistence.view.impl.objectbuilder.TupleReuse;
 import com.blazebit.persistence.view.spi.type.TypeConverter;
@@ -50,14 +47,12 @@ public abstract class AbstractIndexedTupleListTransformer<C, K> extends TupleLis
 
     @Override
     public List<Object[]> transform(List<Object[]> tuples) {
-        Map<TupleId, TupleIndexValue> tupleIndex = new HashMap<TupleId, TupleIndexValue>(tuples.size());
-        // Implementation detail: the tuple list is a LinkedList
-        Iterator<Object[]> tupleListIter = tuples.iterator();
-
-        while (tupleListIter.hasNext()) {
-            Object[] tuple = tupleListIter.next();
-            TupleId id = new TupleId(parentIdPositions, tuple);
-            TupleIndexValue tupleIndexValue = tupleIndex.get(id);
+        int size = tuples.size();
+        TupleIdIndex<TupleIndexValue> tupleIndex = new TupleIdIndex<>(parentIdPositions, size);
+        // Implementation detail: the tuple list is an ArrayList and the tuple transformator compacts removed tuples
+        for (int i = 0; i < size; i++) {
+            Object[] tuple = tuples.get(i);
+            TupleIndexValue tupleIndexValue = tupleIndex.get(tuple);
 
             // At startIndex we have the index/key of the list/map
             // At valueStartIndex is the actual element that should be put into the collection
@@ -68,7 +63,7 @@ public abstract class AbstractIndexedTupleListTransformer<C, K> extends TupleLis
                 add(collection, key, tuple[valueStartIndex]);
                 tuple[startIndex] = collection;
                 tuple[valueStartIndex] = TupleReuse.CONSUMED;
-                tupleIndex.put(id, tupleIndexValue);
+                tupleIndex.put(tuple, tupleIndexValue);
             } else if (tupleIndexValue.addRestTuple(tuple, startIndex, valueOffset + 1)) {
                 Object collection = tupleIndexValue.getTupleValue();
                 Object key = tuple[startIndex];
@@ -77,13 +72,13 @@ public abstract class AbstractIndexedTupleListTransformer<C, K> extends TupleLis
                 tuple[valueStartIndex] = TupleReuse.CONSUMED;
                 // Check if the tuple after the offset is contained
                 if (tupleIndexValue.containsRestTuple(tuple, startIndex, valueOffset + 1)) {
-                    tupleListIter.remove();
+                    tuples.set(i, null);
                 }
             } else {
                 Object key = tuple[startIndex];
                 add(tupleIndexValue.getTupleValue(), key, tuple[valueStartIndex]);
                 tuple[valueStartIndex] = TupleReuse.CONSUMED;
-                tupleListIter.remove();
+                tuples.set(i, null);
             }
         }
 
@@ -16,12 +16,9 @@
 
 package com.blazebit.persistence.view.impl.objectbuilder.transformer;
 
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
-import com.blazebit.persistence.view.impl.objectbuilder.TupleId;
+import com.blazebit.persistence.view.impl.objectbuilder.TupleIdIndex;
 import com.blazebit.persistence.view.impl.objectbuilder.TupleIndexValue;
 import com.blazebit.persistence.view.spi.type.TypeConverter;
 
@@ -43,32 +40,30 @@ public abstract class AbstractNonIndexedTupleListTransformer<C> extends TupleLis
 
     @Override
     public List<Object[]> transform(List<Object[]> tuples) {
-        Map<TupleId, TupleIndexValue> tupleIndex = new HashMap<TupleId, TupleIndexValue>(tuples.size());
-        // Implementation detail: the tuple list is a LinkedList
-        Iterator<Object[]> tupleListIter = tuples.iterator();
-
-        while (tupleListIter.hasNext()) {
-            Object[] tuple = tupleListIter.next();
-            TupleId id = new TupleId(parentIdPositions, tuple);
-            TupleIndexValue tupleIndexValue = tupleIndex.get(id);
+        int size = tuples.size();
+        TupleIdIndex<TupleIndexValue> tupleIndex = new TupleIdIndex<>(parentIdPositions, size);
+        // Implementation detail: the tuple list is an ArrayList and the tuple transformator compacts removed tuples
+        for (int i = 0; i < size; i++) {
+            Object[] tuple = tuples.get(i);
+            TupleIndexValue tupleIndexValue = tupleIndex.get(tuple);
 
             if (tupleIndexValue == null) {
                 Object collection = createCollection();
                 tupleIndexValue = new TupleIndexValue(collection, tuple, startIndex, 1);
                 add(collection, tuple[startIndex]);
                 tuple[startIndex] = collection;
-                tupleIndex.put(id, tupleIndexValue);
+                tupleIndex.put(tuple, tupleIndexValue);
             } else if (tupleIndexValue.addRestTuple(tuple, startIndex, 1)) {
                 Object collection = tupleIndexValue.getTupleValue();
                 add(collection, tuple[startIndex]);
                 tuple[startIndex] = collection;
                 // Check if the tuple after the offset is contained
                 if (tupleIndexValue.containsRestTuple(tuple, startIndex, 1)) {
-                    tupleListIter.remove();
+                    tuples.set(i, null);
                 }
             } else {
                 add(tupleIndexValue.getTupleValue(), tuple[startIndex]);
-                tupleListIter.remove();
+                tuples.set(i, null);
             }
         }
 
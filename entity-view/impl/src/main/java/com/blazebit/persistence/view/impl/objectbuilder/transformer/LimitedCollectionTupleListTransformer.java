@@ -0,0 +1,140 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder.transformer;
+
+import com.blazebit.persistence.view.impl.collection.CollectionInstantiator;
+import com.blazebit.persistence.view.impl.metamodel.OrderByItem;
+import com.blazebit.persistence.view.impl.objectbuilder.TupleReuse;
+import com.blazebit.persistence.view.spi.type.TypeConverter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A collection transformer for joined limited collections. The lateral join that limits the elements can't define the order
+ * in which the rows of the outer query are encountered, so order keys are selected after the element and the elements
+ * are sorted by them after all tuples have been grouped. If possible, the only order key is a rank computed by the database
+ * so that the order follows the database collation, otherwise the basic order keys of the limit are compared.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class LimitedCollectionTupleListTransformer extends CollectionTupleListTransformer {
+
+    private final int orderKeyStartIndex;
+    private final int orderKeyCount;
+    private final Comparator<Object[]> comparator;
+    private Map<Object, List<Object[]>> collectionElements;
+
+    public LimitedCollectionTupleListTransformer(int[] parentIdPositions, int startIndex, int orderKeyStartIndex, List<OrderByItem> orderBy, CollectionInstantiator collectionInstantiator, boolean dirtyTracking, TypeConverter<Object, Object> elementConverter) {
+        super(parentIdPositions, startIndex, collectionInstantiator, dirtyTracking, elementConverter);
+        this.orderKeyStartIndex = orderKeyStartIndex;
+        this.orderKeyCount = orderBy.size();
+        this.comparator = new OrderKeyComparator(orderBy);
+    }
+
+    @Override
+    public List<Object[]> transform(List<Object[]> tuples) {
+        int size = tuples.size();
+        // Wrap the element together with its order keys, the order keys are consumed since they are no attributes
+        for (int i = 0; i < size; i++) {
+            Object[] tuple = tuples.get(i);
+            Object[] element = new Object[orderKeyCount + 1];
+            element[0] = tuple[startIndex];
+            for (int j = 0; j < orderKeyCount; j++) {
+                element[j + 1] = tuple[orderKeyStartIndex + j];
+                tuple[orderKeyStartIndex + j] = TupleReuse.CONSUMED;
+            }
+            tuple[startIndex] = element;
+        }
+
+        collectionElements = new IdentityHashMap<>();
+        try {
+            super.transform(tuples);
+            for (Map.Entry<Object, List<Object[]>> entry : collectionElements.entrySet()) {
+                List<Object[]> elements = entry.getValue();
+                Collections.sort(elements, comparator);
+                for (Object[] element : elements) {
+                    super.add(entry.getKey(), element[0]);
+                }
+            }
+        } finally {
+            collectionElements = null;
+        }
+
+        return tuples;
+    }
+
+    @Override
+    protected void add(Object collection, Object value) {
+        List<Object[]> elements = collectionElements.get(collection);
+        if (elements == null) {
+            elements = new ArrayList<>();
+            collectionElements.put(collection, elements);
+        }
+        elements.add((Object[]) value);
+    }
+
+    /**
+     * Compares wrapped elements by their order keys like the order by items of the limit.
+     *
+     * @author Christian Beikov
+     * @since 1.2.0
+     */
+    private static class OrderKeyComparator implements Comparator<Object[]> {
+
+        private final boolean[] ascending;
+        private final boolean[] nullsFirst;
+
+        public OrderKeyComparator(List<OrderByItem> orderBy) {
+            this.ascending = new boolean[orderBy.size()];
+            this.nullsFirst = new boolean[orderBy.size()];
+            for (int i = 0; i < orderBy.size(); i++) {
+                ascending[i] = orderBy.get(i).isAscending();
+                nullsFirst[i] = orderBy.get(i).isNullsFirst();
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public int compare(Object[] o1, Object[] o2) {
+            for (int i = 0; i < ascending.length; i++) {
+                Object key1 = o1[i + 1];
+                Object key2 = o2[i + 1];
+                int cmp;
+                if (key1 == null) {
+                    if (key2 == null) {
+                        continue;
+                    }
+                    return nullsFirst[i] ? -1 : 1;
+                } else if (key2 == null) {
+                    return nullsFirst[i] ? 1 : -1;
+                } else {
+                    cmp = ((Comparable<Object>) key1).compareTo(key2);
+                }
+                if (cmp != 0) {
+                    return ascending[i] ? cmp : -cmp;
+                }
+            }
+            return 0;
+        }
+    }
+}
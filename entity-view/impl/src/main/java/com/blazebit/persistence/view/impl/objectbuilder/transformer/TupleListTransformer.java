@@ -31,5 +31,12 @@ public abstract class TupleListTransformer {
         this.startIndex = startIndex;
     }
 
+    /**
+     * Transforms the given tuples in place. Tuples are removed by replacing them with <code>null</code>
+     * which allows the list to be array backed. The null elements are removed by the caller afterwards.
+     *
+     * @param tuples The tuples to transform
+     * @return The transformed tuples
+     */
     public abstract List<Object[]> transform(List<Object[]> tuples);
 }
@@ -18,7 +18,11 @@ package com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation
 
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.FullQueryBuilder;
+import com.blazebit.persistence.QueryTemplate;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.spi.MetricsCache;
+import com.blazebit.persistence.spi.MetricsCounter;
+import com.blazebit.persistence.spi.MetricsListener;
 import com.blazebit.persistence.view.CorrelationProvider;
 import com.blazebit.persistence.view.impl.CorrelationProviderFactory;
 import com.blazebit.persistence.view.impl.EntityViewConfiguration;
@@ -26,10 +30,12 @@ import com.blazebit.persistence.view.impl.macro.CorrelatedSubqueryViewRootJpqlMa
 import com.blazebit.persistence.view.metamodel.ManagedViewType;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Parameter;
 import javax.persistence.Query;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -43,20 +49,34 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
     private static final String CORRELATION_KEY_ALIAS = "correlationKey";
     private static final String CORRELATION_PARAM_PREFIX = "correlationParam_";
 
-    protected final int batchSize;
+    protected final int configuredBatchSize;
+    protected final boolean adaptiveBatchSize;
     protected final boolean expectBatchCorrelationValues;
+    // Null if the correlation query depends on the execution e.g. because the correlation provider is parameterized
+    protected final BatchCorrelationQueryCache correlationQueryCache;
 
     protected String correlationParamName;
     protected String correlationSelectExpression;
     protected CriteriaBuilder<?> criteriaBuilder;
     protected CorrelatedSubqueryViewRootJpqlMacro viewRootJpqlMacro;
     protected Query query;
+    // The batch size of the current transformation which might be lower than the configured one if the adaptive batch size is enabled
+    protected int batchSize;
+
+    private String correlationRoot;
+    private int criteriaBuilderBatchSize;
+    private boolean criteriaBuilderBatchCorrelationValues;
+    private boolean criteriaBuilderUsesViewRoot;
+    private boolean criteriaBuilderFinished;
 
     public AbstractCorrelatedBatchTupleListTransformer(ExpressionFactory ef, Correlator correlator, ManagedViewType<?> viewRootType, String correlationResult, CorrelationProviderFactory correlationProviderFactory, String attributePath, String[] fetches,
-                                                       int tupleIndex, int defaultBatchSize, Class<?> correlationBasisType, Class<?> correlationBasisEntity, EntityViewConfiguration entityViewConfiguration) {
+                                                       int tupleIndex, int defaultBatchSize, Class<?> correlationBasisType, Class<?> correlationBasisEntity, BatchCorrelationQueryCache correlationQueryCache, EntityViewConfiguration entityViewConfiguration) {
         super(ef, correlator, viewRootType, correlationResult, correlationProviderFactory, attributePath, fetches, tupleIndex, correlationBasisType, correlationBasisEntity, entityViewConfiguration);
-        this.batchSize = entityViewConfiguration.getBatchSize(attributePath, defaultBatchSize);
+        this.configuredBatchSize = entityViewConfiguration.getBatchSize(attributePath, defaultBatchSize);
+        this.adaptiveBatchSize = entityViewConfiguration.getAdaptiveBatchSize(attributePath);
+        this.batchSize = configuredBatchSize;
         this.expectBatchCorrelationValues = entityViewConfiguration.getExpectBatchCorrelationValues(attributePath);
+        this.correlationQueryCache = correlationQueryCache;
     }
 
     private String generateCorrelationParamName() {
@@ -76,7 +96,18 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         }
     }
 
-    private String applyAndGetCorrelationRoot(boolean batchCorrelationValues) {
+    private String getCorrelationParamName(boolean batchCorrelationValues) {
+        if (batchSize > 1 && batchCorrelationValues) {
+            return CORRELATION_KEY_ALIAS;
+        }
+        return generateCorrelationParamName();
+    }
+
+    private String getViewRootExpression(boolean batchCorrelationValues) {
+        return batchCorrelationValues ? null : CORRELATION_KEY_ALIAS;
+    }
+
+    private void applyCorrelation(boolean batchCorrelationValues) {
         Class<?> viewRootEntityClass = viewRootType.getEntityClass();
         String idAttributePath = getEntityIdName(viewRootEntityClass);
 
@@ -84,16 +115,14 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         Map<String, Object> optionalParameters = entityViewConfiguration.getOptionalParameters();
 
         Class<?> correlationBasisEntityType;
-        String viewRootExpression;
+        String viewRootExpression = getViewRootExpression(batchCorrelationValues);
         if (batchCorrelationValues) {
             correlationBasisEntityType = correlationBasisEntity;
-            viewRootExpression = null;
         } else {
             correlationBasisEntityType = viewRootEntityClass;
-            viewRootExpression = CORRELATION_KEY_ALIAS;
         }
 
-        this.criteriaBuilder = queryBuilder.getCriteriaBuilderFactory().create(queryBuilder.getEntityManager(), Object[].class);
+        this.criteriaBuilder = queryBuilder.getCriteriaBuilderFactory().create(entityViewConfiguration.getEntityManager(), Object[].class);
         this.viewRootJpqlMacro = new CorrelatedSubqueryViewRootJpqlMacro(criteriaBuilder, optionalParameters, viewRootEntityClass, idAttributePath, viewRootExpression);
         this.criteriaBuilder.registerMacro("view_root", viewRootJpqlMacro);
 
@@ -101,12 +130,8 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         CorrelationProvider provider = correlationProviderFactory.create(entityViewConfiguration.getCriteriaBuilder(), entityViewConfiguration.getOptionalParameters());
 
         String correlationKeyExpression;
+        this.correlationParamName = getCorrelationParamName(batchCorrelationValues);
         if (batchSize > 1) {
-            if (batchCorrelationValues) {
-                this.correlationParamName = CORRELATION_KEY_ALIAS;
-            } else {
-                this.correlationParamName = generateCorrelationParamName();
-            }
             if (correlationBasisEntityType != null) {
                 correlationKeyExpression = CORRELATION_KEY_ALIAS;
                 if (batchCorrelationValues) {
@@ -119,7 +144,6 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
                 correlationSelectExpression = correlationKeyExpression = CORRELATION_KEY_ALIAS + ".value";
             }
         } else {
-            this.correlationParamName = generateCorrelationParamName();
             this.correlationSelectExpression = correlationKeyExpression = null;
         }
 
@@ -128,6 +152,7 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         } else {
             provider.applyCorrelation(correlationBuilder, ':' + correlationParamName);
         }
+        correlationBuilder.finish();
 
         if (fetches.length != 0) {
             for (int i = 0; i < fetches.length; i++) {
@@ -135,22 +160,170 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
             }
         }
 
-        return correlationBuilder.getCorrelationRoot();
+        this.correlationRoot = correlationBuilder.getCorrelationRoot();
+        this.criteriaBuilderBatchSize = batchSize;
+        this.criteriaBuilderBatchCorrelationValues = batchCorrelationValues;
+        this.criteriaBuilderUsesViewRoot = viewRootJpqlMacro.usesViewRoot();
+        this.criteriaBuilderFinished = false;
+    }
+
+    private BatchCorrelationQueryCache.Entry getCachedCorrelationQuery(boolean batchCorrelationValues) {
+        if (correlationQueryCache == null) {
+            return null;
+        }
+        BatchCorrelationQueryCache.Entry entry = correlationQueryCache.get(batchSize, batchCorrelationValues);
+        if (entry == null || !entry.matches(getCorrelationParamName(batchCorrelationValues), entityViewConfiguration.getOptionalParameters())) {
+            return null;
+        }
+        return entry;
+    }
+
+    private boolean usesViewRoot() {
+        BatchCorrelationQueryCache.Entry entry = getCachedCorrelationQuery(expectBatchCorrelationValues);
+        if (entry != null) {
+            return entry.usesViewRoot();
+        }
+        applyCorrelation(expectBatchCorrelationValues);
+        return criteriaBuilderUsesViewRoot;
+    }
+
+    private void prepareQuery(boolean batchCorrelationValues, int tupleOffset) {
+        if (batchSize == 1) {
+            // Without batching, the correlation query of the expected strategy is used
+            batchCorrelationValues = expectBatchCorrelationValues;
+        }
+
+        BatchCorrelationQueryCache.Entry entry = getCachedCorrelationQuery(batchCorrelationValues);
+        MetricsListener metricsListener = entityViewConfiguration.getMetricsListener();
+        // Entries without a query template only serve to avoid applying the correlation for the wrong strategy
+        if (correlationQueryCache != null && metricsListener != null && (entry == null || entry.getQueryTemplate() != null)) {
+            metricsListener.recordCacheAccess(MetricsCache.CORRELATION_QUERY, entry != null);
+        }
+
+        if (entry == null) {
+            if (criteriaBuilder != null && !isCriteriaBuilderFor(batchCorrelationValues)) {
+                // The expectation was wrong, so we cache the query of the expected strategy before creating a new criteria builder
+                cacheCorrelationQuery(tupleOffset);
+                criteriaBuilder = null;
+            }
+            if (criteriaBuilder == null) {
+                applyCorrelation(batchCorrelationValues);
+            }
+
+            entry = cacheCorrelationQuery(tupleOffset);
+            if (entry == null || entry.getQueryTemplate() == null) {
+                if (!criteriaBuilderFinished) {
+                    finishCorrelation(tupleOffset);
+                }
+                populateParameters(criteriaBuilder);
+                query = criteriaBuilder.getQuery();
+                return;
+            }
+        } else if (entry.getQueryTemplate() == null) {
+            if (criteriaBuilder == null || !isCriteriaBuilderFor(batchCorrelationValues)) {
+                applyCorrelation(batchCorrelationValues);
+            }
+            finishCorrelation(tupleOffset);
+            populateParameters(criteriaBuilder);
+            query = criteriaBuilder.getQuery();
+            return;
+        }
+
+        // Only the parameters have to be bound when reusing the rendered correlation query
+        Class<?> viewRootEntityClass = viewRootType.getEntityClass();
+        this.correlationParamName = getCorrelationParamName(batchCorrelationValues);
+        this.viewRootJpqlMacro = new CorrelatedSubqueryViewRootJpqlMacro(entityViewConfiguration.getEntityManager(), entityViewConfiguration.getOptionalParameters(), viewRootEntityClass, getEntityIdName(viewRootEntityClass),
+                getViewRootExpression(batchCorrelationValues), entry.getViewRootParamName(), entry.getViewRootIdParamName());
+        this.query = entry.getQueryTemplate().createQuery(entityViewConfiguration.getEntityManager());
+        populateParameters(query);
+    }
+
+    private boolean isCriteriaBuilderFor(boolean batchCorrelationValues) {
+        return criteriaBuilderBatchSize == batchSize && criteriaBuilderBatchCorrelationValues == batchCorrelationValues;
+    }
+
+    private void finishCorrelation(int tupleOffset) {
+        if (criteriaBuilderBatchSize > 1) {
+            criteriaBuilder.select(correlationSelectExpression);
+        }
+        correlator.finish(criteriaBuilder, entityViewConfiguration, tupleOffset, correlationRoot);
+        criteriaBuilderFinished = true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private BatchCorrelationQueryCache.Entry cacheCorrelationQuery(int tupleOffset) {
+        if (correlationQueryCache == null) {
+            return null;
+        }
+
+        QueryTemplate<Object> queryTemplate = null;
+        // Subview correlations need an object builder for every execution and queries that need SQL rewriting can't be templated
+        if (correlator instanceof BasicCorrelator) {
+            finishCorrelation(tupleOffset);
+            try {
+                queryTemplate = (QueryTemplate<Object>) (QueryTemplate<?>) criteriaBuilder.getCriteriaBuilderFactory().createTemplate(criteriaBuilder);
+            } catch (IllegalArgumentException ex) {
+                // The query uses features that require SQL rewriting like the VALUES clause
+            }
+        }
+
+        BatchCorrelationQueryCache.Entry entry = new BatchCorrelationQueryCache.Entry(
+                criteriaBuilderUsesViewRoot,
+                correlationParamName,
+                viewRootJpqlMacro.getUsedViewRootParamName(),
+                viewRootJpqlMacro.getUsedViewRootIdParamName(),
+                queryTemplate
+        );
+        correlationQueryCache.put(criteriaBuilderBatchSize, criteriaBuilderBatchCorrelationValues, entry);
+        return entry;
+    }
+
+    private void populateParameters(Query query) {
+        CriteriaBuilder<?> mainBuilder = entityViewConfiguration.getCriteriaBuilder();
+        Map<String, Object> optionalParameters = entityViewConfiguration.getOptionalParameters();
+        for (Parameter<?> parameter : query.getParameters()) {
+            String parameterName = parameter.getName();
+            if (mainBuilder.containsParameter(parameterName)) {
+                query.setParameter(parameterName, mainBuilder.getParameterValue(parameterName));
+            } else if (optionalParameters.containsKey(parameterName)) {
+                query.setParameter(parameterName, optionalParameters.get(parameterName));
+            }
+        }
+    }
+
+    private int getAdaptiveBatchSize(int keyCount) {
+        if (keyCount >= configuredBatchSize) {
+            return configuredBatchSize;
+        } else if (keyCount <= 1) {
+            return 1;
+        }
+        // Only powers of two are used so that there are just a few distinct correlation queries and query plans
+        int size = Integer.highestOneBit(keyCount);
+        if (size < keyCount) {
+            size <<= 1;
+        }
+        return Math.min(size, configuredBatchSize);
+    }
+
+    private static int getMaxSize(Map<Object, Map<Object, TuplePromise>> groups) {
+        int maxSize = 0;
+        for (Map<Object, TuplePromise> group : groups.values()) {
+            maxSize = Math.max(maxSize, group.size());
+        }
+        return maxSize;
     }
 
     @Override
     public List<Object[]> transform(List<Object[]> tuples) {
-        FixedArrayList correlationParams = new FixedArrayList(batchSize);
-        // We have the correlation key on the first position if we do batching
-        int tupleOffset = batchSize > 1 ? 1 : 0;
         // Implementation detail: the tuple list is a LinkedList
         Iterator<Object[]> tupleListIter = tuples.iterator();
 
-        final String correlationRoot = applyAndGetCorrelationRoot(expectBatchCorrelationValues);
-        EntityManager em = criteriaBuilder.getEntityManager();
+        this.batchSize = configuredBatchSize;
+        this.criteriaBuilder = null;
+        EntityManager em = entityViewConfiguration.getEntityManager();
 
         // If view root is used, we have to decide whether we do batches for each view root id or correlation param
-        if (viewRootJpqlMacro.usesViewRoot()) {
+        if (usesViewRoot()) {
             int totalSize = tuples.size();
             Map<Object, Map<Object, TuplePromise>> viewRoots = new HashMap<Object, Map<Object, TuplePromise>>(totalSize);
             Map<Object, Map<Object, TuplePromise>> correlationValues = new HashMap<Object, Map<Object, TuplePromise>>(totalSize);
@@ -187,20 +360,16 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
             }
 
             boolean batchCorrelationValues = viewRoots.size() <= correlationValues.size();
+            if (adaptiveBatchSize) {
+                batchSize = getAdaptiveBatchSize(getMaxSize(batchCorrelationValues ? viewRoots : correlationValues));
+            }
+            FixedArrayList correlationParams = new FixedArrayList(batchSize);
             FixedArrayList viewRootIds = new FixedArrayList(batchSize);
+            // We have the correlation key on the first position if we do batching
+            int tupleOffset = batchSize > 1 ? 1 : 0;
 
             if (batchCorrelationValues) {
-                if (batchSize > 1) {
-                    // If the expectation was wrong, we have to create a new criteria builder
-                    if (!expectBatchCorrelationValues) {
-                        applyAndGetCorrelationRoot(true);
-                    }
-
-                    criteriaBuilder.select(correlationSelectExpression);
-                }
-                correlator.finish(criteriaBuilder, entityViewConfiguration, tupleOffset, correlationRoot);
-                populateParameters(criteriaBuilder);
-                query = criteriaBuilder.getQuery();
+                prepareQuery(true, tupleOffset);
 
                 for (Map.Entry<Object, Map<Object, TuplePromise>> batchEntry : viewRoots.entrySet()) {
                     Map<Object, TuplePromise> batchValues = batchEntry.getValue();
@@ -231,17 +400,7 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
 
                 fillDefaultValues(viewRoots);
             } else {
-                if (batchSize > 1) {
-                    // If the expectation was wrong, we have to create a new criteria builder
-                    if (expectBatchCorrelationValues) {
-                        applyAndGetCorrelationRoot(false);
-                    }
-
-                    criteriaBuilder.select(correlationSelectExpression);
-                }
-                correlator.finish(criteriaBuilder, entityViewConfiguration, tupleOffset, correlationRoot);
-                populateParameters(criteriaBuilder);
-                query = criteriaBuilder.getQuery();
+                prepareQuery(false, tupleOffset);
 
                 for (Map.Entry<Object, Map<Object, TuplePromise>> batchEntry : correlationValues.entrySet()) {
                     Map<Object, TuplePromise> batchValues = batchEntry.getValue();
@@ -281,19 +440,8 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
                 fillDefaultValues(correlationValues);
             }
         } else {
-            if (batchSize > 1) {
-                // If the expectation was wrong, we have to create a new criteria builder
-                if (!expectBatchCorrelationValues) {
-                    applyAndGetCorrelationRoot(true);
-                }
-
-                criteriaBuilder.select(correlationSelectExpression);
-            }
-            correlator.finish(criteriaBuilder, entityViewConfiguration, tupleOffset, correlationRoot);
-            populateParameters(criteriaBuilder);
-            query = criteriaBuilder.getQuery();
-
-            Map<Object, TuplePromise> correlationValues = new HashMap<Object, TuplePromise>(tuples.size());
+            // Group tuples by correlation values and create tuple promises
+            Map<Object, TuplePromise> correlationValues = new LinkedHashMap<Object, TuplePromise>(tuples.size());
             while (tupleListIter.hasNext()) {
                 Object[] tuple = tupleListIter.next();
                 Object correlationValue = tuple[startIndex];
@@ -301,26 +449,34 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
 
                 if (tupleIndexValue == null) {
                     tupleIndexValue = new TuplePromise(startIndex);
-                    tupleIndexValue.add(tuple);
                     correlationValues.put(correlationValue, tupleIndexValue);
+                }
+                tupleIndexValue.add(tuple);
+            }
 
+            if (adaptiveBatchSize) {
+                batchSize = getAdaptiveBatchSize(correlationValues.size());
+            }
+            FixedArrayList correlationParams = new FixedArrayList(batchSize);
+            // We have the correlation key on the first position if we do batching
+            int tupleOffset = batchSize > 1 ? 1 : 0;
+            prepareQuery(true, tupleOffset);
+
+            for (Object correlationValue : correlationValues.keySet()) {
+                if (correlationBasisEntity != null) {
+                    correlationParams.add(em.getReference(correlationBasisEntity, correlationValue));
+                } else {
+                    correlationParams.add(correlationValue);
+                }
+
+                if (batchSize == correlationParams.realSize()) {
+                    Object defaultKey;
                     if (correlationBasisEntity != null) {
-                        correlationParams.add(em.getReference(correlationBasisEntity, tuple[startIndex]));
+                        defaultKey = em.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(correlationParams.get(0));
                     } else {
-                        correlationParams.add(tuple[startIndex]);
+                        defaultKey = correlationParams.get(0);
                     }
-
-                    if (batchSize == correlationParams.realSize()) {
-                        Object defaultKey;
-                        if (correlationBasisEntity != null) {
-                            defaultKey = em.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(correlationParams.get(0));
-                        } else {
-                            defaultKey = correlationParams.get(0);
-                        }
-                        batchLoad(correlationValues, correlationParams, null, defaultKey, batchSize > 1);
-                    }
-                } else {
-                    tupleIndexValue.add(tuple);
+                    batchLoad(correlationValues, correlationParams, null, defaultKey, batchSize > 1);
                 }
             }
 
@@ -352,6 +508,10 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         }
 
         populateResult(correlationValues, defaultKey, (List<Object>) query.getResultList());
+        MetricsListener metricsListener = entityViewConfiguration.getMetricsListener();
+        if (metricsListener != null) {
+            metricsListener.recordCount(MetricsCounter.CORRELATION_BATCHES, 1);
+        }
 
         batchParameters.reset();
         if (viewRootIds != null) {
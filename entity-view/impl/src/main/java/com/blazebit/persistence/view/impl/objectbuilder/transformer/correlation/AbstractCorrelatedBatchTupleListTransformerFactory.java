@@ -37,6 +37,7 @@ public abstract class AbstractCorrelatedBatchTupleListTransformerFactory impleme
     protected final int tupleIndex;
     protected final Class<?> correlationBasisType;
     protected final Class<?> correlationBasisEntity;
+    protected final BatchCorrelationQueryCache correlationQueryCache;
 
     public AbstractCorrelatedBatchTupleListTransformerFactory(Correlator correlator, ManagedViewType<?> viewRootType, String correlationResult, CorrelationProviderFactory correlationProviderFactory, String attributePath, String[] fetches, int tupleIndex, int batchSize, Class<?> correlationBasisType, Class<?> correlationBasisEntity) {
         this.correlator = correlator;
@@ -49,6 +50,8 @@ public abstract class AbstractCorrelatedBatchTupleListTransformerFactory impleme
         this.fetches = fetches;
         this.correlationBasisType = correlationBasisType;
         this.correlationBasisEntity = correlationBasisEntity;
+        // The correlation query of a parameterized correlation provider might differ for every execution
+        this.correlationQueryCache = correlationProviderFactory.isParameterized() ? null : new BatchCorrelationQueryCache();
     }
 
 }
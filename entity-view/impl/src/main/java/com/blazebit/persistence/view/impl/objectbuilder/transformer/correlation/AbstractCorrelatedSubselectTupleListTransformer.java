@@ -16,17 +16,26 @@
 
 package com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation;
 
+import com.blazebit.persistence.From;
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.spi.DbmsDialect;
+import com.blazebit.persistence.spi.MetricsCounter;
+import com.blazebit.persistence.spi.MetricsListener;
 import com.blazebit.persistence.view.CorrelationProvider;
 import com.blazebit.persistence.view.impl.CorrelationProviderFactory;
 import com.blazebit.persistence.view.impl.EntityViewConfiguration;
 import com.blazebit.persistence.view.impl.macro.CorrelatedSubqueryViewRootJpqlMacro;
 import com.blazebit.persistence.view.metamodel.ManagedViewType;
+import com.blazebit.persistence.view.metamodel.ViewType;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  *
@@ -35,20 +44,36 @@ import java.util.Map;
  */
 public abstract class AbstractCorrelatedSubselectTupleListTransformer extends AbstractCorrelatedTupleListTransformer {
 
+    private static final String VIEW_ROOT_IDS_PARAM_NAME = "correlationViewRootIds";
+
     protected final String viewRootAlias;
     protected final String correlationKeyExpression;
+    protected final boolean correlateByIds;
 
     protected FullQueryBuilder<?, ?> criteriaBuilder;
     protected CorrelatedSubqueryViewRootJpqlMacro viewRootJpqlMacro;
+    protected List<Object> viewRootIds;
+    protected int viewRootIdsChunkSize;
 
     public AbstractCorrelatedSubselectTupleListTransformer(ExpressionFactory ef, Correlator correlator, ManagedViewType<?> viewRootType, String viewRootAlias, String correlationResult, String correlationKeyExpression, CorrelationProviderFactory correlationProviderFactory, String attributePath, String[] fetches, int tupleIndex, Class<?> correlationBasisType,
                                                            Class<?> correlationBasisEntity, EntityViewConfiguration entityViewConfiguration) {
         super(ef, correlator, viewRootType, correlationResult, correlationProviderFactory, attributePath, fetches, tupleIndex, correlationBasisType, correlationBasisEntity, entityViewConfiguration);
         this.viewRootAlias = viewRootAlias;
         this.correlationKeyExpression = correlationKeyExpression;
+        // The view root ids are only available in the tuples if the view root is identifiable
+        this.correlateByIds = viewRootType instanceof ViewType<?> && entityViewConfiguration.getSubselectCorrelationByIds(attributePath);
+    }
+
+    private boolean isViewRootQueryRoot(FullQueryBuilder<?, ?> queryBuilder) {
+        for (From from : queryBuilder.getRoots()) {
+            if (viewRootAlias.equals(from.getAlias()) && viewRootType.getEntityClass() == from.getType()) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private String applyAndGetCorrelationRoot() {
+    private String applyAndGetCorrelationRoot(List<Object[]> tuples) {
         Class<?> viewRootEntityClass = viewRootType.getEntityClass();
         String idAttributePath = getEntityIdName(viewRootEntityClass);
 
@@ -58,7 +83,24 @@ public abstract class AbstractCorrelatedSubselectTupleListTransformer extends Ab
         Class<?> correlationBasisEntityType = correlationBasisEntity;
         String viewRootExpression = viewRootAlias;
 
-        this.criteriaBuilder = queryBuilder.copy(Object[].class);
+        if (correlateByIds && isViewRootQueryRoot(queryBuilder)) {
+            // Instead of re-evaluating the source query, the correlation is restricted to the view root ids of the current result
+            Set<Object> viewRootIds = new HashSet<>(tuples.size());
+            for (Object[] tuple : tuples) {
+                if (tuple[0] != null) {
+                    viewRootIds.add(tuple[0]);
+                }
+            }
+            // The ids are bound through a parameter so that the query can be executed for chunks within the IN list limit of the dbms
+            this.viewRootIds = new ArrayList<>(viewRootIds);
+            this.viewRootIdsChunkSize = queryBuilder.getCriteriaBuilderFactory().getService(DbmsDialect.class).getInListLimit();
+            this.criteriaBuilder = queryBuilder.getCriteriaBuilderFactory().create(entityViewConfiguration.getEntityManager(), Object[].class)
+                    .from(viewRootEntityClass, viewRootAlias)
+                    .where(viewRootAlias + "." + idAttributePath).inExpressions(":" + VIEW_ROOT_IDS_PARAM_NAME);
+        } else {
+            this.viewRootIds = null;
+            this.criteriaBuilder = entityViewConfiguration.copyCriteriaBuilder();
+        }
         this.viewRootJpqlMacro = new CorrelatedSubqueryViewRootJpqlMacro(criteriaBuilder, optionalParameters, viewRootEntityClass, idAttributePath, viewRootExpression);
         this.criteriaBuilder.registerMacro("view_root", viewRootJpqlMacro);
 
@@ -66,6 +108,7 @@ public abstract class AbstractCorrelatedSubselectTupleListTransformer extends Ab
         CorrelationProvider provider = correlationProviderFactory.create(entityViewConfiguration.getCriteriaBuilder(), entityViewConfiguration.getOptionalParameters());
 
         provider.applyCorrelation(correlationBuilder, correlationKeyExpression);
+        correlationBuilder.finish();
         if (fetches.length != 0) {
             for (int i = 0; i < fetches.length; i++) {
                 criteriaBuilder.fetch(correlationBuilder.getCorrelationAlias() + "." + fetches[i]);
@@ -77,7 +120,11 @@ public abstract class AbstractCorrelatedSubselectTupleListTransformer extends Ab
 
     @Override
     public List<Object[]> transform(List<Object[]> tuples) {
-        final String correlationRoot = applyAndGetCorrelationRoot();
+        if (tuples.isEmpty()) {
+            return tuples;
+        }
+
+        final String correlationRoot = applyAndGetCorrelationRoot(tuples);
         final boolean usesViewRoot = viewRootJpqlMacro.usesViewRoot();
 
         int totalSize = tuples.size();
@@ -124,7 +171,32 @@ public abstract class AbstractCorrelatedSubselectTupleListTransformer extends Ab
         correlator.finish(criteriaBuilder, entityViewConfiguration, usesViewRoot ? 2 : 1, correlationRoot);
         populateParameters(criteriaBuilder);
 
-        List<Object[]> resultList = (List<Object[]>) criteriaBuilder.getResultList();
+        MetricsListener metricsListener = entityViewConfiguration.getMetricsListener();
+        List<Object[]> resultList;
+        if (viewRootIds == null) {
+            resultList = (List<Object[]>) criteriaBuilder.getResultList();
+            if (metricsListener != null) {
+                metricsListener.recordCount(MetricsCounter.CORRELATION_BATCHES, 1);
+            }
+        } else if (viewRootIds.isEmpty()) {
+            resultList = Collections.emptyList();
+        } else {
+            int chunkSize = viewRootIdsChunkSize < 1 ? viewRootIds.size() : viewRootIdsChunkSize;
+            if (viewRootIds.size() <= chunkSize) {
+                criteriaBuilder.setParameter(VIEW_ROOT_IDS_PARAM_NAME, viewRootIds);
+                resultList = (List<Object[]>) criteriaBuilder.getResultList();
+            } else {
+                // The chunks restrict disjoint sets of view roots, so the combined result is the same as the one of a single query
+                resultList = new ArrayList<>();
+                for (int i = 0; i < viewRootIds.size(); i += chunkSize) {
+                    criteriaBuilder.setParameter(VIEW_ROOT_IDS_PARAM_NAME, viewRootIds.subList(i, Math.min(i + chunkSize, viewRootIds.size())));
+                    resultList.addAll((List<Object[]>) criteriaBuilder.getResultList());
+                }
+            }
+            if (metricsListener != null) {
+                metricsListener.recordCount(MetricsCounter.CORRELATION_BATCHES, (viewRootIds.size() + chunkSize - 1) / chunkSize);
+            }
+        }
         populateResult(usesViewRoot, viewRoots, resultList);
         fillDefaultValues(viewRoots);
 
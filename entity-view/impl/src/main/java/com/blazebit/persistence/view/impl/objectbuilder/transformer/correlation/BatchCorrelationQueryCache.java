@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation;
+
+import com.blazebit.persistence.QueryTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the correlation queries of a batch correlated attribute per batch size and batching strategy.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public final class BatchCorrelationQueryCache {
+
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    public Entry get(int batchSize, boolean batchCorrelationValues) {
+        return entries.get(new Key(batchSize, batchCorrelationValues));
+    }
+
+    public void put(int batchSize, boolean batchCorrelationValues, Entry entry) {
+        entries.putIfAbsent(new Key(batchSize, batchCorrelationValues), entry);
+    }
+
+    /**
+     * The state of a correlation query that is independent of a concrete execution.
+     *
+     * @author Christian Beikov
+     * @since 1.2.0
+     */
+    public static final class Entry {
+
+        private final boolean usesViewRoot;
+        private final String correlationParamName;
+        private final String viewRootParamName;
+        private final String viewRootIdParamName;
+        private final QueryTemplate<Object> queryTemplate;
+
+        public Entry(boolean usesViewRoot, String correlationParamName, String viewRootParamName, String viewRootIdParamName, QueryTemplate<Object> queryTemplate) {
+            this.usesViewRoot = usesViewRoot;
+            this.correlationParamName = correlationParamName;
+            this.viewRootParamName = viewRootParamName;
+            this.viewRootIdParamName = viewRootIdParamName;
+            this.queryTemplate = queryTemplate;
+        }
+
+        public boolean usesViewRoot() {
+            return usesViewRoot;
+        }
+
+        public String getViewRootParamName() {
+            return viewRootParamName;
+        }
+
+        public String getViewRootIdParamName() {
+            return viewRootIdParamName;
+        }
+
+        /**
+         * Returns the query template or <code>null</code> if the correlation query can't be rendered independently of the execution.
+         *
+         * @return The query template or <code>null</code>
+         */
+        public QueryTemplate<Object> getQueryTemplate() {
+            return queryTemplate;
+        }
+
+        /**
+         * Returns whether the parameter names of the entry are the ones that would be generated for the given parameters.
+         *
+         * @param correlationParamName The correlation parameter name that would be used
+         * @param optionalParameters The optional parameters of the execution
+         * @return Whether the entry can be used
+         */
+        public boolean matches(String correlationParamName, Map<String, Object> optionalParameters) {
+            if (!this.correlationParamName.equals(correlationParamName)) {
+                return false;
+            }
+            if (viewRootParamName != null && optionalParameters.containsKey(viewRootParamName)) {
+                return false;
+            }
+            return viewRootIdParamName == null || !optionalParameters.containsKey(viewRootIdParamName);
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.2.0
+     */
+    private static final class Key {
+
+        private final int batchSize;
+        private final boolean batchCorrelationValues;
+
+        public Key(int batchSize, boolean batchCorrelationValues) {
+            this.batchSize = batchSize;
+            this.batchCorrelationValues = batchCorrelationValues;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+            return batchSize == key.batchSize && batchCorrelationValues == key.batchCorrelationValues;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * batchSize + (batchCorrelationValues ? 1 : 0);
+        }
+    }
+}
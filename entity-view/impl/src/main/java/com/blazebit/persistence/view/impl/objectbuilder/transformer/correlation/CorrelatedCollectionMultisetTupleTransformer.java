@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation;
+
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.view.impl.collection.CollectionInstantiator;
+import com.blazebit.persistence.view.impl.objectbuilder.transformator.UpdatableViewMap;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleTransformer;
+
+import java.util.Collection;
+
+/**
+ * Decodes the multiset JSON at the tuple index into a collection of basic values or subviews.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class CorrelatedCollectionMultisetTupleTransformer implements TupleTransformer {
+
+    private final int tupleIndex;
+    private final MultisetValueConverter[] valueConverters;
+    private final ObjectBuilder<Object[]> objectBuilder;
+    private final CollectionInstantiator collectionInstantiator;
+    private final boolean filterNulls;
+
+    public CorrelatedCollectionMultisetTupleTransformer(int tupleIndex, MultisetValueConverter[] valueConverters, ObjectBuilder<Object[]> objectBuilder, CollectionInstantiator collectionInstantiator, boolean filterNulls) {
+        this.tupleIndex = tupleIndex;
+        this.valueConverters = valueConverters;
+        this.objectBuilder = objectBuilder;
+        this.collectionInstantiator = collectionInstantiator;
+        this.filterNulls = filterNulls;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object[] transform(Object[] tuple, UpdatableViewMap updatableViewMap) {
+        Object json = tuple[tupleIndex];
+        Collection<Object> result = (Collection<Object>) collectionInstantiator.createCollection(0);
+        if (json != null) {
+            JsonMultisetParser parser = new JsonMultisetParser(json.toString(), valueConverters.length);
+            Object[] row;
+            while ((row = parser.nextRow()) != null) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = valueConverters[i].convert((String) row[i]);
+                }
+
+                Object element;
+                if (objectBuilder == null) {
+                    element = row[0];
+                } else {
+                    element = objectBuilder.build(row);
+                }
+
+                if (element != null || !filterNulls) {
+                    result.add(element);
+                }
+            }
+        }
+
+        tuple[tupleIndex] = result;
+        return tuple;
+    }
+
+}
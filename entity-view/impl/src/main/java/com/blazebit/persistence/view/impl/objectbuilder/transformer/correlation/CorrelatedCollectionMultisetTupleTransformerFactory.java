@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation;
+
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.ParameterHolder;
+import com.blazebit.persistence.view.impl.EntityViewConfiguration;
+import com.blazebit.persistence.view.impl.collection.CollectionInstantiator;
+import com.blazebit.persistence.view.impl.objectbuilder.ViewTypeObjectBuilderTemplate;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleTransformer;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleTransformerFactory;
+
+import java.util.Map;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class CorrelatedCollectionMultisetTupleTransformerFactory implements TupleTransformerFactory {
+
+    private final int tupleIndex;
+    private final MultisetValueConverter[] valueConverters;
+    private final ViewTypeObjectBuilderTemplate<Object[]> template;
+    private final CollectionInstantiator collectionInstantiator;
+    private final boolean filterNulls;
+
+    public CorrelatedCollectionMultisetTupleTransformerFactory(int tupleIndex, MultisetValueConverter[] valueConverters, ViewTypeObjectBuilderTemplate<Object[]> template, CollectionInstantiator collectionInstantiator, boolean filterNulls) {
+        this.tupleIndex = tupleIndex;
+        this.valueConverters = valueConverters;
+        this.template = template;
+        this.collectionInstantiator = collectionInstantiator;
+        this.filterNulls = filterNulls;
+    }
+
+    @Override
+    public TupleTransformer create(ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters, EntityViewConfiguration entityViewConfiguration) {
+        ObjectBuilder<Object[]> objectBuilder = null;
+        if (template != null) {
+            objectBuilder = template.createObjectBuilder(parameterHolder, optionalParameters, entityViewConfiguration, true, false);
+        }
+        return new CorrelatedCollectionMultisetTupleTransformer(tupleIndex, valueConverters, objectBuilder, collectionInstantiator, filterNulls);
+    }
+
+}
@@ -19,6 +19,7 @@ package com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation
 import com.blazebit.persistence.CorrelationQueryBuilder;
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.JoinOnBuilder;
+import com.blazebit.persistence.LateralJoinBuilder;
 import com.blazebit.persistence.view.CorrelationBuilder;
 
 import java.util.Map;
@@ -36,6 +37,7 @@ public class JoinCorrelationBuilder implements CorrelationBuilder {
     private final String selectAlias;
     private final String correlationAlias;
     private final String correlationResult;
+    private Limiter limiter;
     private boolean correlated;
 
     public JoinCorrelationBuilder(FullQueryBuilder<?, ?> criteriaBuilder, Map<String, Object> optionalParameters, String joinBase, String correlationAlias, String correlationResult, String selectAlias) {
@@ -47,6 +49,10 @@ public class JoinCorrelationBuilder implements CorrelationBuilder {
         this.selectAlias = selectAlias;
     }
 
+    public void setLimiter(Limiter limiter) {
+        this.limiter = limiter;
+    }
+
     @Override
     public <T> T getService(Class<T> serviceClass) {
         return criteriaBuilder.getService(serviceClass);
@@ -69,6 +75,10 @@ public class JoinCorrelationBuilder implements CorrelationBuilder {
         }
 
         correlated = true;
+        if (limiter != null) {
+            LateralJoinBuilder<?> lateralJoinBuilder = limiter.apply(criteriaBuilder.leftJoinLateral(joinBase, entityClass, correlationAlias));
+            return (JoinOnBuilder<CorrelationQueryBuilder>) (JoinOnBuilder<?>) lateralJoinBuilder;
+        }
         return (JoinOnBuilder<CorrelationQueryBuilder>) (JoinOnBuilder<?>) criteriaBuilder.leftJoinOn(joinBase, entityClass, correlationAlias);
     }
 
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation;
+
+/**
+ * A streaming parser for the JSON produced by the <code>TO_MULTISET</code> function i.e. an array of arrays of scalar values.
+ * Rows are read one at a time without building an intermediate tree. Values are returned in their textual representation,
+ * the JSON literal <code>null</code> is returned as <code>null</code>.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class JsonMultisetParser {
+
+    private final String json;
+    private final int columnCount;
+    private int position;
+    private boolean firstRow = true;
+
+    public JsonMultisetParser(String json, int columnCount) {
+        this.json = json;
+        this.columnCount = columnCount;
+        skipWhitespace();
+        consume('[');
+    }
+
+    /**
+     * Returns the next row or <code>null</code> if there are no more rows.
+     *
+     * @return The next row or <code>null</code>
+     */
+    public Object[] nextRow() {
+        skipWhitespace();
+        if (current() == ']') {
+            position++;
+            return null;
+        }
+        if (firstRow) {
+            firstRow = false;
+        } else {
+            consume(',');
+            skipWhitespace();
+        }
+
+        consume('[');
+        Object[] row = new Object[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            skipWhitespace();
+            if (i != 0) {
+                consume(',');
+                skipWhitespace();
+            }
+            row[i] = readValue();
+        }
+        skipWhitespace();
+        consume(']');
+        return row;
+    }
+
+    private String readValue() {
+        if (current() == '"') {
+            return readString();
+        }
+
+        int start = position;
+        while (position < json.length()) {
+            char c = json.charAt(position);
+            if (c == ',' || c == ']' || Character.isWhitespace(c)) {
+                break;
+            }
+            position++;
+        }
+
+        if (start == position) {
+            throw unexpected();
+        }
+
+        String literal = json.substring(start, position);
+        if ("null".equals(literal)) {
+            return null;
+        }
+        return literal;
+    }
+
+    private String readString() {
+        // Skip the opening quote
+        int start = ++position;
+        StringBuilder sb = null;
+        while (true) {
+            char c = current();
+            if (c == '"') {
+                String value;
+                if (sb == null) {
+                    value = json.substring(start, position);
+                } else {
+                    sb.append(json, start, position);
+                    value = sb.toString();
+                }
+                position++;
+                return value;
+            } else if (c == '\\') {
+                if (sb == null) {
+                    sb = new StringBuilder();
+                }
+                sb.append(json, start, position);
+                position++;
+                char escaped = current();
+                switch (escaped) {
+                    case 'b':
+                        sb.append('\b');
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'u':
+                        if (position + 4 >= json.length()) {
+                            throw unexpected();
+                        }
+                        sb.append((char) Integer.parseInt(json.substring(position + 1, position + 5), 16));
+                        position += 4;
+                        break;
+                    default:
+                        // Covers quotes, backslashes and slashes
+                        sb.append(escaped);
+                        break;
+                }
+                start = ++position;
+            } else {
+                position++;
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+            position++;
+        }
+    }
+
+    private void consume(char expected) {
+        if (current() != expected) {
+            throw unexpected();
+        }
+        position++;
+    }
+
+    private char current() {
+        if (position >= json.length()) {
+            throw new IllegalArgumentException("Unexpected end of the multiset JSON: " + json);
+        }
+        return json.charAt(position);
+    }
+
+    private IllegalArgumentException unexpected() {
+        return new IllegalArgumentException("Unexpected character '" + json.charAt(position) + "' at position " + position + " of the multiset JSON: " + json);
+    }
+}
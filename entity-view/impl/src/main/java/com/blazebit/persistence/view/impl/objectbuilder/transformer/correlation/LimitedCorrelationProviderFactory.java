@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation;
+
+import com.blazebit.persistence.ParameterHolder;
+import com.blazebit.persistence.view.CorrelationBuilder;
+import com.blazebit.persistence.view.CorrelationProvider;
+import com.blazebit.persistence.view.impl.CorrelationProviderFactory;
+
+import java.util.Map;
+
+/**
+ * A correlation provider factory that limits the correlated elements of the correlation providers it creates.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class LimitedCorrelationProviderFactory implements CorrelationProviderFactory {
+
+    private final CorrelationProviderFactory delegate;
+    private final Limiter limiter;
+
+    public LimitedCorrelationProviderFactory(CorrelationProviderFactory delegate, Limiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public boolean isParameterized() {
+        return delegate.isParameterized();
+    }
+
+    @Override
+    public CorrelationProvider create(ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters) {
+        return new LimitedCorrelationProvider(delegate.create(parameterHolder, optionalParameters), limiter);
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.2.0
+     */
+    private static class LimitedCorrelationProvider implements CorrelationProvider {
+
+        private final CorrelationProvider delegate;
+        private final Limiter limiter;
+
+        public LimitedCorrelationProvider(CorrelationProvider delegate, Limiter limiter) {
+            this.delegate = delegate;
+            this.limiter = limiter;
+        }
+
+        @Override
+        public void applyCorrelation(CorrelationBuilder correlationBuilder, String correlationExpression) {
+            if (correlationBuilder instanceof JoinCorrelationBuilder) {
+                ((JoinCorrelationBuilder) correlationBuilder).setLimiter(limiter);
+            } else if (correlationBuilder instanceof SubqueryCorrelationBuilder) {
+                ((SubqueryCorrelationBuilder) correlationBuilder).setLimiter(limiter);
+            } else {
+                throw new IllegalArgumentException("Limiting the correlation is unsupported for the correlation builder: " + correlationBuilder);
+            }
+            delegate.applyCorrelation(correlationBuilder, correlationExpression);
+        }
+    }
+}
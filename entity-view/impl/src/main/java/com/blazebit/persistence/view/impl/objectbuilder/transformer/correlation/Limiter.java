@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.LateralJoinBuilder;
+import com.blazebit.persistence.OrderByBuilder;
+import com.blazebit.persistence.parser.SimpleQueryGenerator;
+import com.blazebit.persistence.parser.expression.Expression;
+import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.view.impl.PrefixingQueryGenerator;
+import com.blazebit.persistence.view.impl.metamodel.OrderByItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Applies the limit, offset and order of a limited plural attribute to a correlation.
+ * Correlations that are joined or that correlate multiple owners at once are limited through lateral joins,
+ * whereas correlation queries for a single owner are limited directly.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class Limiter {
+
+    private final int limit;
+    private final int offset;
+    private final List<OrderByItem> orderBy;
+
+    public Limiter(ExpressionFactory ef, String correlationAlias, int limit, int offset, List<OrderByItem> limitOrder) {
+        this.limit = limit;
+        this.offset = offset;
+        this.orderBy = new ArrayList<>(limitOrder.size());
+        SimpleQueryGenerator generator = new PrefixingQueryGenerator(Collections.singletonList(correlationAlias));
+        for (OrderByItem item : limitOrder) {
+            StringBuilder sb = new StringBuilder();
+            Expression expr = ef.createSimpleExpression(item.getExpression(), false);
+            generator.setQueryBuffer(sb);
+            expr.accept(generator);
+            orderBy.add(new OrderByItem(sb.toString(), item.isAscending(), item.isNullsFirst()));
+        }
+    }
+
+    /**
+     * Returns the order by items prefixed with the correlation alias.
+     *
+     * @return The order by items
+     */
+    public List<OrderByItem> getOrderBy() {
+        return orderBy;
+    }
+
+    public <T> LateralJoinBuilder<T> apply(LateralJoinBuilder<T> lateralJoinBuilder) {
+        addOrderBy(lateralJoinBuilder);
+        return lateralJoinBuilder.setFirstResult(offset)
+                .setMaxResults(limit);
+    }
+
+    public void apply(CriteriaBuilder<?> criteriaBuilder) {
+        applyOrderBy(criteriaBuilder);
+        criteriaBuilder.setFirstResult(offset);
+        criteriaBuilder.setMaxResults(limit);
+    }
+
+    /**
+     * Orders the elements like the limit does, so that the limited elements are encountered in the limit order
+     * when multiple owners are correlated at once.
+     *
+     * @param criteriaBuilder The correlation query builder
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void applyOrderBy(CriteriaBuilder<?> criteriaBuilder) {
+        addOrderBy((OrderByBuilder) criteriaBuilder);
+    }
+
+    private <T extends OrderByBuilder<T>> void addOrderBy(T sortable) {
+        for (OrderByItem item : orderBy) {
+            sortable.orderBy(item.getExpression(), item.isAscending(), item.isNullsFirst());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation;
+
+import com.blazebit.persistence.CorrelationQueryBuilder;
+import com.blazebit.persistence.FullQueryBuilder;
+import com.blazebit.persistence.JoinOnBuilder;
+import com.blazebit.persistence.SubqueryBuilder;
+import com.blazebit.persistence.SubqueryInitiator;
+import com.blazebit.persistence.view.CorrelationBuilder;
+
+/**
+ * Applies the correlation in a subquery of the select clause of the source query.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class MultisetCorrelationBuilder implements CorrelationBuilder {
+
+    private final FullQueryBuilder<?, ?> criteriaBuilder;
+    private final SubqueryInitiator<?> subqueryInitiator;
+    private final String correlationAlias;
+    private SubqueryBuilder<?> subqueryBuilder;
+
+    public MultisetCorrelationBuilder(FullQueryBuilder<?, ?> criteriaBuilder, SubqueryInitiator<?> subqueryInitiator, String correlationAlias) {
+        this.criteriaBuilder = criteriaBuilder;
+        this.subqueryInitiator = subqueryInitiator;
+        this.correlationAlias = correlationAlias;
+    }
+
+    @Override
+    public <T> T getService(Class<T> serviceClass) {
+        return criteriaBuilder.getService(serviceClass);
+    }
+
+    @Override
+    public String getCorrelationAlias() {
+        return correlationAlias;
+    }
+
+    @Override
+    public JoinOnBuilder<CorrelationQueryBuilder> correlate(Class<?> entityClass) {
+        if (subqueryBuilder != null) {
+            throw new IllegalArgumentException("Can not correlate with multiple entity classes!");
+        }
+
+        subqueryBuilder = subqueryInitiator.from(entityClass, correlationAlias);
+        return subqueryBuilder.getService(JoinOnBuilder.class);
+    }
+
+    public void finish(String selectExpression) {
+        if (subqueryBuilder == null) {
+            throw new IllegalArgumentException("The correlation provider did not correlate any entity class!");
+        }
+
+        subqueryBuilder.select(selectExpression).end();
+    }
+
+}
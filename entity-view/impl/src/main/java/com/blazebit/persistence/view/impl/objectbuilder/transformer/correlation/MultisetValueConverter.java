@@ -0,0 +1,199 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts the textual representation of a value of the multiset JSON to the Java type of an attribute.
+ * The textual representation differs between DBMS i.e. temporal values might use a <code>T</code> or a space as separator.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public enum MultisetValueConverter {
+
+    STRING {
+        @Override
+        protected Object convertNonNull(String value) {
+            return value;
+        }
+    },
+    CHARACTER {
+        @Override
+        protected Object convertNonNull(String value) {
+            return value.isEmpty() ? null : value.charAt(0);
+        }
+    },
+    BOOLEAN {
+        @Override
+        protected Object convertNonNull(String value) {
+            return "1".equals(value) || "true".equalsIgnoreCase(value);
+        }
+    },
+    BYTE {
+        @Override
+        protected Object convertNonNull(String value) {
+            return Byte.valueOf(value);
+        }
+    },
+    SHORT {
+        @Override
+        protected Object convertNonNull(String value) {
+            return Short.valueOf(value);
+        }
+    },
+    INTEGER {
+        @Override
+        protected Object convertNonNull(String value) {
+            return Integer.valueOf(value);
+        }
+    },
+    LONG {
+        @Override
+        protected Object convertNonNull(String value) {
+            return Long.valueOf(value);
+        }
+    },
+    FLOAT {
+        @Override
+        protected Object convertNonNull(String value) {
+            return Float.valueOf(value);
+        }
+    },
+    DOUBLE {
+        @Override
+        protected Object convertNonNull(String value) {
+            return Double.valueOf(value);
+        }
+    },
+    BIG_INTEGER {
+        @Override
+        protected Object convertNonNull(String value) {
+            return new BigInteger(value);
+        }
+    },
+    BIG_DECIMAL {
+        @Override
+        protected Object convertNonNull(String value) {
+            return new BigDecimal(value);
+        }
+    },
+    DATE {
+        @Override
+        protected Object convertNonNull(String value) {
+            return java.sql.Date.valueOf(value.substring(0, 10));
+        }
+    },
+    TIME {
+        @Override
+        protected Object convertNonNull(String value) {
+            // Strip a date part and fractional seconds
+            int start = value.length() > 10 && (value.charAt(10) == ' ' || value.charAt(10) == 'T') ? 11 : 0;
+            return Time.valueOf(value.substring(start, start + 8));
+        }
+    },
+    TIMESTAMP {
+        @Override
+        protected Object convertNonNull(String value) {
+            return toTimestamp(value);
+        }
+    },
+    CALENDAR {
+        @Override
+        protected Object convertNonNull(String value) {
+            Calendar calendar = new GregorianCalendar();
+            calendar.setTimeInMillis(toTimestamp(value).getTime());
+            return calendar;
+        }
+    };
+
+    private static final Map<Class<?>, MultisetValueConverter> CONVERTERS;
+
+    static {
+        Map<Class<?>, MultisetValueConverter> converters = new HashMap<>();
+        converters.put(String.class, STRING);
+        converters.put(Character.class, CHARACTER);
+        converters.put(char.class, CHARACTER);
+        converters.put(Boolean.class, BOOLEAN);
+        converters.put(boolean.class, BOOLEAN);
+        converters.put(Byte.class, BYTE);
+        converters.put(byte.class, BYTE);
+        converters.put(Short.class, SHORT);
+        converters.put(short.class, SHORT);
+        converters.put(Integer.class, INTEGER);
+        converters.put(int.class, INTEGER);
+        converters.put(Long.class, LONG);
+        converters.put(long.class, LONG);
+        converters.put(Float.class, FLOAT);
+        converters.put(float.class, FLOAT);
+        converters.put(Double.class, DOUBLE);
+        converters.put(double.class, DOUBLE);
+        converters.put(BigInteger.class, BIG_INTEGER);
+        converters.put(BigDecimal.class, BIG_DECIMAL);
+        converters.put(java.sql.Date.class, DATE);
+        converters.put(Time.class, TIME);
+        converters.put(Timestamp.class, TIMESTAMP);
+        converters.put(java.util.Date.class, TIMESTAMP);
+        converters.put(Calendar.class, CALENDAR);
+        converters.put(GregorianCalendar.class, CALENDAR);
+        CONVERTERS = converters;
+    }
+
+    /**
+     * Returns the converter for the given type or <code>null</code> if the type is not supported.
+     *
+     * @param type The Java type
+     * @return The converter or <code>null</code>
+     */
+    public static MultisetValueConverter forType(Class<?> type) {
+        return CONVERTERS.get(type);
+    }
+
+    public Object convert(String value) {
+        if (value == null) {
+            return null;
+        }
+        return convertNonNull(value);
+    }
+
+    protected abstract Object convertNonNull(String value);
+
+    private static Timestamp toTimestamp(String value) {
+        String timestamp = value.replace('T', ' ');
+        if (timestamp.length() == 10) {
+            timestamp += " 00:00:00";
+        }
+        // Strip time zone offsets which might be part of the representation
+        int end = timestamp.length();
+        for (int i = 19; i < end; i++) {
+            char c = timestamp.charAt(i);
+            if (c != '.' && !Character.isDigit(c)) {
+                end = i;
+                break;
+            }
+        }
+        return Timestamp.valueOf(timestamp.substring(0, end));
+    }
+}
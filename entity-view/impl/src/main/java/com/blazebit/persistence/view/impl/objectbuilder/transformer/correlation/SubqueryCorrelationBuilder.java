@@ -17,6 +17,7 @@
 package com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation;
 
 import com.blazebit.persistence.CorrelationQueryBuilder;
+import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.JoinOnBuilder;
 import com.blazebit.persistence.view.CorrelationBuilder;
@@ -36,6 +37,7 @@ public class SubqueryCorrelationBuilder implements CorrelationBuilder {
     private final String correlationKeyAlias;
     private final int batchSize;
     private final boolean innerJoin;
+    private Limiter limiter;
     private String correlationRoot;
 
     public SubqueryCorrelationBuilder(FullQueryBuilder<?, ?> criteriaBuilder, String correlationAlias, String correlationResult, Class<?> correlationBasisType, Class<?> correlationBasisEntity, String correlationKeyAlias, int batchSize, boolean innerJoin, String attributePath) {
@@ -49,6 +51,10 @@ public class SubqueryCorrelationBuilder implements CorrelationBuilder {
         this.innerJoin = innerJoin;
     }
 
+    public void setLimiter(Limiter limiter) {
+        this.limiter = limiter;
+    }
+
     @Override
     public <T> T getService(Class<T> serviceClass) {
         return criteriaBuilder.getService(serviceClass);
@@ -63,6 +69,16 @@ public class SubqueryCorrelationBuilder implements CorrelationBuilder {
         return correlationRoot;
     }
 
+    /**
+     * Finishes the correlation after the correlation provider applied it.
+     */
+    public void finish() {
+        if (limiter != null && (batchSize > 1 || innerJoin)) {
+            // The order of the lateral join is lost in the outer query, but the elements are collected in encounter order
+            limiter.applyOrderBy((CriteriaBuilder<?>) criteriaBuilder);
+        }
+    }
+
     @Override
     public JoinOnBuilder<CorrelationQueryBuilder> correlate(Class<?> entityClass) {
         if (correlationRoot != null) {
@@ -77,12 +93,16 @@ public class SubqueryCorrelationBuilder implements CorrelationBuilder {
                 criteriaBuilder.fromValues(correlationBasisType, correlationKeyAlias, batchSize);
             }
 
-            correlationBuilder = (JoinOnBuilder<CorrelationQueryBuilder>) (JoinOnBuilder<?>) criteriaBuilder.innerJoinOn(entityClass, correlationAlias);
+            correlationBuilder = innerJoin(entityClass);
         } else {
             if (innerJoin) {
-                correlationBuilder = (JoinOnBuilder<CorrelationQueryBuilder>) (JoinOnBuilder<?>) criteriaBuilder.innerJoinOn(entityClass, correlationAlias);
+                correlationBuilder = innerJoin(entityClass);
             } else {
                 criteriaBuilder.from(entityClass, correlationAlias);
+                // The query only correlates a single owner, so the limit can be applied to the query directly
+                if (limiter != null) {
+                    limiter.apply((CriteriaBuilder<?>) criteriaBuilder);
+                }
                 correlationBuilder = criteriaBuilder.getService(JoinOnBuilder.class);
             }
         }
@@ -91,4 +111,12 @@ public class SubqueryCorrelationBuilder implements CorrelationBuilder {
         return correlationBuilder;
     }
 
+    private JoinOnBuilder<CorrelationQueryBuilder> innerJoin(Class<?> entityClass) {
+        if (limiter == null) {
+            return (JoinOnBuilder<CorrelationQueryBuilder>) (JoinOnBuilder<?>) criteriaBuilder.innerJoinOn(entityClass, correlationAlias);
+        }
+        // Multiple owners are correlated at once, so the limit has to be applied per owner through a lateral join
+        return (JoinOnBuilder<CorrelationQueryBuilder>) (JoinOnBuilder<?>) limiter.apply(criteriaBuilder.innerJoinLateral(entityClass, correlationAlias));
+    }
+
 }
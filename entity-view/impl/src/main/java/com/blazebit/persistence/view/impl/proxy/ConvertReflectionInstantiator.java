@@ -31,6 +31,7 @@ import java.util.Arrays;
 public class ConvertReflectionInstantiator<T> implements ObjectInstantiator<T> {
 
     private final Constructor<T> constructor;
+    private final ObjectInstantiator<T> instantiator;
 
     public ConvertReflectionInstantiator(ProxyFactory proxyFactory, ManagedViewType<T> viewType, Class<?>[] parameterTypes, EntityViewManager entityViewManager) {
         @SuppressWarnings("unchecked")
@@ -44,12 +45,13 @@ public class ConvertReflectionInstantiator<T> implements ObjectInstantiator<T> {
         }
 
         this.constructor = javaConstructor;
+        this.instantiator = proxyFactory.getInstantiator(proxyClazz, null, parameterTypes);
     }
 
     @Override
     public T newInstance(Object[] tuple) {
         try {
-            return constructor.newInstance(tuple);
+            return instantiator.newInstance(tuple);
         } catch (Exception ex) {
             String[] types = new String[tuple.length];
             
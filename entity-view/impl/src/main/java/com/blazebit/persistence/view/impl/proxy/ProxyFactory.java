@@ -58,6 +58,7 @@ import javassist.CtClass;
 import javassist.CtConstructor;
 import javassist.CtField;
 import javassist.CtMethod;
+import javassist.CtNewConstructor;
 import javassist.Modifier;
 import javassist.NotFoundException;
 import javassist.bytecode.AccessFlag;
@@ -82,15 +83,21 @@ import javassist.compiler.ast.Stmnt;
 import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.IdentifiableType;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -106,11 +113,16 @@ public class ProxyFactory {
     private static final Logger LOG = Logger.getLogger(ProxyFactory.class.getName());
     // This has to be static since runtime generated correlation providers can't be matched in a later run, so we always create a new one with a unique name
     private static final ConcurrentMap<Class<?>, AtomicInteger> CORRELATION_PROVIDER_CLASS_COUNT = new ConcurrentHashMap<>();
+    // This has to be static since proxy classes are shared between proxy factories of the same class loader
+    private static final AtomicInteger INSTANTIATOR_CLASS_COUNT = new AtomicInteger();
     private final ConcurrentMap<ProxyClassKey, Class<?>> proxyClasses = new ConcurrentHashMap<>();
     private final ConcurrentMap<ProxyClassKey, Class<?>> unsafeProxyClasses = new ConcurrentHashMap<>();
+    private final ConcurrentMap<InstantiatorKey, ObjectInstantiator<?>> instantiators = new ConcurrentHashMap<>();
     private final Object proxyLock = new Object();
     private final ClassPool pool;
     private final boolean unsafeDisabled;
+    private final String dumpDirectory;
+    private final boolean pregeneratedLoading;
 
     /**
      * @author Christian Beikov
@@ -143,9 +155,52 @@ public class ProxyFactory {
         }
     }
 
+    /**
+     * @author Christian Beikov
+     * @since 1.2.0
+     */
+    private static final class InstantiatorKey {
+        private final Class<?> proxyClass;
+        private final String factoryMethodName;
+        private final Class<?>[] parameterTypes;
+
+        public InstantiatorKey(Class<?> proxyClass, String factoryMethodName, Class<?>[] parameterTypes) {
+            this.proxyClass = proxyClass;
+            this.factoryMethodName = factoryMethodName;
+            this.parameterTypes = parameterTypes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            InstantiatorKey that = (InstantiatorKey) o;
+
+            if (!proxyClass.equals(that.proxyClass)) {
+                return false;
+            }
+            if (factoryMethodName != null ? !factoryMethodName.equals(that.factoryMethodName) : that.factoryMethodName != null) {
+                return false;
+            }
+            return Arrays.equals(parameterTypes, that.parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = proxyClass.hashCode();
+            result = 31 * result + (factoryMethodName != null ? factoryMethodName.hashCode() : 0);
+            result = 31 * result + Arrays.hashCode(parameterTypes);
+            return result;
+        }
+    }
+
     public ProxyFactory(boolean unsafeDisabled) {
+        this(unsafeDisabled, null, false);
+    }
+
+    public ProxyFactory(boolean unsafeDisabled, String dumpDirectory, boolean pregeneratedLoading) {
         this.pool = new ClassPool(ClassPool.getDefault());
         this.unsafeDisabled = unsafeDisabled;
+        this.dumpDirectory = dumpDirectory;
+        this.pregeneratedLoading = pregeneratedLoading;
     }
 
     public <T> Class<? extends T> getProxy(EntityViewManager entityViewManager, ManagedViewTypeImplementor<T> viewType, ManagedViewTypeImplementor<? super T> inheritanceBase) {
@@ -212,6 +267,110 @@ public class ProxyFactory {
         }
     }
     
+    /**
+     * Returns an instantiator that directly invokes the constructor of the given proxy class or the static factory method with the given name.
+     * The generated code casts and unboxes the tuple elements, so no reflection is involved when creating instances.
+     *
+     * @param proxyClass The proxy class
+     * @param factoryMethodName The name of the static factory method or <code>null</code> to invoke a constructor
+     * @param parameterTypes The parameter types of the constructor or static factory method
+     * @param <T> The proxy type
+     * @return The instantiator
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ObjectInstantiator<T> getInstantiator(Class<T> proxyClass, String factoryMethodName, Class<?>[] parameterTypes) {
+        InstantiatorKey key = new InstantiatorKey(proxyClass, factoryMethodName, parameterTypes);
+        ObjectInstantiator<T> instantiator = (ObjectInstantiator<T>) instantiators.get(key);
+
+        if (instantiator == null) {
+            synchronized (proxyLock) {
+                instantiator = (ObjectInstantiator<T>) instantiators.get(key);
+                if (instantiator == null) {
+                    instantiator = createInstantiator(proxyClass, factoryMethodName, parameterTypes);
+                    instantiators.put(key, instantiator);
+                }
+            }
+        }
+
+        return instantiator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ObjectInstantiator<T> createInstantiator(Class<T> proxyClass, String factoryMethodName, Class<?>[] parameterTypes) {
+        // The instantiator is defined in the same class loader and package as the proxy
+        String instantiatorClassName = proxyClass.getName() + "$$_instantiator_" + INSTANTIATOR_CLASS_COUNT.getAndIncrement();
+        ClassPath classPath = new ClassClassPath(ObjectInstantiator.class);
+        pool.insertClassPath(classPath);
+
+        try {
+            CtClass cc = pool.makeClass(instantiatorClassName);
+            cc.addInterface(pool.get(ObjectInstantiator.class.getName()));
+            cc.addConstructor(CtNewConstructor.defaultConstructor(cc));
+
+            // We emit the byte code directly since the proxy class might not be known to the class pool if it was loaded from the class loader
+            ConstPool cp = cc.getClassFile2().getConstPool();
+            MethodInfo minfo = new MethodInfo(cp, "newInstance", "([Ljava/lang/Object;)Ljava/lang/Object;");
+            minfo.setAccessFlags(AccessFlag.PUBLIC);
+            StringBuilder descriptor = new StringBuilder();
+            descriptor.append('(');
+            int stackSize = 0;
+            for (Class<?> parameterType : parameterTypes) {
+                descriptor.append(Descriptor.of(getTypeName(parameterType)));
+                stackSize += parameterType == long.class || parameterType == double.class ? 2 : 1;
+            }
+            descriptor.append(')');
+
+            // The tuple array and index are on the stack in addition to the arguments and the new instance
+            Bytecode code = new Bytecode(cp, stackSize + 4, 2);
+            if (factoryMethodName == null) {
+                code.addNew(proxyClass.getName());
+                code.addOpcode(Opcode.DUP);
+            }
+            for (int i = 0; i < parameterTypes.length; i++) {
+                code.addAload(1);
+                code.addIconst(i);
+                code.addOpcode(Opcode.AALOAD);
+                appendTupleElementConversion(code, parameterTypes[i]);
+            }
+            if (factoryMethodName == null) {
+                code.addInvokespecial(proxyClass.getName(), "<init>", descriptor.append('V').toString());
+            } else {
+                code.addInvokestatic(proxyClass.getName(), factoryMethodName, descriptor.append(Descriptor.of(proxyClass.getName())).toString());
+            }
+            code.addOpcode(Opcode.ARETURN);
+            minfo.setCodeAttribute(code.toCodeAttribute());
+            cc.addMethod(CtMethod.make(minfo, cc));
+
+            Class<?> c = cc.toClass(proxyClass.getClassLoader(), null);
+            cc.detach();
+            return (ObjectInstantiator<T>) c.newInstance();
+        } catch (Exception ex) {
+            throw new RuntimeException("Probably we did something wrong, please contact us if you see this message.", ex);
+        } finally {
+            pool.removeClassPath(classPath);
+        }
+    }
+
+    private static void appendTupleElementConversion(Bytecode code, Class<?> parameterType) {
+        if (!parameterType.isPrimitive()) {
+            if (parameterType != Object.class) {
+                code.addCheckcast(parameterType.isArray() ? Descriptor.of(getTypeName(parameterType)) : parameterType.getName());
+            }
+            return;
+        }
+
+        Class<?> wrapperType = ReflectionUtils.getObjectClassOfPrimitve(parameterType);
+        code.addCheckcast(wrapperType.getName());
+        code.addInvokevirtual(wrapperType.getName(), parameterType.getName() + "Value", "()" + Descriptor.of(parameterType.getName()));
+    }
+
+    private static String getTypeName(Class<?> type) {
+        if (type.isArray()) {
+            return getTypeName(type.getComponentType()) + "[]";
+        }
+        return type.getName();
+    }
+
     @SuppressWarnings("unchecked")
     private <T> Class<? extends T> getProxy(EntityViewManager entityViewManager, ManagedViewTypeImplementor<T> viewType, ManagedViewTypeImplementor<? super T> inheritanceBase, boolean unsafe) {
         Class<T> clazz = viewType.getJavaType();
@@ -232,7 +391,10 @@ public class ProxyFactory {
             synchronized (proxyLock) {
                 proxyClass = (Class<? extends T>) classes.get(key);
                 if (proxyClass == null) {
-                    proxyClass = createProxyClass(entityViewManager, viewType, inheritanceBase, unsafe);
+                    proxyClass = loadProxyClass(entityViewManager, viewType, inheritanceBase, unsafe);
+                    if (proxyClass == null) {
+                        proxyClass = createProxyClass(entityViewManager, viewType, inheritanceBase, unsafe);
+                    }
                     classes.put(key, proxyClass);
                 }
             }
@@ -241,23 +403,77 @@ public class ProxyFactory {
         return proxyClass;
     }
 
-    @SuppressWarnings("unchecked")
-    private <T> Class<? extends T> createProxyClass(EntityViewManager entityViewManager, ManagedViewTypeImplementor<T> managedViewType, ManagedViewTypeImplementor<? super T> inheritanceBase, boolean unsafe) {
-        ViewType<T> viewType = managedViewType instanceof ViewType<?> ? (ViewType<T>) managedViewType : null;
-        Class<?> clazz = managedViewType.getJavaType();
+    private <T> String getProxyClassName(ManagedViewTypeImplementor<T> managedViewType, ManagedViewTypeImplementor<? super T> inheritanceBase, boolean unsafe) {
         String suffix = unsafe ? "unsafe_" : "";
         String baseName;
-        int subtypeIndex = 0;
 
         if (inheritanceBase == null) {
-            baseName = clazz.getName();
+            baseName = managedViewType.getJavaType().getName();
         } else {
-            subtypeIndex = managedViewType.getSubtypeIndex(inheritanceBase);
             baseName = inheritanceBase.getJavaType().getName();
             baseName += "_" + managedViewType.getJavaType().getSimpleName();
         }
 
-        String proxyClassName = baseName + "_$$_javassist_entityview_" + suffix;
+        return baseName + "_$$_javassist_entityview_" + suffix;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Class<? extends T> loadProxyClass(EntityViewManager entityViewManager, ManagedViewTypeImplementor<T> managedViewType, ManagedViewTypeImplementor<? super T> inheritanceBase, boolean unsafe) {
+        // Proxy classes might have been generated at build time via the dump directory
+        if (!pregeneratedLoading) {
+            return null;
+        }
+        String proxyClassName = getProxyClassName(managedViewType, inheritanceBase, unsafe);
+        ClassLoader classLoader = managedViewType.getJavaType().getClassLoader();
+        // We need the class file, as proxies generated later might refer to this proxy class
+        InputStream classFile = classLoader.getResourceAsStream(proxyClassName.replace('.', '/') + ".class");
+        if (classFile == null) {
+            return null;
+        }
+
+        try {
+            // Check the version before loading the class, otherwise we couldn't define the proxy class anymore
+            CtClass cc = pool.makeClass(classFile);
+            Object version = null;
+            try {
+                version = cc.getField("$$_version").getConstantValue();
+            } catch (NotFoundException ex) {
+                // Proxies without a version are always stale
+            }
+            if (!getProxyVersion(managedViewType, inheritanceBase).equals(version)) {
+                cc.detach();
+                LOG.warning("Ignoring the pre-generated proxy class '" + proxyClassName + "' because it was generated for a different version of the entity view. Please regenerate the proxy classes!");
+                return null;
+            }
+            Class<? extends T> c = (Class<? extends T>) Class.forName(proxyClassName, false, classLoader);
+            Field evmField = c.getField("$$_evm");
+            if (evmField.get(null) == null) {
+                evmField.set(null, entityViewManager);
+            }
+
+            return c;
+        } catch (ClassNotFoundException | IOException | NoSuchFieldException | IllegalAccessException ex) {
+            throw new IllegalArgumentException("The class '" + proxyClassName + "' is not a valid entity view proxy!", ex);
+        } finally {
+            try {
+                classFile.close();
+            } catch (IOException ex) {
+                // Ignore
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Class<? extends T> createProxyClass(EntityViewManager entityViewManager, ManagedViewTypeImplementor<T> managedViewType, ManagedViewTypeImplementor<? super T> inheritanceBase, boolean unsafe) {
+        ViewType<T> viewType = managedViewType instanceof ViewType<?> ? (ViewType<T>) managedViewType : null;
+        Class<?> clazz = managedViewType.getJavaType();
+        int subtypeIndex = 0;
+
+        if (inheritanceBase != null) {
+            subtypeIndex = managedViewType.getSubtypeIndex(inheritanceBase);
+        }
+
+        String proxyClassName = getProxyClassName(managedViewType, inheritanceBase, unsafe);
         CtClass cc = pool.makeClass(proxyClassName);
         CtClass superCc;
 
@@ -289,6 +505,12 @@ public class ProxyFactory {
             evmField.setModifiers(Modifier.PUBLIC | Modifier.STATIC | Modifier.VOLATILE);
             cc.addField(evmField);
 
+            if (dumpDirectory != null) {
+                CtField versionField = new CtField(pool.get(String.class.getName()), "$$_version", cc);
+                versionField.setModifiers(Modifier.PUBLIC | Modifier.STATIC | Modifier.FINAL);
+                cc.addField(versionField, CtField.Initializer.constant(getProxyVersion(managedViewType, inheritanceBase)));
+            }
+
             if (managedViewType.isUpdatable() || managedViewType.isCreatable()) {
                 if (managedViewType.getFlushMode() == FlushMode.LAZY || managedViewType.getFlushMode() == FlushMode.PARTIAL) {
                     cc.addInterface(pool.get(DirtyStateTrackable.class.getName()));
@@ -470,6 +692,10 @@ public class ProxyFactory {
     }
 
     private <T> Class<? extends T> defineOrGetClass(EntityViewManager entityViewManager, boolean unsafe, Class<?> clazz, String proxyClassName, CtClass cc) throws IOException, IllegalAccessException, NoSuchFieldException, CannotCompileException {
+        if (dumpDirectory != null) {
+            cc.writeFile(dumpDirectory);
+        }
+
         try {
             Class<? extends T> c;
             if (unsafe) {
@@ -509,6 +735,66 @@ public class ProxyFactory {
         }
     }
 
+    private <T> String getProxyVersion(ManagedViewTypeImplementor<T> managedViewType, ManagedViewTypeImplementor<? super T> inheritanceBase) {
+        // The proxy depends on the entity view types, their inheritance subtypes and the version of the proxy factory
+        Map<String, Class<?>> classes = new TreeMap<>();
+        Set<String> subtypes = new TreeSet<>();
+        collectVersionClasses(managedViewType.getJavaType(), classes);
+        for (ManagedViewTypeImplementor<?> subtype : managedViewType.getInheritanceSubtypeConfiguration().keySet()) {
+            subtypes.add(subtype.getJavaType().getName());
+        }
+        if (inheritanceBase != null) {
+            collectVersionClasses(inheritanceBase.getJavaType(), classes);
+            for (ManagedViewTypeImplementor<?> subtype : inheritanceBase.getInheritanceSubtypeConfiguration().keySet()) {
+                subtypes.add(subtype.getJavaType().getName());
+            }
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(String.valueOf(ProxyFactory.class.getPackage().getImplementationVersion()).getBytes("UTF-8"));
+            for (Class<?> clazz : classes.values()) {
+                digest.update(clazz.getName().getBytes("UTF-8"));
+                InputStream is = clazz.getClassLoader().getResourceAsStream(clazz.getName().replace('.', '/') + ".class");
+                if (is == null) {
+                    throw new IllegalStateException("Could not find the class file of the entity view type '" + clazz.getName() + "'!");
+                }
+                try {
+                    byte[] buffer = new byte[4096];
+                    int read;
+                    while ((read = is.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                    }
+                } finally {
+                    is.close();
+                }
+            }
+            for (String subtype : subtypes) {
+                digest.update(subtype.getBytes("UTF-8"));
+            }
+
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest()) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+                sb.append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException | IOException ex) {
+            throw new IllegalStateException("Could not compute the version of the proxy for the entity view type '" + managedViewType.getJavaType().getName() + "'!", ex);
+        }
+    }
+
+    private static void collectVersionClasses(Class<?> clazz, Map<String, Class<?>> classes) {
+        // Classes of the bootstrap class loader like java.lang.Object don't change with the application
+        if (clazz == null || clazz.getClassLoader() == null || classes.put(clazz.getName(), clazz) != null) {
+            return;
+        }
+        collectVersionClasses(clazz.getSuperclass(), classes);
+        for (Class<?> interfaceClass : clazz.getInterfaces()) {
+            collectVersionClasses(interfaceClass, classes);
+        }
+    }
+
     private boolean shouldAddDefaultConstructor(boolean hasEmptyConstructor, boolean addedReferenceConstructor, CtField[] attributeFields) {
         // Add the default constructor only for interfaces since abstract classes may omit it
         // Only add the "normal" constructor if there are attributes other than the id attribute available, otherwise we get a duplicate member exception
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class TupleIdIndexTest {
+
+    @Test
+    public void testGrowKeepsEntries() {
+        TupleIdIndex<Integer> index = new TupleIdIndex<>(new int[]{ 1 }, 0);
+        for (int i = 0; i < 1000; i++) {
+            index.put(new Object[]{ "value" + i, (long) i }, i);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), index.get(new Object[]{ "other", (long) i }));
+        }
+        assertNull(index.get(new Object[]{ "value", 1000L }));
+    }
+
+    @Test
+    public void testHashCollisions() {
+        TupleIdIndex<Integer> index = new TupleIdIndex<>(new int[]{ 0 }, 0);
+        for (int i = 0; i < 100; i++) {
+            index.put(new Object[]{ new CollidingKey(i) }, i);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(i), index.get(new Object[]{ new CollidingKey(i) }));
+        }
+        assertNull(index.get(new Object[]{ new CollidingKey(100) }));
+    }
+
+    @Test
+    public void testAddWithCompositeIdAndNullElements() {
+        TupleIdIndex<Object> index = TupleIdIndex.forWholeTuple(2, 4);
+        for (int i = 0; i < 50; i++) {
+            assertTrue(index.add(new Object[]{ i, null }));
+            assertTrue(index.add(new Object[]{ i, new byte[]{ (byte) i } }));
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertFalse(index.add(new Object[]{ i, null }));
+            assertFalse(index.add(new Object[]{ i, new byte[]{ (byte) i } }));
+        }
+        assertTrue(index.add(new Object[]{ null, null }));
+    }
+
+    private static final class CollidingKey {
+
+        private final int value;
+
+        CollidingKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return 1;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).value == value;
+        }
+    }
+}
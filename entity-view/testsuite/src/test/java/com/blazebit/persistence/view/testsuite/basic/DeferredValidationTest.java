@@ -0,0 +1,87 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.basic;
+
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.impl.ConfigurationProperties;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.basic.model.DocumentValidationView;
+import com.blazebit.persistence.view.testsuite.basic.model.PersonDuplicateCollectionUsageValidationView;
+import com.blazebit.persistence.view.testsuite.basic.model.PersonValidationView;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class DeferredValidationTest extends AbstractEntityViewTest {
+
+    private EntityViewManager createDeferredValidationEntityViewManager(Class<?>... entityViews) {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.EXPRESSION_VALIDATION_DEFERRED, "true");
+        for (Class<?> entityView : entityViews) {
+            cfg.addEntityView(entityView);
+        }
+        return cfg.createEntityViewManager(cbf);
+    }
+
+    @Test
+    public void testDeferredValidation() {
+        EntityViewManager evm = createDeferredValidationEntityViewManager(DocumentValidationView.class, PersonValidationView.class);
+        evm.validateAll();
+        applySetting(evm, DocumentValidationView.class, cbf.create(em, Document.class));
+    }
+
+    @Test
+    public void testDeferredValidationAll() {
+        // The invalid mapping is not detected when building the entity view manager
+        EntityViewManager evm = createDeferredValidationEntityViewManager(PersonDuplicateCollectionUsageValidationView.class);
+
+        try {
+            evm.validateAll();
+            Assert.fail("Expected validation exception!");
+        } catch (IllegalArgumentException ex) {
+            if (!ex.getMessage().contains("'ownedDocuments'")) {
+                throw ex;
+            }
+        }
+    }
+
+    @Test
+    public void testDeferredValidationOnFirstUse() {
+        EntityViewManager evm = createDeferredValidationEntityViewManager(DocumentValidationView.class, PersonDuplicateCollectionUsageValidationView.class);
+        applySetting(evm, DocumentValidationView.class, cbf.create(em, Document.class));
+
+        // The validation result is kept, so every use of the entity view must fail
+        for (int i = 0; i < 2; i++) {
+            try {
+                applySetting(evm, PersonDuplicateCollectionUsageValidationView.class, cbf.create(em, Person.class));
+                Assert.fail("Expected validation exception!");
+            } catch (IllegalArgumentException ex) {
+                if (!ex.getMessage().contains("'ownedDocuments'")) {
+                    throw ex;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.basic;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus4;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate42;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate43;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate50;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMySQL;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.NameObject;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.impl.ConfigurationProperties;
+import com.blazebit.persistence.view.impl.EntityViewManagerImpl;
+import com.blazebit.persistence.view.impl.metamodel.ViewTypeImpl;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.basic.model.PositionalDocumentCorrelatedView;
+import com.blazebit.persistence.view.testsuite.basic.model.PositionalDocumentEmbeddableView;
+import com.blazebit.persistence.view.testsuite.basic.model.PositionalDocumentMapView;
+import com.blazebit.persistence.view.testsuite.basic.model.PositionalDocumentNameView;
+import com.blazebit.persistence.view.testsuite.basic.model.PositionalNameObjectView;
+import com.blazebit.persistence.view.testsuite.basic.model.PositionalPersonFlatIdView;
+import com.blazebit.persistence.view.testsuite.basic.model.PositionalPersonLimitView;
+import com.blazebit.persistence.view.testsuite.basic.model.PositionalPersonMapView;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Compares the results of entity views that are built from the statically known tuple positions with the results
+ * of the dynamic tuple reduction that is used when the positional object builders are disabled.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class PositionalObjectBuilderTest extends AbstractEntityViewTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p1 = new Person("pers1", 10);
+                p1.setNameObject(new NameObject("p1Primary", null));
+                p1.getLocalized().put(1, "one");
+                p1.getLocalized().put(2, "two");
+                Person p2 = new Person("pers2", 20);
+                Person p3 = new Person("pers3", 30);
+
+                Document doc1 = new Document("doc1", 1);
+                doc1.setOwner(p1);
+                doc1.setNameObject(new NameObject("doc1Primary", "doc1Secondary"));
+                Document doc2 = new Document("doc2", 2);
+                doc2.setOwner(p1);
+                Document doc3 = new Document("doc3", 3);
+                doc3.setOwner(p1);
+                Document doc4 = new Document("doc4", 4);
+                doc4.setOwner(p2);
+                doc4.setNameObject(new NameObject(null, "doc4Secondary"));
+
+                em.persist(p1);
+                em.persist(p2);
+                em.persist(p3);
+                em.persist(doc1);
+                em.persist(doc2);
+                em.persist(doc3);
+                em.persist(doc4);
+            }
+        });
+    }
+
+    @Test
+    public void testSubviewWithMap() {
+        List<PositionalDocumentMapView> positional = getResults(PositionalDocumentMapView.class, Document.class, true, PositionalPersonMapView.class);
+        List<PositionalDocumentMapView> reduced = getResults(PositionalDocumentMapView.class, Document.class, false, PositionalPersonMapView.class);
+
+        assertEquals(4, positional.size());
+        assertEquals(reduced.size(), positional.size());
+        for (int i = 0; i < positional.size(); i++) {
+            assertEquals(reduced.get(i).getId(), positional.get(i).getId());
+            assertEquals(reduced.get(i).getAge(), positional.get(i).getAge());
+            assertEquals(reduced.get(i).getName(), positional.get(i).getName());
+            assertPersonEquals(reduced.get(i).getOwner(), positional.get(i).getOwner());
+        }
+
+        assertEquals("doc1", positional.get(0).getName());
+        assertEquals(1L, positional.get(0).getAge());
+        assertEquals("pers1", positional.get(0).getOwner().getName());
+        assertEquals(10L, positional.get(0).getOwner().getAge());
+        assertEquals(map(1, "one", 2, "two"), positional.get(0).getOwner().getLocalized());
+        assertEquals("doc4", positional.get(3).getName());
+        assertEquals("pers2", positional.get(3).getOwner().getName());
+        assertEquals(0, positional.get(3).getOwner().getLocalized().size());
+    }
+
+    @Test
+    public void testNullIfEmptyEmbeddableSubview() {
+        List<PositionalDocumentEmbeddableView> positional = getResults(PositionalDocumentEmbeddableView.class, Document.class, true, PositionalNameObjectView.class, PositionalPersonFlatIdView.class);
+        List<PositionalDocumentEmbeddableView> reduced = getResults(PositionalDocumentEmbeddableView.class, Document.class, false, PositionalNameObjectView.class, PositionalPersonFlatIdView.class);
+
+        assertEquals(4, positional.size());
+        assertEquals(reduced.size(), positional.size());
+        for (int i = 0; i < positional.size(); i++) {
+            assertEquals(reduced.get(i).getId(), positional.get(i).getId());
+            assertEquals(reduced.get(i).getAge(), positional.get(i).getAge());
+            assertEquals(reduced.get(i).getName(), positional.get(i).getName());
+            assertNameObjectEquals(reduced.get(i).getNameObject(), positional.get(i).getNameObject());
+            if (reduced.get(i).getOwner() == null) {
+                assertNull(positional.get(i).getOwner());
+            } else {
+                assertNameObjectEquals(reduced.get(i).getOwner().getId(), positional.get(i).getOwner().getId());
+                assertEquals(reduced.get(i).getOwner().getAge(), positional.get(i).getOwner().getAge());
+                assertEquals(reduced.get(i).getOwner().getName(), positional.get(i).getOwner().getName());
+            }
+            assertEquals(reduced.get(i).getOwnerName(), positional.get(i).getOwnerName());
+        }
+
+        assertEquals("doc1Primary", positional.get(0).getNameObject().getPrimaryName());
+        assertEquals("doc1Secondary", positional.get(0).getNameObject().getSecondaryName());
+        assertEquals("p1Primary", positional.get(0).getOwner().getId().getPrimaryName());
+        assertEquals(10L, positional.get(0).getOwner().getAge());
+        assertEquals("pers1", positional.get(0).getOwner().getName());
+        assertEquals("pers1", positional.get(0).getOwnerName());
+        // Only flat views used as ids are null if empty, other flat views are always created
+        assertNull(positional.get(1).getNameObject().getPrimaryName());
+        assertNull(positional.get(1).getNameObject().getSecondaryName());
+        assertNull(positional.get(3).getNameObject().getPrimaryName());
+        assertEquals("doc4Secondary", positional.get(3).getNameObject().getSecondaryName());
+        // The owner of doc4 has an empty name object as id, so the owner subview is null
+        assertNull(positional.get(3).getOwner());
+        assertEquals("pers2", positional.get(3).getOwnerName());
+    }
+
+    @Test
+    // NOTE: Requires entity joins which are supported since Hibernate 5.1, Datanucleus 5 and latest Eclipselink
+    @Category({ NoHibernate42.class, NoHibernate43.class, NoHibernate50.class, NoDatanucleus4.class, NoOpenJPA.class, NoEclipselink.class })
+    public void testCorrelatedAttributes() {
+        List<PositionalDocumentCorrelatedView> positional = getResults(PositionalDocumentCorrelatedView.class, Document.class, true, PositionalPersonMapView.class);
+        List<PositionalDocumentCorrelatedView> reduced = getResults(PositionalDocumentCorrelatedView.class, Document.class, false, PositionalPersonMapView.class);
+
+        assertEquals(4, positional.size());
+        assertEquals(reduced.size(), positional.size());
+        for (int i = 0; i < positional.size(); i++) {
+            assertEquals(reduced.get(i).getId(), positional.get(i).getId());
+            assertEquals(reduced.get(i).getName(), positional.get(i).getName());
+            assertPersonEquals(reduced.get(i).getOwnerCorrelated(), positional.get(i).getOwnerCorrelated());
+            assertEquals(reduced.get(i).getOwnerDocumentNames(), positional.get(i).getOwnerDocumentNames());
+            assertEquals(reduced.get(i).getOwnerDocumentNamesSelect(), positional.get(i).getOwnerDocumentNamesSelect());
+            assertEquals(reduced.get(i).getOwnerName(), positional.get(i).getOwnerName());
+        }
+
+        assertEquals("pers1", positional.get(0).getOwnerCorrelated().getName());
+        assertEquals(map(1, "one", 2, "two"), positional.get(0).getOwnerCorrelated().getLocalized());
+        assertEquals(new HashSet<>(Arrays.asList("doc1", "doc2", "doc3")), new HashSet<>(positional.get(0).getOwnerDocumentNames()));
+        assertEquals(new HashSet<>(Arrays.asList("doc1", "doc2", "doc3")), new HashSet<>(positional.get(0).getOwnerDocumentNamesSelect()));
+        assertEquals("pers1", positional.get(0).getOwnerName());
+        assertEquals(new HashSet<>(Arrays.asList("doc4")), new HashSet<>(positional.get(3).getOwnerDocumentNames()));
+        assertEquals("pers2", positional.get(3).getOwnerName());
+    }
+
+    @Test
+    // NOTE: Limited collections are loaded through lateral joins which are only supported by Hibernate 5.1+
+    @Category({ NoHibernate42.class, NoHibernate43.class, NoHibernate50.class, NoDatanucleus.class, NoDatanucleus4.class, NoEclipselink.class, NoOpenJPA.class, NoMySQL.class })
+    public void testLimitedCollection() {
+        List<PositionalPersonLimitView> positional = getResults(PositionalPersonLimitView.class, Person.class, true, PositionalDocumentNameView.class);
+        List<PositionalPersonLimitView> reduced = getResults(PositionalPersonLimitView.class, Person.class, false, PositionalDocumentNameView.class);
+
+        assertEquals(3, positional.size());
+        assertEquals(reduced.size(), positional.size());
+        for (int i = 0; i < positional.size(); i++) {
+            assertEquals(reduced.get(i).getId(), positional.get(i).getId());
+            assertEquals(reduced.get(i).getAge(), positional.get(i).getAge());
+            assertEquals(getNames(reduced.get(i).getLastDocuments()), getNames(positional.get(i).getLastDocuments()));
+            assertEquals(reduced.get(i).getName(), positional.get(i).getName());
+        }
+
+        // The order key columns of the limit come before the name and must not shift it
+        assertEquals(Arrays.asList("doc3", "doc2"), getNames(positional.get(0).getLastDocuments()));
+        assertEquals(10L, positional.get(0).getAge());
+        assertEquals("pers1", positional.get(0).getName());
+        assertEquals(Arrays.asList("doc4"), getNames(positional.get(1).getLastDocuments()));
+        assertEquals("pers2", positional.get(1).getName());
+        assertEquals(0, positional.get(2).getLastDocuments().size());
+        assertEquals("pers3", positional.get(2).getName());
+    }
+
+    private <T> List<T> getResults(Class<T> entityViewClass, Class<?> entityClass, boolean positional, Class<?>... subviewClasses) {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.POSITIONAL_OBJECT_BUILDER, Boolean.toString(positional));
+        cfg.addEntityView(entityViewClass);
+        for (Class<?> subviewClass : subviewClasses) {
+            cfg.addEntityView(subviewClass);
+        }
+        EntityViewManager evm = cfg.createEntityViewManager(cbf);
+
+        // Make sure that the positional object builder is really used or not
+        ViewTypeImpl<?> viewType = (ViewTypeImpl<?>) evm.getMetamodel().view(entityViewClass);
+        int[] attributePositions = ((EntityViewManagerImpl) evm).getTemplate(cbf.getService(ExpressionFactory.class), viewType, null, null).getAttributePositions();
+        if (positional) {
+            assertNotNull(attributePositions);
+        } else {
+            assertNull(attributePositions);
+        }
+
+        CriteriaBuilder<?> criteria = cbf.create(em, entityClass, "e").orderByAsc("id");
+        return evm.applySetting(EntityViewSetting.create(entityViewClass), criteria).getResultList();
+    }
+
+    private static void assertPersonEquals(PositionalPersonMapView expected, PositionalPersonMapView actual) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getAge(), actual.getAge());
+        assertEquals(expected.getLocalized(), actual.getLocalized());
+        assertEquals(expected.getName(), actual.getName());
+    }
+
+    private static void assertNameObjectEquals(PositionalNameObjectView expected, PositionalNameObjectView actual) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+        assertEquals(expected.getPrimaryName(), actual.getPrimaryName());
+        assertEquals(expected.getSecondaryName(), actual.getSecondaryName());
+    }
+
+    private static List<String> getNames(List<PositionalDocumentNameView> views) {
+        List<String> names = new ArrayList<>(views.size());
+        for (PositionalDocumentNameView view : views) {
+            names.add(view.getName());
+        }
+        return names;
+    }
+
+    private static Map<Integer, String> map(Integer key1, String value1, Integer key2, String value2) {
+        Map<Integer, String> map = new HashMap<>();
+        map.put(key1, value1);
+        map.put(key2, value2);
+        return map;
+    }
+}
@@ -20,6 +20,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.impl.ConfigurationProperties;
 import com.blazebit.persistence.view.spi.EntityViewConfiguration;
 import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
 import com.blazebit.persistence.view.testsuite.basic.model.DocumentValidationView;
@@ -71,4 +72,63 @@ public class ValidationTest extends AbstractEntityViewTest {
             }
         }
     }
+
+    @Test
+    public void testParallelValidationDuplicateCollection() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.BOOTSTRAP_PARALLELISM, "4");
+        cfg.addEntityView(DocumentValidationView.class);
+        cfg.addEntityView(PersonValidationView.class);
+        cfg.addEntityView(PersonDuplicateCollectionUsageValidationView.class);
+
+        try {
+            cfg.createEntityViewManager(cbf);
+            Assert.fail("Expected validation exception!");
+        } catch (IllegalArgumentException ex) {
+            if (!ex.getMessage().contains("'ownedDocuments'")) {
+                throw ex;
+            }
+        }
+    }
+
+    @Test
+    public void testParallelValidationReportsErrorsInSequentialOrder() {
+        String sequentialMessage = getValidationMessage("1");
+        Assert.assertTrue(sequentialMessage.contains("'ownedDocuments'"));
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(sequentialMessage, getValidationMessage("4"));
+        }
+    }
+
+    private String getValidationMessage(String parallelism) {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.BOOTSTRAP_PARALLELISM, parallelism);
+        cfg.addEntityView(PersonDuplicateCollectionUsageValidationView.class);
+        cfg.addEntityView(DocumentValidationView.class);
+        cfg.addEntityView(PersonValidationView.class);
+
+        try {
+            cfg.createEntityViewManager(cbf);
+            Assert.fail("Expected validation exception!");
+            return null;
+        } catch (IllegalArgumentException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    @Test
+    public void testInvalidBootstrapParallelism() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.BOOTSTRAP_PARALLELISM, "0");
+        cfg.addEntityView(DocumentValidationView.class);
+
+        try {
+            cfg.createEntityViewManager(cbf);
+            Assert.fail("Expected configuration exception!");
+        } catch (IllegalArgumentException ex) {
+            if (!ex.getMessage().contains(ConfigurationProperties.BOOTSTRAP_PARALLELISM)) {
+                throw ex;
+            }
+        }
+    }
 }
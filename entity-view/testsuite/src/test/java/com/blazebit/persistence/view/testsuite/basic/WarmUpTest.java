@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.basic;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.Sorters;
+import com.blazebit.persistence.view.impl.ConfigurationProperties;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.basic.model.DocumentValidationView;
+import com.blazebit.persistence.view.testsuite.basic.model.PersonDuplicateCollectionUsageValidationView;
+import com.blazebit.persistence.view.testsuite.basic.model.PersonView;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class WarmUpTest extends AbstractEntityViewTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("pers1");
+                em.persist(o1);
+
+                em.persist(new Document("doc1", o1));
+                em.persist(new Document("doc2", o1));
+            }
+        });
+    }
+
+    private EntityViewManager createEntityViewManager(boolean deferValidation, Class<?>... entityViews) {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.EXPRESSION_VALIDATION_DEFERRED, Boolean.toString(deferValidation));
+        for (Class<?> entityView : entityViews) {
+            cfg.addEntityView(entityView);
+        }
+        return cfg.createEntityViewManager(cbf);
+    }
+
+    @Test
+    public void testWarmUp() {
+        EntityViewManager evm = createEntityViewManager(false, DocumentValidationView.class, PersonView.class);
+        evm.warmUp(em, DocumentValidationView.class, PersonView.class);
+        evm.warmUp(em, Collections.singletonList(createPaginatedSetting()));
+
+        // The warm up doesn't need the parameters but the execution does
+        EntityViewSetting<DocumentValidationView, CriteriaBuilder<DocumentValidationView>> setting = EntityViewSetting.create(DocumentValidationView.class);
+        setting.addOptionalParameter("contactPersonNumber", 1);
+        List<DocumentValidationView> documents = evm.applySetting(setting, cbf.create(em, Document.class).orderByAsc("id")).getResultList();
+        Assert.assertEquals(2, documents.size());
+        Assert.assertEquals("doc1", documents.get(0).getName());
+
+        EntityViewSetting<DocumentValidationView, PaginatedCriteriaBuilder<DocumentValidationView>> paginatedSetting = createPaginatedSetting();
+        paginatedSetting.addOptionalParameter("contactPersonNumber", 1);
+        PagedList<DocumentValidationView> page = evm.applySetting(paginatedSetting, cbf.create(em, Document.class)).getResultList();
+        Assert.assertEquals(2, page.getTotalSize());
+        Assert.assertEquals(1, page.size());
+    }
+
+    private EntityViewSetting<DocumentValidationView, PaginatedCriteriaBuilder<DocumentValidationView>> createPaginatedSetting() {
+        EntityViewSetting<DocumentValidationView, PaginatedCriteriaBuilder<DocumentValidationView>> setting = EntityViewSetting.create(DocumentValidationView.class, 0, 1);
+        setting.addAttributeSorter("id", Sorters.ascending());
+        return setting;
+    }
+
+    @Test
+    public void testWarmUpUnknownEntityView() {
+        EntityViewManager evm = createEntityViewManager(false, DocumentValidationView.class);
+
+        try {
+            evm.warmUp(em, PersonView.class);
+            Assert.fail("Expected exception for unknown entity view!");
+        } catch (IllegalArgumentException ex) {
+            if (!ex.getMessage().contains(PersonView.class.getName())) {
+                throw ex;
+            }
+        }
+    }
+
+    @Test
+    public void testWarmUpValidatesDeferredEntityViews() {
+        EntityViewManager evm = createEntityViewManager(true, PersonDuplicateCollectionUsageValidationView.class);
+
+        try {
+            evm.warmUp(em, PersonDuplicateCollectionUsageValidationView.class);
+            Assert.fail("Expected validation exception!");
+        } catch (IllegalArgumentException ex) {
+            if (!ex.getMessage().contains("'ownedDocuments'")) {
+                throw ex;
+            }
+        }
+    }
+}
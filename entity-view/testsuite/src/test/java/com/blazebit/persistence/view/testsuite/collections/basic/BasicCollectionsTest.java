@@ -17,6 +17,7 @@
 package com.blazebit.persistence.view.testsuite.collections.basic;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -33,6 +34,7 @@ import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.view.EntityViewManager;
 import com.blazebit.persistence.view.EntityViewSetting;
@@ -166,4 +168,38 @@ public class BasicCollectionsTest<T extends BasicDocumentCollectionsView> extend
         assertEquals(doc2.getPartners(), results.get(1).getPartners());
         assertEquals(doc2.getPersonList(), results.get(1).getPersonList());
     }
+
+    @Test
+    @Category({ NoEclipselink.class, NoDatanucleus.class })
+    public void testCollectionsIterator() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(viewType);
+        EntityViewManager evm = cfg.createEntityViewManager(cbf);
+
+        // Ordering by id makes the collection rows of one document consecutive so they can be built group by group
+        CriteriaBuilder<DocumentForCollections> criteria = cbf.create(em, DocumentForCollections.class, "d")
+            .orderByAsc("id");
+        CriteriaBuilder<T> cb = evm.applySetting(EntityViewSetting.create(viewType), criteria);
+        CloseableIterator<T> iterator = cb.getResultIterator(1);
+
+        try {
+            // Doc1
+            T result = iterator.next();
+            assertEquals(doc1.getName(), result.getName());
+            assertEquals(doc1.getContacts(), result.getContacts());
+            assertEquals(doc1.getPartners(), result.getPartners());
+            assertEquals(doc1.getPersonList(), result.getPersonList());
+
+            // Doc2
+            result = iterator.next();
+            assertEquals(doc2.getName(), result.getName());
+            assertEquals(doc2.getContacts(), result.getContacts());
+            assertEquals(doc2.getPartners(), result.getPartners());
+            assertEquals(doc2.getPersonList(), result.getPersonList());
+
+            assertFalse(iterator.hasNext());
+        } finally {
+            iterator.close();
+        }
+    }
 }
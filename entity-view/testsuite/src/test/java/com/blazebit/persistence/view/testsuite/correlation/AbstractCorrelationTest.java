@@ -17,6 +17,8 @@
 package com.blazebit.persistence.view.testsuite.correlation;
 
 import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.spi.MetricsListener;
 import com.blazebit.persistence.testsuite.tx.TxVoidWork;
 import com.blazebit.persistence.view.EntityViewManager;
 import com.blazebit.persistence.view.EntityViewSetting;
@@ -34,8 +36,10 @@ import org.junit.Before;
 
 import javax.persistence.EntityManager;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 
@@ -92,20 +96,52 @@ public abstract class AbstractCorrelationTest extends AbstractEntityViewTest {
     }
 
     protected <T extends DocumentCorrelationView> void testCorrelation(Class<T> entityView, Integer batchSize) {
+        testCorrelation(createCorrelationEntityViewManager(entityView), entityView, batchSize);
+    }
+
+    protected EntityViewManager createCorrelationEntityViewManager(Class<?> entityView) {
+        return createCorrelationEntityViewManager(entityView, null);
+    }
+
+    protected EntityViewManager createCorrelationEntityViewManager(Class<?> entityView, MetricsListener metricsListener) {
+        return createCorrelationEntityViewManager(cbf, entityView, metricsListener);
+    }
+
+    protected EntityViewManager createCorrelationEntityViewManager(CriteriaBuilderFactory cbf, Class<?> entityView, MetricsListener metricsListener) {
         EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
         cfg.addEntityView(entityView);
         cfg.addEntityView(SimpleDocumentCorrelatedView.class);
         cfg.addEntityView(SimplePersonCorrelatedSubView.class);
-        EntityViewManager evm = cfg.createEntityViewManager(cbf);
+        if (metricsListener != null) {
+            cfg.setMetricsListener(metricsListener);
+        }
+        return cfg.createEntityViewManager(cbf);
+    }
 
+    protected <T extends DocumentCorrelationView> void testCorrelation(EntityViewManager evm, Class<T> entityView, Integer batchSize) {
+        Map<String, Object> properties = new HashMap<>();
+        if (batchSize != null) {
+            properties.put(ConfigurationProperties.DEFAULT_BATCH_SIZE + ".ownerRelatedDocumentIds", batchSize);
+        }
+        testCorrelationWithProperties(evm, entityView, properties);
+    }
+
+    protected <T extends DocumentCorrelationView> void testCorrelationWithProperties(EntityViewManager evm, Class<T> entityView, Map<String, Object> properties) {
+        testCorrelationWithProperties(cbf, evm, entityView, properties);
+    }
+
+    protected <T extends DocumentCorrelationView> void testCorrelationWithProperties(CriteriaBuilderFactory cbf, EntityViewManager evm, Class<T> entityView, Map<String, Object> properties) {
         CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d").orderByAsc("id");
         EntityViewSetting<T, CriteriaBuilder<T>> setting = EntityViewSetting.create(entityView);
-        if (batchSize != null) {
-            setting.setProperty(ConfigurationProperties.DEFAULT_BATCH_SIZE + ".ownerRelatedDocumentIds", batchSize);
+        for (Map.Entry<String, Object> entry : properties.entrySet()) {
+            setting.setProperty(entry.getKey(), entry.getValue());
         }
         CriteriaBuilder<T> cb = evm.applySetting(setting, criteria);
         List<T> results = cb.getResultList();
+        assertCorrelationResults(results);
+    }
 
+    protected void assertCorrelationResults(List<? extends DocumentCorrelationView> results) {
         assertEquals(4, results.size());
 
         // Doc1
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.correlation.limit;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus4;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate42;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate43;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate50;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMySQL;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.impl.ConfigurationProperties;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.correlation.AbstractCorrelationTest;
+import com.blazebit.persistence.view.testsuite.correlation.limit.model.PersonLimitInvalidOrderView;
+import com.blazebit.persistence.view.testsuite.correlation.limit.model.PersonLimitInvalidView;
+import com.blazebit.persistence.view.testsuite.correlation.limit.model.PersonLimitMixedCaseView;
+import com.blazebit.persistence.view.testsuite.correlation.limit.model.PersonLimitOrderView;
+import com.blazebit.persistence.view.testsuite.correlation.limit.model.PersonLimitView;
+import com.blazebit.persistence.view.testsuite.correlation.limit.model.SimpleDocumentLimitView;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Limited collections are loaded through lateral joins which are only supported by Hibernate 5.1+.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+@Category({ NoHibernate42.class, NoHibernate43.class, NoHibernate50.class, NoDatanucleus.class, NoDatanucleus4.class, NoEclipselink.class, NoOpenJPA.class, NoMySQL.class })
+public class LimitCorrelationTest extends AbstractCorrelationTest {
+
+    @Override
+    public void setUpOnce() {
+        super.setUpOnce();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                // Mixed case order keys are ordered differently by case sensitive and case insensitive collations
+                em.find(Document.class, doc2.getId()).setNonJoinable("a");
+                em.find(Document.class, doc3.getId()).setNonJoinable("B");
+                em.find(Document.class, doc4.getId()).setNonJoinable("c");
+            }
+        });
+    }
+
+    @Test
+    public void testLimit() {
+        assertLimitedResults(getResults(PersonLimitView.class, null));
+    }
+
+    @Test
+    public void testLimitSingleBatch() {
+        assertLimitedResults(getResults(PersonLimitView.class, 1));
+    }
+
+    @Test
+    public void testLimitBatched() {
+        assertLimitedResults(getResults(PersonLimitView.class, 2));
+    }
+
+    @Test
+    public void testLimitOrder() {
+        assertLimitOrderResults(getResults(PersonLimitOrderView.class, null));
+    }
+
+    @Test
+    public void testLimitOrderSingleBatch() {
+        assertLimitOrderResults(getResults(PersonLimitOrderView.class, 1));
+    }
+
+    @Test
+    public void testLimitOrderBatched() {
+        assertLimitOrderResults(getResults(PersonLimitOrderView.class, 2));
+    }
+
+    @Test
+    public void testLimitOrderMixedCase() {
+        List<PersonLimitMixedCaseView> results = getResults(PersonLimitMixedCaseView.class, 1);
+        assertEquals(3, results.size());
+
+        // The joined elements must be in the order of the database collation like the selected ones
+        List<Long> selectedIds = getIds(results.get(1).getFirstDocumentsSelect());
+        assertEquals(2, selectedIds.size());
+        assertEquals(selectedIds, getIds(results.get(1).getFirstDocumentsJoin()));
+    }
+
+    @Test
+    public void testInvalidLimitOrder() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(PersonLimitInvalidOrderView.class);
+        cfg.addEntityView(SimpleDocumentLimitView.class);
+        try {
+            cfg.createEntityViewManager(cbf);
+            fail("Expected the non-basic limit order to be rejected");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().contains("non-basic"));
+        }
+    }
+
+    @Test
+    public void testInvalidLimit() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(PersonLimitInvalidView.class);
+        cfg.addEntityView(SimpleDocumentLimitView.class);
+        try {
+            cfg.createEntityViewManager(cbf);
+            fail("Expected the invalid limit to be rejected");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().contains("limit"));
+        }
+    }
+
+    private <T> List<T> getResults(Class<T> entityViewClass, Integer batchSize) {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(entityViewClass);
+        cfg.addEntityView(SimpleDocumentLimitView.class);
+        EntityViewManager evm = cfg.createEntityViewManager(cbf);
+
+        EntityViewSetting<T, CriteriaBuilder<T>> setting = EntityViewSetting.create(entityViewClass);
+        if (batchSize != null) {
+            setting.setProperty(ConfigurationProperties.DEFAULT_BATCH_SIZE, batchSize);
+        }
+        CriteriaBuilder<Person> criteria = cbf.create(em, Person.class, "p").orderByAsc("id");
+        return evm.applySetting(setting, criteria).getResultList();
+    }
+
+    private void assertLimitedResults(List<PersonLimitView> results) {
+        assertEquals(3, results.size());
+
+        // Pers1 owns doc1
+        assertEquals(Arrays.asList(doc1.getId()), getIds(results.get(0).getLatestDocumentsJoin()));
+        assertEquals(Arrays.asList(doc1.getId()), getIds(results.get(0).getLatestDocumentsSelect()));
+        assertEquals(Arrays.asList(doc1.getId()), getIds(results.get(0).getLatestDocumentsSubselect()));
+        assertEquals(0, results.get(0).getSecondLatestDocuments().size());
+
+        // Pers2 owns doc2, doc3 and doc4
+        assertEquals(Arrays.asList(doc4.getId()), getIds(results.get(1).getLatestDocumentsJoin()));
+        assertEquals(Arrays.asList(doc4.getId()), getIds(results.get(1).getLatestDocumentsSelect()));
+        assertEquals(Arrays.asList(doc4.getId()), getIds(results.get(1).getLatestDocumentsSubselect()));
+        assertEquals(Arrays.asList(doc3.getId()), getIds(results.get(1).getSecondLatestDocuments()));
+        assertEquals(doc4.getName(), results.get(1).getLatestDocumentsSelect().get(0).getName());
+
+        // Pers3 owns nothing
+        assertEquals(0, results.get(2).getLatestDocumentsJoin().size());
+        assertEquals(0, results.get(2).getLatestDocumentsSelect().size());
+        assertEquals(0, results.get(2).getLatestDocumentsSubselect().size());
+        assertEquals(0, results.get(2).getSecondLatestDocuments().size());
+    }
+
+    private void assertLimitOrderResults(List<PersonLimitOrderView> results) {
+        assertEquals(3, results.size());
+
+        // Pers1 owns doc1
+        assertEquals(Arrays.asList(doc1.getId()), getIds(results.get(0).getLatestDocumentsJoin()));
+        assertEquals(Arrays.asList(doc1.getId()), getIds(results.get(0).getLatestDocumentsSelect()));
+        assertEquals(Arrays.asList(doc1.getId()), getIds(results.get(0).getLatestDocumentsSubselect()));
+
+        // Pers2 owns doc2, doc3 and doc4 and the limited elements are in the order of the limit
+        assertEquals(Arrays.asList(doc4.getId(), doc3.getId()), getIds(results.get(1).getLatestDocumentsJoin()));
+        assertEquals(Arrays.asList(doc4.getId(), doc3.getId()), getIds(results.get(1).getLatestDocumentsSelect()));
+        assertEquals(Arrays.asList(doc4.getId(), doc3.getId()), getIds(results.get(1).getLatestDocumentsSubselect()));
+
+        // Pers3 owns nothing
+        assertEquals(0, results.get(2).getLatestDocumentsJoin().size());
+        assertEquals(0, results.get(2).getLatestDocumentsSelect().size());
+        assertEquals(0, results.get(2).getLatestDocumentsSubselect().size());
+    }
+
+    private static List<Long> getIds(List<SimpleDocumentLimitView> views) {
+        List<Long> ids = new ArrayList<>(views.size());
+        for (SimpleDocumentLimitView view : views) {
+            ids.add(view.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.correlation.limit.model;
+
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.FetchStrategy;
+import com.blazebit.persistence.view.IdMapping;
+import com.blazebit.persistence.view.Limit;
+import com.blazebit.persistence.view.Mapping;
+
+import java.util.List;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+@EntityView(Person.class)
+public interface PersonLimitOrderView {
+
+    @IdMapping
+    public Long getId();
+
+    @Limit(limit = 2, order = "id DESC")
+    @Mapping(value = "ownedDocuments", fetch = FetchStrategy.JOIN)
+    public List<SimpleDocumentLimitView> getLatestDocumentsJoin();
+
+    @Limit(limit = 2, order = "id DESC")
+    @Mapping(value = "ownedDocuments", fetch = FetchStrategy.SELECT)
+    public List<SimpleDocumentLimitView> getLatestDocumentsSelect();
+
+    @Limit(limit = 2, order = "id DESC")
+    @Mapping(value = "ownedDocuments", fetch = FetchStrategy.SUBSELECT)
+    public List<SimpleDocumentLimitView> getLatestDocumentsSubselect();
+}
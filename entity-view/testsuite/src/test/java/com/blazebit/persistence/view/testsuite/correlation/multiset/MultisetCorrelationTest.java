@@ -0,0 +1,192 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.correlation.multiset;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDB2;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus4;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoFirebird;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMSSQL;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOracle;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoSQLite;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.correlation.AbstractCorrelationTest;
+import com.blazebit.persistence.view.testsuite.correlation.model.SimplePersonCorrelatedSubView;
+import com.blazebit.persistence.view.testsuite.correlation.multiset.model.DocumentMultisetCorrelationView;
+import com.blazebit.persistence.view.testsuite.correlation.multiset.model.DocumentMultisetEntityView;
+import com.blazebit.persistence.view.testsuite.correlation.multiset.model.DocumentMultisetListView;
+import com.blazebit.persistence.view.testsuite.correlation.multiset.model.SimpleDocumentMultisetView;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The multiset aggregate function is only implemented for H2, MySQL and PostgreSQL.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+@Category({ NoDB2.class, NoOracle.class, NoMSSQL.class, NoFirebird.class, NoSQLite.class, NoDatanucleus.class, NoDatanucleus4.class, NoEclipselink.class, NoOpenJPA.class })
+public class MultisetCorrelationTest extends AbstractCorrelationTest {
+
+    private static final String SPECIAL_NAME = "doc \"5\", [\\5]";
+
+    private Document doc5;
+
+    @Override
+    public void setUpOnce() {
+        super.setUpOnce();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o4 = new Person("pers4");
+                doc5 = new Document(SPECIAL_NAME, 5L);
+                doc5.setOwner(o4);
+
+                Person partner = new Person("partner");
+                partner.setPartnerDocument(doc5);
+
+                em.persist(o4);
+                em.persist(doc5);
+                em.persist(partner);
+            }
+        });
+    }
+
+    @Before
+    @Override
+    public void setUp() {
+        super.setUp();
+        doc5 = cbf.create(em, Document.class).where("name").eq(SPECIAL_NAME).getSingleResult();
+    }
+
+    @Test
+    public void testMultisetCorrelation() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(DocumentMultisetCorrelationView.class);
+        cfg.addEntityView(SimpleDocumentMultisetView.class);
+        cfg.addEntityView(SimplePersonCorrelatedSubView.class);
+        EntityViewManager evm = cfg.createEntityViewManager(cbf);
+
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d").orderByAsc("id");
+        List<DocumentMultisetCorrelationView> results = evm.applySetting(EntityViewSetting.create(DocumentMultisetCorrelationView.class), criteria).getResultList();
+
+        assertEquals(5, results.size());
+        // Doc1
+        assertEquals(doc1.getName(), results.get(0).getName());
+        assertEquals(0, results.get(0).getOwnerRelatedDocumentIds().size());
+        assertEquals(0, results.get(0).getOwnerRelatedDocumentViews().size());
+        assertEquals(set(doc1.getName()), results.get(0).getOwnerOnlyRelatedDocumentNames());
+        assertEquals(1, results.get(0).getCorrelatedOwnerViewList().size());
+        assertEquals(doc1.getOwner().getId(), results.get(0).getCorrelatedOwnerViewList().iterator().next().getId());
+        assertEquals("PERS1", results.get(0).getCorrelatedOwnerViewList().iterator().next().getName());
+        assertEquals(0, results.get(0).getPartners().size());
+
+        // Doc2
+        assertEquals(doc2.getName(), results.get(1).getName());
+        assertEquals(set(doc3.getId(), doc4.getId()), results.get(1).getOwnerRelatedDocumentIds());
+        assertEquals(set(doc3.getId(), doc4.getId()), getIds(results.get(1).getOwnerRelatedDocumentViews()));
+        assertEquals(set(doc2.getName(), doc3.getName(), doc4.getName()), results.get(1).getOwnerOnlyRelatedDocumentNames());
+        assertEquals("PERS2", results.get(1).getCorrelatedOwnerViewList().iterator().next().getName());
+
+        // Doc5 contains characters that need to be escaped
+        DocumentMultisetCorrelationView result5 = results.get(4);
+        assertEquals(SPECIAL_NAME, result5.getName());
+        assertEquals(set(SPECIAL_NAME), result5.getOwnerOnlyRelatedDocumentNames());
+        assertEquals(0, result5.getOwnerRelatedDocumentViews().size());
+        assertEquals(1, result5.getPartners().size());
+        assertEquals("PARTNER", result5.getPartners().iterator().next().getName());
+    }
+
+    @Test
+    public void testMultisetCorrelationSubviewAttributes() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(DocumentMultisetCorrelationView.class);
+        cfg.addEntityView(SimpleDocumentMultisetView.class);
+        cfg.addEntityView(SimplePersonCorrelatedSubView.class);
+        EntityViewManager evm = cfg.createEntityViewManager(cbf);
+
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d").where("id").eq(doc3.getId());
+        DocumentMultisetCorrelationView result = evm.applySetting(EntityViewSetting.create(DocumentMultisetCorrelationView.class), criteria).getSingleResult();
+
+        assertEquals(2, result.getOwnerRelatedDocumentViews().size());
+        for (SimpleDocumentMultisetView view : result.getOwnerRelatedDocumentViews()) {
+            assertTrue(view.getId().equals(doc2.getId()) || view.getId().equals(doc4.getId()));
+            assertEquals(view.getId().equals(doc2.getId()) ? doc2.getName() : doc4.getName(), view.getName());
+            assertEquals(0L, view.getAge());
+        }
+    }
+
+    @Test
+    public void testMultisetCorrelationRejectsEntityElements() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(DocumentMultisetEntityView.class);
+        try {
+            cfg.createEntityViewManager(cbf);
+            fail("Expected the entity element type to be rejected");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().contains("MULTISET"));
+            assertTrue(ex.getMessage().contains(Person.class.getName()));
+        }
+    }
+
+    @Test
+    public void testMultisetCorrelationRejectsLists() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(DocumentMultisetListView.class);
+        try {
+            cfg.createEntityViewManager(cbf);
+            fail("Expected the list attribute to be rejected as the aggregated elements have no order");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().contains("MULTISET"));
+            assertTrue(ex.getMessage().contains("getOwnerOnlyRelatedDocumentIds"));
+        }
+    }
+
+    private static Set<Long> getIds(Collection<SimpleDocumentMultisetView> views) {
+        Set<Long> ids = new HashSet<>(views.size());
+        for (SimpleDocumentMultisetView view : views) {
+            ids.add(view.getId());
+        }
+        return ids;
+    }
+
+    @SafeVarargs
+    private static <T> Set<T> set(T... elements) {
+        return new HashSet<>(Arrays.asList(elements));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.correlation.simple;
+
+import com.blazebit.persistence.CloseableIterator;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.spi.MetricsCounter;
+import com.blazebit.persistence.testsuite.RecordingMetricsListener;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus4;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.impl.ConfigurationProperties;
+import com.blazebit.persistence.view.testsuite.correlation.AbstractCorrelationTest;
+import com.blazebit.persistence.view.testsuite.correlation.simple.model.DocumentSimpleCorrelationViewSubqueryNormal;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Entity views with correlated attributes are not built incrementally when iterating the result,
+ * but only after all rows have been read, since the correlation is done for all view objects at once.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+// NOTE: Requires values clause which currently is only available for Hibernate
+@Category({ NoDatanucleus4.class, NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class})
+public class SimpleCorrelationResultIteratorTest extends AbstractCorrelationTest {
+
+    @Test
+    public void testSubqueryBatchedCorrelationIterator() {
+        EntityViewManager evm = createCorrelationEntityViewManager(DocumentSimpleCorrelationViewSubqueryNormal.class);
+        assertCorrelationResults(iterate(evm));
+    }
+
+    @Test
+    public void testSubqueryBatchedCorrelationIteratorCorrelatesAllRowsAtOnce() {
+        RecordingMetricsListener listener = new RecordingMetricsListener();
+        EntityViewManager evm = createCorrelationEntityViewManager(DocumentSimpleCorrelationViewSubqueryNormal.class, listener);
+
+        createSetting(evm).getResultList();
+        long listBatches = listener.getCount(MetricsCounter.CORRELATION_BATCHES);
+        assertTrue(listBatches > 0);
+
+        // Building the views group by group would correlate every view separately and thus need more batches
+        assertCorrelationResults(iterate(evm));
+        assertEquals(2 * listBatches, listener.getCount(MetricsCounter.CORRELATION_BATCHES));
+    }
+
+    private CriteriaBuilder<DocumentSimpleCorrelationViewSubqueryNormal> createSetting(EntityViewManager evm) {
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d").orderByAsc("id");
+        EntityViewSetting<DocumentSimpleCorrelationViewSubqueryNormal, CriteriaBuilder<DocumentSimpleCorrelationViewSubqueryNormal>> setting = EntityViewSetting.create(DocumentSimpleCorrelationViewSubqueryNormal.class);
+        setting.setProperty(ConfigurationProperties.DEFAULT_BATCH_SIZE + ".ownerRelatedDocumentIds", 2);
+        return evm.applySetting(setting, criteria);
+    }
+
+    private List<DocumentSimpleCorrelationViewSubqueryNormal> iterate(EntityViewManager evm) {
+        List<DocumentSimpleCorrelationViewSubqueryNormal> results = new ArrayList<>();
+        CloseableIterator<DocumentSimpleCorrelationViewSubqueryNormal> iterator = createSetting(evm).getResultIterator(2);
+        try {
+            while (iterator.hasNext()) {
+                results.add(iterator.next());
+            }
+        } finally {
+            iterator.close();
+        }
+        return results;
+    }
+}
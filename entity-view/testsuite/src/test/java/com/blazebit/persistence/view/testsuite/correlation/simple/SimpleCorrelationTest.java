@@ -16,6 +16,17 @@
 
 package com.blazebit.persistence.view.testsuite.correlation.simple;
 
+import com.blazebit.persistence.Criteria;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.spi.DbmsDialect;
+import com.blazebit.persistence.spi.MetricsCache;
+import com.blazebit.persistence.spi.MetricsCounter;
+import com.blazebit.persistence.spi.MetricsPhase;
+import com.blazebit.persistence.testsuite.DelegatingDbmsDialect;
+import com.blazebit.persistence.testsuite.RecordingMetricsListener;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus4;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
@@ -23,7 +34,12 @@ import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate42;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate43;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate50;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.impl.ConfigurationProperties;
 import com.blazebit.persistence.view.testsuite.correlation.AbstractCorrelationTest;
+import com.blazebit.persistence.view.testsuite.correlation.model.DocumentCorrelationView;
 import com.blazebit.persistence.view.testsuite.correlation.simple.model.DocumentSimpleCorrelationViewJoinId;
 import com.blazebit.persistence.view.testsuite.correlation.simple.model.DocumentSimpleCorrelationViewJoinNormal;
 import com.blazebit.persistence.view.testsuite.correlation.simple.model.DocumentSimpleCorrelationViewSubqueryId;
@@ -33,6 +49,25 @@ import com.blazebit.persistence.view.testsuite.correlation.simple.model.Document
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 /**
  *
  * @author Christian Beikov
@@ -96,6 +131,197 @@ public class SimpleCorrelationTest extends AbstractCorrelationTest {
         testCorrelation(DocumentSimpleCorrelationViewSubqueryId.class, 20);
     }
 
+    @Test
+    // NOTE: Requires values clause which currently is only available for Hibernate
+    @Category({ NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class})
+    public void testSubqueryAdaptiveBatchedCorrelationNormalSize20() {
+        testAdaptiveBatchedCorrelation(DocumentSimpleCorrelationViewSubqueryNormal.class, 20);
+    }
+
+    @Test
+    // NOTE: Requires values clause which currently is only available for Hibernate
+    @Category({ NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class})
+    public void testSubqueryAdaptiveBatchedCorrelationIdSize20() {
+        testAdaptiveBatchedCorrelation(DocumentSimpleCorrelationViewSubqueryId.class, 20);
+    }
+
+    private <T extends DocumentCorrelationView> void testAdaptiveBatchedCorrelation(Class<T> entityView, int batchSize) {
+        RecordingMetricsListener listener = new RecordingMetricsListener();
+        EntityViewManager evm = createCorrelationEntityViewManager(entityView, listener);
+
+        testCorrelation(evm, entityView, 1);
+        long singleBatches = listener.getCount(MetricsCounter.CORRELATION_BATCHES);
+        listener.reset();
+        testCorrelation(evm, entityView, batchSize);
+        long fixedBatches = listener.getCount(MetricsCounter.CORRELATION_BATCHES);
+        assertTrue(fixedBatches < singleBatches);
+
+        // The test data has fewer correlation keys than the batch size, so the adaptive batch size needs the same number of
+        // correlation queries but uses a smaller batch size and thus a different correlation query than the one cached above
+        listener.reset();
+        testCorrelationWithProperties(evm, entityView, createAdaptiveBatchSizeProperties(batchSize));
+        assertEquals(fixedBatches, listener.getCount(MetricsCounter.CORRELATION_BATCHES));
+        assertTrue(listener.getMissCount(MetricsCache.CORRELATION_QUERY) > 0);
+
+        // The effective batch size only depends on the correlation keys, so the adaptive correlation query is reused
+        listener.reset();
+        testCorrelationWithProperties(evm, entityView, createAdaptiveBatchSizeProperties(batchSize));
+        assertEquals(fixedBatches, listener.getCount(MetricsCounter.CORRELATION_BATCHES));
+        assertEquals(0, listener.getMissCount(MetricsCache.CORRELATION_QUERY));
+    }
+
+    private Map<String, Object> createAdaptiveBatchSizeProperties(int batchSize) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(ConfigurationProperties.DEFAULT_BATCH_SIZE + ".ownerRelatedDocumentIds", batchSize);
+        properties.put(ConfigurationProperties.ADAPTIVE_BATCH_SIZE + ".ownerRelatedDocumentIds", true);
+        return properties;
+    }
+
+    @Test
+    // NOTE: Datenucleus issue: https://github.com/datanucleus/datanucleus-api-jpa/issues/77
+    @Category({ NoDatanucleus.class })
+    public void testSubqueryCorrelationConcurrently() {
+        testCorrelationConcurrently(DocumentSimpleCorrelationViewSubqueryId.class);
+    }
+
+    @Test
+    public void testSubselectCorrelationConcurrently() {
+        testCorrelationConcurrently(DocumentSimpleCorrelationViewSubselectId.class);
+    }
+
+    private <T extends DocumentCorrelationView> void testCorrelationConcurrently(Class<T> entityView) {
+        final Thread callingThread = Thread.currentThread();
+        final AtomicInteger pendingTasks = new AtomicInteger();
+        final AtomicBoolean overlapped = new AtomicBoolean();
+        final CountDownLatch callingThreadCorrelated = new CountDownLatch(1);
+        final Set<Thread> correlatingThreads = Collections.synchronizedSet(new HashSet<Thread>());
+        RecordingMetricsListener listener = new RecordingMetricsListener() {
+            @Override
+            public synchronized void recordCount(MetricsCounter counter, long amount) {
+                super.recordCount(counter, amount);
+                if (counter == MetricsCounter.CORRELATION_BATCHES) {
+                    correlatingThreads.add(Thread.currentThread());
+                    if (Thread.currentThread() == callingThread && pendingTasks.get() > 0) {
+                        overlapped.set(true);
+                        callingThreadCorrelated.countDown();
+                    }
+                }
+            }
+        };
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        Executor executor = new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                pendingTasks.incrementAndGet();
+                executorService.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            command.run();
+                            // Keep the task pending until the calling thread correlated as well, which proves the calling thread did not wait for the task
+                            callingThreadCorrelated.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            pendingTasks.decrementAndGet();
+                        }
+                    }
+                });
+            }
+        };
+
+        List<T> results;
+        try {
+            CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d").orderByAsc("id");
+            EntityViewSetting<T, CriteriaBuilder<T>> setting = EntityViewSetting.create(entityView);
+            setting.setProperty(ConfigurationProperties.CORRELATION_EXECUTOR, executor);
+            results = createCorrelationEntityViewManager(entityView, listener).applySetting(setting, criteria).getResultList();
+        } finally {
+            executorService.shutdown();
+        }
+
+        assertCorrelationResults(results);
+        assertTrue(overlapped.get());
+        assertTrue(correlatingThreads.contains(callingThread));
+        assertTrue(correlatingThreads.size() > 1);
+        // Correlations with entity results are fetched with the entity manager of the query, so the entities are managed
+        for (T result : results) {
+            assertManaged(result.getCorrelatedOwner());
+            assertManaged(result.getCorrelatedOwnerList());
+            assertManaged(result.getOwnerRelatedDocuments());
+            assertManaged(result.getOwnerOnlyRelatedDocuments());
+            assertManaged(result.getThisCorrelatedEntity());
+            assertManaged(result.getThisCorrelatedEntityList());
+        }
+    }
+
+    private void assertManaged(Object entity) {
+        if (entity != null) {
+            assertTrue(em.contains(entity));
+        }
+    }
+
+    private void assertManaged(Collection<?> entities) {
+        for (Object entity : entities) {
+            assertTrue(em.contains(entity));
+        }
+    }
+
+    @Test
+    public void testSubselectCorrelationRecordsBatches() {
+        RecordingMetricsListener listener = new RecordingMetricsListener();
+        EntityViewManager evm = createCorrelationEntityViewManager(DocumentSimpleCorrelationViewSubselectNormal.class, listener);
+
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d").orderByAsc("id");
+        List<DocumentSimpleCorrelationViewSubselectNormal> results = evm.applySetting(EntityViewSetting.create(DocumentSimpleCorrelationViewSubselectNormal.class), criteria)
+                .getResultList();
+
+        assertEquals(4, results.size());
+        assertTrue(listener.getCount(MetricsCounter.CORRELATION_BATCHES) > 0);
+        // The tuple transformations of the view query and the correlation queries are recorded by the listener of the entity view configuration
+        int listTransformations = listener.getPhaseCount(MetricsPhase.TUPLE_TRANSFORMATION);
+        assertTrue(listTransformations > 0);
+
+        criteria = cbf.create(em, Document.class, "d").orderByAsc("id");
+        EntityViewSetting<DocumentSimpleCorrelationViewSubselectNormal, PaginatedCriteriaBuilder<DocumentSimpleCorrelationViewSubselectNormal>> setting = EntityViewSetting.create(DocumentSimpleCorrelationViewSubselectNormal.class, 0, 2);
+        setting.setProperty(ConfigurationProperties.SUBSELECT_CORRELATION_BY_IDS, true);
+        results = evm.applySetting(setting, criteria).getResultList();
+
+        assertEquals(2, results.size());
+        assertTrue(listener.getPhaseCount(MetricsPhase.TUPLE_TRANSFORMATION) > listTransformations);
+    }
+
+    @Test
+    // NOTE: Datenucleus issue: https://github.com/datanucleus/datanucleus-api-jpa/issues/77
+    @Category({ NoDatanucleus.class })
+    public void testSubqueryCorrelationReusesCachedCorrelationQueries() {
+        RecordingMetricsListener listener = new RecordingMetricsListener();
+        EntityViewManager evm = createCorrelationEntityViewManager(DocumentSimpleCorrelationViewSubqueryId.class, listener);
+
+        testCorrelation(evm, DocumentSimpleCorrelationViewSubqueryId.class, null);
+        int firstMisses = listener.getMissCount(MetricsCache.CORRELATION_QUERY);
+        assertEquals(0, listener.getHitCount(MetricsCache.CORRELATION_QUERY));
+        assertTrue(firstMisses > 0);
+
+        testCorrelation(evm, DocumentSimpleCorrelationViewSubqueryId.class, null);
+        assertEquals(firstMisses, listener.getMissCount(MetricsCache.CORRELATION_QUERY));
+        assertTrue(listener.getHitCount(MetricsCache.CORRELATION_QUERY) > 0);
+    }
+
+    @Test
+    // NOTE: Requires values clause which currently is only available for Hibernate
+    @Category({ NoDatanucleus4.class, NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class})
+    public void testSubqueryBatchedCorrelationReusesCachedCorrelationQueries() {
+        RecordingMetricsListener listener = new RecordingMetricsListener();
+        EntityViewManager evm = createCorrelationEntityViewManager(DocumentSimpleCorrelationViewSubqueryNormal.class, listener);
+
+        testCorrelation(evm, DocumentSimpleCorrelationViewSubqueryNormal.class, 2);
+        int firstMisses = listener.getMissCount(MetricsCache.CORRELATION_QUERY);
+        testCorrelation(evm, DocumentSimpleCorrelationViewSubqueryNormal.class, 2);
+        assertEquals(firstMisses, listener.getMissCount(MetricsCache.CORRELATION_QUERY));
+        assertTrue(listener.getHitCount(MetricsCache.CORRELATION_QUERY) > 0);
+    }
+
     // TODO: test batch correlation expectation configuration
     // TODO: make explicit test for correlation key batching with view root usage maybe via nested subviews through collections?
 
@@ -109,6 +335,78 @@ public class SimpleCorrelationTest extends AbstractCorrelationTest {
         testCorrelation(DocumentSimpleCorrelationViewSubselectId.class, null);
     }
 
+    @Test
+    public void testSubselectCorrelationByIdsNormal() {
+        testSubselectCorrelationByIds(DocumentSimpleCorrelationViewSubselectNormal.class);
+    }
+
+    @Test
+    public void testSubselectCorrelationByIdsId() {
+        testSubselectCorrelationByIds(DocumentSimpleCorrelationViewSubselectId.class);
+    }
+
+    private <T extends DocumentCorrelationView> void testSubselectCorrelationByIds(Class<T> entityView) {
+        RecordingMetricsListener listener = new RecordingMetricsListener();
+        testCorrelation(createCorrelationEntityViewManager(entityView, listener), entityView, null);
+        long subselectBatches = listener.getCount(MetricsCounter.CORRELATION_BATCHES);
+        assertTrue(subselectBatches > 0);
+
+        // The four view root ids exceed the IN list limit of two, so every correlation by ids needs two queries
+        listener.reset();
+        CriteriaBuilderFactory cbf = createInListLimitedCriteriaBuilderFactory(2);
+        testCorrelationWithProperties(cbf, createCorrelationEntityViewManager(cbf, entityView, listener), entityView, createSubselectCorrelationByIdsProperties());
+        assertEquals(2 * subselectBatches, listener.getCount(MetricsCounter.CORRELATION_BATCHES));
+    }
+
+    @Test
+    public void testSubselectCorrelationByIdsPaginated() {
+        RecordingMetricsListener listener = new RecordingMetricsListener();
+        testSubselectCorrelationByIdsPaginated(cbf, listener);
+        long byIdsBatches = listener.getCount(MetricsCounter.CORRELATION_BATCHES);
+        assertTrue(byIdsBatches > 0);
+
+        // The two view root ids of the page exceed the IN list limit of one, so every correlation by ids needs two queries
+        listener.reset();
+        testSubselectCorrelationByIdsPaginated(createInListLimitedCriteriaBuilderFactory(1), listener);
+        assertEquals(2 * byIdsBatches, listener.getCount(MetricsCounter.CORRELATION_BATCHES));
+    }
+
+    private void testSubselectCorrelationByIdsPaginated(CriteriaBuilderFactory cbf, RecordingMetricsListener listener) {
+        EntityViewManager evm = createCorrelationEntityViewManager(cbf, DocumentSimpleCorrelationViewSubselectId.class, listener);
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d").orderByAsc("id");
+        EntityViewSetting<DocumentSimpleCorrelationViewSubselectId, PaginatedCriteriaBuilder<DocumentSimpleCorrelationViewSubselectId>> setting = EntityViewSetting.create(DocumentSimpleCorrelationViewSubselectId.class, 1, 2);
+        for (Map.Entry<String, Object> entry : createSubselectCorrelationByIdsProperties().entrySet()) {
+            setting.setProperty(entry.getKey(), entry.getValue());
+        }
+        List<DocumentSimpleCorrelationViewSubselectId> results = evm.applySetting(setting, criteria).getResultList();
+
+        assertEquals(2, results.size());
+        assertEquals(doc2.getId(), results.get(0).getId());
+        assertEquals(new HashSet<>(Arrays.asList(doc3.getId(), doc4.getId())), results.get(0).getOwnerRelatedDocumentIds());
+        assertEquals(new HashSet<>(Arrays.asList(doc2.getId(), doc3.getId(), doc4.getId())), results.get(0).getOwnerOnlyRelatedDocumentIds());
+        assertEquals(doc3.getId(), results.get(1).getId());
+        assertEquals(new HashSet<>(Arrays.asList(doc2.getId(), doc4.getId())), results.get(1).getOwnerRelatedDocumentIds());
+        assertEquals(new HashSet<>(Arrays.asList(doc2.getId(), doc3.getId(), doc4.getId())), results.get(1).getOwnerOnlyRelatedDocumentIds());
+    }
+
+    private CriteriaBuilderFactory createInListLimitedCriteriaBuilderFactory(final int inListLimit) {
+        CriteriaBuilderConfiguration config = Criteria.getDefault();
+        config = configure(config);
+        config.registerDialect(dbms, new DelegatingDbmsDialect(cbf.getService(DbmsDialect.class)) {
+            @Override
+            public int getInListLimit() {
+                return inListLimit;
+            }
+        });
+        return config.createCriteriaBuilderFactory(em.getEntityManagerFactory());
+    }
+
+    private Map<String, Object> createSubselectCorrelationByIdsProperties() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(ConfigurationProperties.SUBSELECT_CORRELATION_BY_IDS, true);
+        return properties;
+    }
+
     @Test
     // NOTE: Requires entity joins which are supported since Hibernate 5.1, Datanucleus 5 and latest Eclipselink
     // NOTE: Eclipselink renders a cross join at the wrong position in the SQL
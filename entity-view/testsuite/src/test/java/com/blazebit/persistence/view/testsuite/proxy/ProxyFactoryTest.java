@@ -17,24 +17,41 @@
 package com.blazebit.persistence.view.testsuite.proxy;
 
 import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.impl.ConfigurationProperties;
+import com.blazebit.persistence.view.impl.EntityViewManagerImpl;
 import com.blazebit.persistence.view.impl.metamodel.ManagedViewTypeImplementor;
 import com.blazebit.persistence.view.impl.proxy.ConstructorReflectionInstantiator;
 import com.blazebit.persistence.view.impl.proxy.ObjectInstantiator;
 import com.blazebit.persistence.view.impl.proxy.ProxyFactory;
 import com.blazebit.persistence.view.metamodel.ViewMetamodel;
 import com.blazebit.persistence.view.metamodel.ViewType;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
 import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
 import com.blazebit.persistence.view.testsuite.proxy.model.DocumentClassView;
 import com.blazebit.persistence.view.testsuite.proxy.model.DocumentCreateView;
 import com.blazebit.persistence.view.testsuite.proxy.model.DocumentInterfaceView;
+import com.blazebit.persistence.view.testsuite.proxy.model.DumpedDocumentView;
 import com.blazebit.persistence.view.testsuite.proxy.model.UnsafeDocumentClassView;
 import com.blazebit.reflection.ReflectionUtils;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.security.CodeSource;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -276,6 +293,125 @@ public class ProxyFactoryTest extends AbstractEntityViewTest {
         assertNotNull(instance.getContacts());
     }
 
+    @Test
+    public void testProxyDumpAndReuse() throws Exception {
+        File dumpDirectory = Files.createTempDirectory("entity-view-proxies").toFile();
+        try {
+            Class<? extends DumpedDocumentView> proxyClass = dumpProxy(dumpDirectory);
+            File classFile = new File(dumpDirectory, proxyClass.getName().replace('.', File.separatorChar) + ".class");
+            assertTrue(classFile.isFile());
+
+            // The dumped proxy is loaded instead of being generated
+            Class<?> loadedProxyClass = getProxy(new DumpedViewClassLoader(dumpDirectory), true);
+            assertEquals(proxyClass.getName(), loadedProxyClass.getName());
+            assertTrue(isLoadedFrom(loadedProxyClass, dumpDirectory));
+
+            // Without the flag, the class path isn't even looked at
+            assertFalse(isLoadedFrom(getProxy(new DumpedViewClassLoader(dumpDirectory), false), dumpDirectory));
+        } finally {
+            delete(dumpDirectory);
+        }
+    }
+
+    @Test
+    public void testStaleProxyDumpIsGenerated() throws Exception {
+        File dumpDirectory = Files.createTempDirectory("entity-view-proxies").toFile();
+        try {
+            Class<? extends DumpedDocumentView> proxyClass = dumpProxy(dumpDirectory);
+            File classFile = new File(dumpDirectory, proxyClass.getName().replace('.', File.separatorChar) + ".class");
+            ClassPool pool = new ClassPool(true);
+            CtClass cc;
+            try (InputStream is = new FileInputStream(classFile)) {
+                cc = pool.makeClass(is);
+            }
+            cc.removeField(cc.getField("$$_version"));
+            cc.addField(new CtField(pool.get(String.class.getName()), "$$_version", cc), CtField.Initializer.constant("stale"));
+            cc.writeFile(dumpDirectory.getAbsolutePath());
+
+            Class<?> generatedProxyClass = getProxy(new DumpedViewClassLoader(dumpDirectory), true);
+            assertEquals(proxyClass.getName(), generatedProxyClass.getName());
+            assertFalse(isLoadedFrom(generatedProxyClass, dumpDirectory));
+        } finally {
+            delete(dumpDirectory);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Class<? extends DumpedDocumentView> dumpProxy(File dumpDirectory) {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.PROXY_EAGER_LOADING, "true");
+        cfg.setProperty(ConfigurationProperties.PROXY_DUMP_DIRECTORY, dumpDirectory.getAbsolutePath());
+        cfg.addEntityView(DumpedDocumentView.class);
+        EntityViewManager dumpingEvm = cfg.createEntityViewManager(cbf);
+        ManagedViewTypeImplementor<DumpedDocumentView> viewType = (ManagedViewTypeImplementor<DumpedDocumentView>) dumpingEvm.getMetamodel().view(DumpedDocumentView.class);
+        return ((EntityViewManagerImpl) dumpingEvm).getProxyFactory().getProxy(dumpingEvm, viewType, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Class<?> getProxy(ClassLoader classLoader, boolean pregeneratedLoading) throws Exception {
+        Class<Object> viewClass = (Class<Object>) classLoader.loadClass(DumpedDocumentView.class.getName());
+        assertSame(classLoader, viewClass.getClassLoader());
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.PROXY_PREGENERATED_LOADING, Boolean.toString(pregeneratedLoading));
+        cfg.addEntityView(viewClass);
+        EntityViewManager evm = cfg.createEntityViewManager(cbf);
+        ManagedViewTypeImplementor<Object> viewType = (ManagedViewTypeImplementor<Object>) evm.getMetamodel().view(viewClass);
+        Class<?> proxyClass = ((EntityViewManagerImpl) evm).getProxyFactory().getProxy(evm, viewType, null);
+        assertSame(classLoader, proxyClass.getClassLoader());
+        assertSame(evm, proxyClass.getField("$$_evm").get(null));
+        return proxyClass;
+    }
+
+    private static boolean isLoadedFrom(Class<?> clazz, File directory) throws MalformedURLException {
+        CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+        return codeSource != null && directory.toURI().toURL().equals(codeSource.getLocation());
+    }
+
+    /**
+     * Loads the entity view and its proxies itself, so that proxies can be loaded from the dump directory like in a new application run.
+     */
+    private static class DumpedViewClassLoader extends URLClassLoader {
+
+        public DumpedViewClassLoader(File dumpDirectory) throws MalformedURLException {
+            super(new URL[]{ dumpDirectory.toURI().toURL(), DumpedDocumentView.class.getProtectionDomain().getCodeSource().getLocation() }, DumpedDocumentView.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith(DumpedDocumentView.class.getName())) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> c = findLoadedClass(name);
+                if (c == null) {
+                    c = findClass(name);
+                }
+                if (resolve) {
+                    resolveClass(c);
+                }
+                return c;
+            }
+        }
+
+        @Override
+        public URL getResource(String name) {
+            if (name.startsWith(DumpedDocumentView.class.getName().replace('.', '/'))) {
+                return findResource(name);
+            }
+            return super.getResource(name);
+        }
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
     private void assertAttribute(Class<?> proxyClass, String fieldName, int modifiers, Class<?> type, Class<?>... typeArguments) throws Exception {
         assertField(proxyClass, fieldName, modifiers, type, typeArguments);
         assertGetter(proxyClass, fieldName, type, typeArguments);
@@ -17,7 +17,9 @@
 package com.blazebit.persistence.integration.datanucleus;
 
 import com.blazebit.apt.service.ServiceProvider;
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.ReturningResult;
+import com.blazebit.persistence.integration.jpa.ListResultIterator;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
 import org.datanucleus.store.rdbms.query.JPQLQuery;
 import org.datanucleus.store.rdbms.query.RDBMSQueryCompilation;
@@ -86,6 +88,16 @@ public class DataNucleus51ExtendedQuerySupport implements ExtendedQuerySupport {
         applySql(query, sqlOverride);
         return query.getResultList();
     }
+
+    @Override
+    public CloseableIterator<Object> getResultIterator(EntityManager em, Query query, int fetchSize) {
+        return new ListResultIterator<Object>(query.getResultList());
+    }
+
+    @Override
+    public CloseableIterator<Object> getResultIterator(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query query, String sqlOverride, int fetchSize) {
+        return new ListResultIterator<Object>(getResultList(serviceProvider, participatingQueries, query, sqlOverride));
+    }
     
     @Override
     public Object getSingleResult(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query query, String sqlOverride) {
@@ -93,6 +105,11 @@ public class DataNucleus51ExtendedQuerySupport implements ExtendedQuerySupport {
         return query.getSingleResult();
     }
 
+    @Override
+    public void prepareQueryPlan(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query query, String sqlOverride) {
+        // Query compilation caching is disabled for queries with custom SQL, so there is nothing to prepare
+    }
+
     @Override
     public int executeUpdate(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query query, String sqlOverride) {
         applySql(query, sqlOverride);
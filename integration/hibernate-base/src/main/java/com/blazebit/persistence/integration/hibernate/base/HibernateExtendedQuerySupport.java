@@ -18,16 +18,21 @@ package com.blazebit.persistence.integration.hibernate.base;
 
 import antlr.collections.AST;
 import com.blazebit.apt.service.ServiceProvider;
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.ReturningResult;
 import com.blazebit.persistence.spi.ConfigurationSource;
 import com.blazebit.persistence.spi.CteQueryWrapper;
 import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
+import com.blazebit.persistence.spi.MetricsCache;
+import com.blazebit.persistence.spi.MetricsListener;
+import com.blazebit.persistence.spi.MetricsPhase;
 import com.blazebit.reflection.ReflectionUtils;
 import org.hibernate.HibernateException;
 import org.hibernate.LockMode;
 import org.hibernate.LockOptions;
+import org.hibernate.ScrollMode;
 import org.hibernate.TypeMismatchException;
 import org.hibernate.engine.query.spi.HQLQueryPlan;
 import org.hibernate.engine.query.spi.QueryPlanCache;
@@ -343,6 +348,101 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         }
     }
 
+    @Override
+    public void prepareQueryPlan(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query query, String sqlOverride) {
+        EntityManager em = serviceProvider.getService(EntityManager.class);
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor sfi = session.getFactory();
+
+        if (session.isClosed()) {
+            throw new PersistenceException("Entity manager is closed!");
+        }
+
+        try {
+            List<String> queryStrings = new ArrayList<>(participatingQueries.size());
+            List<ParameterSpecification> parameterSpecifications = new ArrayList<ParameterSpecification>();
+            for (QueryParamEntry queryParamEntry : getQueryParamEntries(em, participatingQueries, false)) {
+                queryStrings.add(queryParamEntry.queryString);
+                parameterSpecifications.addAll(queryParamEntry.specifications);
+            }
+
+            QueryPlanCacheKey cacheKey = createCacheKey(queryStrings);
+            CacheEntry<HQLQueryPlan> queryPlanEntry = getQueryPlan(serviceProvider, sfi, query, cacheKey);
+
+            if (!queryPlanEntry.isFromCache()) {
+                HQLQueryPlan queryPlan = queryPlanEntry.getValue();
+                prepareQueryPlan(queryPlan, parameterSpecifications, sqlOverride, session, participatingQueries.get(participatingQueries.size() - 1), false, serviceProvider.getService(DbmsDialect.class));
+                putQueryPlanIfAbsent(sfi, cacheKey, queryPlan);
+            }
+        } catch (HibernateException he) {
+            LOG.severe("Could not prepare the following SQL query: " + sqlOverride);
+            throw hibernateAccess.convert(em, he);
+        }
+    }
+
+    @Override
+    public CloseableIterator<Object> getResultIterator(EntityManager em, Query query, int fetchSize) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+
+        if (session.isClosed()) {
+            throw new PersistenceException("Entity manager is closed!");
+        }
+
+        try {
+            List<String> queryStrings = new ArrayList<>(1);
+            QueryParameters queryParameters = createQueryParameters(em, Collections.singletonList(query), queryStrings).queryParameters;
+            HQLQueryPlan queryPlan = session.getFactory().getQueryPlanCache().getHQLQueryPlan(queryStrings.get(0), false, Collections.EMPTY_MAP);
+            return scroll(queryPlan, session, queryParameters, fetchSize);
+        } catch (HibernateException he) {
+            throw hibernateAccess.convert(em, he);
+        }
+    }
+
+    @Override
+    public CloseableIterator<Object> getResultIterator(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query query, String sqlOverride, int fetchSize) {
+        EntityManager em = serviceProvider.getService(EntityManager.class);
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor sfi = session.getFactory();
+
+        if (session.isClosed()) {
+            throw new PersistenceException("Entity manager is closed!");
+        }
+
+        try {
+            List<String> queryStrings = new ArrayList<>(participatingQueries.size());
+            QueryParamEntry queryParametersEntry = createQueryParameters(em, participatingQueries, queryStrings);
+            QueryParameters queryParameters = queryParametersEntry.queryParameters;
+
+            QueryPlanCacheKey cacheKey = createCacheKey(queryStrings);
+            CacheEntry<HQLQueryPlan> queryPlanEntry = getQueryPlan(serviceProvider, sfi, query, cacheKey);
+            HQLQueryPlan queryPlan = queryPlanEntry.getValue();
+
+            if (!queryPlanEntry.isFromCache()) {
+                prepareQueryPlan(queryPlan, queryParametersEntry.specifications, sqlOverride, session, participatingQueries.get(participatingQueries.size() - 1), false, serviceProvider.getService(DbmsDialect.class));
+                queryPlan = putQueryPlanIfAbsent(sfi, cacheKey, queryPlan);
+            }
+
+            return scroll(queryPlan, session, queryParameters, fetchSize);
+        } catch (QueryExecutionRequestException he) {
+            LOG.severe("Could not execute the following SQL query: " + sqlOverride);
+            throw new IllegalStateException(he);
+        } catch (TypeMismatchException e) {
+            LOG.severe("Could not execute the following SQL query: " + sqlOverride);
+            throw new IllegalArgumentException(e);
+        } catch (HibernateException he) {
+            LOG.severe("Could not execute the following SQL query: " + sqlOverride);
+            throw hibernateAccess.convert(em, he);
+        }
+    }
+
+    private CloseableIterator<Object> scroll(HQLQueryPlan queryPlan, SessionImplementor session, QueryParameters queryParameters, int fetchSize) {
+        queryParameters.setScrollMode(ScrollMode.FORWARD_ONLY);
+        if (fetchSize > 0) {
+            queryParameters.getRowSelection().setFetchSize(fetchSize);
+        }
+        return new ScrollableResultsIterator(hibernateAccess.performScroll(queryPlan, session, queryParameters));
+    }
+
     @SuppressWarnings("rawtypes")
     private List list(com.blazebit.persistence.spi.ServiceProvider serviceProvider, EntityManager em, List<Query> participatingQueries, Query query, String finalSql) {
         SessionImplementor session = em.unwrap(SessionImplementor.class);
@@ -358,7 +458,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         QueryParameters queryParameters = queryParametersEntry.queryParameters;
 
         QueryPlanCacheKey cacheKey = createCacheKey(queryStrings);
-        CacheEntry<HQLQueryPlan> queryPlanEntry = getQueryPlan(sfi, query, cacheKey);
+        CacheEntry<HQLQueryPlan> queryPlanEntry = getQueryPlan(serviceProvider, sfi, query, cacheKey);
         HQLQueryPlan queryPlan = queryPlanEntry.getValue();
         
         if (!queryPlanEntry.isFromCache()) {
@@ -396,7 +496,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         QueryParameters queryParameters = queryParametersEntry.queryParameters;
 
         QueryPlanCacheKey cacheKey = createCacheKey(queryStrings, firstResult, maxResults);
-        CacheEntry<HQLQueryPlan> queryPlanEntry = getQueryPlan(sfi, query, cacheKey);
+        CacheEntry<HQLQueryPlan> queryPlanEntry = getQueryPlan(serviceProvider, sfi, query, cacheKey);
         HQLQueryPlan queryPlan = queryPlanEntry.getValue();
 
         if (!queryPlanEntry.isFromCache()) {
@@ -455,7 +555,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         
         // Create plan for example query
         QueryPlanCacheKey cacheKey = createCacheKey(queryStrings);
-        CacheEntry<HQLQueryPlan> queryPlanEntry = getQueryPlan(sfi, exampleQuery, cacheKey);
+        CacheEntry<HQLQueryPlan> queryPlanEntry = getQueryPlan(serviceProvider, sfi, exampleQuery, cacheKey);
         HQLQueryPlan queryPlan = queryPlanEntry.getValue();
         String exampleQuerySql = queryPlan.getSqlStrings()[0];
         
@@ -651,7 +751,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         String comment = null;
         List<String> queryHints = null;
 
-        for (QueryParamEntry queryParamEntry : getQueryParamEntries(em, participatingQueries)) {
+        for (QueryParamEntry queryParamEntry : getQueryParamEntries(em, participatingQueries, true)) {
             queryStrings.add(queryParamEntry.queryString);
 
             QueryParameters participatingQueryParameters = queryParamEntry.queryParameters;
@@ -743,7 +843,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         return hibernateAccess.wrapSession(session, dbmsDialect, columns, returningSqlTypes, returningResult);
     }
     
-    private List<QueryParamEntry> getQueryParamEntries(EntityManager em, List<Query> queries) {
+    private List<QueryParamEntry> getQueryParamEntries(EntityManager em, List<Query> queries, boolean withQueryParameters) {
         SessionImplementor session = em.unwrap(SessionImplementor.class);
         SessionFactoryImplementor sfi = session.getFactory();
         List<QueryParamEntry> result = new ArrayList<QueryParamEntry>(queries.size());
@@ -774,7 +874,8 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
             List<ParameterSpecification> specifications;
             
             try {
-                queryParameters = hibernateAccess.getQueryParameters(hibernateQuery, namedParams);
+                // Parameters might not be bound yet when only preparing the query plan
+                queryParameters = withQueryParameters ? hibernateAccess.getQueryParameters(hibernateQuery, namedParams) : null;
                 specifications = getField(queryTranslator, "collectedParameterSpecifications");
                 
                 // This only happens for modification queries
@@ -975,6 +1076,19 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         return i;
     }
     
+    private CacheEntry<HQLQueryPlan> getQueryPlan(com.blazebit.persistence.spi.ServiceProvider serviceProvider, SessionFactoryImplementor sfi, Query query, QueryPlanCacheKey cacheKey) {
+        MetricsListener metricsListener = serviceProvider.getService(MetricsListener.class);
+        if (metricsListener == null) {
+            return getQueryPlan(sfi, query, cacheKey);
+        }
+
+        long start = System.nanoTime();
+        CacheEntry<HQLQueryPlan> queryPlanEntry = getQueryPlan(sfi, query, cacheKey);
+        metricsListener.recordPhase(MetricsPhase.QUERY_PLAN, System.nanoTime() - start);
+        metricsListener.recordCacheAccess(MetricsCache.PROVIDER_QUERY_PLAN, queryPlanEntry.isFromCache());
+        return queryPlanEntry;
+    }
+
     private CacheEntry<HQLQueryPlan> getQueryPlan(SessionFactoryImplementor sfi, Query query, QueryPlanCacheKey cacheKey) {
         BoundedConcurrentHashMap<QueryPlanCacheKey, HQLQueryPlan> queryPlanCache = getQueryPlanCache(sfi);
         HQLQueryPlan queryPlan = queryPlanCache.get(cacheKey);
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2014 - 2018 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.integration.hibernate.base;
+
+import com.blazebit.persistence.CloseableIterator;
+import org.hibernate.ScrollableResults;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A forward only iterator over scrollable results that closes the underlying results when exhausted.
+ *
+ * @author Christian Beikov
+ * @since 1.2.0
+ */
+public class ScrollableResultsIterator implements CloseableIterator<Object> {
+
+    private final ScrollableResults scrollableResults;
+    private Object next;
+    private boolean hasNext;
+    private boolean closed;
+
+    public ScrollableResultsIterator(ScrollableResults scrollableResults) {
+        this.scrollableResults = scrollableResults;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (hasNext) {
+            return true;
+        }
+        if (closed) {
+            return false;
+        }
+        if (scrollableResults.next()) {
+            Object[] row = scrollableResults.get();
+            next = row.length == 1 ? row[0] : row;
+            hasNext = true;
+            return true;
+        }
+
+        close();
+        return false;
+    }
+
+    @Override
+    public Object next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        Object result = next;
+        next = null;
+        hasNext = false;
+        return result;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Remove is not supported!");
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            scrollableResults.close();
+        }
+    }
+}